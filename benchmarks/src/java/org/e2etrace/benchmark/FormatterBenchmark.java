@@ -0,0 +1,168 @@
+package org.e2etrace.benchmark;
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+import org.e2etrace.formatter.BinaryTraceFormatter;
+import org.e2etrace.formatter.CSVTraceFormatter;
+import org.e2etrace.formatter.ChromeTraceFormatter;
+import org.e2etrace.formatter.CollapsedStackTraceFormatter;
+import org.e2etrace.formatter.ITraceFormatter;
+import org.e2etrace.formatter.PlainTextTraceFormatter;
+import org.e2etrace.formatter.TraceFormatContext;
+import org.e2etrace.trace.ITraceSession;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Formatting of synthetic trace trees.
+ * <p>
+ *
+ * The parameter <code>formatter</code> selects the trace formatter, the
+ * parameter <code>shape</code> the trace tree (see {@link TraceTrees}). The
+ * text formatters write into a reused {@link TraceFormatContext} whose
+ * target discards all output. The binary formatter writes to an output
+ * stream that discards all bytes.
+ * <p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FormatterBenchmark {
+
+  @Param( { "csv", "text", "binary", "chrome", "collapsed" })
+  private String formatter;
+
+  @Param( { "flat", "deep", "balanced" })
+  private String shape;
+
+  private ITraceFormatter traceFormatter;
+  private ITraceSession session;
+  private TraceFormatContext context;
+  private CountingOutputStream out;
+
+  /**
+   * Creates formatter, trace tree and output buffers.
+   * <p>
+   */
+  @Setup
+  public void setUp() {
+    if ("csv".equals(this.formatter)) {
+      this.traceFormatter = new CSVTraceFormatter();
+    } else if ("text".equals(this.formatter)) {
+      this.traceFormatter = new PlainTextTraceFormatter();
+    } else if ("binary".equals(this.formatter)) {
+      this.traceFormatter = new BinaryTraceFormatter();
+    } else if ("chrome".equals(this.formatter)) {
+      this.traceFormatter = new ChromeTraceFormatter();
+    } else {
+      this.traceFormatter = new CollapsedStackTraceFormatter();
+    }
+
+    this.session = TraceTrees.createSession(this.shape);
+    this.context = new TraceFormatContext(new NullWriter());
+    this.out = new CountingOutputStream();
+  }
+
+  /**
+   * Formats the trace session.
+   * <p>
+   *
+   * @return number of buffered characters (or written bytes), which keeps
+   *         the JIT from eliminating the call
+   * @throws IOException Error formatting the session
+   */
+  @Benchmark
+  public long format() throws IOException {
+    if (this.traceFormatter instanceof BinaryTraceFormatter) {
+      this.out.count = 0;
+      ((BinaryTraceFormatter) this.traceFormatter).write(this.session, this.out);
+      return this.out.count;
+    }
+
+    this.context.reset();
+    this.traceFormatter.format(this.session, this.context);
+    return this.context.length();
+  }
+
+  /**
+   * Writer that discards all characters.
+   * <p>
+   */
+  private static final class NullWriter extends Writer {
+
+    /**
+     * This method is intentionally left blank.
+     */
+    public void write(char[] cbuf, int off, int len) {
+      // This method is intentionally left blank
+    }
+
+    /**
+     * This method is intentionally left blank.
+     */
+    public void flush() {
+      // This method is intentionally left blank
+    }
+
+    /**
+     * This method is intentionally left blank.
+     */
+    public void close() {
+      // This method is intentionally left blank
+    }
+
+  }
+
+  /**
+   * Output stream that only counts the written bytes.
+   * <p>
+   */
+  private static final class CountingOutputStream extends OutputStream {
+
+    private long count;
+
+    /** {@inheritDoc} */
+    public void write(int b) {
+      this.count++;
+    }
+
+    /** {@inheritDoc} */
+    public void write(byte[] b, int off, int len) {
+      this.count += len;
+    }
+
+  }
+
+}
@@ -0,0 +1,162 @@
+package org.e2etrace.benchmark;
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.concurrent.TimeUnit;
+
+import org.e2etrace.trace.DefaultTraceSession;
+import org.e2etrace.trace.ITraceSession;
+import org.e2etrace.trace.ITraceSessionManager;
+import org.e2etrace.trace.ITraceStepId;
+import org.e2etrace.trace.PooledTraceStepFactory;
+import org.e2etrace.trace.ScopedTraceSessionManager;
+import org.e2etrace.trace.ThreadLocalTraceSessionManager;
+import org.e2etrace.trace.ThreadedTraceSessionManager;
+import org.e2etrace.trace.TraceStepIdRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Overhead of the trace session managers.
+ * <p>
+ *
+ * The benchmarks are meant to be run with different numbers of threads
+ * (JMH option <code>-t</code>) to reveal contention between request threads.
+ * {@link org.e2etrace.trace.DefaultTraceSessionManager} is not included,
+ * because it manages a single session for all threads.
+ * <p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SessionManagerBenchmark {
+
+  private static final ITraceStepId STEP = TraceStepIdRegistry
+      .getMethodId(SessionManagerBenchmark.class, "step");
+
+  @Param( { "threaded", "threadlocal", "scoped" })
+  private String manager;
+
+  private ITraceSessionManager tsm;
+
+  /**
+   * Selects the session manager.
+   * <p>
+   */
+  @Setup
+  public void setUp() {
+    if ("threaded".equals(this.manager)) {
+      this.tsm = ThreadedTraceSessionManager.getInstance();
+    } else if ("threadlocal".equals(this.manager)) {
+      this.tsm = ThreadLocalTraceSessionManager.getInstance();
+    } else {
+      this.tsm = ScopedTraceSessionManager.getInstance();
+    }
+  }
+
+  /**
+   * A complete service call: bind a session, trace one step, release the
+   * session.
+   * <p>
+   *
+   * @param state session of the current thread
+   */
+  @Benchmark
+  public void serviceCall(ThreadState state) {
+    ITraceSession session;
+
+    this.tsm.setCurrentSession(state.session);
+    session = this.tsm.getCurrentSession();
+    session.enterStep(STEP);
+    session.leaveStep(STEP);
+    this.tsm.releaseCurrentSession();
+
+    state.session.reset();
+  }
+
+  /**
+   * Lookup of the session that is bound to the current thread.
+   * <p>
+   *
+   * @param state session of the current thread
+   * @return current session
+   */
+  @Benchmark
+  public ITraceSession getCurrentSession(BoundThreadState state) {
+    return state.tsm.getCurrentSession();
+  }
+
+  /**
+   * Trace session of a benchmark thread.
+   * <p>
+   */
+  @State(Scope.Thread)
+  public static class ThreadState {
+
+    DefaultTraceSession session = new DefaultTraceSession("benchmark",
+        new PooledTraceStepFactory());
+
+  }
+
+  /**
+   * Trace session that is bound to a benchmark thread for a whole trial.
+   * <p>
+   */
+  @State(Scope.Thread)
+  public static class BoundThreadState {
+
+    ITraceSessionManager tsm;
+
+    /**
+     * Binds the session to the current thread.
+     * <p>
+     *
+     * @param benchmark benchmark providing the session manager
+     */
+    @Setup
+    public void bind(SessionManagerBenchmark benchmark) {
+      this.tsm = benchmark.tsm;
+      this.tsm.setCurrentSession(new DefaultTraceSession("benchmark",
+          new PooledTraceStepFactory()));
+    }
+
+    /**
+     * Releases the session of the current thread.
+     * <p>
+     */
+    @TearDown
+    public void release() {
+      this.tsm.releaseCurrentSession();
+    }
+
+  }
+
+}
@@ -0,0 +1,142 @@
+package org.e2etrace.benchmark;
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.e2etrace.config.PropertiesTraceConfig;
+import org.e2etrace.trace.ITraceStepId;
+import org.e2etrace.trace.TraceStepIdRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Lookups in a {@link PropertiesTraceConfig}.
+ * <p>
+ *
+ * The configuration contains <code>ENTRIES</code> exact ids and as many
+ * wildcard entries. The parameter <code>lookup</code> selects the id that is
+ * checked: an id with an exact entry, an id matched by a wildcard entry, or
+ * an id without any entry (default value).
+ * <p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TraceConfigBenchmark {
+
+  /** Number of exact and wildcard entries of the configuration. */
+  public static final int ENTRIES = 100;
+
+  @Param( { "exact", "wildcard", "default" })
+  private String lookup;
+
+  private PropertiesTraceConfig config;
+  private ITraceStepId id;
+  private File configFile;
+
+  /**
+   * Writes and loads the configuration file.
+   * <p>
+   *
+   * @throws IOException Error writing the configuration file
+   */
+  @Setup
+  public void setUp() throws IOException {
+    Properties props = new Properties();
+    FileOutputStream out;
+
+    props.setProperty("global.enabletrace", "true");
+    props.setProperty("global.reloadinterval", "0");
+    for (int i = 0; i < ENTRIES; i++) {
+      props.setProperty("id.com.acme.dao.Dao" + i + "#load", "true");
+      props.setProperty("id.com.acme.service" + i + ".*", "false");
+    }
+
+    this.configFile = File.createTempFile("e2etrace-benchmark", ".properties");
+    out = new FileOutputStream(this.configFile);
+    try {
+      props.store(out, "e2etrace benchmark configuration");
+    } finally {
+      out.close();
+    }
+
+    this.config = new PropertiesTraceConfig();
+    this.config.loadConfigFile(this.configFile.getAbsolutePath());
+
+    if ("exact".equals(this.lookup)) {
+      this.id = TraceStepIdRegistry.getMethodId("com.acme.dao.Dao42", "load");
+    } else if ("wildcard".equals(this.lookup)) {
+      this.id = TraceStepIdRegistry.getMethodId(
+          "com.acme.service42.OrderService", "find");
+    } else {
+      this.id = TraceStepIdRegistry.getMethodId("com.acme.web.Controller",
+          "handle");
+    }
+  }
+
+  /**
+   * Removes the configuration file.
+   * <p>
+   */
+  @TearDown
+  public void tearDown() {
+    this.config.stopReloading();
+    this.configFile.delete();
+  }
+
+  /**
+   * Checks if tracing is enabled for the selected id.
+   * <p>
+   *
+   * @return result of the lookup
+   */
+  @Benchmark
+  public boolean isTraceEnabledForId() {
+    return this.config.isTraceEnabledForId(this.id);
+  }
+
+  /**
+   * Checks the global switch.
+   * <p>
+   *
+   * @return result of the lookup
+   */
+  @Benchmark
+  public boolean isTraceEnabled() {
+    return this.config.isTraceEnabled();
+  }
+
+}
@@ -0,0 +1,176 @@
+package org.e2etrace.benchmark;
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.concurrent.TimeUnit;
+
+import org.e2etrace.trace.ColumnarTraceSession;
+import org.e2etrace.trace.DefaultTraceSession;
+import org.e2etrace.trace.DefaultTraceStepFactory;
+import org.e2etrace.trace.ITraceStepId;
+import org.e2etrace.trace.NoopTraceSession;
+import org.e2etrace.trace.PooledTraceStepFactory;
+import org.e2etrace.trace.TraceStepIdRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Overhead of <code>enterStep</code>/<code>leaveStep</code>.
+ * <p>
+ *
+ * Every benchmark operation enters and leaves one trace step below a service
+ * step. To keep the trace tree (and the heap) bounded, the session is reset
+ * after <code>STEPS_PER_SESSION</code> operations, like a server that reuses
+ * one session per service call. The cost of the reset is included in the
+ * results, amortized over all steps of the session.
+ * <p>
+ *
+ * The parameter <code>factory</code> selects the trace step factory of the
+ * {@link DefaultTraceSession}: <code>default</code> allocates new steps,
+ * <code>pooled</code> recycles them.
+ * <p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TraceSessionBenchmark {
+
+  /** Number of steps after which the session is reset. */
+  public static final int STEPS_PER_SESSION = 1000;
+
+  private static final ITraceStepId SERVICE = TraceStepIdRegistry
+      .getSimpleId("service");
+  private static final ITraceStepId STEP = TraceStepIdRegistry.getMethodId(
+      TraceSessionBenchmark.class, "step");
+
+  @Param( { "default", "pooled" })
+  private String factory;
+
+  private DefaultTraceSession session;
+  private ColumnarTraceSession columnarSession;
+  private NoopTraceSession noopSession;
+  private int steps;
+  private int columnarSteps;
+
+  /**
+   * Creates the trace sessions.
+   * <p>
+   */
+  @Setup
+  public void setUp() {
+    if ("pooled".equals(this.factory)) {
+      this.session = new DefaultTraceSession("benchmark",
+          new PooledTraceStepFactory());
+    } else {
+      this.session = new DefaultTraceSession("benchmark",
+          new DefaultTraceStepFactory());
+    }
+    this.session.enterStep(SERVICE);
+
+    this.columnarSession = new ColumnarTraceSession("benchmark");
+    this.columnarSession.enterStep(SERVICE);
+
+    this.noopSession = new NoopTraceSession();
+  }
+
+  /**
+   * Enter and leave a step by a shared trace step id.
+   * <p>
+   */
+  @Benchmark
+  public void enterLeaveById() {
+    this.session.enterStep(STEP);
+    this.session.leaveStep(STEP);
+    completeStep();
+  }
+
+  /**
+   * Enter and leave a step by class and method name.
+   * <p>
+   */
+  @Benchmark
+  public void enterLeaveByClassAndMethod() {
+    this.session.enterStep(TraceSessionBenchmark.class, "step");
+    this.session.leaveStep(TraceSessionBenchmark.class, "step");
+    completeStep();
+  }
+
+  /**
+   * Enter and leave a step by a string id.
+   * <p>
+   */
+  @Benchmark
+  public void enterLeaveByString() {
+    this.session.enterStep("step");
+    this.session.leaveStep("step");
+    completeStep();
+  }
+
+  /**
+   * Enter and leave a step of a {@link ColumnarTraceSession}.
+   * <p>
+   */
+  @Benchmark
+  public void enterLeaveColumnar() {
+    this.columnarSession.enterStep(STEP);
+    this.columnarSession.leaveStep(STEP);
+
+    if (++this.columnarSteps == STEPS_PER_SESSION) {
+      this.columnarSteps = 0;
+      this.columnarSession.reset();
+      this.columnarSession.enterStep(SERVICE);
+    }
+  }
+
+  /**
+   * Enter and leave a step of a {@link NoopTraceSession} (tracing switched
+   * off).
+   * <p>
+   */
+  @Benchmark
+  public void enterLeaveNoop() {
+    this.noopSession.enterStep(STEP);
+    this.noopSession.leaveStep(STEP);
+  }
+
+  /**
+   * Helper method: Resets the session after
+   * <code>STEPS_PER_SESSION</code> steps.
+   * <p>
+   */
+  private void completeStep() {
+    if (++this.steps == STEPS_PER_SESSION) {
+      this.steps = 0;
+      this.session.reset();
+      this.session.enterStep(SERVICE);
+    }
+  }
+
+}
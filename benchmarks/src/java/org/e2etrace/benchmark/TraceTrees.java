@@ -0,0 +1,171 @@
+package org.e2etrace.benchmark;
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.e2etrace.trace.ITraceStep;
+import org.e2etrace.trace.ITraceStepId;
+import org.e2etrace.trace.RecordedTraceSession;
+import org.e2etrace.trace.RecordedTraceStep;
+import org.e2etrace.trace.SimpleTraceStepId;
+import org.e2etrace.trace.TraceSessionRootStep;
+import org.e2etrace.trace.TraceSessionRootStepId;
+import org.e2etrace.trace.TraceStepIdRegistry;
+
+/**
+ * Synthetic trace trees for the benchmarks.
+ * <p>
+ *
+ * All trees contain about <code>SIZE</code> trace steps below the root step
+ * of the session. Every step lasts 1000ns plus the durations of its
+ * children, so the durations and start times are consistent.
+ * <p>
+ */
+final class TraceTrees {
+
+  /** Approximate number of trace steps per tree. */
+  static final int SIZE = 1000;
+
+  /** Fan-out of balanced trees. */
+  private static final int FAN_OUT = 3;
+
+  /** Depth of balanced trees (1093 steps). */
+  private static final int DEPTH = 7;
+
+  private static final long STEP_NANOS = 1000L;
+
+  /**
+   * Private constructor (only static methods).
+   * <p>
+   */
+  private TraceTrees() {
+
+  }
+
+  /**
+   * Creates a trace session.
+   * <p>
+   *
+   * @param shape <code>flat</code> (all steps are children of one step),
+   *          <code>deep</code> (every step has a single child) or
+   *          <code>balanced</code> (every inner step has three children)
+   * @return trace session
+   * @throws IllegalArgumentException unknown shape
+   */
+  static RecordedTraceSession createSession(String shape) {
+    TraceSessionRootStep root = new TraceSessionRootStep(
+        new TraceSessionRootStepId("Benchmark", "main"));
+    ITraceStep tree;
+
+    if ("flat".equals(shape)) {
+      tree = createFlat();
+    } else if ("deep".equals(shape)) {
+      tree = createDeep();
+    } else if ("balanced".equals(shape)) {
+      tree = createBalanced(0, DEPTH, 0);
+    } else {
+      throw new IllegalArgumentException("Unknown shape: " + shape);
+    }
+
+    root.addChild(tree);
+
+    return new RecordedTraceSession(root);
+  }
+
+  /**
+   * Helper method: Creates a step with <code>SIZE</code> children.
+   * <p>
+   *
+   * @return root of the tree
+   */
+  private static ITraceStep createFlat() {
+    ITraceStep root = new RecordedTraceStep(new SimpleTraceStepId("flat"), 0,
+        (SIZE + 1) * STEP_NANOS);
+
+    for (int i = 0; i < SIZE; i++) {
+      root.addChild(new RecordedTraceStep(stepId(i), i * STEP_NANOS,
+          STEP_NANOS));
+    }
+
+    return root;
+  }
+
+  /**
+   * Helper method: Creates a chain of <code>SIZE</code> steps.
+   * <p>
+   *
+   * @return root of the tree
+   */
+  private static ITraceStep createDeep() {
+    ITraceStep root = new RecordedTraceStep(new SimpleTraceStepId("deep"), 0,
+        (SIZE + 1) * STEP_NANOS);
+    ITraceStep parent = root;
+
+    for (int i = 0; i < SIZE; i++) {
+      ITraceStep step = new RecordedTraceStep(stepId(i), i * STEP_NANOS,
+          (SIZE - i) * STEP_NANOS);
+
+      parent.addChild(step);
+      parent = step;
+    }
+
+    return root;
+  }
+
+  /**
+   * Helper method: Creates a balanced tree (recursively).
+   * <p>
+   *
+   * @param index index of the step among its siblings
+   * @param depth number of levels of the tree
+   * @param start start time of the step
+   * @return root of the (sub-)tree
+   */
+  private static ITraceStep createBalanced(int index, int depth, long start) {
+    long childSize = 0;
+    ITraceStep step;
+
+    // Number of steps of a subtree with one level less
+    for (int i = 1; i < depth; i++) {
+      childSize = 1 + FAN_OUT * childSize;
+    }
+
+    step = new RecordedTraceStep(stepId(index), start,
+        (1 + FAN_OUT * childSize) * STEP_NANOS);
+
+    if (depth > 1) {
+      for (int i = 0; i < FAN_OUT; i++) {
+        step.addChild(createBalanced(i, depth - 1, start + STEP_NANOS + i
+            * childSize * STEP_NANOS));
+      }
+    }
+
+    return step;
+  }
+
+  /**
+   * Helper method: Returns a shared trace step id.
+   * <p>
+   *
+   * @param index index of the step
+   * @return trace step id
+   */
+  private static ITraceStepId stepId(int index) {
+    return TraceStepIdRegistry.getSimpleId("step" + index);
+  }
+
+}
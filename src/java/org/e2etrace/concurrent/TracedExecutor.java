@@ -0,0 +1,85 @@
+package org.e2etrace.concurrent;
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.concurrent.Executor;
+
+import org.e2etrace.trace.ITraceSessionManager;
+
+/**
+ * <code>Executor</code> that propagates the current trace session to the
+ * executed tasks.
+ * <p>
+ *
+ * Every task is wrapped by a {@link TracedTask} before it is passed to the
+ * underlying executor. The executor can also be passed to the asynchronous
+ * methods of <code>CompletableFuture</code> (e.g. <code>runAsync</code> or
+ * <code>thenApplyAsync</code>). This way, each asynchronous stage is added as
+ * separate trace step to the trace step that is current when the stage is
+ * handed over to the executor:
+ * <ul>
+ * <li>Stages that are started directly (e.g. <code>supplyAsync</code>) are
+ * added to the current trace step of the calling thread.</li>
+ * <li>Dependent stages (e.g. <code>thenApplyAsync</code>) are handed over
+ * when the previous stage completes. Usually, this happens in the worker
+ * thread of the previous stage. Hence, the dependent stage is added below the
+ * trace step of the previous stage, so a chain of stages results in a nested
+ * trace tree. If the previous stage has already completed when the dependent
+ * stage is created, the dependent stage is added to the current trace step of
+ * the calling thread instead.</li>
+ * </ul>
+ * <p>
+ *
+ * <pre>
+ * Executor traced = new TracedExecutor(pool, ThreadedTraceSessionManager
+ *     .getInstance());
+ *
+ * CompletableFuture.supplyAsync(loadCustomer, traced).thenApplyAsync(
+ *     loadOrders, traced);
+ * </pre>
+ */
+public class TracedExecutor implements Executor {
+
+  private Executor delegate;
+  private ITraceSessionManager manager;
+
+  /**
+   * Constructor.
+   * <p>
+   *
+   * @param delegate executor that actually executes the tasks
+   * @param manager trace session manager that holds the current session
+   */
+  public TracedExecutor(Executor delegate, ITraceSessionManager manager) {
+    if (delegate == null) {
+      throw new IllegalArgumentException("delegate must not be null");
+    }
+    if (manager == null) {
+      throw new IllegalArgumentException("manager must not be null");
+    }
+
+    this.delegate = delegate;
+    this.manager = manager;
+  }
+
+  /** {@inheritDoc} */
+  public void execute(Runnable command) {
+    this.delegate.execute(new TracedTask(this.manager, command));
+  }
+
+}
@@ -0,0 +1,155 @@
+package org.e2etrace.concurrent;
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.e2etrace.trace.ITraceSessionManager;
+
+/**
+ * <code>ExecutorService</code> that propagates the current trace session to
+ * the submitted tasks.
+ * <p>
+ *
+ * All tasks are wrapped by a {@link TracedTask} before they are passed to the
+ * underlying executor service. Life cycle methods like
+ * <code>shutdown</code> are simply forwarded.
+ * <p>
+ */
+public class TracedExecutorService implements ExecutorService {
+
+  private ExecutorService delegate;
+  private ITraceSessionManager manager;
+
+  /**
+   * Constructor.
+   * <p>
+   *
+   * @param delegate executor service that actually executes the tasks
+   * @param manager trace session manager that holds the current session
+   */
+  public TracedExecutorService(ExecutorService delegate,
+      ITraceSessionManager manager) {
+    if (delegate == null) {
+      throw new IllegalArgumentException("delegate must not be null");
+    }
+    if (manager == null) {
+      throw new IllegalArgumentException("manager must not be null");
+    }
+
+    this.delegate = delegate;
+    this.manager = manager;
+  }
+
+  /** {@inheritDoc} */
+  public void execute(Runnable command) {
+    this.delegate.execute(new TracedTask(this.manager, command));
+  }
+
+  /** {@inheritDoc} */
+  public Future submit(Callable task) {
+    return this.delegate.submit((Callable) new TracedTask(this.manager, task));
+  }
+
+  /** {@inheritDoc} */
+  public Future submit(Runnable task) {
+    return this.delegate.submit((Runnable) new TracedTask(this.manager, task));
+  }
+
+  /** {@inheritDoc} */
+  public Future submit(Runnable task, Object result) {
+    return this.delegate.submit((Runnable) new TracedTask(this.manager, task),
+        result);
+  }
+
+  /** {@inheritDoc} */
+  public List invokeAll(Collection tasks) throws InterruptedException {
+    return this.delegate.invokeAll(wrapAll(tasks));
+  }
+
+  /** {@inheritDoc} */
+  public List invokeAll(Collection tasks, long timeout, TimeUnit unit)
+      throws InterruptedException {
+    return this.delegate.invokeAll(wrapAll(tasks), timeout, unit);
+  }
+
+  /** {@inheritDoc} */
+  public Object invokeAny(Collection tasks) throws InterruptedException,
+      ExecutionException {
+    return this.delegate.invokeAny(wrapAll(tasks));
+  }
+
+  /** {@inheritDoc} */
+  public Object invokeAny(Collection tasks, long timeout, TimeUnit unit)
+      throws InterruptedException, ExecutionException, TimeoutException {
+    return this.delegate.invokeAny(wrapAll(tasks), timeout, unit);
+  }
+
+  /** {@inheritDoc} */
+  public void shutdown() {
+    this.delegate.shutdown();
+  }
+
+  /** {@inheritDoc} */
+  public List shutdownNow() {
+    return this.delegate.shutdownNow();
+  }
+
+  /** {@inheritDoc} */
+  public boolean isShutdown() {
+    return this.delegate.isShutdown();
+  }
+
+  /** {@inheritDoc} */
+  public boolean isTerminated() {
+    return this.delegate.isTerminated();
+  }
+
+  /** {@inheritDoc} */
+  public boolean awaitTermination(long timeout, TimeUnit unit)
+      throws InterruptedException {
+    return this.delegate.awaitTermination(timeout, unit);
+  }
+
+  /**
+   * Helper method: Wraps a collection of <code>Callable</code> tasks.
+   * <p>
+   *
+   * @param tasks tasks to wrap
+   * @return list of wrapped tasks
+   */
+  private List wrapAll(Collection tasks) {
+    List wrapped = new ArrayList(tasks.size());
+
+    for (Iterator iter = tasks.iterator(); iter.hasNext();) {
+      wrapped.add(new TracedTask(this.manager, (Callable) iter.next()));
+    }
+
+    return wrapped;
+  }
+
+}
@@ -0,0 +1,329 @@
+package org.e2etrace.concurrent;
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.concurrent.Callable;
+
+import org.e2etrace.config.ISamplingTraceConfig;
+
+import org.e2etrace.trace.ConcurrentTraceSession;
+import org.e2etrace.trace.DefaultTraceSession;
+import org.e2etrace.trace.DefaultTraceStepFactory;
+import org.e2etrace.trace.ITraceSession;
+import org.e2etrace.trace.ITraceSessionManager;
+import org.e2etrace.trace.ITraceStep;
+import org.e2etrace.trace.ITraceStepId;
+import org.e2etrace.trace.NoopTraceSession;
+import org.e2etrace.trace.TraceStepIdRegistry;
+
+/**
+ * Wrapper for tasks that are executed asynchronously by another thread.
+ * <p>
+ *
+ * When the wrapper is created, it captures the current trace session and the
+ * current trace step of the calling thread. The thread that executes the task
+ * later on uses a separate child trace session. The task itself is traced as
+ * single trace step of this child session. Additionally, the child session is
+ * assigned as current session to the executing thread while the task runs, so
+ * all trace steps recorded by the task are part of the child session as well.
+ * <p>
+ *
+ * Before the task starts, the root step of the child session is added to the
+ * captured trace step of the parent session. This is exactly the same
+ * approach that is used for trace sessions of remote services (see
+ * {@link org.e2etrace.trace.TraceSessionRootStep}). Code that is chained on
+ * the result of the task therefore already sees the complete trace tree. The
+ * child session is still recorded by the executing thread while the parent
+ * session is in use by other threads. Hence, the durations of the parent
+ * session are only final after all tasks have finished. Please note that the
+ * isolated duration of the parent step is meaningless if tasks run in
+ * parallel.
+ * <p>
+ *
+ * If the current session of the calling thread is a
+ * {@link ConcurrentTraceSession}, no child session is created. Instead, the
+ * executing thread records its trace steps directly in the shared session,
+ * starting at the captured trace step.
+ * <p>
+ *
+ * The previous trace session of the executing thread is restored afterwards.
+ * If no trace session has been active when the wrapper was created, the task
+ * is executed without any tracing.
+ * <p>
+ *
+ * Normally, the wrapper is not used directly but by {@link TracedExecutor}
+ * or {@link TracedExecutorService}.
+ * <p>
+ */
+public class TracedTask implements Runnable, Callable {
+
+  private ITraceSessionManager manager;
+  private Runnable runnable;
+  private Callable callable;
+  private ITraceStepId stepId;
+  private ITraceSession parentSession;
+  private ITraceStep parentStep;
+  private String sessionId;
+
+  /**
+   * Constructor: Wraps a <code>Runnable</code>.
+   * <p>
+   *
+   * The name of the task class is used as id of the trace step.
+   * <p>
+   *
+   * @param manager trace session manager that holds the current session
+   * @param task task to wrap
+   */
+  public TracedTask(ITraceSessionManager manager, Runnable task) {
+    this(manager, task, null);
+  }
+
+  /**
+   * Constructor: Wraps a <code>Runnable</code> using a custom trace step id.
+   * <p>
+   *
+   * @param manager trace session manager that holds the current session
+   * @param task task to wrap
+   * @param stepId id of the trace step that covers the task (null: use the
+   *          name of the task class)
+   */
+  public TracedTask(ITraceSessionManager manager, Runnable task,
+      ITraceStepId stepId) {
+    if (task == null) {
+      throw new IllegalArgumentException("task must not be null");
+    }
+
+    this.runnable = task;
+    capture(manager, task, stepId);
+  }
+
+  /**
+   * Constructor: Wraps a <code>Callable</code>.
+   * <p>
+   *
+   * The name of the task class is used as id of the trace step.
+   * <p>
+   *
+   * @param manager trace session manager that holds the current session
+   * @param task task to wrap
+   */
+  public TracedTask(ITraceSessionManager manager, Callable task) {
+    this(manager, task, null);
+  }
+
+  /**
+   * Constructor: Wraps a <code>Callable</code> using a custom trace step id.
+   * <p>
+   *
+   * @param manager trace session manager that holds the current session
+   * @param task task to wrap
+   * @param stepId id of the trace step that covers the task (null: use the
+   *          name of the task class)
+   */
+  public TracedTask(ITraceSessionManager manager, Callable task,
+      ITraceStepId stepId) {
+    if (task == null) {
+      throw new IllegalArgumentException("task must not be null");
+    }
+
+    this.callable = task;
+    capture(manager, task, stepId);
+  }
+
+  /**
+   * Executes the task.
+   * <p>
+   *
+   * Checked exceptions of a wrapped <code>Callable</code> are rethrown as
+   * <code>IllegalStateException</code>.
+   * <p>
+   */
+  public void run() {
+    try {
+      call();
+    } catch (RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new IllegalStateException("Execution of traced task failed: "
+          + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Executes the task.
+   * <p>
+   *
+   * @return result of the wrapped <code>Callable</code> (null for a
+   *         <code>Runnable</code>)
+   * @throws Exception Exception thrown by the wrapped task
+   */
+  public Object call() throws Exception {
+    ITraceSession previous;
+    DefaultTraceSession newSession;
+    ITraceSession child;
+
+    if (this.parentStep == null) {
+      return invokeTask();
+    }
+
+    if (this.parentSession instanceof ConcurrentTraceSession) {
+      return callInSharedSession((ConcurrentTraceSession) this.parentSession);
+    }
+
+    previous = this.manager.getCurrentSession();
+
+    // The child session is subject to the trace configuration of the session
+    // manager. If tracing is disabled for the session, the manager returns a
+    // noop session that is not added to the parent. The parent session has
+    // already been sampled, so the child session is sampled as well.
+    newSession = new DefaultTraceSession(this.sessionId,
+        new DefaultTraceStepFactory());
+
+    if (this.manager.getConfig() instanceof ISamplingTraceConfig) {
+      ((ISamplingTraceConfig) this.manager.getConfig()).setSessionSampled(
+          newSession.getRootStep().getId(), true);
+    }
+
+    this.manager.setCurrentSession(newSession);
+    child = this.manager.getCurrentSession();
+
+    try {
+      child.enterStep(this.stepId);
+
+      // Attach the child session before the task runs. Code that is chained on
+      // the result of the task (e.g. a dependent CompletableFuture stage) must
+      // already see the complete trace tree of the parent.
+      if (child.getRootStep() != null) {
+        this.parentStep.addChild(child.getRootStep());
+      }
+
+      try {
+        return invokeTask();
+      } finally {
+        child.leaveStep(this.stepId);
+      }
+    } finally {
+      restoreSession(previous);
+    }
+  }
+
+  /**
+   * Helper method: Executes the task in a trace session that is shared with
+   * the calling thread.
+   * <p>
+   *
+   * @param shared shared trace session
+   * @return result of the task
+   * @throws Exception Exception thrown by the task
+   */
+  private Object callInSharedSession(ConcurrentTraceSession shared)
+      throws Exception {
+    ITraceSession previous = this.manager.getCurrentSession();
+    ITraceStep previousStep = shared.getCurrentStep();
+
+    this.manager.setCurrentSession(shared);
+    shared.bindCurrentThread(this.parentStep);
+
+    try {
+      shared.enterStep(this.stepId);
+      try {
+        return invokeTask();
+      } finally {
+        shared.leaveStep(this.stepId);
+      }
+    } finally {
+      // The task may have been executed by the calling thread itself
+      if (previous == shared) {
+        shared.bindCurrentThread(previousStep);
+      } else {
+        shared.unbindCurrentThread();
+      }
+      restoreSession(previous);
+    }
+  }
+
+  /**
+   * Helper method: Restores the previous trace session of the executing
+   * thread.
+   * <p>
+   *
+   * @param previous previous trace session
+   */
+  private void restoreSession(ITraceSession previous) {
+    if (previous instanceof NoopTraceSession) {
+      this.manager.releaseCurrentSession();
+    } else {
+      this.manager.setCurrentSession(previous);
+    }
+  }
+
+  /**
+   * Helper method: Captures the trace session of the calling thread.
+   * <p>
+   *
+   * @param tsm trace session manager
+   * @param task wrapped task
+   * @param id id of the trace step (null: use the name of the task class)
+   */
+  private void capture(ITraceSessionManager tsm, Object task, ITraceStepId id) {
+    ITraceSession session;
+
+    if (tsm == null) {
+      throw new IllegalArgumentException("manager must not be null");
+    }
+
+    this.manager = tsm;
+    this.stepId = id;
+
+    if (this.stepId == null) {
+      this.stepId = TraceStepIdRegistry.getSimpleId(task.getClass().getName());
+    }
+
+    session = tsm.getCurrentSession();
+    this.parentSession = session;
+    this.parentStep = session.getCurrentStep();
+
+    if (this.parentStep != null) {
+      // Use the id of the parent session for the child session
+      this.sessionId = session.getRootStep().getId().asString();
+
+      if (this.sessionId.startsWith("$")) {
+        this.sessionId = this.sessionId.substring(1);
+      }
+    }
+  }
+
+  /**
+   * Helper method: Invokes the wrapped task.
+   * <p>
+   *
+   * @return result of the task
+   * @throws Exception Exception thrown by the task
+   */
+  private Object invokeTask() throws Exception {
+    if (this.callable != null) {
+      return this.callable.call();
+    }
+
+    this.runnable.run();
+
+    return null;
+  }
+
+}
@@ -0,0 +1,81 @@
+package org.e2etrace.config;
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.e2etrace.trace.ITraceStepId;
+
+/**
+ * Trace configuration that supports sampling of trace sessions.
+ * <p>
+ *
+ * The trace session managers (see
+ * {@link org.e2etrace.trace.AbstractTraceSessionManager}) ask the
+ * configuration whenever a trace session is assigned, whether the session
+ * should be traced. Sessions that are not sampled are replaced by the shared
+ * {@link org.e2etrace.trace.NoopTraceSession}. Hence, the overhead for these
+ * sessions is negligible.
+ * <p>
+ *
+ * The same session may be assigned several times (e.g. if a traced task
+ * restores the session of the calling thread). Therefore, implementations must
+ * memorize the decision for the root step id instance of the session until
+ * <code>resetSessionSampling</code> is invoked (see {@link TraceSampler}).
+ * <p>
+ */
+public interface ISamplingTraceConfig extends ITraceConfig {
+
+  /**
+   * Decides if a trace session should be traced.
+   * <p>
+   *
+   * The method is only invoked for sessions that have not been disabled by
+   * <code>isTraceEnabledForId</code>. Repeated calls for the same root step id
+   * instance return the same decision.
+   * <p>
+   *
+   * @param rootId id of the root step of the trace session
+   * @return true: trace the session; false: ignore the session
+   */
+  boolean isSessionSampled(ITraceStepId rootId);
+
+  /**
+   * Memorizes the sampling decision for a trace session.
+   * <p>
+   *
+   * This method is used for child sessions that inherit the decision of their
+   * parent session.
+   * <p>
+   *
+   * @param rootId id of the root step of the trace session
+   * @param sampled true: trace the session
+   */
+  void setSessionSampled(ITraceStepId rootId, boolean sampled);
+
+  /**
+   * Discards the sampling decision for a trace session.
+   * <p>
+   *
+   * This method is invoked if a trace session is reset and reused for the next
+   * service call.
+   * <p>
+   *
+   * @param rootId id of the root step of the trace session
+   */
+  void resetSessionSampling(ITraceStepId rootId);
+
+}
@@ -16,12 +16,24 @@ package org.e2etrace.config;
  * limitations under the License.
  */
 
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.FileSystems;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
 import java.util.Enumeration;
-import java.util.HashSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -39,38 +51,73 @@ import org.e2etrace.trace.ITraceStepId;
  * <pre>
  *            global.enabletrace=true/false
  *            global.reloadinterval=&lt;n&gt;
+ *            global.watchfile=true/false
  *            id.&lt;trace step id&gt;=true/false
+ *            sampling.rate=&lt;0.0 - 1.0&gt;
+ *            sampling.rate.&lt;trace session id&gt;=&lt;0.0 - 1.0&gt;
+ *            sampling.maxpersecond=&lt;n&gt;
  * </pre>
  *
  * If a <code>reloadinterval</code> is defined in the configuration file, the
- * property file will be automatically reloaded every n seconds. If no reload
- * interval or an interval of 0 seconds is defined, the configuration will only
- * be loaded once.
+ * property file will be automatically reloaded every n seconds by a background
+ * daemon thread. If no reload interval or an interval of 0 seconds is defined,
+ * the configuration will only be loaded once. The background thread ends as
+ * soon as the configuration is no longer referenced by the application or
+ * <code>stopReloading</code> is called.
+ * <p>
+ *
+ * If <code>watchfile</code> is set to <code>true</code> and the configuration
+ * has been loaded from a plain file (either from the file system or from a
+ * directory in the classpath), the background thread is notified by the file
+ * system about changes of the file. Changes become effective almost
+ * immediately and the file is not read at all as long as it has not been
+ * modified. Configuration files that are not accessible as plain file (e.g.
+ * resources in a jar file) are reloaded using the <code>reloadinterval</code>
+ * instead.
  * <p>
  *
  * The trace step ids must match the string representation of the id (see
- * {@link ITraceStepId#asString()}). The default value for trace ids is
+ * {@link ITraceStepId#asString()}). Alternatively, an id prefix followed by an
+ * asterisk (*) can be used to switch complete packages, classes or groups of
+ * methods at once (e.g. <code>id.com.acme.dao.*=false</code> or
+ * <code>id.com.acme.dao.CustomerDao#find*=true</code>). The most specific
+ * entry wins (see {@link TraceIdMatcher}). The default value for trace ids is
  * <code>true</code>. That is, if no ids are defined in the configuration
  * file , tracing will be enabled for all trace steps.
  * <p>
  *
+ * The <code>sampling</code> settings define which fraction of the trace
+ * sessions is actually traced (see {@link TraceSampler}). Trace session ids
+ * must include the dollar sign prefix (e.g.
+ * <code>sampling.rate.$MyService=0.5</code>). If no sampling settings are
+ * defined, all trace sessions are traced.
+ * <p>
+ *
+ * The loaded values are stored in an immutable snapshot, which is replaced as
+ * a whole when the configuration is reloaded. Hence,
+ * <code>isTraceEnabled</code> and <code>isTraceEnabledForId</code> do not
+ * need any locks and never trigger a reload themselves. Until a configuration
+ * file has been loaded, tracing is enabled for all trace steps.
+ * <p>
+ *
  * @author Gunther Popp
  *
  */
-public class PropertiesTraceConfig implements ITraceConfig {
+public class PropertiesTraceConfig implements ISamplingTraceConfig {
 
   private static final Log log = LogFactory.getLog(PropertiesTraceConfig.class);
 
   private static final String KEY_ENABLETRACE = "global.enabletrace";
   private static final String KEY_RELOADINTERVAL = "global.reloadinterval";
+  private static final String KEY_WATCHFILE = "global.watchfile";
   private static final String KEY_IDPREFIX = "id.";
+  private static final String KEY_SAMPLINGRATE = "sampling.rate";
+  private static final String KEY_SAMPLINGRATEPREFIX = "sampling.rate.";
+  private static final String KEY_MAXPERSECOND = "sampling.maxpersecond";
 
   private String fileName;
-  private boolean enabled;
-  private boolean configIsDirty;
-  private HashSet disabledForId;
-  private long reloadInterval;
-  private long lastReload;
+  private volatile Snapshot snapshot;
+  private Thread reloader;
 
   /**
    * Default constructor.
@@ -78,27 +125,43 @@ public class PropertiesTraceConfig implements ITraceConfig {
    *
    */
   public PropertiesTraceConfig() {
-
+    this.snapshot = new Snapshot(true, 0, null, new TraceIdMatcher(new HashMap()),
+        null);
   }
 
   /** {@inheritDoc} */
   public boolean isTraceEnabled() {
-    reloadifIntervalExpired();
-
-    return this.enabled;
+    return this.snapshot.enabled;
   }
 
   /** {@inheritDoc} */
   public boolean isTraceEnabledForId(ITraceStepId id) {
-    boolean ret = true;
+    return this.snapshot.idMatcher.isEnabled(id);
+  }
 
-    reloadifIntervalExpired();
+  /** {@inheritDoc} */
+  public boolean isSessionSampled(ITraceStepId rootId) {
+    TraceSampler sampler = this.snapshot.sampler;
 
-    if (this.disabledForId.contains(id.asString())) {
-      ret = false;
+    return sampler == null || sampler.isSampled(rootId);
+  }
+
+  /** {@inheritDoc} */
+  public void setSessionSampled(ITraceStepId rootId, boolean sampled) {
+    TraceSampler sampler = this.snapshot.sampler;
+
+    if (sampler != null) {
+      sampler.setSampled(rootId, sampled);
     }
+  }
 
-    return ret;
+  /** {@inheritDoc} */
+  public void resetSessionSampling(ITraceStepId rootId) {
+    TraceSampler sampler = this.snapshot.sampler;
+
+    if (sampler != null) {
+      sampler.resetSampling(rootId);
+    }
   }
 
   /**
@@ -121,95 +184,196 @@ public class PropertiesTraceConfig implements ITraceConfig {
    * specified file must be accessible in the classpath of the application.
    * <p>
    *
+   * If the file cannot be loaded, the previously loaded configuration remains
+   * active.
+   * <p>
+   *
    * @param fileName path and name of the configuration file
    * @throws IOException Error loading the specified file
    */
   public void loadConfigFile(String fileName) throws IOException {
-    this.fileName = fileName;
-    this.configIsDirty = true;
-
-    reloadConfiguration();
+    reloadConfiguration(fileName);
 
+    startReloading();
   }
 
   /**
-   * Reloads the configuration file if the reload interval has expired.
+   * Stops the automatic reload of the configuration file.
    * <p>
    *
+   * The reload is started again by the next call to
+   * <code>loadConfigFile</code>.
+   * <p>
    */
-  private void reloadifIntervalExpired() {
-    if (this.reloadInterval > 0) {
-      if (((System.currentTimeMillis() / 1000) - this.lastReload) >= this.reloadInterval) {
-        try {
-          // The following flag is used to prevent multiple reloads from
-          // parallel threads
-          this.configIsDirty = true;
+  public synchronized void stopReloading() {
+    if (this.reloader != null) {
+      this.reloader.interrupt();
+      this.reloader = null;
+    }
+  }
 
-          reloadConfiguration();
+  /**
+   * Helper method: Starts the background reload thread that matches the
+   * loaded configuration.
+   * <p>
+   *
+   * A running reload thread of another type is stopped.
+   * <p>
+   */
+  private synchronized void startReloading() {
+    if (this.reloader != null && !isSuitableReloader(this.reloader)) {
+      stopReloading();
+    }
 
+    if (this.reloader == null) {
+      if (this.snapshot.watchFile != null) {
+        try {
+          this.reloader = new Watcher(this, this.snapshot.watchFile);
         } catch (IOException e) {
-          log
-              .error(
-                  "Cannot reload configuration file. Will use the already loaded values instead.",
-                  e);
+          log.error("Cannot watch configuration file " + this.snapshot.watchFile
+              + ". The file will not be reloaded automatically.", e);
         }
+      } else if (this.snapshot.reloadInterval > 0) {
+        this.reloader = new Reloader(this);
+      }
+
+      if (this.reloader != null) {
+        this.reloader.start();
       }
     }
   }
 
   /**
-   * Reloads the configuration file.
+   * Helper method: Checks if a reload thread matches the loaded configuration.
    * <p>
    *
-   * @throws IOException Error loading the configuration file
+   * @param thread reload thread
+   * @return true: the reload thread matches the configuration
    */
-  private synchronized void reloadConfiguration() throws IOException {
-    // If a parallel thread has reloaded the config just before us, simply
-    // return at this point
-    if (!this.configIsDirty) {
-      return;
+  private boolean isSuitableReloader(Thread thread) {
+    Snapshot current = this.snapshot;
+
+    if (thread instanceof Watcher) {
+      return ((Watcher) thread).file.equals(current.watchFile);
     }
 
+    return current.watchFile == null && current.reloadInterval > 0;
+  }
+
+  /**
+   * CALL-BACK: Reloads the configuration file. Invoked by the background
+   * reload thread.
+   * <p>
+   *
+   * @param thread calling reload thread
+   * @return true: continue reloading; false: the reload thread must stop
+   */
+  private boolean reloadByThread(Thread thread) {
+    synchronized (this) {
+      if (this.reloader != thread) {
+        return false;
+      }
+    }
+
+    try {
+      reloadConfiguration(this.fileName);
+    } catch (IOException e) {
+      log
+          .error(
+              "Cannot reload configuration file. Will use the already loaded values instead.",
+              e);
+    }
+
+    synchronized (this) {
+      if (this.reloader != thread) {
+        return false;
+      }
+
+      if (!isSuitableReloader(thread)) {
+        // The reload settings have been changed in the configuration file
+        this.reloader = null;
+        startReloading();
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * Reloads the configuration file.
+   * <p>
+   *
+   * @param file path and name of the configuration file
+   * @throws IOException Error loading the configuration file
+   */
+  private synchronized void reloadConfiguration(String file) throws IOException {
     Properties loadedConfig;
-    loadedConfig = locateAndLoadProperties();
+    Snapshot loaded;
+    File watchFile = null;
 
-    this.enabled = getPropertyAsBoolean(loadedConfig,
-        PropertiesTraceConfig.KEY_ENABLETRACE, true);
-    this.reloadInterval = getPropertyAsLong(loadedConfig,
-        PropertiesTraceConfig.KEY_RELOADINTERVAL, 0);
+    loadedConfig = locateAndLoadProperties(file);
 
     // Load the on/off settings per trace id
     Enumeration e = loadedConfig.keys();
     String key;
     String id;
-    boolean idEnabled;
-
-    this.disabledForId = new HashSet();
+    Map idRules = new HashMap();
+    Map rootRates = new HashMap();
+    TraceSampler sampler = null;
 
     while (e.hasMoreElements()) {
       key = (String) e.nextElement();
 
       if (key.startsWith(KEY_IDPREFIX)) {
         id = key.substring(key.indexOf(".") + 1);
-        idEnabled = getPropertyAsBoolean(loadedConfig, key, true);
+        idRules.put(id, Boolean.valueOf(getPropertyAsBoolean(loadedConfig, key,
+            true)));
+      } else if (key.startsWith(KEY_SAMPLINGRATEPREFIX)) {
+        id = key.substring(KEY_SAMPLINGRATEPREFIX.length());
+        rootRates.put(id, Double.valueOf(getPropertyAsDouble(loadedConfig, key,
+            1.0)));
+      }
+    }
 
-        if (!idEnabled) {
-          this.disabledForId.add(id);
-        }
+    // Sampling is only used if at least one sampling setting exists. Running
+    // sessions keep the decisions of the previous configuration.
+    if (loadedConfig.getProperty(KEY_SAMPLINGRATE) != null
+        || loadedConfig.getProperty(KEY_MAXPERSECOND) != null
+        || !rootRates.isEmpty()) {
+      sampler = new TraceSampler(getPropertyAsDouble(loadedConfig,
+          KEY_SAMPLINGRATE, 1.0), rootRates, (int) getPropertyAsLong(
+          loadedConfig, KEY_MAXPERSECOND, 0), this.snapshot.sampler);
+    }
+
+    if (getPropertyAsBoolean(loadedConfig, PropertiesTraceConfig.KEY_WATCHFILE, false)) {
+      watchFile = locateFile(file);
+
+      if (watchFile == null) {
+        log.info("Configuration file " + file
+            + " is not a plain file and cannot be watched");
       }
     }
 
-    // Memorize the reload time
-    this.lastReload = System.currentTimeMillis() / 1000;
+    loaded = new Snapshot(getPropertyAsBoolean(loadedConfig,
+        PropertiesTraceConfig.KEY_ENABLETRACE, true), getPropertyAsLong(
+        loadedConfig, PropertiesTraceConfig.KEY_RELOADINTERVAL, 0), watchFile,
+        new TraceIdMatcher(idRules), sampler);
 
-    // Config has been refreshed
-    this.configIsDirty = false;
+    // Publish the new configuration
+    this.fileName = file;
+    this.snapshot = loaded;
 
     if (log.isInfoEnabled()) {
       log.info("Loaded configuration file " + this.fileName);
-      log.info("Tracing is now " + (this.enabled ? "enabled" : "disabled"));
-      log.info("Reload interval is now " + this.reloadInterval + " seconds");
-      log.info("Tracing has been disabled for " + this.disabledForId.size() + " ids");
+      log.info("Tracing is now " + (loaded.enabled ? "enabled" : "disabled"));
+      log.info("Reload interval is now " + loaded.reloadInterval + " seconds");
+      if (loaded.watchFile != null) {
+        log.info("Watching " + loaded.watchFile + " for changes");
+      }
+      log.info("Loaded " + loaded.idMatcher.getRuleCount() + " trace step id rules");
+      log.info("Sampling of trace sessions is now "
+          + (loaded.sampler != null ? "enabled" : "disabled"));
     }
 
   }
@@ -219,33 +383,34 @@ public class PropertiesTraceConfig implements ITraceConfig {
    * and loads the properties.
    * <p>
    *
+   * @param file path and name of the configuration file
    * @return loaded properties
    * @throws IOException File not found or error while loading its content
    */
-  private Properties locateAndLoadProperties() throws IOException {
+  private Properties locateAndLoadProperties(String file) throws IOException {
     InputStream is = null;
     Properties loadedConfig = new Properties();
 
     try {
       // 1. Load configuration using the current class loader
-      is = PropertiesTraceConfig.class.getResourceAsStream(this.fileName);
+      is = PropertiesTraceConfig.class.getResourceAsStream(file);
 
       if (is == null) {
 
         // 2. Load configuration using the context class loader
         ClassLoader ctxLoader = Thread.currentThread().getContextClassLoader();
-        is = ctxLoader.getResourceAsStream(this.fileName);
+        is = ctxLoader.getResourceAsStream(file);
 
         if (is == null) {
           // 3. Load configuration from the file system
-          is = new FileInputStream(this.fileName);
+          is = new FileInputStream(file);
         }
       }
 
       if (is != null) {
         loadedConfig.load(is);
       } else {
-        throw new IOException("Cannot find or open file " + this.fileName);
+        throw new IOException("Cannot find or open file " + file);
       }
     } finally {
       if (is != null) {
@@ -256,6 +421,47 @@ public class PropertiesTraceConfig implements ITraceConfig {
     return loadedConfig;
   }
 
+  /**
+   * Helper method: Determines the plain file that contains the configuration.
+   * <p>
+   *
+   * The file is searched in the same order as in <code>loadConfigFile</code>.
+   * <p>
+   *
+   * @param file path and name of the configuration file
+   * @return configuration file (null: the configuration is not stored in a
+   *         plain file)
+   */
+  private File locateFile(String file) {
+    URL url;
+    ClassLoader ctxLoader;
+    File located = null;
+
+    url = PropertiesTraceConfig.class.getResource(file);
+
+    if (url == null) {
+      ctxLoader = Thread.currentThread().getContextClassLoader();
+
+      if (ctxLoader != null) {
+        url = ctxLoader.getResource(file);
+      }
+    }
+
+    if (url != null) {
+      if ("file".equals(url.getProtocol())) {
+        try {
+          located = new File(url.toURI());
+        } catch (URISyntaxException e) {
+          located = null;
+        }
+      }
+    } else {
+      located = new File(file).getAbsoluteFile();
+    }
+
+    return located;
+  }
+
   /**
    * Returns the config value for a given property key as boolean.
    * <p>
@@ -306,4 +512,245 @@ public class PropertiesTraceConfig implements ITraceConfig {
 
   }
 
+  /**
+   * Returns the config value for a given property key as double.
+   * <p>
+   *
+   * @param loadedConfig loaded configuration file
+   * @param key key of the required config value
+   * @param def default value, if the key is not existent in the configuration
+   *
+   * @return config value as double
+   */
+  private double getPropertyAsDouble(Properties loadedConfig, String key, double def) {
+    double ret = def;
+    String retValue;
+
+    retValue = loadedConfig.getProperty(key);
+
+    if (retValue != null) {
+      ret = Double.valueOf(retValue).doubleValue();
+
+    }
+
+    return ret;
+
+  }
+
+  /**
+   * Immutable snapshot of the loaded configuration.
+   * <p>
+   */
+  private static final class Snapshot {
+
+    private final boolean enabled;
+    private final long reloadInterval;
+    private final File watchFile;
+    private final TraceIdMatcher idMatcher;
+    private final TraceSampler sampler;
+
+    /**
+     * Constructor.
+     * <p>
+     *
+     * @param enabled global trace switch
+     * @param reloadInterval reload interval in seconds
+     * @param watchFile configuration file that is watched for changes (null:
+     *          do not watch)
+     * @param idMatcher compiled on/off settings per trace step id
+     * @param sampler sampling policy for trace sessions (null: trace all
+     *          sessions)
+     */
+    Snapshot(boolean enabled, long reloadInterval, File watchFile,
+        TraceIdMatcher idMatcher, TraceSampler sampler) {
+      this.enabled = enabled;
+      this.reloadInterval = reloadInterval;
+      this.watchFile = watchFile;
+      this.idMatcher = idMatcher;
+      this.sampler = sampler;
+    }
+  }
+
+  /**
+   * Daemon thread that reloads the configuration file periodically.
+   * <p>
+   *
+   * The thread only holds a weak reference to the configuration. It ends
+   * automatically as soon as the configuration has been garbage collected.
+   * <p>
+   */
+  private static final class Reloader extends Thread {
+
+    private final WeakReference config;
+
+    /**
+     * Constructor.
+     * <p>
+     *
+     * @param config configuration to reload
+     */
+    Reloader(PropertiesTraceConfig config) {
+      super("e2etrace-config-reloader");
+
+      this.config = new WeakReference(config);
+      setDaemon(true);
+    }
+
+    /** {@inheritDoc} */
+    public void run() {
+      PropertiesTraceConfig tc;
+      long interval;
+
+      while (true) {
+        tc = (PropertiesTraceConfig) this.config.get();
+
+        if (tc == null) {
+          return;
+        }
+
+        interval = tc.snapshot.reloadInterval;
+        tc = null;
+
+        try {
+          Thread.sleep(interval * 1000);
+        } catch (InterruptedException e) {
+          return;
+        }
+
+        tc = (PropertiesTraceConfig) this.config.get();
+
+        if (tc == null || !tc.reloadByThread(this)) {
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * Daemon thread that reloads the configuration file as soon as it has been
+   * modified.
+   * <p>
+   *
+   * The thread watches the directory of the configuration file using a
+   * <code>WatchService</code>. Like {@link Reloader}, it only holds a weak
+   * reference to the configuration.
+   * <p>
+   */
+  private static final class Watcher extends Thread {
+
+    /** Interval for checking if the configuration is still in use (s). */
+    private static final long CHECK_INTERVAL = 5;
+
+    /** Delay before reloading a modified file (ms). */
+    private static final long SETTLE_DELAY = 50;
+
+    private final WeakReference config;
+    private final File file;
+    private final WatchService service;
+
+    /**
+     * Constructor.
+     * <p>
+     *
+     * The directory of the file is registered immediately, so no modification
+     * is missed after the configuration has been loaded.
+     * <p>
+     *
+     * @param config configuration to reload
+     * @param file configuration file to watch
+     * @throws IOException Error registering the directory of the file
+     */
+    Watcher(PropertiesTraceConfig config, File file) throws IOException {
+      super("e2etrace-config-watcher");
+
+      this.config = new WeakReference(config);
+      this.file = file;
+      this.service = FileSystems.getDefault().newWatchService();
+      setDaemon(true);
+
+      try {
+        this.file.getParentFile().toPath().register(this.service,
+            new WatchEvent.Kind[] { StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY });
+      } catch (IOException e) {
+        this.service.close();
+        throw e;
+      }
+    }
+
+    /** {@inheritDoc} */
+    public void run() {
+      WatchKey key;
+      PropertiesTraceConfig tc;
+
+      try {
+        while (true) {
+          key = this.service.poll(CHECK_INTERVAL, TimeUnit.SECONDS);
+
+          tc = (PropertiesTraceConfig) this.config.get();
+          if (tc == null) {
+            return;
+          }
+
+          if (key != null) {
+            boolean modified = isModified(key);
+
+            if (!key.reset()) {
+              log.warn("Directory of configuration file " + this.file
+                  + " is no longer accessible. Stopped watching the file.");
+              return;
+            }
+
+            if (modified) {
+              // Editors often write a file in several steps. Wait until all
+              // changes have been written and skip the resulting events.
+              Thread.sleep(SETTLE_DELAY);
+              while ((key = this.service.poll()) != null) {
+                key.pollEvents();
+                key.reset();
+              }
+
+              if (!tc.reloadByThread(this)) {
+                return;
+              }
+            }
+          }
+
+          tc = null;
+        }
+      } catch (InterruptedException e) {
+        return;
+      } finally {
+        try {
+          this.service.close();
+        } catch (IOException e) {
+          log.warn("Cannot close watch service", e);
+        }
+      }
+    }
+
+    /**
+     * Helper method: Checks if the events of a watch key concern the
+     * configuration file.
+     * <p>
+     *
+     * @param key signalled watch key
+     * @return true: the configuration file might have been modified
+     */
+    private boolean isModified(WatchKey key) {
+      boolean modified = false;
+
+      for (Iterator iter = key.pollEvents().iterator(); iter.hasNext();) {
+        WatchEvent event = (WatchEvent) iter.next();
+
+        if (event.kind() == StandardWatchEventKinds.OVERFLOW
+            || this.file.getName().equals(String.valueOf(event.context()))) {
+          modified = true;
+        }
+      }
+
+      return modified;
+    }
+  }
+
 }
@@ -0,0 +1,288 @@
+package org.e2etrace.config;
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.e2etrace.trace.AbstractTraceStepId;
+import org.e2etrace.trace.ITraceStepId;
+
+/**
+ * Matcher for the trace step id rules of a trace configuration.
+ * <p>
+ *
+ * A rule either defines an exact trace step id or an id prefix that ends with
+ * an asterisk (*). For example:
+ * <p>
+ *
+ * <pre>
+ *            com.acme.dao.*=false
+ *            com.acme.dao.CustomerDao#*=true
+ *            com.acme.dao.CustomerDao#findAll=false
+ * </pre>
+ *
+ * If several rules match a trace step id, the most specific rule wins: An
+ * exact rule beats all prefix rules and a longer prefix beats a shorter one.
+ * Trace step ids without a matching rule are enabled.
+ * <p>
+ *
+ * The rules are compiled into a character trie when the matcher is created,
+ * so a lookup only walks the characters of the id once. Additionally, every
+ * matcher caches the results for trace step id objects. Shared ids (see
+ * {@link org.e2etrace.trace.TraceStepIdRegistry}) are therefore evaluated only
+ * once per matcher. The cache belongs to the matcher, so several matchers
+ * (e.g. of different trace configurations or of a configuration that is just
+ * being reloaded) can be used in parallel without interfering with each other.
+ * The size of the cache is limited (see <code>MAX_CACHED_IDS</code>).
+ * <p>
+ *
+ * Instances are thread-safe. The rules cannot be changed after the matcher
+ * has been created, but the per-matcher cache of decisions is filled during
+ * lookups. The cache holds at most <code>MAX_CACHED_IDS</code> (10000) ids.
+ * Once it is full, decisions for additional ids are no longer cached but
+ * evaluated on every lookup. Cached entries are never evicted, so the cache
+ * lives exactly as long as its matcher.
+ * <p>
+ */
+public final class TraceIdMatcher {
+
+  private static final byte UNDEFINED = 0;
+  private static final byte ENABLED = 1;
+  private static final byte DISABLED = 2;
+
+  /** Maximum number of trace step ids whose decision is cached. */
+  public static final int MAX_CACHED_IDS = 10000;
+
+  private final Node root;
+  private final int ruleCount;
+  private final ConcurrentHashMap decisions = new ConcurrentHashMap();
+
+  /**
+   * Constructor.
+   * <p>
+   *
+   * @param rules map of id patterns (<code>String</code>) to the
+   *          <code>Boolean</code> on/off setting
+   */
+  public TraceIdMatcher(Map rules) {
+    this.root = new Node();
+    this.ruleCount = rules.size();
+
+    for (Iterator iter = rules.entrySet().iterator(); iter.hasNext();) {
+      Map.Entry rule = (Map.Entry) iter.next();
+
+      addRule((String) rule.getKey(), ((Boolean) rule.getValue())
+          .booleanValue());
+    }
+  }
+
+  /**
+   * Checks if tracing is enabled for a trace step id.
+   * <p>
+   *
+   * @param id trace step id
+   * @return true: tracing is enabled
+   */
+  public boolean isEnabled(ITraceStepId id) {
+    Boolean cached;
+    boolean enabled;
+
+    if (this.ruleCount == 0) {
+      return true;
+    }
+
+    // Only ids that implement equals and hashCode based on their string
+    // representation can be used as cache keys
+    if (!(id instanceof AbstractTraceStepId)) {
+      return isEnabled(id.asString());
+    }
+
+    cached = (Boolean) this.decisions.get(id);
+
+    if (cached != null) {
+      return cached.booleanValue();
+    }
+
+    enabled = isEnabled(id.asString());
+
+    // Ids that are generated dynamically must not fill up the cache
+    if (this.decisions.size() < MAX_CACHED_IDS) {
+      this.decisions.put(id, enabled ? Boolean.TRUE : Boolean.FALSE);
+    }
+
+    return enabled;
+  }
+
+  /**
+   * Checks if tracing is enabled for the string representation of a trace
+   * step id.
+   * <p>
+   *
+   * @param id trace step id
+   * @return true: tracing is enabled
+   */
+  public boolean isEnabled(String id) {
+    Node node = this.root;
+    byte decision = node.prefix;
+
+    for (int i = 0; i < id.length(); i++) {
+      node = node.getChild(id.charAt(i));
+
+      if (node == null) {
+        return decision != DISABLED;
+      }
+
+      if (node.prefix != UNDEFINED) {
+        decision = node.prefix;
+      }
+    }
+
+    if (node.exact != UNDEFINED) {
+      decision = node.exact;
+    }
+
+    return decision != DISABLED;
+  }
+
+  /**
+   * Returns the number of rules of the matcher.
+   * <p>
+   *
+   * @return number of rules
+   */
+  public int getRuleCount() {
+    return this.ruleCount;
+  }
+
+  /**
+   * Returns the number of trace step ids whose decision is cached.
+   * <p>
+   *
+   * @return number of cached ids
+   */
+  int getCachedIdCount() {
+    return this.decisions.size();
+  }
+
+  /**
+   * Helper method: Adds a single rule to the trie.
+   * <p>
+   *
+   * @param pattern exact id or id prefix ending with an asterisk
+   * @param enabled on/off setting
+   */
+  private void addRule(String pattern, boolean enabled) {
+    boolean isPrefix = pattern.endsWith("*");
+    int length = isPrefix ? pattern.length() - 1 : pattern.length();
+    byte decision = enabled ? ENABLED : DISABLED;
+    Node node = this.root;
+
+    for (int i = 0; i < length; i++) {
+      node = node.getOrAddChild(pattern.charAt(i));
+    }
+
+    if (isPrefix) {
+      node.prefix = decision;
+    } else {
+      node.exact = decision;
+    }
+  }
+
+  /**
+   * Node of the trie.
+   * <p>
+   *
+   * The children are stored in two arrays sorted by character.
+   * <p>
+   */
+  private static final class Node {
+
+    private char[] keys = new char[0];
+    private Node[] children = new Node[0];
+    private byte exact = UNDEFINED;
+    private byte prefix = UNDEFINED;
+
+    /**
+     * Returns the child for a character.
+     * <p>
+     *
+     * @param c character
+     * @return child node (null: no child exists)
+     */
+    Node getChild(char c) {
+      int low = 0;
+      int high = this.keys.length - 1;
+
+      while (low <= high) {
+        int mid = (low + high) >>> 1;
+
+        if (this.keys[mid] < c) {
+          low = mid + 1;
+        } else if (this.keys[mid] > c) {
+          high = mid - 1;
+        } else {
+          return this.children[mid];
+        }
+      }
+
+      return null;
+    }
+
+    /**
+     * Returns the child for a character and creates it, if necessary.
+     * <p>
+     *
+     * @param c character
+     * @return child node
+     */
+    Node getOrAddChild(char c) {
+      Node child = getChild(c);
+      int pos;
+      char[] newKeys;
+      Node[] newChildren;
+
+      if (child != null) {
+        return child;
+      }
+
+      pos = 0;
+      while (pos < this.keys.length && this.keys[pos] < c) {
+        pos++;
+      }
+
+      newKeys = new char[this.keys.length + 1];
+      newChildren = new Node[this.children.length + 1];
+      System.arraycopy(this.keys, 0, newKeys, 0, pos);
+      System.arraycopy(this.children, 0, newChildren, 0, pos);
+      System.arraycopy(this.keys, pos, newKeys, pos + 1, this.keys.length - pos);
+      System.arraycopy(this.children, pos, newChildren, pos + 1,
+          this.children.length - pos);
+
+      child = new Node();
+      newKeys[pos] = c;
+      newChildren[pos] = child;
+      this.keys = newKeys;
+      this.children = newChildren;
+
+      return child;
+    }
+  }
+
+}
@@ -0,0 +1,319 @@
+package org.e2etrace.config;
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.e2etrace.trace.ITraceStepId;
+
+/**
+ * Sampling policy for trace sessions.
+ * <p>
+ *
+ * The sampler combines the following rules:
+ * <p>
+ * <ul>
+ * <li>A default sampling rate between 0.0 (no session is traced) and 1.0
+ * (every session is traced).</li>
+ * <li>Sampling rates for single trace sessions. The rates are identified by
+ * the id of the root step of the session (e.g. <code>$MyService</code>) and
+ * replace the default rate for these sessions.</li>
+ * <li>A maximum number of traced sessions per second. If the maximum has been
+ * reached, no further sessions are traced until the next second starts. The
+ * limit is applied after the sampling rate.</li>
+ * </ul>
+ *
+ * The sampler is thread-safe. Deciding about a session costs a random number
+ * and, if a maximum is defined, a single CAS operation.
+ * <p>
+ *
+ * Additionally, the sampler memorizes the decision for every running trace
+ * session (see <code>isSampled</code>), so assigning the same session several
+ * times to a session manager does not change the decision. Root step ids of
+ * different sessions of the same service are equal. Hence, the decisions are
+ * kept per id <em>instance</em>. The sampler only holds weak references to the
+ * ids, so sessions that are not reset explicitly are forgotten as soon as they
+ * have been garbage collected.
+ * <p>
+ */
+public class TraceSampler {
+
+  /** Maximum supported number of sessions per second. */
+  public static final int MAX_PER_SECOND_LIMIT = (1 << 24) - 1;
+
+  private static final int COUNT_BITS = 24;
+  private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+  private final double rate;
+  private final Map rootRates;
+  private final int maxPerSecond;
+
+  // Second of the current rate limit window and number of sessions traced
+  // within this window
+  private final AtomicLong window;
+
+  // Sampling decisions (Boolean) per root step id instance (IdKey)
+  private final ConcurrentHashMap decisions;
+  private final ReferenceQueue collectedIds;
+
+  /**
+   * Constructor.
+   * <p>
+   *
+   * @param rate default sampling rate (0.0 - 1.0)
+   * @param rootRates map of root step ids (<code>String</code>) to sampling
+   *          rates (<code>Double</code>). The map is copied.
+   * @param maxPerSecond maximum number of traced sessions per second (0: no
+   *          limit)
+   */
+  public TraceSampler(double rate, Map rootRates, int maxPerSecond) {
+    if (maxPerSecond < 0 || maxPerSecond > MAX_PER_SECOND_LIMIT) {
+      throw new IllegalArgumentException("maxPerSecond must be between 0 and "
+          + MAX_PER_SECOND_LIMIT);
+    }
+
+    this.rate = rate;
+    this.rootRates = new HashMap(rootRates);
+    this.maxPerSecond = maxPerSecond;
+    this.window = new AtomicLong();
+    this.decisions = new ConcurrentHashMap();
+    this.collectedIds = new ReferenceQueue();
+  }
+
+  /**
+   * Constructor: Take over the decisions of running sessions from a previous
+   * sampler.
+   * <p>
+   *
+   * This constructor is used if a configuration is reloaded. Sessions that are
+   * running during the reload keep their decision.
+   * <p>
+   *
+   * @param rate default sampling rate (0.0 - 1.0)
+   * @param rootRates map of root step ids (<code>String</code>) to sampling
+   *          rates (<code>Double</code>). The map is copied.
+   * @param maxPerSecond maximum number of traced sessions per second (0: no
+   *          limit)
+   * @param previous previous sampler (null: no previous sampler)
+   */
+  TraceSampler(double rate, Map rootRates, int maxPerSecond,
+      TraceSampler previous) {
+    this(rate, rootRates, maxPerSecond);
+
+    if (previous != null) {
+      previous.expungeCollectedIds();
+      this.decisions.putAll(previous.decisions);
+    }
+  }
+
+  /**
+   * Returns the memorized sampling decision for a trace session.
+   * <p>
+   *
+   * If no decision has been made for the session yet, <code>sample</code> is
+   * invoked and its result is memorized until <code>resetSampling</code> is
+   * invoked for the root step id.
+   * <p>
+   *
+   * @param rootId id of the root step of the trace session
+   * @return true: trace the session
+   */
+  public boolean isSampled(ITraceStepId rootId) {
+    Boolean decision = (Boolean) this.decisions.get(new IdKey(rootId, null));
+    Boolean registered;
+
+    if (decision == null) {
+      expungeCollectedIds();
+      decision = sample(rootId) ? Boolean.TRUE : Boolean.FALSE;
+      registered = (Boolean) this.decisions.putIfAbsent(new IdKey(rootId,
+          this.collectedIds), decision);
+
+      if (registered != null) {
+        decision = registered;
+      }
+    }
+
+    return decision.booleanValue();
+  }
+
+  /**
+   * Memorizes a sampling decision for a trace session.
+   * <p>
+   *
+   * This method is used for child sessions that inherit the decision of their
+   * parent session.
+   * <p>
+   *
+   * @param rootId id of the root step of the trace session
+   * @param sampled true: trace the session
+   */
+  public void setSampled(ITraceStepId rootId, boolean sampled) {
+    expungeCollectedIds();
+    this.decisions.put(new IdKey(rootId, this.collectedIds),
+        sampled ? Boolean.TRUE : Boolean.FALSE);
+  }
+
+  /**
+   * Discards the memorized sampling decision for a trace session.
+   * <p>
+   *
+   * This method is invoked if a trace session is reset and reused for the next
+   * service call. The next call to <code>isSampled</code> makes a new
+   * decision.
+   * <p>
+   *
+   * @param rootId id of the root step of the trace session
+   */
+  public void resetSampling(ITraceStepId rootId) {
+    this.decisions.remove(new IdKey(rootId, null));
+  }
+
+  /**
+   * Decides if a trace session should be traced.
+   * <p>
+   *
+   * @param rootId id of the root step of the trace session
+   * @return true: trace the session
+   */
+  public boolean sample(ITraceStepId rootId) {
+    double sessionRate = this.rate;
+    Double rootRate;
+
+    if (!this.rootRates.isEmpty()) {
+      rootRate = (Double) this.rootRates.get(rootId.asString());
+
+      if (rootRate != null) {
+        sessionRate = rootRate.doubleValue();
+      }
+    }
+
+    if (sessionRate <= 0.0) {
+      return false;
+    }
+
+    if (sessionRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sessionRate) {
+      return false;
+    }
+
+    return this.maxPerSecond == 0 || acquire();
+  }
+
+  /**
+   * CALL-BACK: Returns the current time in seconds.
+   * <p>
+   *
+   * Sub-classes may override this method (e.g. for testing purposes).
+   * <p>
+   *
+   * @return current time in seconds
+   */
+  protected long currentTimeSeconds() {
+    return System.currentTimeMillis() / 1000;
+  }
+
+  /**
+   * Helper method: Acquires a slot of the rate limit for the current second.
+   * <p>
+   *
+   * @return true: slot acquired; false: limit reached
+   */
+  private boolean acquire() {
+    long now = currentTimeSeconds();
+    long current;
+    long next;
+
+    do {
+      current = this.window.get();
+
+      if ((current >>> COUNT_BITS) != now) {
+        // A new second has started
+        next = (now << COUNT_BITS) | 1L;
+      } else if ((current & COUNT_MASK) >= this.maxPerSecond) {
+        return false;
+      } else {
+        next = current + 1;
+      }
+    } while (!this.window.compareAndSet(current, next));
+
+    return true;
+  }
+
+  /**
+   * Helper method: Removes the decisions of root step ids that have been
+   * garbage collected.
+   * <p>
+   */
+  private void expungeCollectedIds() {
+    Object collected;
+
+    while ((collected = this.collectedIds.poll()) != null) {
+      this.decisions.remove(collected);
+    }
+  }
+
+  /**
+   * Weak reference to a root step id that compares the ids by identity.
+   * <p>
+   */
+  private static final class IdKey extends WeakReference {
+
+    private final int hash;
+
+    /**
+     * Constructor.
+     * <p>
+     *
+     * @param id root step id
+     * @param queue queue for collected ids (null: the key is only used for a
+     *          lookup)
+     */
+    IdKey(Object id, ReferenceQueue queue) {
+      super(id, queue);
+      this.hash = System.identityHashCode(id);
+    }
+
+    /** {@inheritDoc} */
+    public int hashCode() {
+      return this.hash;
+    }
+
+    /** {@inheritDoc} */
+    public boolean equals(Object o) {
+      Object id;
+
+      if (o == this) {
+        return true;
+      }
+      if (!(o instanceof IdKey)) {
+        return false;
+      }
+
+      id = get();
+
+      return id != null && id == ((IdKey) o).get();
+    }
+
+  }
+
+}
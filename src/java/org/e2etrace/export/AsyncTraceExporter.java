@@ -0,0 +1,398 @@
+package org.e2etrace.export;
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.e2etrace.formatter.ITraceFormatter;
+import org.e2etrace.formatter.TraceFormatContext;
+import org.e2etrace.trace.ITraceSession;
+
+/**
+ * Sink that formats and writes trace sessions in background threads.
+ * <p>
+ *
+ * <code>export</code> only adds the completed session to a bounded lock-free
+ * ring buffer. One or more daemon worker threads take the sessions from the
+ * buffer in batches, format each batch into a private buffer and write the
+ * result with a single call to the writer. Hence, the threads that execute
+ * service calls never perform any formatting or I/O.
+ * <p>
+ *
+ * If the ring buffer is full, the overflow policy decides what happens:
+ * <p>
+ * <ul>
+ * <li><code>OVERFLOW_DROP_NEWEST</code>: the new session is discarded.</li>
+ * <li><code>OVERFLOW_DROP_OLDEST</code>: the oldest queued session is
+ * discarded to make room for the new one.</li>
+ * <li><code>OVERFLOW_BLOCK</code>: the calling thread waits until the worker
+ * threads have freed a slot.</li>
+ * </ul>
+ * Discarded sessions are counted (see <code>getDroppedCount</code>).
+ * <p>
+ *
+ * Idle worker threads are parked until a producer queues a session and wakes
+ * one of them up. As a safety net, idle workers check the ring buffer at least
+ * every <code>IDLE_TIMEOUT</code>. <code>close</code> waits for all producers
+ * that are just queuing a session, writes all queued sessions and stops the
+ * workers.
+ * <p>
+ */
+public class AsyncTraceExporter implements ITraceSessionSink {
+
+  /** Overflow policy: Discard the new session. */
+  public static final int OVERFLOW_DROP_NEWEST = 0;
+
+  /** Overflow policy: Discard the oldest queued session. */
+  public static final int OVERFLOW_DROP_OLDEST = 1;
+
+  /** Overflow policy: Wait until the session can be queued. */
+  public static final int OVERFLOW_BLOCK = 2;
+
+  /** Default capacity of the ring buffer. */
+  public static final int DEFAULT_CAPACITY = 1024;
+
+  /** Maximum number of sessions written by a single batch. */
+  public static final int MAX_BATCH_SIZE = 64;
+
+  /** Pause of blocked producers (ns). */
+  public static final long IDLE_PAUSE = 1000000L;
+
+  /** Maximum time an idle worker thread is parked without being woken up (ns). */
+  public static final long IDLE_TIMEOUT = 100000000L;
+
+  private static final Log log = LogFactory.getLog(AsyncTraceExporter.class);
+
+  private ITraceFormatter formatter;
+  private Writer writer;
+  private int overflowPolicy;
+  private TraceSessionRingBuffer buffer;
+  private Worker[] workers;
+  private volatile boolean closed;
+  private AtomicInteger activeProducers;
+
+  private AtomicLong exportedCount;
+  private AtomicLong droppedCount;
+  private AtomicLong failedCount;
+
+  /**
+   * Constructor: Uses one worker thread, the default capacity and
+   * <code>OVERFLOW_DROP_NEWEST</code>.
+   * <p>
+   *
+   * @param formatter formatter used for the trace sessions
+   * @param writer destination of the formatted trace sessions
+   */
+  public AsyncTraceExporter(ITraceFormatter formatter, Writer writer) {
+    this(formatter, writer, DEFAULT_CAPACITY, OVERFLOW_DROP_NEWEST, 1);
+  }
+
+  /**
+   * Constructor.
+   * <p>
+   *
+   * The worker threads are started immediately.
+   * <p>
+   *
+   * @param formatter formatter used for the trace sessions. The formatter must
+   *          be thread-safe if more than one worker thread is used.
+   * @param writer destination of the formatted trace sessions
+   * @param capacity capacity of the ring buffer (rounded up to a power of two)
+   * @param overflowPolicy one of the <code>OVERFLOW_*</code> constants
+   * @param workerCount number of worker threads
+   */
+  public AsyncTraceExporter(ITraceFormatter formatter, Writer writer,
+      int capacity, int overflowPolicy, int workerCount) {
+    if (overflowPolicy < OVERFLOW_DROP_NEWEST || overflowPolicy > OVERFLOW_BLOCK) {
+      throw new IllegalArgumentException("Invalid overflow policy "
+          + overflowPolicy);
+    }
+    if (workerCount < 1) {
+      throw new IllegalArgumentException("workerCount must be at least 1");
+    }
+
+    this.formatter = formatter;
+    this.writer = writer;
+    this.overflowPolicy = overflowPolicy;
+    this.buffer = new TraceSessionRingBuffer(capacity);
+    this.exportedCount = new AtomicLong();
+    this.droppedCount = new AtomicLong();
+    this.failedCount = new AtomicLong();
+    this.activeProducers = new AtomicInteger();
+
+    this.workers = new Worker[workerCount];
+    for (int i = 0; i < workerCount; i++) {
+      this.workers[i] = new Worker(i);
+      this.workers[i].start();
+    }
+  }
+
+  /**
+   * Queues a completed trace session.
+   * <p>
+   *
+   * @param session completed trace session
+   * @throws IOException The exporter has been closed
+   */
+  public void export(ITraceSession session) throws IOException {
+    // close() waits until all producers that have passed the check below have
+    // queued their session
+    this.activeProducers.incrementAndGet();
+    try {
+      if (this.closed) {
+        throw new IOException("AsyncTraceExporter has been closed");
+      }
+
+      while (!this.buffer.offer(session)) {
+        switch (this.overflowPolicy) {
+        case OVERFLOW_DROP_NEWEST:
+          this.droppedCount.incrementAndGet();
+          return;
+        case OVERFLOW_DROP_OLDEST:
+          if (this.buffer.poll() != null) {
+            this.droppedCount.incrementAndGet();
+          }
+          break;
+        default:
+          if (this.closed) {
+            throw new IOException("AsyncTraceExporter has been closed");
+          }
+          LockSupport.parkNanos(IDLE_PAUSE);
+        }
+      }
+
+      wakeUpWorker();
+    } finally {
+      this.activeProducers.decrementAndGet();
+    }
+  }
+
+  /**
+   * Writes all queued trace sessions and stops the worker threads.
+   * <p>
+   *
+   * Subsequent calls of <code>export</code> fail. The writer is flushed but not
+   * closed.
+   * <p>
+   *
+   * @throws InterruptedException Interrupted while waiting for the worker
+   *           threads
+   */
+  public void close() throws InterruptedException {
+    List batch = new ArrayList();
+    TraceFormatContext formatted = new TraceFormatContext();
+
+    this.closed = true;
+
+    // Producers that have passed the check just before close() are still
+    // allowed to queue their session
+    while (this.activeProducers.get() > 0) {
+      LockSupport.parkNanos(IDLE_PAUSE);
+    }
+
+    for (int i = 0; i < this.workers.length; i++) {
+      LockSupport.unpark(this.workers[i]);
+    }
+    for (int i = 0; i < this.workers.length; i++) {
+      this.workers[i].join();
+    }
+
+    // Safety net: the workers have already written all queued sessions
+    while (drain(batch) > 0) {
+      writeBatch(batch, formatted);
+    }
+  }
+
+  /**
+   * Returns the number of currently queued trace sessions.
+   * <p>
+   *
+   * @return number of queued sessions
+   */
+  public int getQueuedCount() {
+    return this.buffer.size();
+  }
+
+  /**
+   * Returns the number of written trace sessions.
+   * <p>
+   *
+   * @return number of written sessions
+   */
+  public long getExportedCount() {
+    return this.exportedCount.get();
+  }
+
+  /**
+   * Returns the number of trace sessions discarded due to an overflow of the
+   * ring buffer.
+   * <p>
+   *
+   * @return number of discarded sessions
+   */
+  public long getDroppedCount() {
+    return this.droppedCount.get();
+  }
+
+  /**
+   * Returns the number of trace sessions that could not be formatted or
+   * written.
+   * <p>
+   *
+   * @return number of failed sessions
+   */
+  public long getFailedCount() {
+    return this.failedCount.get();
+  }
+
+  /**
+   * Helper method: Wakes up an idle worker thread.
+   * <p>
+   *
+   * Busy workers take the new session from the ring buffer anyway, so only
+   * the first idle worker is woken up.
+   * <p>
+   */
+  private void wakeUpWorker() {
+    for (int i = 0; i < this.workers.length; i++) {
+      if (this.workers[i].idle) {
+        LockSupport.unpark(this.workers[i]);
+        return;
+      }
+    }
+  }
+
+  /**
+   * Helper method: Takes the next batch of sessions from the ring buffer.
+   * <p>
+   *
+   * @param batch list receiving the sessions
+   * @return number of sessions in the batch
+   */
+  private int drain(List batch) {
+    Object session;
+
+    batch.clear();
+
+    while (batch.size() < MAX_BATCH_SIZE) {
+      session = this.buffer.poll();
+
+      if (session == null) {
+        break;
+      }
+
+      batch.add(session);
+    }
+
+    return batch.size();
+  }
+
+  /**
+   * Helper method: Formats a batch of sessions and writes the result.
+   * <p>
+   *
+   * @param batch sessions to write
+   * @param formatted reusable buffer for the formatted sessions
+   */
+  private void writeBatch(List batch, TraceFormatContext formatted) {
+    int formattedCount = 0;
+    int mark;
+
+    formatted.reset();
+
+    for (int i = 0; i < batch.size(); i++) {
+      mark = formatted.length();
+      try {
+        this.formatter.format((ITraceSession) batch.get(i), formatted);
+        formattedCount++;
+      } catch (Exception e) {
+        // Discard the incomplete output of the session
+        formatted.setLength(mark);
+        this.failedCount.incrementAndGet();
+        log.error("Cannot format trace session", e);
+      }
+    }
+
+    try {
+      synchronized (this.writer) {
+        formatted.writeTo(this.writer);
+        this.writer.flush();
+      }
+      this.exportedCount.addAndGet(formattedCount);
+    } catch (IOException e) {
+      this.failedCount.addAndGet(formattedCount);
+      log.error("Cannot write trace sessions", e);
+    }
+
+    batch.clear();
+  }
+
+  /**
+   * Worker thread that writes the queued sessions.
+   * <p>
+   */
+  private final class Worker extends Thread {
+
+    private volatile boolean idle;
+
+    /**
+     * Constructor.
+     * <p>
+     *
+     * @param number number of the worker
+     */
+    Worker(int number) {
+      super("e2etrace-exporter-" + number);
+
+      setDaemon(true);
+    }
+
+    /** {@inheritDoc} */
+    public void run() {
+      List batch = new ArrayList(MAX_BATCH_SIZE);
+      TraceFormatContext formatted = new TraceFormatContext();
+
+      while (true) {
+        if (drain(batch) > 0) {
+          writeBatch(batch, formatted);
+        } else if (AsyncTraceExporter.this.closed) {
+          return;
+        } else {
+          // Announce the idle state before the ring buffer is checked again.
+          // A producer either sees the flag and wakes up the worker, or its
+          // session is taken by the second check.
+          this.idle = true;
+          if (AsyncTraceExporter.this.buffer.size() == 0
+              && !AsyncTraceExporter.this.closed) {
+            LockSupport.parkNanos(this, IDLE_TIMEOUT);
+          }
+          this.idle = false;
+        }
+      }
+    }
+  }
+
+}
@@ -0,0 +1,289 @@
+package org.e2etrace.export;
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.e2etrace.trace.ITraceSession;
+import org.e2etrace.trace.ITraceStep;
+import org.e2etrace.trace.ITraceStepId;
+import org.e2etrace.trace.TraceStepWalker;
+
+/**
+ * Retention policy that keeps slow trace sessions.
+ * <p>
+ *
+ * A completed trace session is kept, if at least one of the following
+ * conditions is met:
+ * <p>
+ * <ul>
+ * <li>The duration of the session exceeds the session threshold (see
+ * <code>setSessionThreshold</code>).</li>
+ * <li>The isolated duration of a trace step exceeds the threshold defined for
+ * the id of this step (see <code>setStepThreshold</code>).</li>
+ * <li>The duration of the session is within the slowest sessions of the last
+ * window (see <code>setPercentile</code>). For example, a percentile of 0.99
+ * keeps the slowest 1% of all sessions.</li>
+ * </ul>
+ * All conditions are disabled by default.
+ * <p>
+ *
+ * The percentile threshold is recalculated after a tenth of the window has been
+ * refilled. It is not used until at least <code>MIN_SAMPLES</code> sessions
+ * have been recorded. The policy is thread-safe, but all settings should be
+ * defined before the policy is used.
+ * <p>
+ *
+ * Recording a session does not acquire any lock: The duration is stored in
+ * the slot of the window that is claimed by a single atomic increment. The
+ * thread that fills the last slot of a tenth of the window recalculates the
+ * threshold from a copy of the window. Durations that are recorded by other
+ * threads at the same time may or may not be part of the copy, which is
+ * harmless for a sliding percentile. The step thresholds are checked with one
+ * {@link TraceStepWalker} per thread.
+ * <p>
+ */
+public class DurationRetentionPolicy implements ITraceRetentionPolicy {
+
+  /** Default number of sessions used to determine the percentile. */
+  public static final int DEFAULT_WINDOW_SIZE = 1000;
+
+  /** Minimum number of recorded sessions for the percentile threshold. */
+  public static final int MIN_SAMPLES = 100;
+
+  private volatile long sessionThreshold = -1;
+  private volatile Map stepThresholds = new HashMap();
+  private volatile Window window;
+  private final ThreadLocal walkers = new ThreadLocal();
+
+  /**
+   * Default constructor.
+   * <p>
+   *
+   */
+  public DurationRetentionPolicy() {
+
+  }
+
+  /**
+   * Keeps all trace sessions that are slower than the given threshold.
+   * <p>
+   *
+   * @param millis threshold in ms (-1: disabled)
+   */
+  public void setSessionThreshold(long millis) {
+    this.sessionThreshold = millis < 0 ? -1 : millis * 1000000L;
+  }
+
+  /**
+   * Keeps all trace sessions that contain a trace step with the given id whose
+   * isolated duration exceeds the given threshold.
+   * <p>
+   *
+   * @param id trace step id
+   * @param millis threshold in ms
+   */
+  public synchronized void setStepThreshold(ITraceStepId id, long millis) {
+    Map thresholds = new HashMap(this.stepThresholds);
+
+    thresholds.put(id.asString(), Long.valueOf(millis * 1000000L));
+
+    this.stepThresholds = thresholds;
+  }
+
+  /**
+   * Keeps the slowest trace sessions of a sliding window.
+   * <p>
+   *
+   * @param percentile percentile of the session duration (e.g. 0.99). A
+   *          session is kept if its duration is equal or higher than the
+   *          percentile (0: disabled)
+   * @param windowSize number of recent sessions used to calculate the
+   *          percentile
+   */
+  public void setPercentile(double percentile, int windowSize) {
+    if (percentile < 0.0 || percentile >= 1.0) {
+      throw new IllegalArgumentException("percentile must be between 0 and 1");
+    }
+    if (windowSize < MIN_SAMPLES) {
+      throw new IllegalArgumentException("windowSize must be at least "
+          + MIN_SAMPLES);
+    }
+
+    this.window = percentile > 0.0 ? new Window(percentile, windowSize) : null;
+  }
+
+  /** {@inheritDoc} */
+  public boolean isRetained(ITraceSession session) {
+    long duration;
+    boolean retained = false;
+
+    if (session.getRootStep() == null) {
+      return false;
+    }
+
+    duration = session.getDurationNanos();
+
+    if (this.sessionThreshold >= 0 && duration > this.sessionThreshold) {
+      retained = true;
+    }
+
+    if (!retained && !this.stepThresholds.isEmpty()) {
+      retained = exceedsStepThreshold(session.getRootStep());
+    }
+
+    // Every session is recorded in the window, even if it is already retained
+    if (recordDuration(duration)) {
+      retained = true;
+    }
+
+    return retained;
+  }
+
+  /**
+   * Helper method: Records the duration of a session in the window.
+   * <p>
+   *
+   * @param duration duration of the session in ns
+   * @return true: the duration is within the slowest sessions of the window
+   */
+  private boolean recordDuration(long duration) {
+    Window current = this.window;
+
+    if (current == null) {
+      return false;
+    }
+
+    return current.record(duration);
+  }
+
+  /**
+   * Helper method: Checks the step thresholds for all steps of a trace tree.
+   * <p>
+   *
+   * @param root root of the trace tree
+   * @return true: at least one step exceeds its threshold
+   */
+  private boolean exceedsStepThreshold(ITraceStep root) {
+    Map thresholds = this.stepThresholds;
+    TraceStepWalker walker = (TraceStepWalker) this.walkers.get();
+    ITraceStep step;
+    Long threshold;
+
+    if (walker == null) {
+      walker = new TraceStepWalker();
+      this.walkers.set(walker);
+    }
+
+    walker.reset(root);
+
+    try {
+      while (walker.next()) {
+        step = walker.getStep();
+
+        threshold = (Long) thresholds.get(step.getId().asString());
+        if (threshold != null
+            && step.getIsolatedDurationNanos() > threshold.longValue()) {
+          return true;
+        }
+      }
+    } finally {
+      // Don't keep references to the trace steps of the session
+      walker.reset(null);
+    }
+
+    return false;
+  }
+
+  /**
+   * Sliding window of recent session durations.
+   * <p>
+   */
+  private static final class Window {
+
+    private final double percentile;
+    private final AtomicLongArray durations;
+    private final AtomicLong recorded;
+    private final int updateInterval;
+    private volatile long threshold = Long.MAX_VALUE;
+
+    /**
+     * Constructor.
+     * <p>
+     *
+     * @param percentile percentile of the session duration
+     * @param size number of recent sessions
+     */
+    Window(double percentile, int size) {
+      this.percentile = percentile;
+      this.durations = new AtomicLongArray(size);
+      this.recorded = new AtomicLong();
+      this.updateInterval = Math.max(1, size / 10);
+    }
+
+    /**
+     * Records the duration of a session.
+     * <p>
+     *
+     * @param duration duration of the session in ns
+     * @return true: the duration is within the slowest sessions of the window
+     */
+    boolean record(long duration) {
+      long count = this.recorded.getAndIncrement() + 1;
+
+      this.durations.set((int) ((count - 1) % this.durations.length()),
+          duration);
+
+      if (count == MIN_SAMPLES
+          || (count > MIN_SAMPLES && count % this.updateInterval == 0)) {
+        updateThreshold((int) Math.min(count, this.durations.length()));
+      }
+
+      return duration >= this.threshold;
+    }
+
+    /**
+     * Helper method: Recalculates the percentile threshold.
+     * <p>
+     *
+     * @param count number of valid durations in the window
+     */
+    private void updateThreshold(int count) {
+      long[] sorted = new long[count];
+      int index;
+
+      for (int i = 0; i < count; i++) {
+        sorted[i] = this.durations.get(i);
+      }
+      Arrays.sort(sorted);
+
+      index = (int) Math.ceil(this.percentile * count) - 1;
+      if (index < 0) {
+        index = 0;
+      }
+
+      this.threshold = sorted[index];
+    }
+
+  }
+
+}
@@ -0,0 +1,41 @@
+package org.e2etrace.export;
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.e2etrace.trace.ITraceSession;
+
+/**
+ * Retention policy for completed trace sessions.
+ * <p>
+ *
+ * The policy decides if a completed trace session is worth keeping (see
+ * {@link TailSampler}).
+ * <p>
+ */
+public interface ITraceRetentionPolicy {
+
+  /**
+   * Decides if a completed trace session is kept.
+   * <p>
+   *
+   * @param session completed trace session
+   * @return true: export the session; false: discard the session
+   */
+  boolean isRetained(ITraceSession session);
+
+}
@@ -0,0 +1,43 @@
+package org.e2etrace.export;
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+
+import org.e2etrace.trace.ITraceSession;
+
+/**
+ * Destination for completed trace sessions.
+ * <p>
+ */
+public interface ITraceSessionSink {
+
+  /**
+   * Exports a completed trace session.
+   * <p>
+   *
+   * The sink takes over the ownership of the trace session. The caller must not
+   * modify the session afterwards.
+   * <p>
+   *
+   * @param session completed trace session
+   * @throws IOException Error while exporting the session
+   */
+  void export(ITraceSession session) throws IOException;
+
+}
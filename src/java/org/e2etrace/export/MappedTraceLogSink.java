@@ -0,0 +1,419 @@
+package org.e2etrace.export;
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
+import java.util.LinkedList;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.e2etrace.formatter.ITraceFormatter;
+import org.e2etrace.formatter.TraceFormatContext;
+import org.e2etrace.trace.ITraceSession;
+
+/**
+ * Sink that appends trace sessions to rolling, memory-mapped log files.
+ * <p>
+ *
+ * The output of the formatter is encoded directly into a memory-mapped
+ * segment file. Hence, exporting a session does not require any system call;
+ * writing the data to disk is left to the operating system. A new segment is
+ * started as soon as the current segment is full or has reached its maximum
+ * age. Only the newest segments are retained, older segments are deleted.
+ * <p>
+ *
+ * Segments are named <code>&lt;prefix&gt;-&lt;number&gt;.log</code> and
+ * stored in a given directory. The numbering continues after the segments of
+ * a previous run. The current segment is padded with zero bytes up to the
+ * segment size. The padding is removed as soon as the segment is rolled or the
+ * sink is closed. If the application crashes, the padding remains in the last
+ * segment ({@link org.e2etrace.formatter.BinaryTraceReader} stops reading at
+ * the padding).
+ * <p>
+ *
+ * Rolling a segment does not force its content to disk, because it happens in
+ * the thread that exports a session. Only <code>close</code> forces the
+ * current segment to disk.
+ * <p>
+ *
+ * The formatter output is encoded with <code>UTF-8</code> by default. Use
+ * <code>ISO-8859-1</code> for the
+ * {@link org.e2etrace.formatter.BinaryTraceFormatter}, so the segments contain
+ * the binary records. A single session must fit into one segment.
+ * <p>
+ *
+ * The sessions are formatted in the calling thread. Only the copy into the
+ * mapped segment is serialized.
+ * <p>
+ */
+public class MappedTraceLogSink implements ITraceSessionSink {
+
+  /** Default size of a segment in bytes (16MB). */
+  public static final int DEFAULT_SEGMENT_SIZE = 16 * 1024 * 1024;
+
+  /** Default number of retained segments. */
+  public static final int DEFAULT_MAX_SEGMENTS = 10;
+
+  /** Default encoding of the formatter output. */
+  public static final String DEFAULT_ENCODING = "UTF-8";
+
+  private static final String SEGMENT_SUFFIX = ".log";
+  private static final int SEGMENT_NUMBER_DIGITS = 8;
+
+  private static final Log log = LogFactory.getLog(MappedTraceLogSink.class);
+
+  private ITraceFormatter formatter;
+  private File directory;
+  private String prefix;
+  private int segmentSize = DEFAULT_SEGMENT_SIZE;
+  private long maxSegmentAge;
+  private int maxSegments = DEFAULT_MAX_SEGMENTS;
+  private CharsetEncoder encoder;
+
+  private ThreadLocal contexts = new ThreadLocal();
+
+  private LinkedList segments;
+  private long nextSegmentNumber;
+  private RandomAccessFile segmentFile;
+  private MappedByteBuffer segment;
+  private long segmentStart;
+  private boolean closed;
+
+  /**
+   * Constructor.
+   * <p>
+   *
+   * @param formatter formatter used for the trace sessions
+   * @param directory directory of the segment files
+   * @param prefix prefix of the segment file names
+   */
+  public MappedTraceLogSink(ITraceFormatter formatter, File directory,
+      String prefix) {
+    this.formatter = formatter;
+    this.directory = directory;
+    this.prefix = prefix;
+    setEncoding(DEFAULT_ENCODING);
+  }
+
+  /**
+   * Sets the size of the segments.
+   * <p>
+   *
+   * The new size applies to all segments started afterwards.
+   * <p>
+   *
+   * @param segmentSize segment size in bytes
+   */
+  public synchronized void setSegmentSize(int segmentSize) {
+    if (segmentSize <= 0) {
+      throw new IllegalArgumentException("Segment size must be positive: "
+          + segmentSize);
+    }
+    this.segmentSize = segmentSize;
+  }
+
+  /**
+   * Sets the maximum age of a segment.
+   * <p>
+   *
+   * @param maxSegmentAge maximum age in ms (0: segments are only rolled if
+   *          they are full)
+   */
+  public synchronized void setMaxSegmentAge(long maxSegmentAge) {
+    if (maxSegmentAge < 0) {
+      throw new IllegalArgumentException("Segment age must not be negative: "
+          + maxSegmentAge);
+    }
+    this.maxSegmentAge = maxSegmentAge;
+  }
+
+  /**
+   * Sets the number of retained segments (including the current segment).
+   * <p>
+   *
+   * @param maxSegments number of retained segments
+   */
+  public synchronized void setMaxSegments(int maxSegments) {
+    if (maxSegments <= 0) {
+      throw new IllegalArgumentException(
+          "Number of segments must be positive: " + maxSegments);
+    }
+    this.maxSegments = maxSegments;
+  }
+
+  /**
+   * Sets the encoding of the formatter output.
+   * <p>
+   *
+   * @param encoding name of a character set
+   */
+  public synchronized void setEncoding(String encoding) {
+    this.encoder = Charset.forName(encoding).newEncoder().onMalformedInput(
+        CodingErrorAction.REPLACE).onUnmappableCharacter(
+        CodingErrorAction.REPLACE);
+  }
+
+  /** {@inheritDoc} */
+  public void export(ITraceSession session) throws IOException {
+    TraceFormatContext context = (TraceFormatContext) this.contexts.get();
+
+    if (context == null) {
+      context = new TraceFormatContext();
+      this.contexts.set(context);
+    }
+
+    context.reset();
+    this.formatter.format(session, context);
+
+    try {
+      append(context.asCharBuffer());
+    } finally {
+      context.reset();
+    }
+  }
+
+  /**
+   * Returns the current segment files, starting with the oldest one.
+   * <p>
+   *
+   * @return segment files
+   */
+  public synchronized File[] getSegmentFiles() {
+    if (this.segments == null) {
+      return new File[0];
+    }
+    return (File[]) this.segments.toArray(new File[this.segments.size()]);
+  }
+
+  /**
+   * Closes the current segment.
+   * <p>
+   *
+   * The padding of the segment is removed. Subsequent calls of
+   * <code>export</code> fail.
+   * <p>
+   *
+   * @throws IOException Error while closing the segment
+   */
+  public synchronized void close() throws IOException {
+    this.closed = true;
+
+    if (this.segment != null) {
+      this.segment.force();
+    }
+    closeSegment();
+  }
+
+  /**
+   * Returns the current time. Can be overwritten for testing purposes.
+   * <p>
+   *
+   * @return current time in ms
+   */
+  protected long currentTimeMillis() {
+    return System.currentTimeMillis();
+  }
+
+  /**
+   * Helper method: Encodes formatted output into the current segment.
+   * <p>
+   *
+   * @param chars formatted output
+   * @throws IOException Error while rolling the segment or the output does not
+   *           fit into a segment
+   */
+  private synchronized void append(CharBuffer chars) throws IOException {
+    int start;
+    CoderResult result;
+
+    if (this.closed) {
+      throw new IOException("Trace log has been closed");
+    }
+
+    if (this.segment == null
+        || (this.maxSegmentAge > 0
+            && currentTimeMillis() - this.segmentStart >= this.maxSegmentAge)) {
+      rollSegment();
+    }
+
+    for (int attempt = 0; attempt < 2; attempt++) {
+      start = this.segment.position();
+      chars.rewind();
+      this.encoder.reset();
+
+      result = this.encoder.encode(chars, this.segment, true);
+      if (!result.isOverflow()) {
+        result = this.encoder.flush(this.segment);
+      }
+      if (!result.isOverflow()) {
+        return;
+      }
+
+      // The output does not fit into the current segment: Discard the
+      // partial output and try again with a new segment
+      this.segment.position(start);
+      if (start == 0) {
+        break;
+      }
+      rollSegment();
+    }
+
+    throw new IOException("Trace session exceeds the segment size of "
+        + this.segmentSize + " bytes");
+  }
+
+  /**
+   * Helper method: Closes the current segment and starts a new one.
+   * <p>
+   *
+   * @throws IOException Error while creating the segment
+   */
+  private void rollSegment() throws IOException {
+    File file;
+
+    closeSegment();
+
+    if (this.segments == null) {
+      findSegments();
+    }
+
+    file = new File(this.directory, segmentName(this.nextSegmentNumber));
+    this.nextSegmentNumber++;
+
+    this.segmentFile = new RandomAccessFile(file, "rw");
+    this.segmentFile.setLength(0);
+    this.segment = this.segmentFile.getChannel().map(
+        FileChannel.MapMode.READ_WRITE, 0, this.segmentSize);
+    this.segmentStart = currentTimeMillis();
+
+    this.segments.addLast(file);
+    while (this.segments.size() > this.maxSegments) {
+      File oldest = (File) this.segments.removeFirst();
+
+      if (!oldest.delete()) {
+        log.warn("Cannot delete trace log segment " + oldest);
+      }
+    }
+  }
+
+  /**
+   * Helper method: Truncates the current segment to the written data and
+   * closes the file.
+   * <p>
+   *
+   * @throws IOException Error while closing the segment
+   */
+  private void closeSegment() throws IOException {
+    if (this.segment == null) {
+      return;
+    }
+
+    try {
+      this.segmentFile.getChannel().truncate(this.segment.position());
+    } finally {
+      this.segment = null;
+      this.segmentFile.close();
+      this.segmentFile = null;
+    }
+  }
+
+  /**
+   * Helper method: Collects the segments of previous runs.
+   * <p>
+   *
+   * @throws IOException The directory does not exist and cannot be created
+   */
+  private void findSegments() throws IOException {
+    String[] names;
+    String number;
+
+    if (!this.directory.isDirectory() && !this.directory.mkdirs()) {
+      throw new IOException("Cannot create directory " + this.directory);
+    }
+
+    this.segments = new LinkedList();
+    this.nextSegmentNumber = 1;
+
+    names = this.directory.list();
+    if (names == null) {
+      return;
+    }
+
+    // Zero padded numbers: The lexical order equals the numeric order
+    Arrays.sort(names);
+    for (int i = 0; i < names.length; i++) {
+      if (names[i].startsWith(this.prefix + "-")
+          && names[i].endsWith(SEGMENT_SUFFIX)) {
+        number = names[i].substring(this.prefix.length() + 1,
+            names[i].length() - SEGMENT_SUFFIX.length());
+
+        if (number.length() == SEGMENT_NUMBER_DIGITS && isNumber(number)) {
+          this.segments.addLast(new File(this.directory, names[i]));
+          this.nextSegmentNumber = Long.parseLong(number) + 1;
+        }
+      }
+    }
+  }
+
+  /**
+   * Helper method: Returns the file name of a segment.
+   * <p>
+   *
+   * @param number number of the segment
+   * @return file name
+   */
+  private String segmentName(long number) {
+    StringBuffer name = new StringBuffer(this.prefix);
+    String digits = String.valueOf(number);
+
+    name.append('-');
+    for (int i = digits.length(); i < SEGMENT_NUMBER_DIGITS; i++) {
+      name.append('0');
+    }
+    name.append(digits);
+    name.append(SEGMENT_SUFFIX);
+
+    return name.toString();
+  }
+
+  /**
+   * Helper method: Checks if a string only contains digits.
+   * <p>
+   *
+   * @param str string
+   * @return true: only digits
+   */
+  private static boolean isNumber(String str) {
+    for (int i = 0; i < str.length(); i++) {
+      if (!Character.isDigit(str.charAt(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+}
@@ -0,0 +1,235 @@
+package org.e2etrace.export;
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.e2etrace.trace.DefaultTraceSession;
+import org.e2etrace.trace.ITraceSession;
+import org.e2etrace.trace.ITraceStepFactory;
+import org.e2etrace.trace.PooledTraceStepFactory;
+
+/**
+ * Tail-based sampling of trace sessions.
+ * <p>
+ *
+ * Every trace session is recorded completely. When the service call has
+ * finished, the retention policy decides if the session is passed to the sink
+ * or discarded. Discarded sessions are reset and reused for subsequent service
+ * calls, so recording sessions that are not kept creates almost no garbage:
+ * <p>
+ *
+ * <pre>
+ * DefaultTraceSession session = sampler.newSession(&quot;MyService&quot;);
+ *
+ * tsm.setCurrentSession(session);
+ * try {
+ *   // Execute the service call
+ * } finally {
+ *   tsm.releaseCurrentSession();
+ *   sampler.complete(session);
+ * }
+ * </pre>
+ *
+ * The sampler is thread-safe. The sessions themselves must only be used by a
+ * single thread at a time.
+ * <p>
+ *
+ * Only sessions that have been created by <code>newSession</code> of the same
+ * sampler are reused. Other sessions that are passed to <code>complete</code>
+ * may still be referenced by the caller, so they are left untouched if they
+ * are discarded.
+ * <p>
+ */
+public class TailSampler {
+
+  /** Maximum number of discarded sessions that are kept for reuse. */
+  public static final int MAX_POOLED_SESSIONS = 64;
+
+  private static final Log log = LogFactory.getLog(TailSampler.class);
+
+  private ITraceRetentionPolicy policy;
+  private ITraceSessionSink sink;
+  private ConcurrentLinkedQueue pool;
+  private AtomicInteger pooled;
+  private AtomicLong retainedCount;
+  private AtomicLong discardedCount;
+
+  /**
+   * Constructor.
+   * <p>
+   *
+   * @param policy retention policy
+   * @param sink destination of all retained trace sessions
+   */
+  public TailSampler(ITraceRetentionPolicy policy, ITraceSessionSink sink) {
+    this.policy = policy;
+    this.sink = sink;
+    this.pool = new ConcurrentLinkedQueue();
+    this.pooled = new AtomicInteger();
+    this.retainedCount = new AtomicLong();
+    this.discardedCount = new AtomicLong();
+  }
+
+  /**
+   * Returns a trace session for a new service call.
+   * <p>
+   *
+   * If possible, a previously discarded session is reused.
+   * <p>
+   *
+   * @param sessionId id of the trace session
+   * @return empty trace session
+   */
+  public DefaultTraceSession newSession(String sessionId) {
+    DefaultTraceSession session = (DefaultTraceSession) this.pool.poll();
+
+    if (session == null) {
+      return new DefaultTraceSession(sessionId, new SamplerStepFactory(this));
+    }
+
+    this.pooled.decrementAndGet();
+    session.reset(sessionId);
+
+    return session;
+  }
+
+  /**
+   * Completes a trace session.
+   * <p>
+   *
+   * The session is either passed to the sink or discarded. In both cases, the
+   * caller must not use the session afterwards. Errors of the sink are logged.
+   * <p>
+   *
+   * @param session completed trace session
+   * @return true: the session has been retained
+   */
+  public boolean complete(ITraceSession session) {
+    if (session.getRootStep() == null) {
+      // Session has not been traced at all (e.g. NoopTraceSession)
+      return false;
+    }
+
+    if (this.policy.isRetained(session)) {
+      this.retainedCount.incrementAndGet();
+
+      try {
+        this.sink.export(session);
+      } catch (IOException e) {
+        log.error("Cannot export trace session "
+            + session.getRootStep().getId().asString(), e);
+      }
+
+      return true;
+    }
+
+    this.discardedCount.incrementAndGet();
+
+    if (isOwnSession(session)) {
+      recycle((DefaultTraceSession) session);
+    }
+
+    return false;
+  }
+
+  /**
+   * Returns the number of retained trace sessions.
+   * <p>
+   *
+   * @return number of retained sessions
+   */
+  public long getRetainedCount() {
+    return this.retainedCount.get();
+  }
+
+  /**
+   * Returns the number of discarded trace sessions.
+   * <p>
+   *
+   * @return number of discarded sessions
+   */
+  public long getDiscardedCount() {
+    return this.discardedCount.get();
+  }
+
+  /**
+   * Helper method: Checks if a session has been created by this sampler.
+   * <p>
+   *
+   * @param session trace session
+   * @return true: the session has been created by <code>newSession</code>
+   */
+  private boolean isOwnSession(ITraceSession session) {
+    ITraceStepFactory factory;
+
+    if (!(session instanceof DefaultTraceSession)) {
+      return false;
+    }
+
+    factory = ((DefaultTraceSession) session).getStepFactory();
+
+    return factory instanceof SamplerStepFactory
+        && ((SamplerStepFactory) factory).owner == this;
+  }
+
+  /**
+   * Helper method: Resets a discarded session and adds it to the pool.
+   * <p>
+   *
+   * @param session discarded session
+   */
+  private void recycle(DefaultTraceSession session) {
+    session.reset();
+
+    if (this.pooled.incrementAndGet() <= MAX_POOLED_SESSIONS) {
+      this.pool.offer(session);
+    } else {
+      this.pooled.decrementAndGet();
+    }
+  }
+
+  /**
+   * Step factory of the sessions created by a sampler.
+   * <p>
+   *
+   * The factory identifies the sampler that owns the session.
+   * <p>
+   */
+  private static final class SamplerStepFactory extends PooledTraceStepFactory {
+
+    private final TailSampler owner;
+
+    /**
+     * Constructor.
+     * <p>
+     *
+     * @param owner sampler that creates the session
+     */
+    SamplerStepFactory(TailSampler owner) {
+      this.owner = owner;
+    }
+
+  }
+
+}
@@ -0,0 +1,173 @@
+package org.e2etrace.export;
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free queue for multiple producers and consumers.
+ * <p>
+ *
+ * The queue is a ring buffer with a sequence number per slot. Producers and
+ * consumers claim slots by a CAS on the enqueue and dequeue position. The
+ * sequence number of a slot tells whether the slot is free for the producer
+ * of the current round or filled for the consumer. Hence, neither
+ * <code>offer</code> nor <code>poll</code> ever block and no objects are
+ * allocated after construction.
+ * <p>
+ *
+ * The capacity is rounded up to the next power of two.
+ * <p>
+ */
+final class TraceSessionRingBuffer {
+
+  private final int mask;
+  private final AtomicReferenceArray elements;
+  private final AtomicLongArray sequences;
+  private final AtomicLong enqueuePos;
+  private final AtomicLong dequeuePos;
+
+  /**
+   * Constructor.
+   * <p>
+   *
+   * @param capacity minimum capacity of the queue
+   */
+  TraceSessionRingBuffer(int capacity) {
+    int size = 1;
+
+    if (capacity < 1 || capacity > (1 << 30)) {
+      throw new IllegalArgumentException("Invalid capacity " + capacity);
+    }
+
+    while (size < capacity) {
+      size <<= 1;
+    }
+
+    this.mask = size - 1;
+    this.elements = new AtomicReferenceArray(size);
+    this.sequences = new AtomicLongArray(size);
+    this.enqueuePos = new AtomicLong();
+    this.dequeuePos = new AtomicLong();
+
+    for (int i = 0; i < size; i++) {
+      this.sequences.set(i, i);
+    }
+  }
+
+  /**
+   * Adds an element to the queue.
+   * <p>
+   *
+   * @param element element to add
+   * @return true: element added; false: the queue is full
+   */
+  boolean offer(Object element) {
+    long pos = this.enqueuePos.get();
+    int index;
+    long diff;
+
+    while (true) {
+      index = (int) (pos & this.mask);
+      diff = this.sequences.get(index) - pos;
+
+      if (diff == 0) {
+        // The slot is free for this round
+        if (this.enqueuePos.compareAndSet(pos, pos + 1)) {
+          this.elements.set(index, element);
+          this.sequences.set(index, pos + 1);
+          return true;
+        }
+        pos = this.enqueuePos.get();
+      } else if (diff < 0) {
+        // The slot still contains an element of the previous round
+        return false;
+      } else {
+        // Another producer has claimed the slot
+        pos = this.enqueuePos.get();
+      }
+    }
+  }
+
+  /**
+   * Removes the oldest element from the queue.
+   * <p>
+   *
+   * @return oldest element (null: the queue is empty)
+   */
+  Object poll() {
+    long pos = this.dequeuePos.get();
+    int index;
+    long diff;
+    Object element;
+
+    while (true) {
+      index = (int) (pos & this.mask);
+      diff = this.sequences.get(index) - (pos + 1);
+
+      if (diff == 0) {
+        // The slot has been filled in this round
+        if (this.dequeuePos.compareAndSet(pos, pos + 1)) {
+          element = this.elements.get(index);
+          this.elements.set(index, null);
+          this.sequences.set(index, pos + this.mask + 1);
+          return element;
+        }
+        pos = this.dequeuePos.get();
+      } else if (diff < 0) {
+        // The slot has not been filled yet
+        return null;
+      } else {
+        // Another consumer has claimed the slot
+        pos = this.dequeuePos.get();
+      }
+    }
+  }
+
+  /**
+   * Returns the number of elements in the queue.
+   * <p>
+   *
+   * The value is only an estimate while producers or consumers are active.
+   * <p>
+   *
+   * @return number of elements
+   */
+  int size() {
+    long size = this.enqueuePos.get() - this.dequeuePos.get();
+
+    if (size < 0) {
+      return 0;
+    }
+
+    return (int) Math.min(size, this.mask + 1);
+  }
+
+  /**
+   * Returns the capacity of the queue.
+   * <p>
+   *
+   * @return capacity
+   */
+  int capacity() {
+    return this.mask + 1;
+  }
+
+}
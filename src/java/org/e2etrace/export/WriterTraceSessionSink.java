@@ -0,0 +1,57 @@
+package org.e2etrace.export;
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.io.Writer;
+
+import org.e2etrace.formatter.ITraceFormatter;
+import org.e2etrace.trace.ITraceSession;
+
+/**
+ * Sink that formats trace sessions to a <code>Writer</code>.
+ * <p>
+ *
+ * The sessions are formatted synchronously in the calling thread. Parallel
+ * calls of <code>export</code> are serialized.
+ * <p>
+ */
+public class WriterTraceSessionSink implements ITraceSessionSink {
+
+  private ITraceFormatter formatter;
+  private Writer writer;
+
+  /**
+   * Constructor.
+   * <p>
+   *
+   * @param formatter formatter used for the trace sessions
+   * @param writer destination of the formatted trace sessions
+   */
+  public WriterTraceSessionSink(ITraceFormatter formatter, Writer writer) {
+    this.formatter = formatter;
+    this.writer = writer;
+  }
+
+  /** {@inheritDoc} */
+  public synchronized void export(ITraceSession session) throws IOException {
+    this.formatter.format(session, this.writer);
+    this.writer.flush();
+  }
+
+}
@@ -15,23 +15,43 @@ package org.e2etrace.formatter;
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-
 import java.io.IOException;
 import java.io.Writer;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
 
+import org.e2etrace.trace.ColumnarTraceSession;
 import org.e2etrace.trace.ITraceSession;
 import org.e2etrace.trace.ITraceStep;
+import org.e2etrace.trace.TraceStepWalker;
 
 
 /**
  * Base class for trace formatters.
  * <p>
  *
- * This class provides the logic for traversing a tree of trace steps. For each
- * step the call-back <code>formatSingleStep</code> is invoked and the result
- * written to the output stream. Additionally, <code>formatHeader</code> and
- * <code>formatFooter</code> are invoked to generate formatter header and
- * footer information.
+ * This class provides the logic for traversing a tree of trace steps. The
+ * traversal is iterative (see {@link TraceStepWalker}), so trees of any depth
+ * can be formatted. For each step the call-back <code>writeSingleStep</code>
+ * is invoked, which appends the output directly to a
+ * {@link TraceFormatContext}. Additionally,
+ * <code>writeHeader</code> and <code>writeFooter</code> are invoked to
+ * generate formatter header and footer information.
+ * <p>
+ *
+ * Subclasses must either implement <code>writeSingleStep</code> or the
+ * older call-back <code>formatSingleStep</code>, which returns the output of
+ * a trace step as <code>String</code>. <code>writeSingleStep</code> is
+ * preferred, because it does not create any intermediate objects. The
+ * constructor throws an <code>IllegalStateException</code> if a subclass
+ * implements neither of them.
+ * <p>
+ *
+ * Formatters that print the hierarchical id of every step can request a
+ * {@link TracePath}. The path is maintained during the traversal and is
+ * available in <code>writeSingleStep</code> via
+ * {@link TraceFormatContext#getPath()}.
  * <p>
  *
  * @author Gunther Popp
@@ -39,33 +59,141 @@ import org.e2etrace.trace.ITraceStep;
  */
 public abstract class AbstractTraceFormatter implements ITraceFormatter {
 
+  private static final String NEW_LINE = System.getProperty("line.separator");
+
+  private static final Class[] WRITE_PARAMS = new Class[] { ITraceStep.class,
+      Integer.TYPE, TraceFormatContext.class };
+  private static final Class[] FORMAT_PARAMS = new Class[] { ITraceStep.class,
+      Integer.TYPE };
+
+  // Result of checkSingleStepCallBack per formatter class. The keys are weak,
+  // so the cache does not keep class loaders of hot-deployed applications
+  // alive.
+  private static final Map checkedClasses = Collections
+      .synchronizedMap(new WeakHashMap());
+
+  private boolean pathRequired;
+  private char pathDelimiter;
+
   /**
    * Default constructor.
    * <p>
    *
    */
   protected AbstractTraceFormatter() {
+    checkSingleStepCallBack();
+  }
+
+  /**
+   * Constructor: Maintain the path of the current trace step.
+   * <p>
+   *
+   * @param pathDelimiter delimiter between the ids of the path
+   */
+  protected AbstractTraceFormatter(char pathDelimiter) {
+    this.pathRequired = true;
+    this.pathDelimiter = pathDelimiter;
 
+    checkSingleStepCallBack();
   }
 
   /**
    * CALL-BACK: Generate formatted output for a single trace step.
    * <p>
    *
+   * The default implementation invokes <code>writeSingleStep</code> and
+   * returns the result.
+   * <p>
+   *
    * @param step trace step
    * @param level current call level (starting with 0)
    * @return formatted output
    */
-  protected abstract String formatSingleStep(ITraceStep step, int level);
+  protected String formatSingleStep(ITraceStep step, int level) {
+    TraceFormatContext context = new TraceFormatContext();
 
-  /** {@inheritDoc} */
+    writeSingleStep(step, level, context);
+
+    return context.toString();
+  }
+
+  /**
+   * CALL-BACK: Append formatted output for a single trace step.
+   * <p>
+   *
+   * The default implementation appends the result of
+   * <code>formatSingleStep</code>.
+   * <p>
+   *
+   * @param step trace step
+   * @param level current call level (starting with 0)
+   * @param context buffer receiving the output
+   */
+  protected void writeSingleStep(ITraceStep step, int level,
+      TraceFormatContext context) {
+    context.write(formatSingleStep(step, level));
+  }
+
+  /**
+   * Generate a formatted output for the supplied trace session.
+   * <p>
+   *
+   * If <code>toWriter</code> is a {@link TraceFormatContext}, the output is
+   * appended to the context directly. Otherwise the output is buffered in a
+   * new context, which passes its content to <code>toWriter</code> whenever
+   * the buffer is full. <code>toWriter</code> is not flushed.
+   * <p>
+   *
+   * @param session trace session
+   * @param toWriter Writer to send the output to
+   * @throws IOException A problem occured sending the output to toWriter
+   */
   public void format(ITraceSession session, Writer toWriter) throws IOException {
-    writeHeader(session, toWriter);
-    if(session.getRootStep() != null ) {
-      writeSteps(session.getRootStep(), toWriter, 0);
+    TraceFormatContext context = getContext(toWriter);
+    ITraceStep root;
+
+    root = session.getRootStep();
+    context.setSessionStartNanos(root != null ? root.getStartNanos()
+        : ITraceStep.UNKNOWN_START);
+
+    writeHeader(session, context);
+    if (session instanceof ColumnarTraceSession) {
+      writeSteps((ColumnarTraceSession) session, context);
+    } else if (root != null) {
+      writeSteps(root, context, 0);
+    }
+    writeFooter(session, context);
+
+    if (context != toWriter) {
+      context.flushBuffer();
+    }
+  }
+
+  /**
+   * Formats a duration in ns as ms with microsecond precision.
+   * <p>
+   *
+   * Example: 1234567ns are formatted as <code>1.234</code>. The output does
+   * not depend on the default locale. Negative durations (i.e. invalid
+   * durations, see {@link ITraceStep#getIsolatedDuration()}) are formatted as
+   * <code>-1</code>.
+   * <p>
+   *
+   * @param nanos duration in ns
+   * @return formatted duration
+   * @see TraceFormatContext#writeDuration(long)
+   */
+  protected String formatDuration(long nanos) {
+    TraceFormatContext output;
+
+    if (nanos < 0) {
+      return "-1";
     }
-    writeFooter(session, toWriter);
 
+    output = new TraceFormatContext(null, 16);
+    output.writeDuration(nanos);
+
+    return output.toString();
   }
 
   /**
@@ -74,7 +202,7 @@ public abstract class AbstractTraceFormatter implements ITraceFormatter {
    * @return newline character(s)
    */
   protected String getNewLine() {
-    return System.getProperty("line.separator");
+    return NEW_LINE;
   }
 
   /**
@@ -100,28 +228,180 @@ public abstract class AbstractTraceFormatter implements ITraceFormatter {
       throws IOException;
 
   /**
-   * Writes output of a trace step using a given call level and forwards the
-   * call to all child steps.
+   * Writes output of a trace step and all of its children using a given call
+   * level for the trace step.
    * <p>
    *
    * @param step current step
-   * @param toWriter toWriter Writer to send the output to
+   * @param toWriter Writer to send the output to
    * @param level current call level (starting with 0)
    * @throws IOException A problem occured sending the output to toWriter
+   * @deprecated Use
+   *             {@link #writeSteps(ITraceStep, TraceFormatContext, int)}
+   *             instead.
    */
+  @Deprecated
   protected void writeSteps(ITraceStep step, Writer toWriter, int level)
       throws IOException {
-    ITraceStep childSteps[];
+    TraceFormatContext context = getContext(toWriter);
 
-    if (step != null) {
-      toWriter.write(formatSingleStep(step, level));
+    writeSteps(step, context, level);
 
-      childSteps = step.getChildren();
-      level = level + 1;
-      for (int i = 0; i < childSteps.length; i++) {
-        writeSteps(childSteps[i], toWriter, level);
+    if (context != toWriter) {
+      context.flushBuffer();
+    }
+  }
+
+  /**
+   * Writes output of a trace step and all of its children using a given call
+   * level for the trace step.
+   * <p>
+   *
+   * @param step current step
+   * @param context buffer receiving the output
+   * @param level current call level (starting with 0)
+   * @throws IOException A problem occured sending the output to the target
+   *           of the context
+   */
+  protected void writeSteps(ITraceStep step, TraceFormatContext context,
+      int level) throws IOException {
+    TraceStepWalker walker = context.getWalker();
+    ITraceStep current;
+    int currentLevel;
+
+    walker.reset(step);
+    while (walker.next()) {
+      current = walker.getStep();
+      currentLevel = level + walker.getLevel();
+
+      if (this.pathRequired) {
+        context.getPath().enter(current, currentLevel);
+      }
+      writeSingleStep(current, currentLevel, context);
+      context.flushIfFull();
+    }
+  }
+
+  /**
+   * Writes output of all trace steps of a columnar trace session.
+   * <p>
+   *
+   * The steps of a {@link ColumnarTraceSession} are already stored in the
+   * order of the output. Hence, no traversal of the tree is required.
+   * <p>
+   *
+   * @param session columnar trace session
+   * @param context buffer receiving the output
+   * @throws IOException A problem occured sending the output to the target
+   *           of the context
+   */
+  protected void writeSteps(ColumnarTraceSession session,
+      TraceFormatContext context) throws IOException {
+    int count = session.getStepCount();
+
+    ITraceStep step;
+    int level;
+
+    for (int i = 0; i < count; i++) {
+      step = session.getStep(i);
+      level = session.getLevel(i);
+      if (this.pathRequired) {
+        context.getPath().enter(step, level);
+      }
+      writeSingleStep(step, level, context);
+      context.flushIfFull();
+    }
+  }
+
+  /**
+   * Helper method: Returns the format context for a writer.
+   * <p>
+   *
+   * If <code>toWriter</code> is a {@link TraceFormatContext}, it is used
+   * directly. Otherwise a new context is bound to <code>toWriter</code>. If
+   * the formatter maintains the path of the current step, the path is assigned
+   * to the context.
+   * <p>
+   *
+   * @param toWriter Writer to send the output to
+   * @return format context
+   */
+  private TraceFormatContext getContext(Writer toWriter) {
+    TraceFormatContext context;
+
+    if (toWriter instanceof TraceFormatContext) {
+      context = (TraceFormatContext) toWriter;
+    } else {
+      context = new TraceFormatContext(toWriter);
+    }
+
+    if (this.pathRequired
+        && (context.getPath() == null
+            || context.getPath().getDelimiter() != this.pathDelimiter)) {
+      context.setPath(new TracePath(this.pathDelimiter));
+    }
+
+    return context;
+  }
+
+  /**
+   * Helper method: Checks that the subclass implements at least one of the
+   * call-backs <code>writeSingleStep</code> and
+   * <code>formatSingleStep</code>.
+   * <p>
+   *
+   * The default implementations invoke each other, so a subclass without
+   * either of them would fail with a <code>StackOverflowError</code> when the
+   * first trace step is formatted.
+   * <p>
+   *
+   * The result of the check is cached per formatter class, so the reflective
+   * lookup is only done once for every class.
+   * <p>
+   *
+   * @throws IllegalStateException Neither call-back has been implemented
+   */
+  private void checkSingleStepCallBack() {
+    Class formatterClass = getClass();
+    Boolean implemented = (Boolean) checkedClasses.get(formatterClass);
+
+    if (implemented == null) {
+      implemented = Boolean.FALSE;
+
+      for (Class clazz = formatterClass; clazz != AbstractTraceFormatter.class; clazz = clazz
+          .getSuperclass()) {
+        if (declaresMethod(clazz, "writeSingleStep", WRITE_PARAMS)
+            || declaresMethod(clazz, "formatSingleStep", FORMAT_PARAMS)) {
+          implemented = Boolean.TRUE;
+          break;
+        }
       }
 
+      checkedClasses.put(formatterClass, implemented);
+    }
+
+    if (!implemented.booleanValue()) {
+      throw new IllegalStateException(formatterClass.getName()
+          + " must implement either writeSingleStep or formatSingleStep");
+    }
+  }
+
+  /**
+   * Helper method: Checks if a class declares a method.
+   * <p>
+   *
+   * @param clazz class
+   * @param name name of the method
+   * @param params parameter types of the method
+   * @return true: the method is declared by the class itself
+   */
+  private static boolean declaresMethod(Class clazz, String name, Class[] params) {
+    try {
+      clazz.getDeclaredMethod(name, params);
+
+      return true;
+    } catch (NoSuchMethodException e) {
+      return false;
     }
   }
 }
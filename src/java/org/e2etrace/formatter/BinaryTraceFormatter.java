@@ -0,0 +1,336 @@
+package org.e2etrace.formatter;
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.e2etrace.trace.ITraceSession;
+import org.e2etrace.trace.ITraceStep;
+import org.e2etrace.trace.TraceSessionRootStepId;
+import org.e2etrace.trace.TraceStepWalker;
+
+
+/**
+ * Compact binary trace formatter.
+ * <p>
+ *
+ * Each trace session is written as a self-contained record. Hence, the
+ * records of many sessions may be appended to the same file and read with
+ * {@link BinaryTraceReader}. A record has the following layout (all numbers
+ * are unsigned varints, i.e. 7 bits per byte, least significant group first):
+ * <p>
+ *
+ * <pre>
+ *  record  := MAGIC VERSION stringCount string* stepCount step*
+ *  string  := byteLength utf8Bytes
+ *  step    := (stringIndex &lt;&lt; 1 | isSessionRoot) [threadNameIndex + 1]
+ *             parentDelta durationDelta startDelta
+ * </pre>
+ *
+ * The ids and thread names of all steps are stored once per record in a
+ * string table. The steps are written in depth-first order.
+ * <code>parentDelta</code> is the difference between the index of the step
+ * and the index of its parent (0 for the first step). The duration of the
+ * first step is stored as is, all other durations as difference to the
+ * duration of the parent step (zig-zag encoded, because the difference may
+ * be negative). The start times (see {@link ITraceStep#getStartNanos()}) are
+ * stored the same way. The differences may overflow, but the reader reverses
+ * them with the same two's complement arithmetic. Hence, every start time,
+ * including {@link ITraceStep#UNKNOWN_START}, is restored exactly. Isolated
+ * durations are not stored, they are calculated from the durations of the
+ * children. Typically, a step requires 6-10 bytes.
+ * Records of version 1 do not contain start times.
+ * <p>
+ *
+ * Records are usually written to an <code>OutputStream</code> (see
+ * <code>write</code>). If the formatter is used via the
+ * <code>ITraceFormatter</code> interface, every byte of the record is written
+ * as a single character in the range 0-255. Thus, the target
+ * <code>Writer</code> must use the <code>ISO-8859-1</code> encoding.
+ * <p>
+ */
+public class BinaryTraceFormatter implements ITraceFormatter {
+
+  /** First byte of every record. */
+  public static final int MAGIC = 0xE2;
+
+  /** Version of the record layout. */
+  public static final int VERSION = 2;
+
+  /** Character encoding of the string table. */
+  static final String ENCODING = "UTF-8";
+
+  private static final int INITIAL_DEPTH = 16;
+
+  /**
+   * Default constructor.
+   * <p>
+   *
+   */
+  public BinaryTraceFormatter() {
+
+  }
+
+  /**
+   * Generate a record for the supplied trace session.
+   * <p>
+   *
+   * Each byte of the record is written as a single character (see class
+   * description).
+   * <p>
+   *
+   * @param session trace session
+   * @param toWriter Writer to send the output to
+   * @throws IOException A problem occured sending the output to toWriter
+   */
+  public void format(ITraceSession session, Writer toWriter) throws IOException {
+    RecordBuffer record = encode(session);
+    char[] chars;
+
+    if (record != null) {
+      chars = new char[record.length];
+      for (int i = 0; i < record.length; i++) {
+        chars[i] = (char) (record.data[i] & 0xFF);
+      }
+      toWriter.write(chars);
+    }
+  }
+
+  /**
+   * Writes a record for the supplied trace session.
+   * <p>
+   *
+   * @param session trace session
+   * @param out stream to send the output to
+   * @throws IOException A problem occured sending the output to out
+   */
+  public void write(ITraceSession session, OutputStream out) throws IOException {
+    RecordBuffer record = encode(session);
+
+    if (record != null) {
+      out.write(record.data, 0, record.length);
+    }
+  }
+
+  /**
+   * Helper method: Encodes a trace session.
+   * <p>
+   *
+   * @param session trace session
+   * @return encoded record or <code>null</code> if the session has no root
+   *         step
+   * @throws UnsupportedEncodingException UTF-8 is not supported
+   */
+  private RecordBuffer encode(ITraceSession session)
+      throws UnsupportedEncodingException {
+    ITraceStep root = session.getRootStep();
+    RecordBuffer strings = new RecordBuffer();
+    RecordBuffer steps = new RecordBuffer();
+    RecordBuffer record;
+    Map stringIndex = new HashMap();
+    TraceStepWalker walker = new TraceStepWalker();
+    int[] indexAt = new int[INITIAL_DEPTH];
+    long[] durationAt = new long[INITIAL_DEPTH];
+    long[] startAt = new long[INITIAL_DEPTH];
+    int count = 0;
+    ITraceStep step;
+    int level;
+    long duration;
+    long start;
+    boolean isRoot;
+
+    if (root == null) {
+      return null;
+    }
+
+    walker.reset(root);
+    while (walker.next()) {
+      step = walker.getStep();
+      level = walker.getLevel();
+      duration = step.getDurationNanos();
+      start = step.getStartNanos();
+      isRoot = step.getId() instanceof TraceSessionRootStepId;
+
+      steps.writeVarLong(((long) addString(step.getId().asString(),
+          stringIndex, strings) << 1)
+          | (isRoot ? 1 : 0));
+      if (isRoot) {
+        String threadName = ((TraceSessionRootStepId) step.getId()).getThreadName();
+
+        steps.writeVarLong(threadName == null ? 0 : addString(threadName,
+            stringIndex, strings) + 1);
+      }
+
+      if (level == 0) {
+        steps.writeVarLong(0);
+        steps.writeVarLong(zigZag(duration));
+        steps.writeVarLong(zigZag(start));
+      } else {
+        steps.writeVarLong(count - indexAt[level - 1]);
+        steps.writeVarLong(zigZag(durationAt[level - 1] - duration));
+        steps.writeVarLong(zigZag(start - startAt[level - 1]));
+      }
+
+      if (level == indexAt.length) {
+        int[] newIndexAt = new int[level * 2];
+        long[] newDurationAt = new long[level * 2];
+        long[] newStartAt = new long[level * 2];
+
+        System.arraycopy(indexAt, 0, newIndexAt, 0, level);
+        System.arraycopy(durationAt, 0, newDurationAt, 0, level);
+        System.arraycopy(startAt, 0, newStartAt, 0, level);
+        indexAt = newIndexAt;
+        durationAt = newDurationAt;
+        startAt = newStartAt;
+      }
+      indexAt[level] = count;
+      durationAt[level] = duration;
+      startAt[level] = start;
+      count++;
+    }
+
+    record = new RecordBuffer();
+    record.writeByte(MAGIC);
+    record.writeByte(VERSION);
+    record.writeVarLong(stringIndex.size());
+    record.write(strings);
+    record.writeVarLong(count);
+    record.write(steps);
+
+    return record;
+  }
+
+  /**
+   * Helper method: Returns the index of a string in the string table. Unknown
+   * strings are appended to the table.
+   * <p>
+   *
+   * @param str string
+   * @param stringIndex indices of all strings in the table
+   * @param strings encoded string table
+   * @return index of the string
+   * @throws UnsupportedEncodingException UTF-8 is not supported
+   */
+  private int addString(String str, Map stringIndex, RecordBuffer strings)
+      throws UnsupportedEncodingException {
+    Integer index = (Integer) stringIndex.get(str);
+    byte[] bytes;
+
+    if (index == null) {
+      index = Integer.valueOf(stringIndex.size());
+      stringIndex.put(str, index);
+
+      bytes = str.getBytes(ENCODING);
+      strings.writeVarLong(bytes.length);
+      strings.write(bytes, 0, bytes.length);
+    }
+
+    return index.intValue();
+  }
+
+  /**
+   * Helper method: Maps signed values to unsigned values (0, -1, 1, -2, 2, ...
+   * are mapped to 0, 1, 2, 3, 4, ...).
+   * <p>
+   *
+   * @param value signed value
+   * @return unsigned value
+   */
+  private static long zigZag(long value) {
+    return (value << 1) ^ (value >> 63);
+  }
+
+  /**
+   * Growable byte array.
+   * <p>
+   */
+  private static final class RecordBuffer {
+    private byte[] data = new byte[256];
+    private int length;
+
+    /**
+     * Appends a single byte.
+     *
+     * @param b byte
+     */
+    void writeByte(int b) {
+      ensureCapacity(1);
+      this.data[this.length] = (byte) b;
+      this.length++;
+    }
+
+    /**
+     * Appends a number as unsigned varint.
+     *
+     * @param value number
+     */
+    void writeVarLong(long value) {
+      ensureCapacity(10);
+      while ((value & ~0x7FL) != 0) {
+        this.data[this.length] = (byte) ((value & 0x7F) | 0x80);
+        this.length++;
+        value = value >>> 7;
+      }
+      this.data[this.length] = (byte) value;
+      this.length++;
+    }
+
+    /**
+     * Appends a byte array.
+     *
+     * @param bytes bytes
+     * @param off offset of the first byte
+     * @param len number of bytes
+     */
+    void write(byte[] bytes, int off, int len) {
+      ensureCapacity(len);
+      System.arraycopy(bytes, off, this.data, this.length, len);
+      this.length += len;
+    }
+
+    /**
+     * Appends the content of another buffer.
+     *
+     * @param buffer buffer
+     */
+    void write(RecordBuffer buffer) {
+      write(buffer.data, 0, buffer.length);
+    }
+
+    /**
+     * Grows the buffer if required.
+     *
+     * @param additional number of bytes that will be appended
+     */
+    private void ensureCapacity(int additional) {
+      int required = this.length + additional;
+
+      if (required > this.data.length) {
+        byte[] newData = new byte[Math.max(required, this.data.length * 2)];
+
+        System.arraycopy(this.data, 0, newData, 0, this.length);
+        this.data = newData;
+      }
+    }
+  }
+
+}
@@ -0,0 +1,309 @@
+package org.e2etrace.formatter;
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+import org.e2etrace.trace.ITraceSession;
+import org.e2etrace.trace.ITraceStep;
+import org.e2etrace.trace.RecordedTraceSession;
+import org.e2etrace.trace.RecordedTraceStep;
+import org.e2etrace.trace.SimpleTraceStepId;
+import org.e2etrace.trace.TraceSessionRootStep;
+import org.e2etrace.trace.TraceSessionRootStepId;
+
+
+/**
+ * Reader for records written by {@link BinaryTraceFormatter}.
+ * <p>
+ *
+ * The reader restores the trace tree of every record as
+ * {@link RecordedTraceSession}. Session root steps are restored as
+ * {@link TraceSessionRootStep} including the thread name, all other steps as
+ * {@link RecordedTraceStep} with a {@link SimpleTraceStepId}. The restored
+ * sessions can be passed to any other trace formatter.
+ * <p>
+ *
+ * A zero byte at the start of a record is treated as end of the data. Files
+ * of the {@link org.e2etrace.export.MappedTraceLogSink} are padded with zero
+ * bytes, which are only removed if the segment has been closed properly.
+ * <p>
+ *
+ * The class can also be used as command line tool to convert a file with
+ * binary records into CSV or plain text:
+ * <p>
+ *
+ * <pre>
+ *  java org.e2etrace.formatter.BinaryTraceReader [-csv | -text] file
+ * </pre>
+ */
+public class BinaryTraceReader {
+
+  private DataInputStream in;
+
+  /**
+   * Constructor.
+   * <p>
+   *
+   * @param in stream containing the records
+   */
+  public BinaryTraceReader(InputStream in) {
+    this.in = new DataInputStream(in);
+  }
+
+  /**
+   * Reads the next record.
+   * <p>
+   *
+   * @return restored trace session or <code>null</code> if the end of the
+   *         stream or the zero padding after the last record has been reached
+   * @throws IOException A problem occured reading the stream or the stream
+   *           contains no valid record
+   */
+  public ITraceSession readSession() throws IOException {
+    int magic = this.in.read();
+    int version;
+    String[] strings;
+    ITraceStep[] steps;
+    long[] durations;
+    long[] starts;
+    byte[] bytes;
+    int parent;
+    int idRef;
+    int threadRef;
+    long delta;
+
+    if (magic <= 0) {
+      return null;
+    }
+    if (magic != BinaryTraceFormatter.MAGIC) {
+      throw new IOException("Invalid trace record: unexpected byte " + magic);
+    }
+
+    version = this.in.readUnsignedByte();
+    if (version < 1 || version > BinaryTraceFormatter.VERSION) {
+      throw new IOException("Unsupported version of trace record: " + version);
+    }
+
+    strings = new String[readCount()];
+    for (int i = 0; i < strings.length; i++) {
+      bytes = new byte[readCount()];
+      this.in.readFully(bytes);
+      strings[i] = new String(bytes, BinaryTraceFormatter.ENCODING);
+    }
+
+    steps = new ITraceStep[readCount()];
+    durations = new long[steps.length];
+    starts = new long[steps.length];
+    if (steps.length == 0) {
+      throw new IOException("Invalid trace record: no trace steps");
+    }
+
+    for (int i = 0; i < steps.length; i++) {
+      idRef = readCount();
+      threadRef = (idRef & 1) != 0 ? readCount() : -1;
+      parent = i - readCount();
+      if (i > 0 && (parent < 0 || parent >= i)) {
+        throw new IOException("Invalid trace record: parent of step " + i
+            + " is " + parent);
+      }
+
+      delta = readZigZag();
+      durations[i] = i == 0 ? delta : durations[parent] - delta;
+
+      if (version >= 2) {
+        delta = readZigZag();
+        starts[i] = i == 0 ? delta : starts[parent] + delta;
+      } else {
+        starts[i] = ITraceStep.UNKNOWN_START;
+      }
+
+      if (threadRef >= 0) {
+        steps[i] = new TraceSessionRootStep(new TraceSessionRootStepId(
+            stripPrefix(getString(strings, (idRef >>> 1) + 1)),
+            getString(strings, threadRef)));
+      } else {
+        steps[i] = new RecordedTraceStep(new SimpleTraceStepId(getString(
+            strings, (idRef >>> 1) + 1)), starts[i], durations[i]);
+      }
+
+      if (i > 0) {
+        steps[parent].addChild(steps[i]);
+      }
+    }
+
+    return new RecordedTraceSession(steps[0]);
+  }
+
+  /**
+   * Reads all records of a stream and writes them using another trace
+   * formatter.
+   * <p>
+   *
+   * @param formatter trace formatter
+   * @param toWriter Writer to send the output to
+   * @return number of converted trace sessions
+   * @throws IOException A problem occured reading the stream or writing the
+   *           output
+   */
+  public int convert(ITraceFormatter formatter, Writer toWriter)
+      throws IOException {
+    ITraceSession session;
+    int count = 0;
+
+    while ((session = readSession()) != null) {
+      formatter.format(session, toWriter);
+      count++;
+    }
+
+    return count;
+  }
+
+  /**
+   * Main method: Converts a file with binary records to CSV or plain text.
+   * <p>
+   *
+   * @param args command line args
+   * @throws IOException A problem occured reading the file
+   */
+  public static void main(String[] args) throws IOException {
+    ITraceFormatter formatter = new PlainTextTraceFormatter();
+    String file = null;
+    InputStream in;
+    Writer out;
+
+    for (int i = 0; i < args.length; i++) {
+      if (args[i].equals("-csv")) {
+        formatter = new CSVTraceFormatter();
+      } else if (args[i].equals("-text")) {
+        formatter = new PlainTextTraceFormatter();
+      } else {
+        file = args[i];
+      }
+    }
+
+    if (file == null) {
+      System.err.println("Usage: BinaryTraceReader [-csv | -text] file");
+      return;
+    }
+
+    in = new BufferedInputStream(new FileInputStream(file));
+    out = new OutputStreamWriter(System.out);
+    try {
+      new BinaryTraceReader(in).convert(formatter, out);
+    } finally {
+      out.flush();
+      in.close();
+    }
+  }
+
+  /**
+   * Helper method: Reads a non-negative count or index.
+   * <p>
+   *
+   * @return count
+   * @throws IOException A problem occured reading the stream or the value is
+   *           out of range
+   */
+  private int readCount() throws IOException {
+    long value = readVarLong();
+
+    if (value > Integer.MAX_VALUE) {
+      throw new IOException("Invalid trace record: value out of range "
+          + value);
+    }
+    return (int) value;
+  }
+
+  /**
+   * Helper method: Reads an unsigned varint.
+   * <p>
+   *
+   * @return value
+   * @throws IOException A problem occured reading the stream
+   */
+  private long readVarLong() throws IOException {
+    long value = 0;
+    int shift = 0;
+    int b;
+
+    do {
+      if (shift > 63) {
+        throw new IOException("Invalid trace record: varint too long");
+      }
+      b = this.in.readUnsignedByte();
+      value |= (long) (b & 0x7F) << shift;
+      shift += 7;
+    } while ((b & 0x80) != 0);
+
+    return value;
+  }
+
+  /**
+   * Helper method: Reads a zig-zag encoded signed varint.
+   * <p>
+   *
+   * @return value
+   * @throws IOException A problem occured reading the stream
+   */
+  private long readZigZag() throws IOException {
+    long value = readVarLong();
+
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  /**
+   * Helper method: Looks up a string in the string table.
+   * <p>
+   *
+   * @param strings string table
+   * @param ref index of the string + 1 (0: <code>null</code>)
+   * @return string
+   * @throws IOException the index is out of range
+   */
+  private static String getString(String[] strings, int ref)
+      throws IOException {
+    if (ref == 0) {
+      return null;
+    }
+    if (ref > strings.length) {
+      throw new IOException("Invalid trace record: unknown string " + ref);
+    }
+    return strings[ref - 1];
+  }
+
+  /**
+   * Helper method: Removes the dollar sign of a session id.
+   * <p>
+   *
+   * @param id session id
+   * @return session id without prefix
+   */
+  private static String stripPrefix(String id) {
+    if (id != null && id.startsWith("$")) {
+      return id.substring(1);
+    }
+    return id;
+  }
+
+}
@@ -18,11 +18,9 @@ package org.e2etrace.formatter;
 
 import java.io.IOException;
 import java.io.Writer;
-import java.util.Stack;
 
 import org.e2etrace.trace.ITraceSession;
 import org.e2etrace.trace.ITraceStep;
-import org.e2etrace.trace.TraceSessionRootStep;
 import org.e2etrace.trace.TraceSessionRootStepId;
 
 
@@ -45,13 +43,18 @@ import org.e2etrace.trace.TraceSessionRootStepId;
  * executed in the context of trace session <code>$Session</code>.
  * <p>
  *
+ * The durations are written in ms with microsecond precision (e.g.
+ * <code>12.345</code>). An isolated duration of <code>-1</code> indicates
+ * that no valid isolated duration exists for the trace step.
+ * <p>
+ *
  * @author Gunther Popp
  *
  */
 public class CSVTraceFormatter extends AbstractTraceFormatter {
 
-  private static final String CSV_DELIM = ",";
-  private static final String PATH_DELIM = "|";
+  private static final char CSV_DELIM = ',';
+  private static final char PATH_DELIM = '|';
 
   /**
    * Default constructor.
@@ -59,51 +62,68 @@ public class CSVTraceFormatter extends AbstractTraceFormatter {
    *
    */
   public CSVTraceFormatter() {
-
+    super(PATH_DELIM);
   }
 
   /** {@inheritDoc} */
-  protected String formatSingleStep(ITraceStep step, int level) {
-    StringBuffer output = new StringBuffer();
-    StringBuffer path = new StringBuffer();
-    ITraceStep ts = step;
-    String threadName = null;
-    TraceSessionRootStepId rootId;
-    Stack stepHierarchy = new Stack();
-
-    // Build the hierarchical id and retrieve the thread name
-    do {
-      stepHierarchy.push(ts.getId().asString());
-
-      if( ts instanceof TraceSessionRootStep && threadName == null) {
-        rootId = (TraceSessionRootStepId) ts.getId();
-        threadName = rootId.getThreadName();
-      }
+  protected void writeSingleStep(ITraceStep step, int level,
+      TraceFormatContext context) {
+    TracePath path = context.getPath();
 
-      ts = ts.getParent();
+    // Write the CSV line
+    context.write(step.getId().asString());
+    context.write(CSV_DELIM);
+    if (path != null) {
+      path.writeTo(context);
+      context.write(CSV_DELIM);
+      context.write(path.getThreadName());
+    } else {
+      writePath(step, context);
+      context.write(CSV_DELIM);
+      context.write(findThreadName(step));
+    }
+    context.write(CSV_DELIM);
+    context.writeDuration(step.getDurationNanos());
+    context.write(CSV_DELIM);
+    context.writeDuration(step.getIsolatedDurationNanos());
+    context.writeNewLine();
+  }
 
-    } while( ts != null);
+  /**
+   * Helper method: Writes the hierarchical id of a trace step.
+   * <p>
+   *
+   * This method is only used if a single step is formatted outside of the
+   * traversal of a session (see <code>formatSingleStep</code>). The ids of
+   * all parent steps are written first, starting with the outermost step.
+   * <p>
+   *
+   * @param step trace step
+   * @param context buffer receiving the output
+   */
+  private void writePath(ITraceStep step, TraceFormatContext context) {
+    if (step.getParent() != null) {
+      writePath(step.getParent(), context);
+      context.write(PATH_DELIM);
+    }
+    context.write(step.getId().asString());
+  }
 
-    while( !stepHierarchy.empty() ){
-      path.append((String) stepHierarchy.pop());
-      if(!stepHierarchy.empty()) {
-        path.append(PATH_DELIM);
+  /**
+   * Helper method: Retrieves the thread name of the nearest trace session.
+   * <p>
+   *
+   * @param step trace step
+   * @return thread name or <code>null</code>
+   */
+  private String findThreadName(ITraceStep step) {
+    for (ITraceStep ts = step; ts != null; ts = ts.getParent()) {
+      if (ts.getId() instanceof TraceSessionRootStepId) {
+        return ((TraceSessionRootStepId) ts.getId()).getThreadName();
       }
     }
 
-    // Write the CSV line
-    output.append(step.getId().asString());
-    output.append(CSV_DELIM);
-    output.append(path.toString());
-    output.append(CSV_DELIM);
-    output.append(threadName);
-    output.append(CSV_DELIM);
-    output.append(step.getDuration());
-    output.append(CSV_DELIM);
-    output.append(step.getIsolatedDuration());
-    output.append(getNewLine());
-
-    return output.toString();
+    return null;
   }
 
   /** {@inheritDoc} */
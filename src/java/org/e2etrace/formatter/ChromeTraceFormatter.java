@@ -0,0 +1,243 @@
+package org.e2etrace.formatter;
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import java.io.IOException;
+import java.io.Writer;
+
+import org.e2etrace.trace.ITraceSession;
+import org.e2etrace.trace.ITraceStep;
+import org.e2etrace.trace.TraceSessionRootStepId;
+
+
+/**
+ * Trace formatter for the Chrome Trace Event format.
+ * <p>
+ *
+ * The output can be loaded into timeline viewers that support this format
+ * (e.g. <code>chrome://tracing</code> or Perfetto). Every trace step is
+ * written as "complete event" (phase <code>X</code>) with its start offset
+ * relative to the start of the trace session and its duration. Both values
+ * are written in microseconds with nanosecond precision. The hierarchical id
+ * and the isolated duration of the step are added as arguments.
+ * <p>
+ *
+ * All steps of a trace session are shown as one process, named after the
+ * session id. The steps of each (nested) trace session are shown as thread,
+ * named after the thread that executed the session (see
+ * {@link TraceSessionRootStepId#getThreadName()}). Steps with an unknown
+ * start time are omitted.
+ * <p>
+ *
+ * Each call of <code>format</code> writes a complete JSON document. The
+ * events are streamed to the writer, so large sessions are not buffered in
+ * memory.
+ * <p>
+ */
+public class ChromeTraceFormatter extends AbstractTraceFormatter {
+
+  private static final char PATH_DELIM = '/';
+  private static final String CATEGORY = "e2etrace";
+  private static final int PID = 1;
+
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  /**
+   * Default constructor.
+   * <p>
+   *
+   */
+  public ChromeTraceFormatter() {
+    super(PATH_DELIM);
+  }
+
+  /** {@inheritDoc} */
+  protected void writeSingleStep(ITraceStep step, int level,
+      TraceFormatContext context) {
+    TracePath path = context.getPath();
+    long sessionStart = context.getSessionStartNanos();
+    long start = step.getStartNanos();
+    int tid = threadId(path.getThreadName());
+
+    if (step.getId() instanceof TraceSessionRootStepId) {
+      context.write(',');
+      context.writeNewLine();
+      writeMetadata(context, "thread_name", tid, path.getThreadName());
+    }
+
+    if (start == ITraceStep.UNKNOWN_START
+        || sessionStart == ITraceStep.UNKNOWN_START) {
+      return;
+    }
+
+    context.write(',');
+    context.writeNewLine();
+    context.write("{\"name\":");
+    writeString(context, step.getId().asString());
+    context.write(",\"cat\":\"");
+    context.write(CATEGORY);
+    context.write("\",\"ph\":\"X\",\"ts\":");
+    writeMicros(context, start - sessionStart);
+    context.write(",\"dur\":");
+    writeMicros(context, step.getDurationNanos());
+    context.write(",\"pid\":");
+    context.writeLong(PID);
+    context.write(",\"tid\":");
+    context.writeLong(tid);
+    context.write(",\"args\":{\"path\":\"");
+    writeEscaped(context, path);
+    context.write("\",\"isolated\":");
+    writeMicros(context, step.getIsolatedDurationNanos());
+    context.write("}}");
+  }
+
+  /** {@inheritDoc} */
+  protected void writeHeader(ITraceSession session, Writer toWriter)
+      throws IOException {
+    TraceFormatContext context;
+
+    if (toWriter instanceof TraceFormatContext) {
+      context = (TraceFormatContext) toWriter;
+    } else {
+      context = new TraceFormatContext(toWriter, 256);
+    }
+
+    context.write("{\"traceEvents\":[");
+    context.writeNewLine();
+    writeMetadata(context, "process_name", 0,
+        session.getRootStep() != null ? session.getRootStep().getId()
+            .asString() : null);
+
+    if (context != toWriter) {
+      context.flushBuffer();
+    }
+  }
+
+  /** {@inheritDoc} */
+  protected void writeFooter(ITraceSession session, Writer toWriter)
+      throws IOException {
+    toWriter.write(getNewLine());
+    toWriter.write("],\"displayTimeUnit\":\"ms\"}");
+    toWriter.write(getNewLine());
+  }
+
+  /**
+   * Helper method: Writes a metadata event.
+   * <p>
+   *
+   * @param context buffer receiving the output
+   * @param name name of the metadata event
+   * @param tid thread id
+   * @param value name of the process or thread
+   */
+  private void writeMetadata(TraceFormatContext context, String name, int tid,
+      String value) {
+    context.write("{\"name\":\"");
+    context.write(name);
+    context.write("\",\"ph\":\"M\",\"pid\":");
+    context.writeLong(PID);
+    context.write(",\"tid\":");
+    context.writeLong(tid);
+    context.write(",\"args\":{\"name\":");
+    writeString(context, value);
+    context.write("}}");
+  }
+
+  /**
+   * Helper method: Writes a duration in ns as us with ns precision.
+   * <p>
+   *
+   * @param context buffer receiving the output
+   * @param nanos duration in ns (negative values are written as -1)
+   */
+  private void writeMicros(TraceFormatContext context, long nanos) {
+    long fraction;
+
+    if (nanos < 0) {
+      context.write("-1");
+      return;
+    }
+
+    context.writeLong(nanos / 1000L);
+    context.write('.');
+
+    fraction = nanos % 1000L;
+    if (fraction < 100) {
+      context.write('0');
+    }
+    if (fraction < 10) {
+      context.write('0');
+    }
+    context.writeLong(fraction);
+  }
+
+  /**
+   * Helper method: Writes a JSON string literal.
+   * <p>
+   *
+   * @param context buffer receiving the output
+   * @param str string (may be <code>null</code>)
+   */
+  private void writeString(TraceFormatContext context, CharSequence str) {
+    if (str == null) {
+      context.write("null");
+      return;
+    }
+
+    context.write('"');
+    writeEscaped(context, str);
+    context.write('"');
+  }
+
+  /**
+   * Helper method: Writes the characters of a string with JSON escaping.
+   * <p>
+   *
+   * @param context buffer receiving the output
+   * @param str string
+   */
+  private void writeEscaped(TraceFormatContext context, CharSequence str) {
+    char c;
+
+    for (int i = 0; i < str.length(); i++) {
+      c = str.charAt(i);
+
+      if (c == '"' || c == '\\') {
+        context.write('\\');
+        context.write(c);
+      } else if (c < 0x20) {
+        context.write("\\u00");
+        context.write(HEX[c >> 4]);
+        context.write(HEX[c & 0xF]);
+      } else {
+        context.write(c);
+      }
+    }
+  }
+
+  /**
+   * Helper method: Maps a thread name to a numeric thread id.
+   * <p>
+   *
+   * @param threadName thread name (may be <code>null</code>)
+   * @return thread id
+   */
+  private static int threadId(String threadName) {
+    return threadName == null ? 0 : (threadName.hashCode() & 0x7FFFFFFF);
+  }
+
+}
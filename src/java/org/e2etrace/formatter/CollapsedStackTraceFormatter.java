@@ -0,0 +1,142 @@
+package org.e2etrace.formatter;
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.io.Writer;
+
+import org.e2etrace.trace.ITraceSession;
+import org.e2etrace.trace.ITraceStep;
+import org.e2etrace.trace.RecordedTraceSession;
+
+/**
+ * Collapsed stack trace formatter.
+ * <p>
+ *
+ * This formatter writes the trace tree in the "collapsed stack" format, which
+ * is read by common flame graph tools. Every trace step with an isolated
+ * duration is written as one line:
+ * <p>
+ *
+ * <pre>
+ *  root;child;grandchild isolated duration
+ * </pre>
+ *
+ * The ids of all parent steps are separated by semicolons. The isolated
+ * duration is written in ns. Steps without a valid isolated duration (or with
+ * an isolated duration of zero) are omitted. Ids must not contain semicolons.
+ * <p>
+ *
+ * The formatter writes neither header nor footer, so the output of several
+ * trace sessions can be concatenated. Flame graph tools add up lines with the
+ * same path. Merged call trees (see
+ * {@link org.e2etrace.stats.CallTreeAggregator}) contain the sum of the
+ * isolated durations of all merged steps and are written by
+ * <code>format(ITraceStep[], Writer)</code>.
+ * <p>
+ */
+public class CollapsedStackTraceFormatter extends AbstractTraceFormatter {
+
+  private static final char PATH_DELIM = ';';
+
+  /**
+   * Default constructor.
+   * <p>
+   *
+   */
+  public CollapsedStackTraceFormatter() {
+    super(PATH_DELIM);
+  }
+
+  /**
+   * Writes several trace trees.
+   * <p>
+   *
+   * @param roots root steps of the trace trees
+   * @param toWriter Writer to send the output to
+   * @throws IOException A problem occured sending the output to toWriter
+   */
+  public void format(ITraceStep[] roots, Writer toWriter) throws IOException {
+    TraceFormatContext context;
+
+    if (toWriter instanceof TraceFormatContext) {
+      context = (TraceFormatContext) toWriter;
+    } else {
+      context = new TraceFormatContext(toWriter);
+    }
+
+    for (int i = 0; i < roots.length; i++) {
+      format(new RecordedTraceSession(roots[i]), context);
+    }
+
+    if (context != toWriter) {
+      context.flushBuffer();
+    }
+  }
+
+  /** {@inheritDoc} */
+  protected void writeSingleStep(ITraceStep step, int level,
+      TraceFormatContext context) {
+    TracePath path = context.getPath();
+    long isolated = step.getIsolatedDurationNanos();
+
+    if (isolated <= 0) {
+      return;
+    }
+
+    if (path != null) {
+      path.writeTo(context);
+    } else {
+      writePath(step, context);
+    }
+    context.write(' ');
+    context.writeLong(isolated);
+    context.writeNewLine();
+  }
+
+  /**
+   * Helper method: Writes the hierarchical id of a trace step.
+   * <p>
+   *
+   * This method is only used if a single step is formatted outside of the
+   * traversal of a session (see <code>formatSingleStep</code>).
+   * <p>
+   *
+   * @param step trace step
+   * @param context buffer receiving the output
+   */
+  private void writePath(ITraceStep step, TraceFormatContext context) {
+    if (step.getParent() != null) {
+      writePath(step.getParent(), context);
+      context.write(PATH_DELIM);
+    }
+    context.write(step.getId().asString());
+  }
+
+  /** {@inheritDoc} */
+  protected void writeFooter(ITraceSession session, Writer toWriter) {
+    // This method intentionally does nothing
+
+  }
+
+  /** {@inheritDoc} */
+  protected void writeHeader(ITraceSession session, Writer toWriter) {
+    // This method intentionally does nothing
+
+  }
+}
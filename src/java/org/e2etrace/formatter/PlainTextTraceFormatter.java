@@ -20,7 +20,6 @@ import java.io.Writer;
 
 import org.e2etrace.trace.ITraceSession;
 import org.e2etrace.trace.ITraceStep;
-import org.e2etrace.trace.TraceSessionRootStep;
 import org.e2etrace.trace.TraceSessionRootStepId;
 
 
@@ -29,7 +28,7 @@ import org.e2etrace.trace.TraceSessionRootStepId;
  * <p>
  *
  * This formatter generates plain text and can be used to print trace trees to
- * stdout.
+ * stdout. All durations are printed in ms with microsecond precision.
  * <p>
  *
  * @author Gunther Popp
@@ -47,41 +46,41 @@ public class PlainTextTraceFormatter extends AbstractTraceFormatter {
   }
 
   /** {@inheritDoc} */
-  protected String formatSingleStep(ITraceStep step, int level) {
-    StringBuffer output = new StringBuffer();
+  protected void writeSingleStep(ITraceStep step, int level,
+      TraceFormatContext context) {
     TraceSessionRootStepId rootId;
 
     for (int i = 0; i < level; i++) {
-      output.append("  ");
+      context.write("  ");
     }
 
-    if (step instanceof TraceSessionRootStep) {
+    if (step.getId() instanceof TraceSessionRootStepId) {
       rootId = (TraceSessionRootStepId) step.getId();
 
-      output.append(">> ");
-      output.append(rootId.asString());
-      output.append(" [" + rootId.getThreadName() + "]");
+      context.write(">> ");
+      context.write(rootId.asString());
+      context.write(" [");
+      context.write(rootId.getThreadName());
+      context.write(']');
     } else {
-      output.append(step.getId().asString());
+      context.write(step.getId().asString());
 
     }
-    output.append(" (");
-    output.append("Total: ");
-    output.append(step.getDuration());
-    output.append("ms, ");
-
-    if (step.getIsolatedDuration() >= 0) {
-      output.append("Step: ");
-      output.append(step.getIsolatedDuration());
-      output.append("ms");
+    context.write(" (");
+    context.write("Total: ");
+    context.writeDuration(step.getDurationNanos());
+    context.write("ms, ");
+
+    if (step.getIsolatedDurationNanos() >= 0) {
+      context.write("Step: ");
+      context.writeDuration(step.getIsolatedDurationNanos());
+      context.write("ms");
     } else {
-      output.append("n/a");
+      context.write("n/a");
     }
 
-    output.append(")");
-    output.append(getNewLine());
-
-    return output.toString();
+    context.write(')');
+    context.writeNewLine();
   }
 
   /** {@inheritDoc} */
@@ -0,0 +1,441 @@
+package org.e2etrace.formatter;
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+
+import org.e2etrace.trace.ITraceStep;
+import org.e2etrace.trace.TraceStepWalker;
+
+
+/**
+ * Reusable character buffer for trace formatters.
+ * <p>
+ *
+ * Formatters append the output of all trace steps directly to this buffer
+ * (see {@link AbstractTraceFormatter#writeSingleStep(org.e2etrace.trace.ITraceStep, int, TraceFormatContext)}).
+ * In contrast to <code>StringBuffer</code> and <code>String</code>
+ * concatenation, no intermediate objects are created: Numbers and durations
+ * are converted to characters in place and the newline characters are looked
+ * up only once.
+ * <p>
+ *
+ * A context may either be bound to a target <code>Writer</code> or be used
+ * stand-alone. A bound context passes its content to the target whenever the
+ * buffer exceeds its capacity. Hence, formatting a large trace session
+ * requires a constant amount of memory. The content of a stand-alone context
+ * grows as needed and may be retrieved with <code>writeTo</code>,
+ * <code>asCharBuffer</code> or <code>toString</code>. Resetting the context
+ * allows to reuse the buffer for the next trace session.
+ * <p>
+ *
+ * The context is a <code>Writer</code> itself. Thus, it may be passed to all
+ * methods expecting a <code>Writer</code>, e.g.
+ * {@link ITraceFormatter#format(org.e2etrace.trace.ITraceSession, Writer)}.
+ * <p>
+ *
+ * Instances are <em>not</em> thread-safe.
+ * <p>
+ */
+public class TraceFormatContext extends Writer {
+
+  /** Default capacity of the buffer in characters. */
+  public static final int DEFAULT_CAPACITY = 8192;
+
+  private static final char[] NEW_LINE = System.getProperty("line.separator")
+      .toCharArray();
+
+  private static final String MIN_LONG = String.valueOf(Long.MIN_VALUE);
+
+  private Writer target;
+  private TracePath path;
+  private TraceStepWalker walker;
+  private long sessionStartNanos = ITraceStep.UNKNOWN_START;
+  private int capacity;
+  private char[] buffer;
+  private int length;
+
+  /**
+   * Default constructor: Create a stand-alone context.
+   * <p>
+   *
+   */
+  public TraceFormatContext() {
+    this(null, DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Constructor: Create a context bound to a target writer.
+   * <p>
+   *
+   * @param target writer that receives the formatted output
+   */
+  public TraceFormatContext(Writer target) {
+    this(target, DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Constructor: Create a context with a custom capacity.
+   * <p>
+   *
+   * @param target writer that receives the formatted output (may be
+   *          <code>null</code>)
+   * @param capacity capacity of the buffer in characters
+   */
+  public TraceFormatContext(Writer target, int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Capacity must be positive: "
+          + capacity);
+    }
+
+    this.target = target;
+    this.capacity = capacity;
+    this.buffer = new char[capacity];
+  }
+
+  /**
+   * Returns the target writer of the context.
+   * <p>
+   *
+   * @return target writer or <code>null</code> for a stand-alone context
+   */
+  public Writer getTarget() {
+    return this.target;
+  }
+
+  /**
+   * Returns the path of the trace step that is currently formatted.
+   * <p>
+   *
+   * The path is only maintained for formatters that require it (see
+   * {@link AbstractTraceFormatter#AbstractTraceFormatter(char)}).
+   * <p>
+   *
+   * @return current path or <code>null</code>
+   */
+  public TracePath getPath() {
+    return this.path;
+  }
+
+  /**
+   * Sets the path that is maintained while formatting trace steps.
+   * <p>
+   *
+   * @param path path of the current trace step
+   */
+  public void setPath(TracePath path) {
+    this.path = path;
+  }
+
+  /**
+   * Returns the start time of the trace session that is currently formatted.
+   * <p>
+   *
+   * Formatters use this value to calculate the start offsets of the trace
+   * steps (see {@link org.e2etrace.trace.ITraceStep#getStartNanos()}).
+   * <p>
+   *
+   * @return start time in ns (<code>ITraceStep.UNKNOWN_START</code>:
+   *         unknown)
+   */
+  public long getSessionStartNanos() {
+    return this.sessionStartNanos;
+  }
+
+  /**
+   * Sets the start time of the trace session that is currently formatted.
+   * <p>
+   *
+   * @param sessionStartNanos start time in ns
+   *          (<code>ITraceStep.UNKNOWN_START</code>: unknown)
+   */
+  public void setSessionStartNanos(long sessionStartNanos) {
+    this.sessionStartNanos = sessionStartNanos;
+  }
+
+  /**
+   * Appends a single character.
+   * <p>
+   *
+   * @param c character
+   */
+  public void write(int c) {
+    ensureCapacity(1);
+    this.buffer[this.length] = (char) c;
+    this.length++;
+  }
+
+  /** {@inheritDoc} */
+  public void write(char[] cbuf, int off, int len) {
+    ensureCapacity(len);
+    System.arraycopy(cbuf, off, this.buffer, this.length, len);
+    this.length += len;
+  }
+
+  /**
+   * Appends a string.
+   * <p>
+   *
+   * <code>null</code> is appended as <code>"null"</code> (same as
+   * <code>StringBuffer</code>).
+   * <p>
+   *
+   * @param str string to append
+   */
+  public void write(String str) {
+    if (str == null) {
+      str = "null";
+    }
+    write(str, 0, str.length());
+  }
+
+  /** {@inheritDoc} */
+  public void write(String str, int off, int len) {
+    ensureCapacity(len);
+    str.getChars(off, off + len, this.buffer, this.length);
+    this.length += len;
+  }
+
+  /**
+   * Appends the decimal representation of a number.
+   * <p>
+   *
+   * @param value number
+   */
+  public void writeLong(long value) {
+    int digits;
+    int pos;
+
+    if (value < 0) {
+      if (value == Long.MIN_VALUE) {
+        write(MIN_LONG);
+        return;
+      }
+      write('-');
+      value = -value;
+    }
+
+    digits = 1;
+    for (long rest = value / 10; rest > 0; rest = rest / 10) {
+      digits++;
+    }
+
+    ensureCapacity(digits);
+    pos = this.length + digits;
+    do {
+      pos--;
+      this.buffer[pos] = (char) ('0' + (value % 10));
+      value = value / 10;
+    } while (value > 0);
+
+    this.length += digits;
+  }
+
+  /**
+   * Appends a duration in ns as ms with microsecond precision.
+   * <p>
+   *
+   * The output is identical to
+   * {@link AbstractTraceFormatter#formatDuration(long)}.
+   * <p>
+   *
+   * @param nanos duration in ns
+   */
+  public void writeDuration(long nanos) {
+    long micros;
+
+    if (nanos < 0) {
+      write("-1");
+      return;
+    }
+
+    micros = nanos / 1000L;
+    writeLong(micros / 1000L);
+    write('.');
+
+    micros = micros % 1000L;
+    if (micros < 100) {
+      write('0');
+    }
+    if (micros < 10) {
+      write('0');
+    }
+    writeLong(micros);
+  }
+
+  /**
+   * Appends the platform dependent newline character(s).
+   * <p>
+   */
+  public void writeNewLine() {
+    write(NEW_LINE, 0, NEW_LINE.length);
+  }
+
+  /**
+   * Returns the number of buffered characters.
+   * <p>
+   *
+   * @return number of buffered characters
+   */
+  public int length() {
+    return this.length;
+  }
+
+  /**
+   * Discards all buffered characters after a given position.
+   * <p>
+   *
+   * This can be used to remove the incomplete output of a trace session that
+   * could not be formatted.
+   * <p>
+   *
+   * @param newLength new number of buffered characters
+   */
+  public void setLength(int newLength) {
+    if (newLength < 0 || newLength > this.length) {
+      throw new IllegalArgumentException("Invalid length: " + newLength);
+    }
+    this.length = newLength;
+  }
+
+  /**
+   * Discards all buffered characters.
+   * <p>
+   */
+  public void reset() {
+    this.length = 0;
+  }
+
+  /**
+   * Returns a read-only view of the buffered characters.
+   * <p>
+   *
+   * The view can be passed to a <code>CharsetEncoder</code> to encode the
+   * output into a <code>ByteBuffer</code>. It becomes invalid as soon as the
+   * context is modified.
+   * <p>
+   *
+   * @return buffered characters
+   */
+  public CharBuffer asCharBuffer() {
+    return CharBuffer.wrap(this.buffer, 0, this.length).asReadOnlyBuffer();
+  }
+
+  /**
+   * Writes all buffered characters to a writer and empties the buffer.
+   * <p>
+   *
+   * @param out writer
+   * @throws IOException A problem occured sending the output to out
+   */
+  public void writeTo(Writer out) throws IOException {
+    out.write(this.buffer, 0, this.length);
+    this.length = 0;
+  }
+
+  /**
+   * Passes all buffered characters to the target writer without flushing the
+   * target itself.
+   * <p>
+   *
+   * Nothing happens for stand-alone contexts.
+   * <p>
+   *
+   * @throws IOException A problem occured sending the output to the target
+   */
+  public void flushBuffer() throws IOException {
+    if (this.target != null && this.length > 0) {
+      writeTo(this.target);
+    }
+  }
+
+  /** {@inheritDoc} */
+  public void flush() throws IOException {
+    flushBuffer();
+    if (this.target != null) {
+      this.target.flush();
+    }
+  }
+
+  /**
+   * Passes all buffered characters to the target writer.
+   * <p>
+   *
+   * The target itself is not closed.
+   * <p>
+   *
+   * @throws IOException A problem occured sending the output to the target
+   */
+  public void close() throws IOException {
+    flushBuffer();
+  }
+
+  /** {@inheritDoc} */
+  public String toString() {
+    return new String(this.buffer, 0, this.length);
+  }
+
+  /**
+   * Returns the walker used for the traversal of trace trees.
+   * <p>
+   *
+   * The walker is created on first use and reused for all subsequent trace
+   * sessions formatted with this context.
+   * <p>
+   *
+   * @return walker
+   */
+  TraceStepWalker getWalker() {
+    if (this.walker == null) {
+      this.walker = new TraceStepWalker();
+    }
+    return this.walker;
+  }
+
+  /**
+   * Passes the buffered characters to the target writer if the buffer has
+   * reached its capacity.
+   * <p>
+   *
+   * @throws IOException A problem occured sending the output to the target
+   */
+  void flushIfFull() throws IOException {
+    if (this.length >= this.capacity) {
+      flushBuffer();
+    }
+  }
+
+  /**
+   * Helper method: Grows the buffer if required.
+   * <p>
+   *
+   * @param additional number of characters that will be appended
+   */
+  private void ensureCapacity(int additional) {
+    int required = this.length + additional;
+    char[] newBuffer;
+
+    if (required > this.buffer.length) {
+      newBuffer = new char[Math.max(required, this.buffer.length * 2)];
+      System.arraycopy(this.buffer, 0, newBuffer, 0, this.length);
+      this.buffer = newBuffer;
+    }
+  }
+
+}
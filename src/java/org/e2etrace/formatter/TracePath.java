@@ -0,0 +1,236 @@
+package org.e2etrace.formatter;
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import org.e2etrace.trace.ITraceStep;
+import org.e2etrace.trace.TraceSessionRootStepId;
+
+
+/**
+ * Hierarchical id of the trace step that is currently formatted.
+ * <p>
+ *
+ * The path consists of the ids of all steps from the outermost step to the
+ * current step, separated by a delimiter (e.g.
+ * <code>$Session|step1|step2</code>). Formatters that print the path of every
+ * step (e.g. {@link CSVTraceFormatter}) do not need to walk from each step up
+ * to the root: The traversal in {@link AbstractTraceFormatter} announces every
+ * step with <code>enter</code> before it is formatted. The path of the parent
+ * step is kept as prefix and only the id of the current step is appended.
+ * Hence, the paths of all steps of a session are generated in linear time and
+ * without creating any intermediate strings.
+ * <p>
+ *
+ * Additionally, the path keeps track of the thread name of the nearest
+ * enclosing trace session (see {@link TraceSessionRootStepId}).
+ * <p>
+ *
+ * Instances are <em>not</em> thread-safe.
+ * <p>
+ */
+public class TracePath implements CharSequence {
+
+  private static final int INITIAL_DEPTH = 16;
+  private static final int INITIAL_LENGTH = 256;
+
+  private char delimiter;
+  private char[] chars;
+  private int length;
+  private int[] ends;
+  private String[] threadNames;
+  private int depth;
+  private int base;
+
+  /**
+   * Constructor.
+   * <p>
+   *
+   * @param delimiter delimiter between the ids of the path
+   */
+  public TracePath(char delimiter) {
+    this.delimiter = delimiter;
+    this.chars = new char[INITIAL_LENGTH];
+    this.ends = new int[INITIAL_DEPTH];
+    this.threadNames = new String[INITIAL_DEPTH];
+  }
+
+  /**
+   * Returns the delimiter between the ids of the path.
+   * <p>
+   *
+   * @return delimiter
+   */
+  public char getDelimiter() {
+    return this.delimiter;
+  }
+
+  /**
+   * Makes a trace step the current step of the path.
+   * <p>
+   *
+   * The steps must be entered in depth-first order. The path of the parent
+   * step (i.e. the last step that has been entered with
+   * <code>level - 1</code>) is kept, everything else is discarded. Entering a
+   * step with level 0 starts a new path. If this step has parent steps
+   * itself (e.g. the root step of a trace session that has been added to
+   * another session), the ids of the parents are part of the path as well.
+   * <p>
+   *
+   * @param step trace step
+   * @param level call level of the step (starting with 0)
+   */
+  public void enter(ITraceStep step, int level) {
+    if (level == 0) {
+      this.length = 0;
+      this.depth = 0;
+      if (step.getParent() != null) {
+        push(step.getParent());
+      }
+      this.base = this.depth;
+    } else {
+      truncate(this.base + level);
+    }
+
+    append(step);
+  }
+
+  /**
+   * Returns the number of characters of the current path.
+   * <p>
+   *
+   * @return length of the path
+   */
+  public int length() {
+    return this.length;
+  }
+
+  /** {@inheritDoc} */
+  public char charAt(int index) {
+    if (index < 0 || index >= this.length) {
+      throw new IndexOutOfBoundsException("Invalid index: " + index);
+    }
+    return this.chars[index];
+  }
+
+  /** {@inheritDoc} */
+  public CharSequence subSequence(int start, int end) {
+    return toString().substring(start, end);
+  }
+
+  /**
+   * Returns the thread name of the nearest trace session enclosing the
+   * current step.
+   * <p>
+   *
+   * @return thread name or <code>null</code> if no trace session has been
+   *         found
+   */
+  public String getThreadName() {
+    if (this.depth == 0) {
+      return null;
+    }
+    return this.threadNames[this.depth - 1];
+  }
+
+  /**
+   * Appends the current path to a format context.
+   * <p>
+   *
+   * @param context buffer receiving the output
+   */
+  public void writeTo(TraceFormatContext context) {
+    context.write(this.chars, 0, this.length);
+  }
+
+  /** {@inheritDoc} */
+  public String toString() {
+    return new String(this.chars, 0, this.length);
+  }
+
+  /**
+   * Helper method: Appends a step and all of its parents to the path.
+   * <p>
+   *
+   * @param step trace step
+   */
+  private void push(ITraceStep step) {
+    if (step.getParent() != null) {
+      push(step.getParent());
+    }
+    append(step);
+  }
+
+  /**
+   * Helper method: Discards all steps of the path beyond a given depth.
+   * <p>
+   *
+   * @param newDepth new depth of the path
+   */
+  private void truncate(int newDepth) {
+    if (newDepth < this.depth) {
+      this.depth = newDepth;
+      this.length = newDepth == 0 ? 0 : this.ends[newDepth - 1];
+    }
+  }
+
+  /**
+   * Helper method: Appends the id of a step to the path.
+   * <p>
+   *
+   * @param step trace step
+   */
+  private void append(ITraceStep step) {
+    String id = step.getId().asString();
+    int required = this.length + id.length() + 1;
+    String threadName;
+
+    if (required > this.chars.length) {
+      char[] newChars = new char[Math.max(required, this.chars.length * 2)];
+
+      System.arraycopy(this.chars, 0, newChars, 0, this.length);
+      this.chars = newChars;
+    }
+
+    if (this.depth == this.ends.length) {
+      int[] newEnds = new int[this.depth * 2];
+      String[] newThreadNames = new String[this.depth * 2];
+
+      System.arraycopy(this.ends, 0, newEnds, 0, this.depth);
+      System.arraycopy(this.threadNames, 0, newThreadNames, 0, this.depth);
+      this.ends = newEnds;
+      this.threadNames = newThreadNames;
+    }
+
+    if (this.depth > 0) {
+      this.chars[this.length] = this.delimiter;
+      this.length++;
+    }
+    id.getChars(0, id.length(), this.chars, this.length);
+    this.length += id.length();
+
+    if (step.getId() instanceof TraceSessionRootStepId) {
+      threadName = ((TraceSessionRootStepId) step.getId()).getThreadName();
+    } else {
+      threadName = this.depth > 0 ? this.threadNames[this.depth - 1] : null;
+    }
+
+    this.ends[this.depth] = this.length;
+    this.threadNames[this.depth] = threadName;
+    this.depth++;
+  }
+
+}
@@ -0,0 +1,412 @@
+package org.e2etrace.stats;
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import org.e2etrace.export.ITraceSessionSink;
+import org.e2etrace.trace.ITraceSession;
+import org.e2etrace.trace.ITraceStep;
+import org.e2etrace.trace.ITraceStepId;
+import org.e2etrace.trace.TraceStepWalker;
+
+/**
+ * Merges many trace sessions into a single call tree.
+ * <p>
+ *
+ * Every node of the merged tree represents a call path, i.e. the chain of
+ * trace step ids from the root step of a session to a trace step (see the
+ * column <code>path</code> of {@link org.e2etrace.formatter.CSVTraceFormatter}).
+ * Trace steps with the same path are merged into the same node, even if they
+ * belong to different sessions or are called several times by the same
+ * parent. Every node counts the calls and maintains a
+ * {@link LatencyHistogram} of their durations (including sum, minimum and
+ * maximum) as well as the sum of their isolated durations.
+ * <p>
+ *
+ * The number of nodes is limited. If a new node is required and the limit has
+ * been reached, the coldest leaf nodes are evicted: nodes that have not been
+ * updated for the longest time (measured in recorded sessions) and, among
+ * those, nodes with the smallest number of calls. The durations of evicted
+ * nodes remain part of the durations of their parents. If no node can be
+ * evicted, the new call path is dropped.
+ * <p>
+ *
+ * The current tree is returned by <code>snapshot</code> as a tree of
+ * {@link CallTreeStep} instances, which can be written by all trace
+ * formatters:
+ * <p>
+ *
+ * <pre>
+ * CallTreeStep[] roots = aggregator.snapshot();
+ *
+ * for (int i = 0; i &lt; roots.length; i++) {
+ *   formatter.format(new RecordedTraceSession(roots[i]), writer);
+ * }
+ * </pre>
+ *
+ * The aggregator is thread-safe. Sessions are merged one at a time.
+ * <p>
+ */
+public class CallTreeAggregator implements ITraceSessionSink {
+
+  /** Default limit for the number of nodes. */
+  public static final int DEFAULT_MAX_NODES = 1000;
+
+  private int maxNodes;
+  private Node root;
+  private int nodeCount;
+  private long generation;
+  private long evictedCount;
+  private long droppedCount;
+  private TraceStepWalker walker;
+  private Node[] path;
+
+  /**
+   * Default constructor.
+   * <p>
+   *
+   * The tree contains at most <code>DEFAULT_MAX_NODES</code> nodes.
+   * <p>
+   */
+  public CallTreeAggregator() {
+    this(DEFAULT_MAX_NODES);
+  }
+
+  /**
+   * Constructor: Use a custom limit for the number of nodes.
+   * <p>
+   *
+   * @param maxNodes maximum number of nodes of the merged tree
+   */
+  public CallTreeAggregator(int maxNodes) {
+    if (maxNodes <= 0) {
+      throw new IllegalArgumentException("Invalid number of nodes: "
+          + maxNodes);
+    }
+
+    this.maxNodes = maxNodes;
+    this.root = new Node(null, null);
+    this.walker = new TraceStepWalker();
+    this.path = new Node[16];
+  }
+
+  /** {@inheritDoc} */
+  public void export(ITraceSession session) {
+    record(session);
+  }
+
+  /**
+   * Merges all trace steps of a completed trace session into the tree.
+   * <p>
+   *
+   * @param session completed trace session
+   */
+  public void record(ITraceSession session) {
+    ITraceStep rootStep = session.getRootStep();
+
+    if (rootStep != null) {
+      record(rootStep);
+    }
+  }
+
+  /**
+   * Merges a trace step and all of its children into the tree.
+   * <p>
+   *
+   * Steps that are still active are skipped including their children.
+   * <p>
+   *
+   * @param rootStep trace step
+   */
+  public synchronized void record(ITraceStep rootStep) {
+    ITraceStep step;
+    Node parent;
+    Node node;
+    int level;
+
+    this.generation++;
+    this.walker.reset(rootStep);
+
+    while (this.walker.next()) {
+      step = this.walker.getStep();
+      level = this.walker.getLevel();
+
+      if (step.isActive() || step.getDurationNanos() < 0) {
+        this.walker.skipChildren();
+        continue;
+      }
+
+      parent = level == 0 ? this.root : this.path[level - 1];
+      node = (Node) parent.children.get(step.getId());
+
+      if (node == null) {
+        node = createNode(parent, step.getId());
+
+        if (node == null) {
+          this.droppedCount++;
+          this.walker.skipChildren();
+          continue;
+        }
+      }
+
+      node.record(step, this.generation);
+
+      if (level == this.path.length) {
+        Node[] newPath = new Node[level * 2];
+
+        System.arraycopy(this.path, 0, newPath, 0, level);
+        this.path = newPath;
+      }
+      this.path[level] = node;
+    }
+
+    // Release the references to the session
+    this.walker.reset(null);
+  }
+
+  /**
+   * Returns a copy of the merged tree.
+   * <p>
+   *
+   * @return root steps of the merged tree (one for every distinct id of the
+   *         recorded root steps)
+   */
+  public synchronized CallTreeStep[] snapshot() {
+    CallTreeStep[] result = new CallTreeStep[this.root.children.size()];
+    List work = new ArrayList();
+    int i = 0;
+
+    for (Iterator iter = this.root.children.values().iterator(); iter
+        .hasNext();) {
+      Node node = (Node) iter.next();
+
+      result[i] = node.copy();
+      work.add(node);
+      work.add(result[i]);
+      i++;
+    }
+
+    // Breadth-first copy of the remaining nodes
+    for (int next = 0; next < work.size(); next += 2) {
+      Node node = (Node) work.get(next);
+      CallTreeStep copy = (CallTreeStep) work.get(next + 1);
+
+      for (Iterator iter = node.children.values().iterator(); iter.hasNext();) {
+        Node child = (Node) iter.next();
+        CallTreeStep childCopy = child.copy();
+
+        copy.addChild(childCopy);
+        work.add(child);
+        work.add(childCopy);
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Removes all nodes.
+   * <p>
+   */
+  public synchronized void reset() {
+    this.root.children.clear();
+    this.nodeCount = 0;
+    this.evictedCount = 0;
+    this.droppedCount = 0;
+  }
+
+  /**
+   * Returns the current number of nodes.
+   * <p>
+   *
+   * @return number of nodes
+   */
+  public synchronized int getNodeCount() {
+    return this.nodeCount;
+  }
+
+  /**
+   * Returns the number of nodes that have been evicted.
+   * <p>
+   *
+   * @return number of evicted nodes
+   */
+  public synchronized long getEvictedCount() {
+    return this.evictedCount;
+  }
+
+  /**
+   * Returns the number of trace steps that have not been merged because no
+   * node could be created for them.
+   * <p>
+   *
+   * The children of those trace steps are not merged either and are not
+   * counted.
+   * <p>
+   *
+   * @return number of dropped trace steps
+   */
+  public synchronized long getDroppedCount() {
+    return this.droppedCount;
+  }
+
+  /**
+   * Helper method: Creates a new node.
+   * <p>
+   *
+   * @param parent parent node
+   * @param id trace step id of the new node
+   * @return new node or <code>null</code> if the limit has been reached and
+   *         no node can be evicted
+   */
+  private Node createNode(Node parent, ITraceStepId id) {
+    Node node;
+
+    if (this.nodeCount >= this.maxNodes) {
+      evict();
+
+      if (this.nodeCount >= this.maxNodes) {
+        return null;
+      }
+    }
+
+    node = new Node(id, parent);
+    parent.children.put(id, node);
+    this.nodeCount++;
+
+    return node;
+  }
+
+  /**
+   * Helper method: Evicts the coldest leaf nodes.
+   * <p>
+   *
+   * About a tenth of the node limit is evicted at once, so the tree is not
+   * searched for every new node. Nodes that have been updated by the current
+   * session are never evicted, because they may be on the current call path.
+   * <p>
+   */
+  private void evict() {
+    List leaves = new ArrayList();
+    List work = new ArrayList();
+    int n;
+
+    work.add(this.root);
+    while (!work.isEmpty()) {
+      Node node = (Node) work.remove(work.size() - 1);
+
+      if (node.children.isEmpty()) {
+        if (node.lastUsed < this.generation) {
+          leaves.add(node);
+        }
+      } else {
+        work.addAll(node.children.values());
+      }
+    }
+
+    Collections.sort(leaves, new Comparator() {
+      public int compare(Object o1, Object o2) {
+        Node n1 = (Node) o1;
+        Node n2 = (Node) o2;
+
+        if (n1.lastUsed != n2.lastUsed) {
+          return n1.lastUsed < n2.lastUsed ? -1 : 1;
+        }
+        if (n1.histogram.getCount() != n2.histogram.getCount()) {
+          return n1.histogram.getCount() < n2.histogram.getCount() ? -1 : 1;
+        }
+        return 0;
+      }
+    });
+
+    n = Math.min(leaves.size(), Math.max(1, this.maxNodes / 10));
+    for (int i = 0; i < n; i++) {
+      Node leaf = (Node) leaves.get(i);
+
+      leaf.parent.children.remove(leaf.id);
+    }
+
+    this.nodeCount -= n;
+    this.evictedCount += n;
+  }
+
+  /**
+   * Node of the merged tree.
+   * <p>
+   */
+  private static final class Node {
+
+    private ITraceStepId id;
+    private Node parent;
+    private LinkedHashMap children = new LinkedHashMap();
+    private LatencyHistogram histogram = new LatencyHistogram();
+    private long isolatedDurationNanos;
+    private long lastUsed;
+
+    /**
+     * Constructor.
+     * <p>
+     *
+     * @param id trace step id
+     * @param parent parent node
+     */
+    Node(ITraceStepId id, Node parent) {
+      this.id = id;
+      this.parent = parent;
+    }
+
+    /**
+     * Adds the durations of a trace step.
+     * <p>
+     *
+     * @param step trace step
+     * @param generation number of the current session
+     */
+    void record(ITraceStep step, long generation) {
+      long isolated = step.getIsolatedDurationNanos();
+
+      this.histogram.record(step.getDurationNanos());
+      if (isolated > 0) {
+        this.isolatedDurationNanos += isolated;
+      }
+      this.lastUsed = generation;
+    }
+
+    /**
+     * Creates a copy of this node without children.
+     * <p>
+     *
+     * @return trace step
+     */
+    CallTreeStep copy() {
+      LatencyHistogram copy = new LatencyHistogram();
+
+      copy.add(this.histogram);
+
+      return new CallTreeStep(this.id, copy, this.isolatedDurationNanos);
+    }
+
+  }
+
+}
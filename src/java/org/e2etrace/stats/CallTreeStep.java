@@ -0,0 +1,158 @@
+package org.e2etrace.stats;
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.e2etrace.trace.AbstractTraceStep;
+import org.e2etrace.trace.ITraceStepId;
+
+/**
+ * Trace step that represents all calls of a call path.
+ * <p>
+ *
+ * Instances are created by {@link CallTreeAggregator#snapshot()}. The
+ * duration of the step is the sum of the durations of all aggregated calls,
+ * the isolated duration is the sum of their isolated durations. Hence, the
+ * merged call tree can be written by all trace formatters. The distribution
+ * of the durations is available by <code>getHistogram</code>.
+ * <p>
+ *
+ * Entering or leaving the step has no effect.
+ * <p>
+ */
+public class CallTreeStep extends AbstractTraceStep {
+
+  private static final long serialVersionUID = 1L;
+
+  private LatencyHistogram histogram;
+  private long isolatedDurationNanos;
+
+  /**
+   * Constructor.
+   * <p>
+   *
+   * @param id id of the aggregated trace steps
+   * @param histogram durations of the aggregated trace steps
+   * @param isolatedDurationNanos sum of the isolated durations in ns
+   */
+  public CallTreeStep(ITraceStepId id, LatencyHistogram histogram,
+      long isolatedDurationNanos) {
+    super(id);
+    this.histogram = histogram;
+    this.isolatedDurationNanos = isolatedDurationNanos;
+  }
+
+  /**
+   * Returns the number of aggregated calls.
+   * <p>
+   *
+   * @return number of calls
+   */
+  public long getCount() {
+    return this.histogram.getCount();
+  }
+
+  /**
+   * Returns the distribution of the durations of all aggregated calls.
+   * <p>
+   *
+   * The histogram also provides the exact minimum and maximum.
+   * <p>
+   *
+   * @return histogram (durations in ns)
+   */
+  public LatencyHistogram getHistogram() {
+    return this.histogram;
+  }
+
+  /**
+   * Returns the sum of the durations of all aggregated calls.
+   * <p>
+   *
+   * @return duration in ms
+   */
+  public long getDuration() {
+    return getDurationNanos() / 1000000L;
+  }
+
+  /**
+   * Returns the sum of the isolated durations of all aggregated calls.
+   * <p>
+   *
+   * @return isolated duration in ms
+   */
+  public long getIsolatedDuration() {
+    return getIsolatedDurationNanos() / 1000000L;
+  }
+
+  /**
+   * Returns the sum of the durations of all aggregated calls.
+   * <p>
+   *
+   * @return duration in ns
+   */
+  public long getDurationNanos() {
+    return this.histogram.getSum();
+  }
+
+  /**
+   * Returns the sum of the isolated durations of all aggregated calls.
+   * <p>
+   *
+   * @return isolated duration in ns
+   */
+  public long getIsolatedDurationNanos() {
+    return this.isolatedDurationNanos;
+  }
+
+  /**
+   * The start time of aggregated calls is unknown.
+   * <p>
+   *
+   * @return <code>UNKNOWN_START</code>
+   */
+  public long getStartNanos() {
+    return UNKNOWN_START;
+  }
+
+  /**
+   * Aggregated trace steps are never active.
+   * <p>
+   *
+   * @return false
+   */
+  public boolean isActive() {
+    return false;
+  }
+
+  /**
+   * Aggregated trace steps cannot be entered. This method is intentionally
+   * left blank.
+   */
+  public void enter() {
+    // This method is intentionally left blank
+  }
+
+  /**
+   * Aggregated trace steps cannot be left. This method is intentionally left
+   * blank.
+   */
+  public void leave() {
+    // This method is intentionally left blank
+  }
+
+}
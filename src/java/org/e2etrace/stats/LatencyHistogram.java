@@ -0,0 +1,333 @@
+package org.e2etrace.stats;
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * Histogram of durations with fixed memory consumption.
+ * <p>
+ *
+ * The histogram uses a log-linear bucket layout similar to the well-known HDR
+ * histogram: Each power of two is divided into <code>SUB_BUCKETS</code>
+ * linear sub-buckets. Durations below <code>2 * SUB_BUCKETS</code> ns are
+ * counted exactly, larger durations with a relative error of at most
+ * <code>1 / SUB_BUCKETS</code>. Durations of
+ * <code>HIGHEST_TRACKABLE_VALUE</code> ns (about 4.9 hours) and above are
+ * counted in the last bucket. Count, sum, minimum and maximum are always
+ * recorded exactly.
+ * <p>
+ *
+ * A histogram needs <code>BUCKET_COUNT</code> counters, independent of the
+ * number of recorded values. Histograms can be added to each other, e.g. to
+ * combine the histograms of several threads.
+ * <p>
+ *
+ * Instances are <em>not</em> thread-safe. Use
+ * {@link StripedLatencyHistogram} to record values from several threads.
+ * <p>
+ */
+public class LatencyHistogram {
+
+  /** Number of bits used for the linear sub-buckets. */
+  static final int SUB_BUCKET_BITS = 4;
+
+  /** Number of linear sub-buckets per power of two. */
+  public static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+  /** Highest bit of a duration that is still tracked with full precision. */
+  private static final int HIGHEST_BIT = 43;
+
+  /** All durations above this value are counted in the last bucket. */
+  public static final long HIGHEST_TRACKABLE_VALUE = (1L << (HIGHEST_BIT + 1)) - 1;
+
+  /** Number of buckets of every histogram. */
+  public static final int BUCKET_COUNT = ((HIGHEST_BIT - SUB_BUCKET_BITS) << SUB_BUCKET_BITS)
+      + 2 * SUB_BUCKETS;
+
+  private long[] counts;
+  private long count;
+  private long sum;
+  private long min;
+  private long max;
+
+  /**
+   * Default constructor.
+   * <p>
+   *
+   * Creates an empty histogram.
+   * <p>
+   */
+  public LatencyHistogram() {
+    this.counts = new long[BUCKET_COUNT];
+    reset();
+  }
+
+  /**
+   * Returns the index of the bucket that counts a duration.
+   * <p>
+   *
+   * @param value duration in ns (must not be negative)
+   * @return bucket index
+   */
+  public static int getBucketIndex(long value) {
+    int highestBit;
+    int shift;
+
+    if (value < 2 * SUB_BUCKETS) {
+      return (int) value;
+    }
+
+    highestBit = 63 - Long.numberOfLeadingZeros(value);
+    if (highestBit > HIGHEST_BIT) {
+      return BUCKET_COUNT - 1;
+    }
+
+    // The mantissa (value >>> shift) is in the range
+    // [SUB_BUCKETS, 2 * SUB_BUCKETS)
+    shift = highestBit - SUB_BUCKET_BITS;
+
+    return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+  }
+
+  /**
+   * Returns the smallest duration that is counted by a bucket.
+   * <p>
+   *
+   * @param index bucket index
+   * @return lower bound in ns
+   */
+  public static long getBucketLowerBound(int index) {
+    int shift;
+
+    if (index < 2 * SUB_BUCKETS) {
+      return index;
+    }
+
+    shift = (index >> SUB_BUCKET_BITS) - 1;
+
+    return ((long) ((index & (SUB_BUCKETS - 1)) + SUB_BUCKETS)) << shift;
+  }
+
+  /**
+   * Returns the largest duration that is counted by a bucket.
+   * <p>
+   *
+   * For the last bucket, <code>HIGHEST_TRACKABLE_VALUE</code> is returned.
+   * <p>
+   *
+   * @param index bucket index
+   * @return upper bound in ns
+   */
+  public static long getBucketUpperBound(int index) {
+    if (index < 2 * SUB_BUCKETS) {
+      return index;
+    }
+
+    return getBucketLowerBound(index)
+        + (1L << ((index >> SUB_BUCKET_BITS) - 1)) - 1;
+  }
+
+  /**
+   * Records a duration.
+   * <p>
+   *
+   * @param value duration in ns
+   * @throws IllegalArgumentException the duration is negative
+   */
+  public void record(long value) {
+    if (value < 0) {
+      throw new IllegalArgumentException("Negative duration: " + value);
+    }
+
+    this.counts[getBucketIndex(value)]++;
+    this.count++;
+    this.sum += value;
+    if (value < this.min) {
+      this.min = value;
+    }
+    if (value > this.max) {
+      this.max = value;
+    }
+  }
+
+  /**
+   * Adds all values of another histogram to this histogram.
+   * <p>
+   *
+   * @param other histogram to add
+   */
+  public void add(LatencyHistogram other) {
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      this.counts[i] += other.counts[i];
+    }
+    this.count += other.count;
+    addSummary(other.sum, other.min, other.max);
+  }
+
+  /**
+   * Removes all recorded values.
+   * <p>
+   */
+  public void reset() {
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      this.counts[i] = 0;
+    }
+    this.count = 0;
+    this.sum = 0;
+    this.min = Long.MAX_VALUE;
+    this.max = -1;
+  }
+
+  /**
+   * Returns the number of recorded values.
+   * <p>
+   *
+   * @return number of values
+   */
+  public long getCount() {
+    return this.count;
+  }
+
+  /**
+   * Returns the number of recorded values that belong to a bucket.
+   * <p>
+   *
+   * @param index bucket index
+   * @return number of values in the bucket
+   */
+  public long getCountAtBucket(int index) {
+    return this.counts[index];
+  }
+
+  /**
+   * Returns the sum of all recorded values.
+   * <p>
+   *
+   * @return sum in ns
+   */
+  public long getSum() {
+    return this.sum;
+  }
+
+  /**
+   * Returns the smallest recorded value.
+   * <p>
+   *
+   * @return minimum in ns or <code>-1</code> if the histogram is empty
+   */
+  public long getMin() {
+    return this.count == 0 ? -1 : this.min;
+  }
+
+  /**
+   * Returns the largest recorded value.
+   * <p>
+   *
+   * @return maximum in ns or <code>-1</code> if the histogram is empty
+   */
+  public long getMax() {
+    return this.count == 0 ? -1 : this.max;
+  }
+
+  /**
+   * Returns the average of all recorded values.
+   * <p>
+   *
+   * @return mean in ns or <code>-1</code> if the histogram is empty
+   */
+  public long getMean() {
+    return this.count == 0 ? -1 : this.sum / this.count;
+  }
+
+  /**
+   * Returns the value below or at which a percentage of all recorded values
+   * lie.
+   * <p>
+   *
+   * The result is the upper bound of the bucket that contains the requested
+   * value, limited to the recorded minimum and maximum. Hence, the result is
+   * never smaller than the exact percentile and exceeds it by at most
+   * <code>1 / SUB_BUCKETS</code>.
+   * <p>
+   *
+   * @param percentile percentile in the range from 0 to 100 (e.g.
+   *          <code>99.9</code>)
+   * @return value in ns or <code>-1</code> if the histogram is empty
+   * @throws IllegalArgumentException the percentile is out of range
+   */
+  public long getValueAtPercentile(double percentile) {
+    long rank;
+    long seen = 0;
+
+    if (percentile < 0.0 || percentile > 100.0) {
+      throw new IllegalArgumentException("Invalid percentile: " + percentile);
+    }
+
+    if (this.count == 0) {
+      return -1;
+    }
+
+    rank = (long) Math.ceil(percentile / 100.0 * this.count);
+    if (rank < 1) {
+      rank = 1;
+    }
+
+    for (int i = 0; i < BUCKET_COUNT - 1; i++) {
+      seen += this.counts[i];
+      if (seen >= rank) {
+        return Math.max(this.min, Math.min(this.max, getBucketUpperBound(i)));
+      }
+    }
+
+    return this.max;
+  }
+
+  /**
+   * Adds the values of a single bucket.
+   * <p>
+   *
+   * Sum, minimum and maximum have to be added separately by
+   * <code>addSummary</code>.
+   * <p>
+   *
+   * @param index bucket index
+   * @param n number of values
+   */
+  void addBucket(int index, long n) {
+    this.counts[index] += n;
+    this.count += n;
+  }
+
+  /**
+   * Adds sum, minimum and maximum of a set of values.
+   * <p>
+   *
+   * @param otherSum sum of the values
+   * @param otherMin minimum of the values
+   * @param otherMax maximum of the values
+   */
+  void addSummary(long otherSum, long otherMin, long otherMax) {
+    this.sum += otherSum;
+    if (otherMin < this.min) {
+      this.min = otherMin;
+    }
+    if (otherMax > this.max) {
+      this.max = otherMax;
+    }
+  }
+
+}
@@ -0,0 +1,282 @@
+package org.e2etrace.stats;
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.e2etrace.trace.ITraceStepId;
+
+/**
+ * Ring of one-second buckets for the durations of a single trace step id.
+ * <p>
+ *
+ * Values of the two most recent seconds are recorded in "hot" buckets. Every
+ * hot bucket is striped like {@link StripedLatencyHistogram}, and each stripe
+ * occupies its own cache line, so concurrent threads do not update the same
+ * memory. The first thread that records a value for a new second advances
+ * the window: it wins a compare-and-set on the newest second and moves the
+ * hot buckets that are older than one second into the history ring. All other
+ * threads continue to record without waiting. Values that arrive too late
+ * for the hot buckets are added to the history ring directly.
+ * <p>
+ *
+ * A value that is recorded at exactly the moment its bucket is moved may be
+ * counted for a second that is up to four seconds off, but it is never lost.
+ * This is intended: the window never blocks the recording threads.
+ * <p>
+ */
+class SlidingWindow {
+
+  /** Number of hot buckets (power of two, at least 4). */
+  private static final int HOT_BUCKETS = 4;
+
+  /** Offsets of the counters within a bucket. */
+  private static final int COUNT = 0;
+  private static final int SUM = 1;
+  private static final int MAX = 2;
+  private static final int FIELDS = 3;
+
+  /** Distance between two stripes (one cache line of 64 bytes). */
+  private static final int STRIPE_SIZE = 8;
+
+  private static final int STRIPES = StripedLatencyHistogram.getStripeCount();
+
+  /** Owner of a history bucket that has never been used. */
+  private static final long UNUSED = Long.MIN_VALUE;
+
+  /** Owner of a history bucket that is being cleared. */
+  private static final long CLAIMING = Long.MIN_VALUE + 1;
+
+  private ITraceStepId id;
+  private int length;
+  private AtomicLong newestSecond;
+  private AtomicLongArray hot;
+  private AtomicLongArray history;
+  private AtomicLongArray historySeconds;
+
+  /**
+   * Constructor.
+   * <p>
+   *
+   * @param id trace step id
+   * @param length number of seconds kept by the window
+   * @param second current second
+   */
+  SlidingWindow(ITraceStepId id, int length, long second) {
+    this.id = id;
+    this.length = length;
+    this.newestSecond = new AtomicLong(second);
+    this.hot = new AtomicLongArray(HOT_BUCKETS * STRIPES * STRIPE_SIZE);
+    this.history = new AtomicLongArray(length * FIELDS);
+    this.historySeconds = new AtomicLongArray(length);
+
+    for (int i = 0; i < length; i++) {
+      this.historySeconds.set(i, UNUSED);
+    }
+  }
+
+  /**
+   * Records a duration.
+   * <p>
+   *
+   * @param nanos duration in ns
+   * @param second second in which the trace step completed
+   */
+  void record(long nanos, long second) {
+    long newest = this.newestSecond.get();
+    int index;
+
+    while (second > newest) {
+      if (this.newestSecond.compareAndSet(newest, second)) {
+        advance(newest, second);
+        newest = second;
+      } else {
+        newest = this.newestSecond.get();
+      }
+    }
+
+    if (second < newest - 1) {
+      // Too late for the hot buckets
+      addToHistory(second, 1, nanos, nanos);
+      return;
+    }
+
+    index = ((int) (second & (HOT_BUCKETS - 1)) * STRIPES + StripedLatencyHistogram
+        .getStripeIndex())
+        * STRIPE_SIZE;
+
+    this.hot.incrementAndGet(index + COUNT);
+    this.hot.addAndGet(index + SUM, nanos);
+    updateMax(this.hot, index + MAX, nanos);
+  }
+
+  /**
+   * Returns the durations of the trace steps that completed within the last
+   * seconds.
+   * <p>
+   *
+   * @param now current second
+   * @param seconds length of the window (at most the length of the ring)
+   * @return statistics
+   */
+  WindowStatistics getStatistics(long now, int seconds) {
+    long newest = this.newestSecond.get();
+    long oldest = now - seconds;
+    long[] totals = new long[FIELDS];
+    long second;
+
+    for (int i = 0; i < this.length; i++) {
+      second = this.historySeconds.get(i);
+
+      if (second > oldest && second <= now) {
+        add(totals, this.history, i * FIELDS);
+      }
+    }
+
+    for (second = newest - HOT_BUCKETS + 1; second <= newest; second++) {
+      if (second > oldest && second <= now) {
+        int base = (int) (second & (HOT_BUCKETS - 1)) * STRIPES;
+
+        for (int i = 0; i < STRIPES; i++) {
+          add(totals, this.hot, (base + i) * STRIPE_SIZE);
+        }
+      }
+    }
+
+    return new WindowStatistics(this.id, seconds, totals[COUNT], totals[SUM],
+        totals[MAX]);
+  }
+
+  /**
+   * Helper method: Moves the hot buckets that have become old into the
+   * history.
+   * <p>
+   *
+   * All hot buckets except those of <code>second - 1</code> and
+   * <code>second</code> are moved. A bucket holds the values of the most
+   * recent second up to <code>previous</code> that maps to the bucket. Even
+   * the buckets of the new seconds may contain values of older seconds, which
+   * have been recorded by threads that were delayed while the window was
+   * advanced before.
+   * <p>
+   *
+   * @param previous newest second before the window has been advanced
+   * @param second new newest second
+   */
+  private void advance(long previous, long second) {
+    for (long s = second - HOT_BUCKETS + 1; s <= second; s++) {
+      int base = (int) (s & (HOT_BUCKETS - 1)) * STRIPES;
+      long old = s;
+      long count = 0;
+      long sum = 0;
+      long max = -1;
+
+      if (s > previous) {
+        old = s - HOT_BUCKETS * ((s - previous + HOT_BUCKETS - 1) / HOT_BUCKETS);
+      } else if (s >= second - 1) {
+        // Still hot
+        continue;
+      }
+
+      for (int i = 0; i < STRIPES; i++) {
+        int index = (base + i) * STRIPE_SIZE;
+
+        count += this.hot.getAndSet(index + COUNT, 0);
+        sum += this.hot.getAndSet(index + SUM, 0);
+        max = Math.max(max, this.hot.getAndSet(index + MAX, 0));
+      }
+
+      if (count > 0) {
+        addToHistory(old, count, sum, max);
+      }
+    }
+  }
+
+  /**
+   * Helper method: Adds values to the history bucket of a second.
+   * <p>
+   *
+   * The bucket is claimed for the second if it still contains the values of
+   * an older second. While a bucket is cleared, other threads adding values
+   * to it wait for a moment. Values of seconds that are no longer part of the
+   * ring are dropped.
+   * <p>
+   *
+   * @param second second
+   * @param count number of values
+   * @param sum sum of the values
+   * @param max maximum of the values
+   */
+  private void addToHistory(long second, long count, long sum, long max) {
+    int slot = (int) (second % this.length);
+    int index = slot * FIELDS;
+    long owner = this.historySeconds.get(slot);
+
+    while (owner != second) {
+      if (owner == CLAIMING) {
+        Thread.yield();
+      } else if (owner > second) {
+        return;
+      } else if (this.historySeconds.compareAndSet(slot, owner, CLAIMING)) {
+        this.history.set(index + COUNT, 0);
+        this.history.set(index + SUM, 0);
+        this.history.set(index + MAX, 0);
+        this.historySeconds.set(slot, second);
+      }
+
+      owner = this.historySeconds.get(slot);
+    }
+
+    this.history.addAndGet(index + COUNT, count);
+    this.history.addAndGet(index + SUM, sum);
+    updateMax(this.history, index + MAX, max);
+  }
+
+  /**
+   * Helper method: Adds the counters of a bucket.
+   * <p>
+   *
+   * @param totals array receiving the totals
+   * @param counters counters
+   * @param index index of the bucket
+   */
+  private static void add(long[] totals, AtomicLongArray counters, int index) {
+    totals[COUNT] += counters.get(index + COUNT);
+    totals[SUM] += counters.get(index + SUM);
+    totals[MAX] = Math.max(totals[MAX], counters.get(index + MAX));
+  }
+
+  /**
+   * Helper method: Updates a maximum without locking.
+   * <p>
+   *
+   * @param counters counters
+   * @param index index of the maximum
+   * @param value new value
+   */
+  private static void updateMax(AtomicLongArray counters, int index,
+      long value) {
+    long current = counters.get(index);
+
+    while (value > current && !counters.compareAndSet(index, current, value)) {
+      current = counters.get(index);
+    }
+  }
+
+}
@@ -0,0 +1,325 @@
+package org.e2etrace.stats;
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.e2etrace.export.ITraceSessionSink;
+import org.e2etrace.trace.ITraceSession;
+import org.e2etrace.trace.ITraceStep;
+import org.e2etrace.trace.ITraceStepId;
+import org.e2etrace.trace.TraceSessionRootStepId;
+import org.e2etrace.trace.TraceStepWalker;
+
+/**
+ * Online statistics of the trace steps that completed within the last
+ * minutes.
+ * <p>
+ *
+ * For every trace step id, the engine keeps a ring of one-second buckets with
+ * the number of completed trace steps and the sum and maximum of their
+ * durations. By default, the ring covers 15 minutes, so the usual windows of
+ * 1, 5 and 15 minutes can be queried at any time:
+ * <p>
+ *
+ * <pre>
+ * SlidingWindowStatistics stats = new SlidingWindowStatistics();
+ *
+ * // For every completed service call
+ * stats.record(session);
+ *
+ * // Dashboard
+ * WindowStatistics[] lastMinute = stats.snapshot(SlidingWindowStatistics.ONE_MINUTE);
+ * </pre>
+ *
+ * Recording does not use locks. The buckets of the current second are
+ * striped, so hundreds of threads can record at the same time without
+ * contention, and old buckets are rotated by the first thread that records a
+ * value in a new second (see {@link SlidingWindow}). Root steps of nested
+ * trace sessions are not recorded. The number of distinct trace step ids is
+ * limited.
+ * <p>
+ */
+public class SlidingWindowStatistics implements ITraceSessionSink {
+
+  /** Window of one minute. */
+  public static final int ONE_MINUTE = 60;
+
+  /** Window of five minutes. */
+  public static final int FIVE_MINUTES = 300;
+
+  /** Window of fifteen minutes (default length of the ring). */
+  public static final int FIFTEEN_MINUTES = 900;
+
+  /** Default limit for the number of distinct trace step ids. */
+  public static final int DEFAULT_MAX_IDS = 1000;
+
+  private static final Log log = LogFactory
+      .getLog(SlidingWindowStatistics.class);
+
+  private int length;
+  private int maxIds;
+  private ConcurrentHashMap windows;
+  private AtomicInteger size;
+  private AtomicLong droppedCount;
+
+  /**
+   * Default constructor.
+   * <p>
+   *
+   * The statistics cover the last 15 minutes of at most
+   * <code>DEFAULT_MAX_IDS</code> trace step ids.
+   * <p>
+   */
+  public SlidingWindowStatistics() {
+    this(FIFTEEN_MINUTES, DEFAULT_MAX_IDS);
+  }
+
+  /**
+   * Constructor: Use a custom length and a custom limit for the number of
+   * trace step ids.
+   * <p>
+   *
+   * @param length number of seconds covered by the statistics
+   * @param maxIds maximum number of distinct trace step ids
+   */
+  public SlidingWindowStatistics(int length, int maxIds) {
+    if (length <= 0) {
+      throw new IllegalArgumentException("Invalid length: " + length);
+    }
+    if (maxIds <= 0) {
+      throw new IllegalArgumentException("Invalid number of ids: " + maxIds);
+    }
+
+    this.length = length;
+    this.maxIds = maxIds;
+    this.windows = new ConcurrentHashMap();
+    this.size = new AtomicInteger();
+    this.droppedCount = new AtomicLong();
+  }
+
+  /** {@inheritDoc} */
+  public void export(ITraceSession session) {
+    record(session);
+  }
+
+  /**
+   * Records all trace steps of a completed trace session.
+   * <p>
+   *
+   * @param session completed trace session
+   */
+  public void record(ITraceSession session) {
+    ITraceStep root = session.getRootStep();
+
+    if (root != null) {
+      record(root);
+    }
+  }
+
+  /**
+   * Records a trace step and all of its children.
+   * <p>
+   *
+   * All steps are assigned to the current second. Steps that are still active
+   * are skipped.
+   * <p>
+   *
+   * @param root trace step
+   */
+  public void record(ITraceStep root) {
+    TraceStepWalker walker = new TraceStepWalker();
+    long second = currentTimeMillis() / 1000L;
+    ITraceStep step;
+    SlidingWindow window;
+    long nanos;
+
+    walker.reset(root);
+
+    while (walker.next()) {
+      step = walker.getStep();
+
+      if (step.getId() instanceof TraceSessionRootStepId || step.isActive()) {
+        continue;
+      }
+
+      nanos = step.getDurationNanos();
+      if (nanos < 0) {
+        continue;
+      }
+
+      window = getWindow(step.getId(), second);
+      if (window == null) {
+        this.droppedCount.incrementAndGet();
+        continue;
+      }
+
+      window.record(nanos, second);
+    }
+  }
+
+  /**
+   * Returns the statistics of a single trace step id.
+   * <p>
+   *
+   * @param id trace step id
+   * @param seconds length of the window (e.g. <code>ONE_MINUTE</code>)
+   * @return statistics or <code>null</code> if no trace step with the given
+   *         id has been recorded
+   */
+  public WindowStatistics getStatistics(ITraceStepId id, int seconds) {
+    SlidingWindow window = (SlidingWindow) this.windows.get(id);
+
+    checkSeconds(seconds);
+
+    if (window == null) {
+      return null;
+    }
+
+    return window.getStatistics(currentTimeMillis() / 1000L, seconds);
+  }
+
+  /**
+   * Returns the statistics of all trace step ids.
+   * <p>
+   *
+   * @param seconds length of the window (e.g. <code>ONE_MINUTE</code>)
+   * @return statistics of all ids with at least one completed step within the
+   *         window, sorted by trace step id
+   */
+  public WindowStatistics[] snapshot(int seconds) {
+    long now = currentTimeMillis() / 1000L;
+    List result = new ArrayList(this.windows.size());
+    WindowStatistics[] stats;
+
+    checkSeconds(seconds);
+
+    for (Iterator iter = this.windows.values().iterator(); iter.hasNext();) {
+      WindowStatistics stat = ((SlidingWindow) iter.next()).getStatistics(now,
+          seconds);
+
+      if (stat.getCount() > 0) {
+        result.add(stat);
+      }
+    }
+
+    stats = (WindowStatistics[]) result.toArray(new WindowStatistics[result
+        .size()]);
+    Arrays.sort(stats, new Comparator() {
+      public int compare(Object o1, Object o2) {
+        return ((WindowStatistics) o1).getId().asString().compareTo(
+            ((WindowStatistics) o2).getId().asString());
+      }
+    });
+
+    return stats;
+  }
+
+  /**
+   * Removes all trace step ids and their statistics.
+   * <p>
+   */
+  public void reset() {
+    this.windows.clear();
+    this.size.set(0);
+    this.droppedCount.set(0);
+  }
+
+  /**
+   * Returns the number of trace steps that have not been recorded because
+   * the limit of trace step ids has been reached.
+   * <p>
+   *
+   * @return number of dropped trace steps
+   */
+  public long getDroppedCount() {
+    return this.droppedCount.get();
+  }
+
+  /**
+   * Returns the current time. Can be overwritten for testing purposes.
+   * <p>
+   *
+   * @return current time in ms
+   */
+  protected long currentTimeMillis() {
+    return System.currentTimeMillis();
+  }
+
+  /**
+   * Helper method: Checks the length of a requested window.
+   * <p>
+   *
+   * @param seconds length of the window
+   * @throws IllegalArgumentException The window is longer than the ring
+   */
+  private void checkSeconds(int seconds) {
+    if (seconds <= 0 || seconds > this.length) {
+      throw new IllegalArgumentException("Invalid window: " + seconds);
+    }
+  }
+
+  /**
+   * Helper method: Returns the window of a trace step id.
+   * <p>
+   *
+   * A new window is created if the limit of trace step ids has not been
+   * reached.
+   * <p>
+   *
+   * @param id trace step id
+   * @param second current second
+   * @return window or <code>null</code> if the limit has been reached
+   */
+  private SlidingWindow getWindow(ITraceStepId id, long second) {
+    SlidingWindow window = (SlidingWindow) this.windows.get(id);
+    Object registered;
+
+    if (window != null) {
+      return window;
+    }
+
+    if (this.size.get() >= this.maxIds) {
+      return null;
+    }
+
+    window = new SlidingWindow(id, this.length, second);
+    registered = this.windows.putIfAbsent(id, window);
+
+    if (registered != null) {
+      return (SlidingWindow) registered;
+    }
+
+    if (this.size.incrementAndGet() == this.maxIds) {
+      log.warn("SlidingWindowStatistics reached its limit of " + this.maxIds
+          + " trace step ids. Additional ids will not be recorded.");
+    }
+
+    return window;
+  }
+
+}
@@ -0,0 +1,95 @@
+package org.e2etrace.stats;
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.e2etrace.trace.ITraceStepId;
+
+/**
+ * Aggregated durations of all trace steps with the same id.
+ * <p>
+ *
+ * Instances are snapshots created by {@link StepStatisticsAggregator}. They
+ * are not updated afterwards.
+ * <p>
+ */
+public class StepStatistics {
+
+  private ITraceStepId id;
+  private LatencyHistogram duration;
+  private LatencyHistogram isolatedDuration;
+
+  /**
+   * Constructor.
+   * <p>
+   *
+   * @param id id of the aggregated trace steps
+   * @param duration histogram of the durations
+   * @param isolatedDuration histogram of the isolated durations
+   */
+  public StepStatistics(ITraceStepId id, LatencyHistogram duration,
+      LatencyHistogram isolatedDuration) {
+    this.id = id;
+    this.duration = duration;
+    this.isolatedDuration = isolatedDuration;
+  }
+
+  /**
+   * Returns the id of the aggregated trace steps.
+   * <p>
+   *
+   * @return trace step id
+   */
+  public ITraceStepId getId() {
+    return this.id;
+  }
+
+  /**
+   * Returns the number of calls of the trace step.
+   * <p>
+   *
+   * @return number of calls
+   */
+  public long getCount() {
+    return this.duration.getCount();
+  }
+
+  /**
+   * Returns the histogram of the durations.
+   * <p>
+   *
+   * @return histogram (durations in ns)
+   */
+  public LatencyHistogram getDuration() {
+    return this.duration;
+  }
+
+  /**
+   * Returns the histogram of the isolated durations.
+   * <p>
+   *
+   * Trace steps without a valid isolated duration are not included. Hence,
+   * the count of this histogram may be smaller than the number of calls.
+   * <p>
+   *
+   * @return histogram (durations in ns)
+   */
+  public LatencyHistogram getIsolatedDuration() {
+    return this.isolatedDuration;
+  }
+
+}
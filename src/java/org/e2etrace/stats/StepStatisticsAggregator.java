@@ -0,0 +1,349 @@
+package org.e2etrace.stats;
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.e2etrace.export.ITraceSessionSink;
+import org.e2etrace.trace.ITraceSession;
+import org.e2etrace.trace.ITraceStep;
+import org.e2etrace.trace.ITraceStepId;
+import org.e2etrace.trace.TraceSessionRootStepId;
+import org.e2etrace.trace.TraceStepWalker;
+
+/**
+ * Aggregates the durations of completed trace sessions per trace step id.
+ * <p>
+ *
+ * For every trace step id, the aggregator maintains a histogram of the
+ * durations and a histogram of the isolated durations (see
+ * {@link LatencyHistogram}). The histograms are striped, so many threads can
+ * record their sessions at the same time without contention. The current
+ * values are read by <code>snapshot</code>, which merges the stripes:
+ * <p>
+ *
+ * <pre>
+ * StepStatisticsAggregator aggregator = new StepStatisticsAggregator();
+ *
+ * // For every completed service call
+ * aggregator.record(session);
+ *
+ * // Periodically, e.g. once a minute
+ * StepStatistics[] stats = aggregator.snapshotAndReset();
+ * new StepStatisticsFormatter().format(stats, writer);
+ * </pre>
+ *
+ * Root steps of nested trace sessions (see {@link TraceSessionRootStepId})
+ * are not aggregated, but their children are. The number of distinct trace
+ * step ids is limited to keep the memory consumption bounded. Steps with
+ * additional ids are counted by <code>getDroppedCount</code>, but not
+ * aggregated.
+ * <p>
+ *
+ * The aggregator is thread-safe. It can also be used as
+ * {@link ITraceSessionSink}, e.g. for a {@link org.e2etrace.export.TailSampler}.
+ * <p>
+ */
+public class StepStatisticsAggregator implements ITraceSessionSink {
+
+  /** Default limit for the number of distinct trace step ids. */
+  public static final int DEFAULT_MAX_IDS = 1000;
+
+  private static final Log log = LogFactory
+      .getLog(StepStatisticsAggregator.class);
+
+  private int maxIds;
+  private ConcurrentHashMap recorders;
+  private AtomicInteger size;
+  private AtomicLong droppedCount;
+
+  /**
+   * Default constructor.
+   * <p>
+   *
+   * At most <code>DEFAULT_MAX_IDS</code> trace step ids are aggregated.
+   * <p>
+   */
+  public StepStatisticsAggregator() {
+    this(DEFAULT_MAX_IDS);
+  }
+
+  /**
+   * Constructor: Use a custom limit for the number of trace step ids.
+   * <p>
+   *
+   * @param maxIds maximum number of distinct trace step ids
+   */
+  public StepStatisticsAggregator(int maxIds) {
+    if (maxIds <= 0) {
+      throw new IllegalArgumentException("Invalid number of ids: " + maxIds);
+    }
+
+    this.maxIds = maxIds;
+    this.recorders = new ConcurrentHashMap();
+    this.size = new AtomicInteger();
+    this.droppedCount = new AtomicLong();
+  }
+
+  /** {@inheritDoc} */
+  public void export(ITraceSession session) {
+    record(session);
+  }
+
+  /**
+   * Aggregates all trace steps of a completed trace session.
+   * <p>
+   *
+   * @param session completed trace session
+   */
+  public void record(ITraceSession session) {
+    ITraceStep root = session.getRootStep();
+
+    if (root != null) {
+      record(root);
+    }
+  }
+
+  /**
+   * Aggregates a trace step and all of its children.
+   * <p>
+   *
+   * Steps that are still active are skipped.
+   * <p>
+   *
+   * @param root trace step
+   */
+  public void record(ITraceStep root) {
+    TraceStepWalker walker = new TraceStepWalker();
+    ITraceStep step;
+    Recorder recorder;
+    long nanos;
+
+    walker.reset(root);
+
+    while (walker.next()) {
+      step = walker.getStep();
+
+      if (step.getId() instanceof TraceSessionRootStepId || step.isActive()) {
+        continue;
+      }
+
+      nanos = step.getDurationNanos();
+      if (nanos < 0) {
+        continue;
+      }
+
+      recorder = getRecorder(step.getId());
+      if (recorder == null) {
+        this.droppedCount.incrementAndGet();
+        continue;
+      }
+
+      recorder.duration.record(nanos);
+
+      nanos = step.getIsolatedDurationNanos();
+      if (nanos >= 0) {
+        recorder.isolatedDuration.record(nanos);
+      }
+    }
+  }
+
+  /**
+   * Returns the aggregated durations of a single trace step id.
+   * <p>
+   *
+   * @param id trace step id
+   * @return statistics or <code>null</code> if no trace step with the given
+   *         id has been recorded
+   */
+  public StepStatistics getStatistics(ITraceStepId id) {
+    Recorder recorder = (Recorder) this.recorders.get(id);
+
+    if (recorder == null) {
+      return null;
+    }
+
+    return recorder.snapshot(false);
+  }
+
+  /**
+   * Returns the aggregated durations of all trace step ids.
+   * <p>
+   *
+   * @return statistics sorted by trace step id
+   */
+  public StepStatistics[] snapshot() {
+    return collect(false);
+  }
+
+  /**
+   * Returns the aggregated durations of all trace step ids and restarts the
+   * aggregation.
+   * <p>
+   *
+   * The registered trace step ids are kept, so ids that are recorded
+   * regularly do not allocate new histograms. Ids without any values since
+   * the last call are not returned.
+   * <p>
+   *
+   * @return statistics sorted by trace step id
+   */
+  public StepStatistics[] snapshotAndReset() {
+    return collect(true);
+  }
+
+  /**
+   * Removes all trace step ids and their aggregated durations.
+   * <p>
+   */
+  public void reset() {
+    this.recorders.clear();
+    this.size.set(0);
+    this.droppedCount.set(0);
+  }
+
+  /**
+   * Returns the number of trace steps that have not been aggregated because
+   * the limit of trace step ids has been reached.
+   * <p>
+   *
+   * @return number of dropped trace steps
+   */
+  public long getDroppedCount() {
+    return this.droppedCount.get();
+  }
+
+  /**
+   * Helper method: Creates snapshots of all recorders.
+   * <p>
+   *
+   * @param reset true: The recorders are reset while they are read
+   * @return non-empty statistics sorted by trace step id
+   */
+  private StepStatistics[] collect(boolean reset) {
+    List result = new ArrayList(this.recorders.size());
+    StepStatistics[] stats;
+
+    for (Iterator iter = this.recorders.entrySet().iterator(); iter.hasNext();) {
+      Map.Entry entry = (Map.Entry) iter.next();
+      StepStatistics stat = ((Recorder) entry.getValue()).snapshot(reset);
+
+      if (stat.getCount() > 0) {
+        result.add(stat);
+      }
+    }
+
+    stats = (StepStatistics[]) result.toArray(new StepStatistics[result.size()]);
+    Arrays.sort(stats, new Comparator() {
+      public int compare(Object o1, Object o2) {
+        return ((StepStatistics) o1).getId().asString().compareTo(
+            ((StepStatistics) o2).getId().asString());
+      }
+    });
+
+    return stats;
+  }
+
+  /**
+   * Helper method: Returns the recorder of a trace step id.
+   * <p>
+   *
+   * A new recorder is created if the limit of trace step ids has not been
+   * reached.
+   * <p>
+   *
+   * @param id trace step id
+   * @return recorder or <code>null</code> if the limit has been reached
+   */
+  private Recorder getRecorder(ITraceStepId id) {
+    Recorder recorder = (Recorder) this.recorders.get(id);
+    Object registered;
+
+    if (recorder != null) {
+      return recorder;
+    }
+
+    if (this.size.get() >= this.maxIds) {
+      return null;
+    }
+
+    recorder = new Recorder(id);
+    registered = this.recorders.putIfAbsent(id, recorder);
+
+    if (registered != null) {
+      return (Recorder) registered;
+    }
+
+    if (this.size.incrementAndGet() == this.maxIds) {
+      log.warn("StepStatisticsAggregator reached its limit of " + this.maxIds
+          + " trace step ids. Additional ids will not be aggregated.");
+    }
+
+    return recorder;
+  }
+
+  /**
+   * Histograms of a single trace step id.
+   * <p>
+   */
+  private static final class Recorder {
+
+    private ITraceStepId id;
+    private StripedLatencyHistogram duration = new StripedLatencyHistogram();
+    private StripedLatencyHistogram isolatedDuration = new StripedLatencyHistogram();
+
+    /**
+     * Constructor.
+     * <p>
+     *
+     * @param id trace step id
+     */
+    Recorder(ITraceStepId id) {
+      this.id = id;
+    }
+
+    /**
+     * Creates a snapshot of both histograms.
+     * <p>
+     *
+     * @param reset true: The histograms are reset while they are read
+     * @return statistics
+     */
+    StepStatistics snapshot(boolean reset) {
+      if (reset) {
+        return new StepStatistics(this.id, this.duration.snapshotAndReset(),
+            this.isolatedDuration.snapshotAndReset());
+      }
+
+      return new StepStatistics(this.id, this.duration.snapshot(),
+          this.isolatedDuration.snapshot());
+    }
+
+  }
+
+}
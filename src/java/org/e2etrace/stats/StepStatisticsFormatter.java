@@ -0,0 +1,101 @@
+package org.e2etrace.stats;
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.io.Writer;
+
+import org.e2etrace.formatter.TraceFormatContext;
+
+/**
+ * CSV formatter for aggregated trace step durations.
+ * <p>
+ *
+ * The formatter writes one line per trace step id. The format of the CSV
+ * stream is as follows:
+ * <p>
+ *
+ * <pre>
+ *  id, count, mean, p50, p90, p99, p999, max,
+ *  isolated_mean, isolated_p50, isolated_p90, isolated_p99, isolated_p999, isolated_max
+ * </pre>
+ *
+ * The durations are written in ms with microsecond precision (e.g.
+ * <code>12.345</code>). The percentiles are taken from the histograms and
+ * therefore approximations (see {@link LatencyHistogram}). A value of
+ * <code>-1</code> indicates that no valid isolated duration has been
+ * recorded.
+ * <p>
+ */
+public class StepStatisticsFormatter {
+
+  private static final char CSV_DELIM = ',';
+
+  private static final double[] PERCENTILES = { 50.0, 90.0, 99.0, 99.9 };
+
+  /**
+   * Writes the aggregated durations of several trace step ids.
+   * <p>
+   *
+   * @param stats aggregated durations (see
+   *          {@link StepStatisticsAggregator#snapshot()})
+   * @param toWriter Writer to use for the output
+   * @throws IOException Error writing the output
+   */
+  public void format(StepStatistics[] stats, Writer toWriter)
+      throws IOException {
+    TraceFormatContext context = new TraceFormatContext(toWriter);
+
+    context.write("id,count,mean,p50,p90,p99,p999,max,isolated_mean,"
+        + "isolated_p50,isolated_p90,isolated_p99,isolated_p999,isolated_max");
+    context.writeNewLine();
+
+    for (int i = 0; i < stats.length; i++) {
+      context.write(stats[i].getId().asString());
+      context.write(CSV_DELIM);
+      context.writeLong(stats[i].getCount());
+      writeHistogram(stats[i].getDuration(), context);
+      writeHistogram(stats[i].getIsolatedDuration(), context);
+      context.writeNewLine();
+    }
+
+    context.flushBuffer();
+  }
+
+  /**
+   * Helper method: Writes mean, percentiles and maximum of a histogram.
+   * <p>
+   *
+   * @param histogram histogram
+   * @param context buffer receiving the output
+   */
+  private void writeHistogram(LatencyHistogram histogram,
+      TraceFormatContext context) {
+    context.write(CSV_DELIM);
+    context.writeDuration(histogram.getMean());
+
+    for (int i = 0; i < PERCENTILES.length; i++) {
+      context.write(CSV_DELIM);
+      context.writeDuration(histogram.getValueAtPercentile(PERCENTILES[i]));
+    }
+
+    context.write(CSV_DELIM);
+    context.writeDuration(histogram.getMax());
+  }
+
+}
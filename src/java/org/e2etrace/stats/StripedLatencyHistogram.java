@@ -0,0 +1,257 @@
+package org.e2etrace.stats;
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Thread-safe {@link LatencyHistogram} for concurrent recording.
+ * <p>
+ *
+ * The histogram consists of several stripes. Every thread records into the
+ * stripe that is selected by its thread id, so threads usually do not update
+ * the same counters. Recording does not use locks. The stripes are created
+ * on first use and merged into a plain <code>LatencyHistogram</code> when
+ * the histogram is read.
+ * <p>
+ *
+ * Values that are recorded while a snapshot is taken may be included in the
+ * bucket counters, but not yet in the sum (or vice versa). Values are never
+ * lost by <code>snapshotAndReset</code>.
+ * <p>
+ */
+public class StripedLatencyHistogram {
+
+  /** Maximum number of stripes per histogram. */
+  public static final int MAX_STRIPES = 16;
+
+  private static final int STRIPES = computeStripes();
+
+  private AtomicReferenceArray stripes;
+
+  /**
+   * Default constructor.
+   * <p>
+   *
+   * The number of stripes is derived from the number of available
+   * processors.
+   * <p>
+   */
+  public StripedLatencyHistogram() {
+    this.stripes = new AtomicReferenceArray(STRIPES);
+  }
+
+  /**
+   * Records a duration.
+   * <p>
+   *
+   * @param value duration in ns
+   * @throws IllegalArgumentException the duration is negative
+   */
+  public void record(long value) {
+    int index;
+    Stripe stripe;
+
+    if (value < 0) {
+      throw new IllegalArgumentException("Negative duration: " + value);
+    }
+
+    index = getStripeIndex();
+    stripe = (Stripe) this.stripes.get(index);
+
+    if (stripe == null) {
+      this.stripes.compareAndSet(index, null, new Stripe());
+      stripe = (Stripe) this.stripes.get(index);
+    }
+
+    stripe.record(value);
+  }
+
+  /**
+   * Returns a copy of all recorded values.
+   * <p>
+   *
+   * @return snapshot of the histogram
+   */
+  public LatencyHistogram snapshot() {
+    LatencyHistogram result = new LatencyHistogram();
+
+    collect(result, false);
+
+    return result;
+  }
+
+  /**
+   * Returns a copy of all recorded values and removes them from this
+   * histogram.
+   * <p>
+   *
+   * @return snapshot of the histogram
+   */
+  public LatencyHistogram snapshotAndReset() {
+    LatencyHistogram result = new LatencyHistogram();
+
+    collect(result, true);
+
+    return result;
+  }
+
+  /**
+   * Adds all recorded values to another histogram.
+   * <p>
+   *
+   * @param target histogram receiving the values
+   */
+  public void addTo(LatencyHistogram target) {
+    collect(target, false);
+  }
+
+  /**
+   * Removes all recorded values.
+   * <p>
+   */
+  public void reset() {
+    collect(null, true);
+  }
+
+  /**
+   * Helper method: Merges all stripes.
+   * <p>
+   *
+   * @param target histogram receiving the values (may be <code>null</code>)
+   * @param reset true: The stripes are reset while they are read
+   */
+  private void collect(LatencyHistogram target, boolean reset) {
+    for (int i = 0; i < STRIPES; i++) {
+      Stripe stripe = (Stripe) this.stripes.get(i);
+
+      if (stripe != null) {
+        stripe.collect(target, reset);
+      }
+    }
+  }
+
+  /**
+   * Returns the number of stripes.
+   * <p>
+   *
+   * @return power of two
+   */
+  static int getStripeCount() {
+    return STRIPES;
+  }
+
+  /**
+   * Returns the stripe that is used by the current thread.
+   * <p>
+   *
+   * @return index of the stripe
+   */
+  static int getStripeIndex() {
+    return (int) Thread.currentThread().getId() & (STRIPES - 1);
+  }
+
+  /**
+   * Helper method: Computes the number of stripes.
+   * <p>
+   *
+   * @return power of two
+   */
+  private static int computeStripes() {
+    int processors = Runtime.getRuntime().availableProcessors();
+    int result = 1;
+
+    while (result < processors && result < MAX_STRIPES) {
+      result <<= 1;
+    }
+
+    return result;
+  }
+
+  /**
+   * Counters of a single stripe.
+   * <p>
+   */
+  private static final class Stripe {
+
+    private AtomicLongArray counts = new AtomicLongArray(
+        LatencyHistogram.BUCKET_COUNT);
+    private AtomicLong sum = new AtomicLong();
+    private AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    private AtomicLong max = new AtomicLong(-1);
+
+    /**
+     * Records a duration.
+     * <p>
+     *
+     * @param value duration in ns
+     */
+    void record(long value) {
+      long current;
+
+      this.counts.incrementAndGet(LatencyHistogram.getBucketIndex(value));
+      this.sum.addAndGet(value);
+
+      current = this.min.get();
+      while (value < current && !this.min.compareAndSet(current, value)) {
+        current = this.min.get();
+      }
+
+      current = this.max.get();
+      while (value > current && !this.max.compareAndSet(current, value)) {
+        current = this.max.get();
+      }
+    }
+
+    /**
+     * Adds the counters to a histogram.
+     * <p>
+     *
+     * @param target histogram receiving the values (may be <code>null</code>)
+     * @param reset true: The counters are reset while they are read
+     */
+    void collect(LatencyHistogram target, boolean reset) {
+      long n;
+
+      for (int i = 0; i < LatencyHistogram.BUCKET_COUNT; i++) {
+        n = reset ? this.counts.getAndSet(i, 0) : this.counts.get(i);
+
+        if (n != 0 && target != null) {
+          target.addBucket(i, n);
+        }
+      }
+
+      if (reset) {
+        n = this.sum.getAndSet(0);
+        if (target != null) {
+          target.addSummary(n, this.min.getAndSet(Long.MAX_VALUE), this.max
+              .getAndSet(-1));
+        } else {
+          this.min.set(Long.MAX_VALUE);
+          this.max.set(-1);
+        }
+      } else if (target != null) {
+        target.addSummary(this.sum.get(), this.min.get(), this.max.get());
+      }
+    }
+
+  }
+
+}
@@ -0,0 +1,127 @@
+package org.e2etrace.stats;
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.e2etrace.trace.ITraceStepId;
+
+/**
+ * Durations of all trace steps with the same id that completed within a time
+ * window.
+ * <p>
+ *
+ * Instances are snapshots created by {@link SlidingWindowStatistics}.
+ * <p>
+ */
+public class WindowStatistics {
+
+  private ITraceStepId id;
+  private int seconds;
+  private long count;
+  private long sum;
+  private long max;
+
+  /**
+   * Constructor.
+   * <p>
+   *
+   * @param id id of the trace steps
+   * @param seconds length of the time window in seconds
+   * @param count number of completed trace steps
+   * @param sum sum of the durations in ns
+   * @param max maximum duration in ns (-1: no trace step has completed)
+   */
+  public WindowStatistics(ITraceStepId id, int seconds, long count, long sum,
+      long max) {
+    this.id = id;
+    this.seconds = seconds;
+    this.count = count;
+    this.sum = sum;
+    this.max = max;
+  }
+
+  /**
+   * Returns the id of the trace steps.
+   * <p>
+   *
+   * @return trace step id
+   */
+  public ITraceStepId getId() {
+    return this.id;
+  }
+
+  /**
+   * Returns the length of the time window.
+   * <p>
+   *
+   * @return length in seconds
+   */
+  public int getSeconds() {
+    return this.seconds;
+  }
+
+  /**
+   * Returns the number of trace steps that completed within the window.
+   * <p>
+   *
+   * @return number of calls
+   */
+  public long getCount() {
+    return this.count;
+  }
+
+  /**
+   * Returns the sum of the durations.
+   * <p>
+   *
+   * @return sum in ns
+   */
+  public long getSum() {
+    return this.sum;
+  }
+
+  /**
+   * Returns the longest duration.
+   * <p>
+   *
+   * @return maximum in ns or <code>-1</code> if no trace step has completed
+   */
+  public long getMax() {
+    return this.count == 0 ? -1 : this.max;
+  }
+
+  /**
+   * Returns the average duration.
+   * <p>
+   *
+   * @return mean in ns or <code>-1</code> if no trace step has completed
+   */
+  public long getMean() {
+    return this.count == 0 ? -1 : this.sum / this.count;
+  }
+
+  /**
+   * Returns the average number of calls per second.
+   * <p>
+   *
+   * @return calls per second
+   */
+  public double getRate() {
+    return (double) this.count / this.seconds;
+  }
+
+}
@@ -67,4 +67,31 @@ public class DefaultTimer implements ITimer {
 
   }
 
+  /**
+   * Returns the duration in ns since <code>start()</code>.
+   * <p>
+   *
+   * The resolution of the returned value is still 1ms (see class
+   * documentation).
+   * <p>
+   *
+   * @return duration in ns
+   */
+  public long measureNanos() {
+    long durationMillis = measure();
+
+    return durationMillis < 0 ? durationMillis : durationMillis * 1000000L;
+  }
+
+  /**
+   * Returns the start time as returned by
+   * <code>System.currentTimeMillis()</code> converted to ns.
+   *
+   * @return start time in ns (<code>UNKNOWN_START</code>:
+   *         <code>start()</code> has not been called yet)
+   */
+  public long getStartNanos() {
+    return start > 0 ? start * 1000000L : UNKNOWN_START;
+  }
+
 }
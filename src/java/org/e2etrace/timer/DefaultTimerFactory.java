@@ -16,8 +16,6 @@ package org.e2etrace.timer;
  * limitations under the License.
  */
 
-import java.lang.reflect.Method;
-
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
@@ -49,6 +47,11 @@ import org.apache.commons.logging.LogFactory;
  * the Timers are able to deliver.
  * <p>
  *
+ * The built-in Timer types are created directly by the factory. Reflection is
+ * only used for custom Timer types that have been set via
+ * <code>setTimerType</code>.
+ * <p>
+ *
  *
  * @author Gunther Popp
  *
@@ -58,7 +61,12 @@ public class DefaultTimerFactory implements ITimerFactory {
   private static final Log log = LogFactory.getLog(DefaultTimerFactory.class);
   private static final boolean supportsExactMeasuring = supportsNanoTime();
 
+  private static final int TYPE_CUSTOM = 0;
+  private static final int TYPE_DEFAULT = 1;
+  private static final int TYPE_EXACT = 2;
+
   private Class timerType;
+  private int timerKind;
 
   /**
    * Default constructor.
@@ -89,6 +97,13 @@ public class DefaultTimerFactory implements ITimerFactory {
   public ITimer newInstance() {
     ITimer timer = null;
 
+    // Create the built-in timer types without reflection
+    if (this.timerKind == TYPE_EXACT) {
+      return new ExactTimer();
+    } else if (this.timerKind == TYPE_DEFAULT) {
+      return new DefaultTimer();
+    }
+
     try {
       timer = (ITimer) timerType.newInstance();
     } catch (Exception e) {
@@ -111,6 +126,14 @@ public class DefaultTimerFactory implements ITimerFactory {
     // timerType.getName());
 
     this.timerType = timerType;
+
+    if (timerType == ExactTimer.class) {
+      this.timerKind = TYPE_EXACT;
+    } else if (timerType == DefaultTimer.class) {
+      this.timerKind = TYPE_DEFAULT;
+    } else {
+      this.timerKind = TYPE_CUSTOM;
+    }
   }
 
   /**
@@ -123,23 +146,35 @@ public class DefaultTimerFactory implements ITimerFactory {
     return timerType;
   }
 
+  /**
+   * Returns true, if the current VM supports the System.nanoTime() Method.
+   * <p>
+   *
+   * @return true: VM supports the exact time measuring
+   */
+  public static boolean isExactMeasuringSupported() {
+    return supportsExactMeasuring;
+  }
+
   /**
    * Helper-method: Checks, if the current VM supports the System.nanoTime()
    * Method.
+   * <p>
+   *
+   * The method simply invokes <code>System.nanoTime()</code>. On VMs prior to
+   * JDK 5.0 this call fails with a <code>NoSuchMethodError</code>.
+   * <p>
    *
    * @return true: VM supports the exact time measuring
    */
   private static boolean supportsNanoTime() {
-    boolean ret = false;
-    Method[] methods = System.class.getDeclaredMethods();
+    boolean ret;
 
-    for (int i = 0; i < methods.length; i++) {
-      Method method = methods[i];
-
-      if (method.getName().equals("nanoTime")) {
-        ret = true;
-        break;
-      }
+    try {
+      System.nanoTime();
+      ret = true;
+    } catch (NoSuchMethodError e) {
+      ret = false;
     }
 
     if (ret) {
@@ -22,7 +22,8 @@ package org.e2etrace.timer;
  *
  * New JDKs provide an API for measuring time intervals that works accurate on
  * all operating systems. To be exact: It guarantees the accuracy the operating
- * system is able to deliver. In most to all cases this should be about 1-2ms.
+ * system is able to deliver. The timer measures durations in ns, so even very
+ * short trace steps can be measured (see <code>measureNanos</code>).
  * <p>
  *
  * @author Gunther Popp
@@ -31,6 +32,7 @@ public class ExactTimer implements ITimer {
 
   private long duration = -1;
   private long start = -1;
+  private boolean started = false;
 
   /**
    * Constructor. New instances can only be created by
@@ -43,17 +45,36 @@ public class ExactTimer implements ITimer {
   /** {@inheritDoc} */
   public void start() {
     start = System.nanoTime();
+    started = true;
 
   }
 
   /** {@inheritDoc} */
   public long measure() {
-    if (start > 0) {
-      duration = ((System.nanoTime()) - start) / 1000000;
+    long durationNanos = measureNanos();
+
+    return durationNanos < 0 ? durationNanos : durationNanos / 1000000L;
+
+  }
+
+  /** {@inheritDoc} */
+  public long measureNanos() {
+    if (started) {
+      duration = System.nanoTime() - start;
     }
 
     return duration;
 
   }
 
+  /**
+   * Returns the start time as returned by <code>System.nanoTime()</code>.
+   *
+   * @return start time in ns (<code>UNKNOWN_START</code>:
+   *         <code>start()</code> has not been called yet)
+   */
+  public long getStartNanos() {
+    return started ? start : UNKNOWN_START;
+  }
+
 }
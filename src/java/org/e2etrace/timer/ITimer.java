@@ -18,11 +18,35 @@ package org.e2etrace.timer;
 
 /**
  * Timers are able to measure the duration between <code>start()</code> and
- * <code>measure</code> in ms.
+ * <code>measure</code> in ms or ns.
+ * <p>
+ *
+ * The resolution of the returned values depends on the implementation. For
+ * example, {@link DefaultTimer} only measures full milliseconds, even if the
+ * duration is requested in ns.
+ * <p>
+ *
+ * <b>Note for custom timers:</b> Trace steps measure their durations with
+ * <code>measureNanos</code> and <code>getStartNanos</code>. Implementations
+ * written against releases up to 1.4 have to add both methods.
+ * Timers that only support ms can simply return
+ * <code>measure() * 1000000L</code> and <code>UNKNOWN_START</code>.
  * <p>
  */
 public interface ITimer {
 
+  /**
+   * Start time returned by <code>getStartNanos</code> if the timer has not
+   * been started yet.
+   * <p>
+   *
+   * <code>System.nanoTime()</code> may return any value, including negative
+   * ones. Hence, the smallest possible value is used to mark an unknown start
+   * time.
+   * <p>
+   */
+  long UNKNOWN_START = Long.MIN_VALUE;
+
   /**
    * Starts the timer.
    * <p>
@@ -36,4 +60,25 @@ public interface ITimer {
    */
   long measure();
 
+  /**
+   * Returns the duration in ns since <code>start()</code>.
+   *
+   * @return duration in ns (-1: <code>start()</code> has not been called yet)
+   */
+  long measureNanos();
+
+  /**
+   * Returns the point in time at which the timer has been started in ns.
+   * <p>
+   *
+   * The origin of the returned value depends on the implementation (e.g.
+   * <code>System.nanoTime()</code>). Hence, only the difference between the
+   * start times of timers of the same type is meaningful.
+   * <p>
+   *
+   * @return start time in ns (<code>UNKNOWN_START</code>:
+   *         <code>start()</code> has not been called yet)
+   */
+  long getStartNanos();
+
 }
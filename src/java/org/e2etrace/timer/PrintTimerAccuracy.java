@@ -47,18 +47,18 @@ public class PrintTimerAccuracy {
     // JIT/hotspot warmup:
     timer.start();
     for (int r = 0; r < 3000; ++r) {
-      timer.measure();
+      timer.measureNanos();
     }
 
     timer.start();
 
     for (int i = 0; i < 5; ++i) {
-      time = timer.measure();
+      time = timer.measureNanos();
       time_prev = time;
       while (time == time_prev)
-        time = timer.measure();
+        time = timer.measureNanos();
 
-      System.out.println("accuracy = " + (time - time_prev) + " ms");
+      System.out.println("accuracy = " + (time - time_prev) + " ns");
     }
   }
 }
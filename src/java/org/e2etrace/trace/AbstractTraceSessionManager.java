@@ -19,6 +19,7 @@ package org.e2etrace.trace;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.e2etrace.config.DefaultTraceConfig;
+import org.e2etrace.config.ISamplingTraceConfig;
 import org.e2etrace.config.ITraceConfig;
 import org.e2etrace.config.PropertiesTraceConfig;
 
@@ -164,16 +165,84 @@ public abstract class AbstractTraceSessionManager implements ITraceSessionManage
     return currentSession;
   }
 
-  /** {@inheritDoc} */
+  /**
+   * Assigns the current trace session.
+   * <p>
+   *
+   * If tracing has been disabled for the session or the session has not been
+   * sampled (see {@link ISamplingTraceConfig}), the shared
+   * <code>NoopTraceSession</code> is assigned instead.
+   * <p>
+   *
+   * @param session trace session
+   */
   public void setCurrentSession(ITraceSession session) {
     // Check if tracing has been disabled for this session
     if (session.getRootStep() == null || !(getConfig().isTraceEnabledForId(session.getRootStep().getId()))) {
       assignCurrentSession(this.noopSession);
     } else {
+      // Sessions that are not sampled get the configuration as well. They need
+      // it to discard the sampling decision when they are reset.
       session.setConfig(this.getConfig());
-      assignCurrentSession(session);
+
+      if (isSampled(session.getRootStep().getId())) {
+        assignCurrentSession(session);
+      } else {
+        assignCurrentSession(this.noopSession);
+      }
+    }
+
+  }
+
+  /**
+   * Creates a new trace session and assigns it as current session.
+   * <p>
+   *
+   * In contrast to <code>setCurrentSession</code>, the trace configuration
+   * and the sampling decision (see {@link ISamplingTraceConfig}) are checked
+   * before the session is created. If the session is not traced, no session
+   * is allocated at all and the shared <code>NoopTraceSession</code> is
+   * assigned instead.
+   * <p>
+   *
+   * @param sessionId id of the new trace session
+   * @param stepFactory factory for the trace steps of the session
+   * @return the assigned trace session
+   */
+  public ITraceSession startSession(String sessionId,
+      ITraceStepFactory stepFactory) {
+    TraceSessionRootStepId rootId = new TraceSessionRootStepId(sessionId);
+    ITraceSession session;
+
+    if (!getConfig().isTraceEnabledForId(rootId) || !isSampled(rootId)) {
+      session = this.noopSession;
+    } else {
+      session = new DefaultTraceSession(rootId, stepFactory);
+      session.setConfig(getConfig());
+    }
+
+    assignCurrentSession(session);
+
+    return session;
+  }
+
+  /**
+   * Helper method: Checks if a trace session has been sampled.
+   * <p>
+   *
+   * The configuration memorizes the decision for the root step id of the
+   * session, so re-assigning the same session does not change the decision.
+   * <p>
+   *
+   * @param rootId id of the root step of the session
+   * @return true: the session is traced
+   */
+  private boolean isSampled(ITraceStepId rootId) {
+    if (!(getConfig() instanceof ISamplingTraceConfig)) {
+      return true;
     }
 
+    return ((ISamplingTraceConfig) getConfig()).isSessionSampled(rootId);
   }
 
 }
@@ -18,8 +18,10 @@ package org.e2etrace.trace;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 /**
  * Abstract base class for trace steps.
@@ -28,6 +30,15 @@ import java.util.List;
  * All custom trace step implementation must inherit from this class.
  * <p>
  *
+ * Children may be added by several threads in parallel (see
+ * {@link ConcurrentTraceSession} and
+ * {@link org.e2etrace.concurrent.TracedTask}). Hence, all accesses to the
+ * list of children are synchronized on the trace step. The list is created
+ * on demand and kept if the step is reused (see <code>resetStep</code>).
+ * Subclasses that access <code>children</code> directly must synchronize on
+ * the trace step as well.
+ * <p>
+ *
  * @author Gunther Popp
  *
  */
@@ -36,7 +47,7 @@ public abstract class AbstractTraceStep implements ITraceStep, Serializable {
   private static final long serialVersionUID = 1L;
   private ITraceStepId id;
   protected List children;
-  private ITraceStep parent;
+  private volatile ITraceStep parent;
 
   /**
    * Constructor.
@@ -58,33 +69,49 @@ public abstract class AbstractTraceStep implements ITraceStep, Serializable {
       return;
     }
 
-    // A "late" intialization is used for the children list to reduce the
-    // overhead
-    // for TraceSteps.
-    if (this.children == null) {
-      this.children = new ArrayList();
-    }
+    synchronized (this) {
+      // A "late" intialization is used for the children list to reduce the
+      // overhead for TraceSteps.
+      if (this.children == null) {
+        this.children = new ArrayList();
+      }
 
-    this.children.add(child);
+      this.children.add(child);
+    }
 
     child.setParent(this);
 
   }
 
   /** {@inheritDoc} */
-  public ITraceStep[] getChildren() {
-    ITraceStep[] steps = new ITraceStep[0];
+  public synchronized ITraceStep[] getChildren() {
+    if (this.children == null) {
+      return new ITraceStep[0];
+    }
 
-    if (this.children != null) {
-      steps = new ITraceStep[this.children.size()];
+    return (ITraceStep[]) this.children.toArray(new ITraceStep[this.children
+        .size()]);
+  }
 
-      for (int i = 0; i < steps.length; i++) {
-        steps[i] = (ITraceStep) this.children.get(i);
+  /**
+   * Returns an iterator over the children of this trace step.
+   * <p>
+   *
+   * The iterator accesses the list of children by index. Children that are
+   * added by other threads during the iteration do not cause a
+   * <code>ConcurrentModificationException</code>.
+   * <p>
+   *
+   * @return iterator over the children
+   */
+  public Iterator getChildIterator() {
+    synchronized (this) {
+      if (this.children == null || this.children.isEmpty()) {
+        return Collections.EMPTY_LIST.iterator();
       }
-
     }
 
-    return steps;
+    return new ChildIterator();
   }
 
   /** {@inheritDoc} */
@@ -131,27 +158,123 @@ public abstract class AbstractTraceStep implements ITraceStep, Serializable {
   /** {@inheritDoc} */
   public abstract long getIsolatedDuration();
 
+  /**
+   * Returns the duration of this TraceStep and all children in ns.
+   * <p>
+   *
+   * The default implementation converts the result of
+   * <code>getDuration</code>, so subclasses written before the ns based
+   * methods existed keep working with ms resolution. Subclasses that measure
+   * in ns should override this method.
+   * <p>
+   *
+   * @return accumulated duration in ns
+   */
+  public long getDurationNanos() {
+    return getDuration() * 1000000L;
+  }
+
+  /**
+   * Returns the isolated duration of this TraceStep in ns.
+   * <p>
+   *
+   * The default implementation converts the result of
+   * <code>getIsolatedDuration</code>.
+   * <p>
+   *
+   * @return duration of this TraceStep in ns (-1: no valid duration exists for
+   *         this trace step)
+   */
+  public long getIsolatedDurationNanos() {
+    long duration = getIsolatedDuration();
+
+    return duration < 0 ? -1 : duration * 1000000L;
+  }
+
+  /**
+   * Returns the start time of this TraceStep in ns.
+   * <p>
+   *
+   * The default implementation returns <code>UNKNOWN_START</code>.
+   * <p>
+   *
+   * @return start time in ns (<code>UNKNOWN_START</code>: unknown)
+   */
+  public long getStartNanos() {
+    return UNKNOWN_START;
+  }
+
   /** {@inheritDoc} */
   public abstract boolean isActive();
 
   /** {@inheritDoc} */
   public abstract void leave() throws IllegalStateException;
 
+  /**
+   * Resets this trace step, so it can be reused with a new id.
+   * <p>
+   *
+   * The reference to the parent and the list of children are cleared. The
+   * list itself is kept to avoid allocations when the step is reused.
+   * <p>
+   *
+   * @param id new id of the trace step
+   */
+  protected void resetStep(ITraceStepId id) {
+    this.id = id;
+    this.parent = null;
+
+    synchronized (this) {
+      if (this.children != null) {
+        this.children.clear();
+      }
+    }
+  }
+
   /**
    * Invokes <code>leave()</code> on all children of this trace step.
    * <p>
    */
   protected void leaveAllChildren() {
+    ITraceStep step;
+
+    for (Iterator iter = getChildIterator(); iter.hasNext();) {
+      step = (ITraceStep) iter.next();
+      if (step.isActive()) {
+        step.leave();
+      }
+    }
+  }
+
+  /**
+   * Iterator over the children of a trace step.
+   * <p>
+   */
+  private final class ChildIterator implements Iterator {
+
+    private int next;
 
-    if (this.children != null) {
-      for (Iterator iter = this.children.iterator(); iter.hasNext();) {
-        ITraceStep element = (ITraceStep) iter.next();
+    /** {@inheritDoc} */
+    public boolean hasNext() {
+      synchronized (AbstractTraceStep.this) {
+        return children != null && this.next < children.size();
+      }
+    }
 
-        if (element.isActive()) {
-          element.leave();
+    /** {@inheritDoc} */
+    public Object next() {
+      synchronized (AbstractTraceStep.this) {
+        if (children == null || this.next >= children.size()) {
+          throw new NoSuchElementException();
         }
+        return children.get(this.next++);
       }
     }
+
+    /** {@inheritDoc} */
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
   }
 
 }
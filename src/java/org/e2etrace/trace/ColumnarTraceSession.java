@@ -0,0 +1,724 @@
+package org.e2etrace.trace;
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.e2etrace.config.DefaultTraceConfig;
+import org.e2etrace.config.ISamplingTraceConfig;
+import org.e2etrace.config.ITraceConfig;
+
+/**
+ * Trace session that stores the tree of trace steps in primitive arrays.
+ * <p>
+ *
+ * {@link DefaultTraceSession} represents every trace step by several objects
+ * (the step itself, its timer, the list of children, ...). This session
+ * stores all steps in parallel arrays instead. For every step only the
+ * following values are recorded:
+ * <p>
+ * <ul>
+ * <li>index of the trace step id in the id table of the session</li>
+ * <li>index of the parent, the first child, the last child and the next
+ * sibling</li>
+ * <li>call level</li>
+ * <li>start time and duration in ns</li>
+ * </ul>
+ * <p>
+ *
+ * The arrays grow in chunks of <code>CHUNK_SIZE</code> steps, so existing
+ * data never needs to be copied. Steps are stored in the order of the
+ * <code>enterStep</code> calls, which is exactly the order in which the
+ * formatters print them. Hence, formatting a columnar session is a linear scan
+ * (see <code>getStepCount</code>, <code>getStep</code> and
+ * <code>getLevel</code>).
+ * <p>
+ *
+ * {@link ITraceStep} instances are only created on demand, e.g. by
+ * <code>getRootStep</code> or <code>getStep</code>. These instances are
+ * lightweight views on the arrays of the session. The views do not support
+ * <code>addChild</code>. If trace trees of several sessions must be combined,
+ * please use {@link DefaultTraceSession} instead.
+ * <p>
+ *
+ * Like {@link DefaultTraceSession}, the session can be reused for subsequent
+ * service calls by invoking <code>reset</code>. The session is not
+ * thread-safe.
+ * <p>
+ */
+public class ColumnarTraceSession implements ITraceSession {
+
+  /** Number of trace steps per chunk. */
+  public static final int CHUNK_SIZE = 1024;
+
+  private static final int CHUNK_SHIFT = 10;
+  private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+  private static final int NONE = -1;
+  private static final int ROOT = 0;
+
+  private Chunk[] chunks;
+  private int stepCount;
+  private int current;
+
+  private ITraceStepId[] idTable;
+  private int idCount;
+  private Map idIndex;
+
+  private ITraceConfig tc;
+
+  /**
+   * Default constructor.
+   * <p>
+   *
+   * @param sessionId id of the session. This id will be used for the root step
+   *          of the session. It will be prefixed by a dollar sign ($) (see
+   *          {@link TraceSessionRootStepId})
+   */
+  public ColumnarTraceSession(String sessionId) {
+    this.chunks = new Chunk[] { new Chunk() };
+    this.idTable = new ITraceStepId[16];
+    this.idIndex = new HashMap();
+    this.tc = new DefaultTraceConfig();
+
+    // The root step always uses index 0
+    this.stepCount = 0;
+    appendStep(new TraceSessionRootStepId(sessionId), NONE);
+    this.current = ROOT;
+  }
+
+  /** {@inheritDoc} */
+  public void enterStep(Class clazz, String method) {
+    if (this.tc.isTraceEnabled()) {
+      this.enterStep(TraceStepIdRegistry.getMethodId(clazz, method));
+    }
+  }
+
+  /** {@inheritDoc} */
+  public void leaveStep(Class clazz, String method) {
+    if (this.tc.isTraceEnabled()) {
+      this.leaveStep(TraceStepIdRegistry.getMethodId(clazz, method));
+    }
+  }
+
+  /** {@inheritDoc} */
+  public void enterStep(String id) {
+    if (this.tc.isTraceEnabled()) {
+      this.enterStep(TraceStepIdRegistry.getSimpleId(id));
+    }
+  }
+
+  /** {@inheritDoc} */
+  public void leaveStep(String id) {
+    if (this.tc.isTraceEnabled()) {
+      this.leaveStep(TraceStepIdRegistry.getSimpleId(id));
+    }
+  }
+
+  /** {@inheritDoc} */
+  public void enterStep(ITraceStepId id) {
+    if (this.tc.isTraceEnabledForId(id)) {
+      int index;
+      Chunk chunk;
+
+      index = appendStep(id, this.current);
+      chunk = this.chunks[index >> CHUNK_SHIFT];
+
+      // Now, the new trace step is the current step
+      this.current = index;
+
+      // Start time measuring for the new trace step
+      chunk.start[index & CHUNK_MASK] = currentNanos();
+    }
+  }
+
+  /** {@inheritDoc} */
+  public void leaveStep(ITraceStepId id) {
+    if (this.tc.isTraceEnabledForId(id)) {
+      int step = this.current;
+
+      // If the supplied id does not match the current trace step we
+      // probably missed a call to leaveStep()
+      if (!getIdAt(step).equals(id)) {
+        // Search for a matching trace step in all parents of the
+        // current trace step until we hit the root-step
+        step = getParentIndex(step);
+        while (step != NONE && step != ROOT) {
+          if (getIdAt(step).equals(id)) {
+            break;
+          }
+
+          step = getParentIndex(step);
+        }
+      }
+
+      if (step != NONE) {
+        // End time measuring
+        leaveAt(step);
+      }
+
+      if (step != ROOT && step != NONE) {
+        // Return to the parent step
+        this.current = getParentIndex(step);
+      }
+    }
+  }
+
+  /**
+   * Discards all trace steps collected so far.
+   * <p>
+   *
+   * Afterwards, the session can be reused for the next service call. The
+   * allocated chunks and the id table are kept. The sampling decision for the
+   * session is discarded.
+   * <p>
+   */
+  public void reset() {
+    Chunk root = this.chunks[0];
+    ITraceStepId rootId = getIdAt(ROOT);
+
+    if (this.tc instanceof ISamplingTraceConfig) {
+      ((ISamplingTraceConfig) this.tc).resetSessionSampling(rootId);
+    }
+
+    this.stepCount = 1;
+    this.current = ROOT;
+    root.firstChild[ROOT] = NONE;
+    root.lastChild[ROOT] = NONE;
+  }
+
+  /** {@inheritDoc} */
+  public ITraceStep getRootStep() {
+    return new StepView(ROOT);
+  }
+
+  /** {@inheritDoc} */
+  public ITraceStep getCurrentStep() {
+    return new StepView(this.current);
+  }
+
+  /** {@inheritDoc} */
+  public long getDuration() {
+    return getDurationNanos() / 1000000L;
+  }
+
+  /** {@inheritDoc} */
+  public long getDurationNanos() {
+    return getDurationNanosAt(ROOT);
+  }
+
+  /** {@inheritDoc} */
+  public void setConfig(ITraceConfig tc) {
+    this.tc = tc;
+  }
+
+  /** {@inheritDoc} */
+  public ITraceConfig getConfig() {
+    return this.tc;
+  }
+
+  /**
+   * Returns the number of trace steps in this session (including the root
+   * step).
+   * <p>
+   *
+   * @return number of trace steps
+   */
+  public int getStepCount() {
+    return this.stepCount;
+  }
+
+  /**
+   * Returns a view on the trace step with the given index.
+   * <p>
+   *
+   * The steps are numbered in the order of the <code>enterStep</code> calls.
+   * The root step always has the index 0.
+   * <p>
+   *
+   * @param index index of the trace step
+   * @return trace step
+   */
+  public ITraceStep getStep(int index) {
+    checkIndex(index);
+
+    return new StepView(index);
+  }
+
+  /**
+   * Returns the call level of the trace step with the given index.
+   * <p>
+   *
+   * @param index index of the trace step
+   * @return call level (starting with 0 for the root step)
+   */
+  public int getLevel(int index) {
+    checkIndex(index);
+
+    return this.chunks[index >> CHUNK_SHIFT].level[index & CHUNK_MASK];
+  }
+
+  /**
+   * CALL-BACK: Returns the current value of the time source in ns.
+   * <p>
+   *
+   * The default implementation uses <code>System.nanoTime()</code>.
+   * Sub-classes may override this method, e.g. for testing purposes.
+   * <p>
+   *
+   * @return current time in ns
+   */
+  protected long currentNanos() {
+    return System.nanoTime();
+  }
+
+  /**
+   * Helper method: Appends a new trace step.
+   * <p>
+   *
+   * @param id id of the new trace step
+   * @param parent index of the parent step (or <code>NONE</code>)
+   * @return index of the new trace step
+   */
+  private int appendStep(ITraceStepId id, int parent) {
+    int index = this.stepCount;
+    int offset = index & CHUNK_MASK;
+    Chunk chunk;
+
+    if ((index >> CHUNK_SHIFT) == this.chunks.length) {
+      Chunk[] newChunks = new Chunk[this.chunks.length * 2];
+
+      System.arraycopy(this.chunks, 0, newChunks, 0, this.chunks.length);
+      this.chunks = newChunks;
+    }
+
+    chunk = this.chunks[index >> CHUNK_SHIFT];
+    if (chunk == null) {
+      chunk = new Chunk();
+      this.chunks[index >> CHUNK_SHIFT] = chunk;
+    }
+
+    chunk.idIndex[offset] = indexOfId(id);
+    chunk.parent[offset] = parent;
+    chunk.firstChild[offset] = NONE;
+    chunk.lastChild[offset] = NONE;
+    chunk.nextSibling[offset] = NONE;
+    chunk.start[offset] = 0L;
+    chunk.duration[offset] = -1L;
+
+    if (parent == NONE) {
+      chunk.level[offset] = 0;
+    } else {
+      Chunk parentChunk = this.chunks[parent >> CHUNK_SHIFT];
+      int parentOffset = parent & CHUNK_MASK;
+      int lastChild = parentChunk.lastChild[parentOffset];
+
+      chunk.level[offset] = parentChunk.level[parentOffset] + 1;
+
+      if (lastChild == NONE) {
+        parentChunk.firstChild[parentOffset] = index;
+      } else {
+        this.chunks[lastChild >> CHUNK_SHIFT].nextSibling[lastChild & CHUNK_MASK] = index;
+      }
+      parentChunk.lastChild[parentOffset] = index;
+    }
+
+    this.stepCount++;
+
+    return index;
+  }
+
+  /**
+   * Helper method: Returns the index of a trace step id in the id table. New
+   * ids are added to the table.
+   * <p>
+   *
+   * @param id trace step id
+   * @return index in the id table
+   */
+  private int indexOfId(ITraceStepId id) {
+    Integer index = (Integer) this.idIndex.get(id);
+
+    if (index == null) {
+      if (this.idCount == this.idTable.length) {
+        ITraceStepId[] newTable = new ITraceStepId[this.idTable.length * 2];
+
+        System.arraycopy(this.idTable, 0, newTable, 0, this.idTable.length);
+        this.idTable = newTable;
+      }
+
+      index = Integer.valueOf(this.idCount);
+      this.idTable[this.idCount] = id;
+      this.idCount++;
+      this.idIndex.put(id, index);
+    }
+
+    return index.intValue();
+  }
+
+  /**
+   * Helper method: Leaves a trace step and all of its active children.
+   * <p>
+   *
+   * Only the steps between the current step and the given step can be active.
+   * So it is sufficient to walk up the parent chain of the current step.
+   * <p>
+   *
+   * @param step index of the step to leave
+   */
+  private void leaveAt(int step) {
+    long end = currentNanos();
+    int index = this.current;
+
+    while (index != NONE) {
+      Chunk chunk = this.chunks[index >> CHUNK_SHIFT];
+      int offset = index & CHUNK_MASK;
+
+      if (index != ROOT && chunk.duration[offset] < 0) {
+        chunk.duration[offset] = end - chunk.start[offset];
+      }
+
+      if (index == step) {
+        break;
+      }
+
+      index = chunk.parent[offset];
+    }
+  }
+
+  /**
+   * Helper method: Checks if the given index references an existing step.
+   * <p>
+   *
+   * @param index index of a trace step
+   */
+  private void checkIndex(int index) {
+    if (index < 0 || index >= this.stepCount) {
+      throw new IndexOutOfBoundsException("Invalid trace step index " + index);
+    }
+  }
+
+  /**
+   * Helper method: Returns the id of the trace step with the given index.
+   * <p>
+   *
+   * @param index index of the trace step
+   * @return trace step id
+   */
+  private ITraceStepId getIdAt(int index) {
+    return this.idTable[this.chunks[index >> CHUNK_SHIFT].idIndex[index & CHUNK_MASK]];
+  }
+
+  /**
+   * Helper method: Returns the parent index of the trace step with the given
+   * index.
+   * <p>
+   *
+   * @param index index of the trace step
+   * @return parent index (<code>NONE</code>: root step)
+   */
+  private int getParentIndex(int index) {
+    return this.chunks[index >> CHUNK_SHIFT].parent[index & CHUNK_MASK];
+  }
+
+  /**
+   * Helper method: Returns the duration of the trace step with the given
+   * index.
+   * <p>
+   *
+   * The duration of the root step is the accumulated duration of its
+   * children. Active steps have a duration of 0.
+   * <p>
+   *
+   * @param index index of the trace step
+   * @return duration in ns
+   */
+  private long getDurationNanosAt(int index) {
+    long duration;
+
+    if (index == ROOT) {
+      duration = getChildDurationNanosAt(ROOT);
+    } else {
+      duration = this.chunks[index >> CHUNK_SHIFT].duration[index & CHUNK_MASK];
+
+      if (duration < 0) {
+        duration = 0;
+      }
+    }
+
+    return duration;
+  }
+
+  /**
+   * Helper method: Returns the accumulated duration of all direct children of
+   * a trace step.
+   * <p>
+   *
+   * @param index index of the trace step
+   * @return accumulated duration in ns
+   */
+  private long getChildDurationNanosAt(int index) {
+    long duration = 0;
+    int child = this.chunks[index >> CHUNK_SHIFT].firstChild[index & CHUNK_MASK];
+
+    while (child != NONE) {
+      duration += getDurationNanosAt(child);
+      child = this.chunks[child >> CHUNK_SHIFT].nextSibling[child & CHUNK_MASK];
+    }
+
+    return duration;
+  }
+
+  /**
+   * Storage for <code>CHUNK_SIZE</code> trace steps.
+   * <p>
+   */
+  private static final class Chunk {
+    private final int[] idIndex = new int[CHUNK_SIZE];
+    private final int[] parent = new int[CHUNK_SIZE];
+    private final int[] firstChild = new int[CHUNK_SIZE];
+    private final int[] lastChild = new int[CHUNK_SIZE];
+    private final int[] nextSibling = new int[CHUNK_SIZE];
+    private final int[] level = new int[CHUNK_SIZE];
+    private final long[] start = new long[CHUNK_SIZE];
+    private final long[] duration = new long[CHUNK_SIZE];
+  }
+
+  /**
+   * <code>ITraceStep</code> view on a single trace step of the session.
+   * <p>
+   *
+   * Like {@link AbstractTraceStep}, two views are equal if their ids are
+   * equal.
+   * <p>
+   */
+  private final class StepView implements ITraceStep {
+
+    private final int index;
+
+    /**
+     * Constructor.
+     * <p>
+     *
+     * @param index index of the trace step
+     */
+    private StepView(int index) {
+      this.index = index;
+    }
+
+    /** {@inheritDoc} */
+    public ITraceStepId getId() {
+      return getIdAt(this.index);
+    }
+
+    /**
+     * Trace steps of a columnar session are entered using
+     * <code>enterStep</code> of the session. This method is intentionally
+     * left blank.
+     */
+    public void enter() {
+      // This method is intentionally left blank
+    }
+
+    /** {@inheritDoc} */
+    public void leave() {
+      if (this.index == ROOT) {
+        // Leaving the root step leaves all active steps
+        leaveAt(ROOT);
+      } else if (isActive()) {
+        leaveStep(getId());
+      }
+    }
+
+    /** {@inheritDoc} */
+    public boolean isActive() {
+      return this.index == ROOT
+          || chunks[this.index >> CHUNK_SHIFT].duration[this.index & CHUNK_MASK] < 0;
+    }
+
+    /** {@inheritDoc} */
+    public long getIsolatedDuration() {
+      long duration = getIsolatedDurationNanos();
+
+      return duration < 0 ? -1 : duration / 1000000L;
+    }
+
+    /** {@inheritDoc} */
+    public long getDuration() {
+      return getDurationNanos() / 1000000L;
+    }
+
+    /** {@inheritDoc} */
+    public long getIsolatedDurationNanos() {
+      long duration;
+
+      if (this.index == ROOT) {
+        return 0;
+      }
+
+      duration = getDurationNanosAt(this.index) - getChildDurationNanosAt(this.index);
+
+      return duration < 0 ? -1 : duration;
+    }
+
+    /** {@inheritDoc} */
+    public long getDurationNanos() {
+      return getDurationNanosAt(this.index);
+    }
+
+    /**
+     * Adding children to a columnar session is not supported. This method is
+     * intentionally left blank.
+     *
+     * @param child ignored
+     */
+    public void addChild(ITraceStep child) {
+      // This method is intentionally left blank
+    }
+
+    /** {@inheritDoc} */
+    public ITraceStep[] getChildren() {
+      ITraceStep[] children;
+      int count = 0;
+      int child;
+
+      child = chunks[this.index >> CHUNK_SHIFT].firstChild[this.index & CHUNK_MASK];
+      while (child != NONE) {
+        count++;
+        child = chunks[child >> CHUNK_SHIFT].nextSibling[child & CHUNK_MASK];
+      }
+
+      children = new ITraceStep[count];
+
+      child = chunks[this.index >> CHUNK_SHIFT].firstChild[this.index & CHUNK_MASK];
+      for (int i = 0; i < count; i++) {
+        children[i] = new StepView(child);
+        child = chunks[child >> CHUNK_SHIFT].nextSibling[child & CHUNK_MASK];
+      }
+
+      return children;
+    }
+
+    /**
+     * Returns the start time of the step. The root step starts with its
+     * first child.
+     *
+     * @return start time in ns (<code>UNKNOWN_START</code>: unknown)
+     */
+    public long getStartNanos() {
+      int step = this.index;
+
+      if (step == ROOT) {
+        step = chunks[ROOT >> CHUNK_SHIFT].firstChild[ROOT & CHUNK_MASK];
+        if (step == NONE) {
+          return UNKNOWN_START;
+        }
+      }
+
+      return chunks[step >> CHUNK_SHIFT].start[step & CHUNK_MASK];
+    }
+
+    /** {@inheritDoc} */
+    public Iterator getChildIterator() {
+      return new ChildIterator(
+          chunks[this.index >> CHUNK_SHIFT].firstChild[this.index & CHUNK_MASK]);
+    }
+
+    /** {@inheritDoc} */
+    public ITraceStep getParent() {
+      int parent = getParentIndex(this.index);
+
+      return parent == NONE ? null : new StepView(parent);
+    }
+
+    /**
+     * The parent of a step in a columnar session is determined by the
+     * session. This method is intentionally left blank.
+     *
+     * @param parent ignored
+     */
+    public void setParent(ITraceStep parent) {
+      // This method is intentionally left blank
+    }
+
+    /** {@inheritDoc} */
+    public int hashCode() {
+      return 31 + getId().hashCode();
+    }
+
+    /** {@inheritDoc} */
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || o.getClass() != getClass()) {
+        return false;
+      }
+
+      return getId().equals(((StepView) o).getId());
+    }
+
+  }
+
+  /**
+   * Iterator over the children of a trace step.
+   * <p>
+   */
+  private final class ChildIterator implements Iterator {
+
+    private int next;
+
+    /**
+     * Constructor.
+     * <p>
+     *
+     * @param firstChild index of the first child (or <code>NONE</code>)
+     */
+    private ChildIterator(int firstChild) {
+      this.next = firstChild;
+    }
+
+    /** {@inheritDoc} */
+    public boolean hasNext() {
+      return this.next != NONE;
+    }
+
+    /** {@inheritDoc} */
+    public Object next() {
+      int child = this.next;
+
+      if (child == NONE) {
+        throw new NoSuchElementException();
+      }
+      this.next = chunks[child >> CHUNK_SHIFT].nextSibling[child & CHUNK_MASK];
+
+      return new StepView(child);
+    }
+
+    /**
+     * Removing children from a columnar session is not supported.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+}
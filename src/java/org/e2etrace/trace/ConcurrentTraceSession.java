@@ -0,0 +1,272 @@
+package org.e2etrace.trace;
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.e2etrace.config.DefaultTraceConfig;
+import org.e2etrace.config.ITraceConfig;
+
+/**
+ * Trace session that can be shared by several threads.
+ * <p>
+ *
+ * All threads record their trace steps in the same trace tree. Each thread
+ * maintains its own current trace step, hence the threads can enter and leave
+ * trace steps independently of each other. A thread that uses the session for
+ * the first time starts at the root step. Worker threads that process a part
+ * of a request (e.g. fork/join style processing) should instead start at the
+ * trace step of the thread that forked them:
+ * <p>
+ *
+ * <pre>
+ * final ITraceStep forkStep = session.getCurrentStep();
+ *
+ * pool.submit(new Runnable() {
+ *   public void run() {
+ *     session.bindCurrentThread(forkStep);
+ *     try {
+ *       // enterStep/leaveStep as usual
+ *     } finally {
+ *       session.unbindCurrentThread();
+ *     }
+ *   }
+ * });
+ * </pre>
+ *
+ * {@link org.e2etrace.concurrent.TracedTask} does this automatically, if the
+ * current session is a <code>ConcurrentTraceSession</code>.
+ * <p>
+ *
+ * Child steps are added under the lock of their parent step (see
+ * {@link AbstractTraceStep}). The trace step factory is used by several
+ * threads as well, so it must be thread-safe (e.g.
+ * {@link DefaultTraceStepFactory}, but <em>not</em>
+ * {@link PooledTraceStepFactory}). The threads should have left all of their
+ * trace steps before the forking thread leaves its own trace step. Otherwise,
+ * the trace steps of the other threads are left automatically (see
+ * {@link ITraceSession#enterStep(ITraceStepId)}).
+ * <p>
+ *
+ * Please note that the duration of the session is the sum of all top-level
+ * trace steps. If threads have recorded top-level steps in parallel, this is
+ * more than the elapsed time.
+ * <p>
+ */
+public class ConcurrentTraceSession implements ITraceSession {
+
+  private TraceSessionRootStep root;
+  private ThreadLocal cursor;
+  private ITraceStepFactory stepFactory;
+  private volatile ITraceConfig tc;
+
+  /**
+   * Default constructor.
+   * <p>
+   *
+   * @param sessionId id of the session. This id will be used for the root step
+   *          of the session. It will be prefixed by a dollar sign ($) (see
+   *          {@link TraceSessionRootStep} and {@link TraceSessionRootStepId})
+   * @param stepFactory thread-safe factory used for the concrete trace steps in
+   *          the context of this session
+   */
+  public ConcurrentTraceSession(String sessionId, ITraceStepFactory stepFactory) {
+    if (stepFactory instanceof PooledTraceStepFactory) {
+      throw new IllegalArgumentException(
+          "PooledTraceStepFactory cannot be used by a ConcurrentTraceSession");
+    }
+
+    this.root = new TraceSessionRootStep(new TraceSessionRootStepId(sessionId));
+    this.cursor = new ThreadLocal();
+    this.stepFactory = stepFactory;
+    this.tc = new DefaultTraceConfig();
+  }
+
+  /** {@inheritDoc} */
+  public void enterStep(Class clazz, String method) {
+    if (this.tc.isTraceEnabled()) {
+      this.enterStep(TraceStepIdRegistry.getMethodId(clazz, method));
+    }
+  }
+
+  /** {@inheritDoc} */
+  public void leaveStep(Class clazz, String method) {
+    if (this.tc.isTraceEnabled()) {
+      this.leaveStep(TraceStepIdRegistry.getMethodId(clazz, method));
+    }
+  }
+
+  /** {@inheritDoc} */
+  public void enterStep(String id) {
+    if (this.tc.isTraceEnabled()) {
+      this.enterStep(TraceStepIdRegistry.getSimpleId(id));
+    }
+  }
+
+  /** {@inheritDoc} */
+  public void leaveStep(String id) {
+    if (this.tc.isTraceEnabled()) {
+      this.leaveStep(TraceStepIdRegistry.getSimpleId(id));
+    }
+  }
+
+  /** {@inheritDoc} */
+  public void enterStep(ITraceStepId id) {
+    if (this.tc.isTraceEnabledForId(id)) {
+      ITraceStep step;
+
+      step = this.stepFactory.newInstance(id);
+
+      // Add the new step as child to the current step of this thread
+      getCurrentStep().addChild(step);
+
+      // Now, the new trace step is the current step of this thread
+      this.cursor.set(step);
+
+      // Start time measuring for the new trace step
+      step.enter();
+    }
+
+  }
+
+  /** {@inheritDoc} */
+  public void leaveStep(ITraceStepId id) {
+    if (this.tc.isTraceEnabledForId(id)) {
+      ITraceStep current = getCurrentStep();
+      ITraceStep step = current;
+
+      // If the supplied id does not match the current trace step we
+      // probably missed a call to leaveStep()
+      if (!(current.getId().equals(id))) {
+        // Search for a matching trace step in all parents of the
+        // current trace step until we hit the root-step
+        step = current.getParent();
+        while (step != null && step != this.root) {
+          if (step.getId().equals(id)) {
+            break;
+          }
+
+          step = step.getParent();
+
+        }
+
+      }
+
+      if (step == this.root) {
+        // No matching trace step: Leave all open trace steps of this session
+        this.root.leaveSession();
+      } else if (step != null) {
+        // End time measuring
+        step.leave();
+      }
+
+      if (step != this.root && step != null) {
+        // Return to the parent step
+        moveCursor(step.getParent());
+      }
+
+    }
+
+  }
+
+  /**
+   * Sets the current trace step of the calling thread.
+   * <p>
+   *
+   * Subsequent trace steps of the thread are added as children to the given
+   * step.
+   * <p>
+   *
+   * @param step trace step of this session (null: use the root step)
+   */
+  public void bindCurrentThread(ITraceStep step) {
+    moveCursor(step);
+  }
+
+  /**
+   * Removes the current trace step of the calling thread.
+   * <p>
+   *
+   * Afterwards, the session keeps no reference to the thread. Subsequent trace
+   * steps of the thread start at the root step again.
+   * <p>
+   */
+  public void unbindCurrentThread() {
+    this.cursor.remove();
+  }
+
+  /** {@inheritDoc} */
+  public ITraceStep getRootStep() {
+    return this.root;
+  }
+
+  /**
+   * Returns the active trace step of the calling thread.
+   * <p>
+   *
+   * @return active trace step
+   */
+  public ITraceStep getCurrentStep() {
+    ITraceStep current = (ITraceStep) this.cursor.get();
+
+    if (current == null) {
+      current = this.root;
+    }
+
+    return current;
+  }
+
+  /** {@inheritDoc} */
+  public long getDuration() {
+    return getDurationNanos() / 1000000L;
+  }
+
+  /** {@inheritDoc} */
+  public long getDurationNanos() {
+    // The root step returns the accumulated duration of all of its children
+    return this.root.getDurationNanos();
+  }
+
+  /** {@inheritDoc} */
+  public void setConfig(ITraceConfig tc) {
+    this.tc = tc;
+
+  }
+
+  /** {@inheritDoc} */
+  public ITraceConfig getConfig() {
+    return this.tc;
+  }
+
+  /**
+   * Helper method: Moves the current trace step of the calling thread.
+   * <p>
+   *
+   * The root step is not stored, so threads that have left all of their trace
+   * steps do not keep any state in the session.
+   * <p>
+   *
+   * @param step new current step (null: root step)
+   */
+  private void moveCursor(ITraceStep step) {
+    if (step == null || step == this.root) {
+      this.cursor.remove();
+    } else {
+      this.cursor.set(step);
+    }
+  }
+
+}
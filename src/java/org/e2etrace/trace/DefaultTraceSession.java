@@ -16,7 +16,10 @@ package org.e2etrace.trace;
  * limitations under the License.
  */
 
+import java.util.Iterator;
+
 import org.e2etrace.config.DefaultTraceConfig;
+import org.e2etrace.config.ISamplingTraceConfig;
 import org.e2etrace.config.ITraceConfig;
 
 /**
@@ -31,11 +34,19 @@ import org.e2etrace.config.ITraceConfig;
  * forwarded to the trace session.
  * <p>
  *
+ * The <code>Class</code> and <code>String</code> based wrappers of
+ * <code>enterStep/leaveStep</code> look up their trace step ids in the
+ * {@link TraceStepIdRegistry}. If the session is created with a
+ * {@link PooledTraceStepFactory}, it can be reused for subsequent service calls
+ * by invoking <code>reset</code>. In this mode, entering and leaving trace
+ * steps does not create any garbage once the pool has been filled.
+ * <p>
+ *
  * @author Gunther Popp
  */
 public class DefaultTraceSession implements ITraceSession {
 
-  private ITraceStep root;
+  private TraceSessionRootStep root;
   private ITraceStep current;
   private ITraceStepFactory stepFactory;
   private ITraceConfig tc;
@@ -51,7 +62,25 @@ public class DefaultTraceSession implements ITraceSession {
    *          of this session
    */
   public DefaultTraceSession(String sessionId, ITraceStepFactory stepFactory) {
-    this.root = new TraceSessionRootStep(new TraceSessionRootStepId(sessionId));
+    this(new TraceSessionRootStepId(sessionId), stepFactory);
+  }
+
+  /**
+   * Constructor: Use an existing root step id.
+   * <p>
+   *
+   * This constructor is used by session managers that make the sampling
+   * decision before the session is created (see
+   * {@link AbstractTraceSessionManager#startSession(String, ITraceStepFactory)}).
+   * <p>
+   *
+   * @param rootId id of the root step of the session
+   * @param stepFactory Factory used for the concrete trace steps in the context
+   *          of this session
+   */
+  public DefaultTraceSession(TraceSessionRootStepId rootId,
+      ITraceStepFactory stepFactory) {
+    this.root = new TraceSessionRootStep(rootId);
     this.current = this.root;
     this.stepFactory = stepFactory;
     this.tc = new DefaultTraceConfig();
@@ -60,28 +89,28 @@ public class DefaultTraceSession implements ITraceSession {
   /** {@inheritDoc} */
   public void enterStep(Class clazz, String method) {
     if (this.tc.isTraceEnabled()) {
-      this.enterStep(new MethodTraceStepId(clazz, method));
+      this.enterStep(TraceStepIdRegistry.getMethodId(clazz, method));
     }
   }
 
   /** {@inheritDoc} */
   public void leaveStep(Class clazz, String method) {
     if (this.tc.isTraceEnabled()) {
-      this.leaveStep(new MethodTraceStepId(clazz, method));
+      this.leaveStep(TraceStepIdRegistry.getMethodId(clazz, method));
     }
   }
 
   /** {@inheritDoc} */
   public void enterStep(String id) {
     if (this.tc.isTraceEnabled()) {
-      this.enterStep(new SimpleTraceStepId(id));
+      this.enterStep(TraceStepIdRegistry.getSimpleId(id));
     }
   }
 
   /** {@inheritDoc} */
   public void leaveStep(String id) {
     if (this.tc.isTraceEnabled()) {
-      this.leaveStep(new SimpleTraceStepId(id));
+      this.leaveStep(TraceStepIdRegistry.getSimpleId(id));
     }
   }
 
@@ -126,7 +155,10 @@ public class DefaultTraceSession implements ITraceSession {
 
       }
 
-      if (step != null) {
+      if (step == this.root) {
+        // No matching trace step: Leave all open trace steps of this session
+        this.root.leaveSession();
+      } else if (step != null) {
         // End time measuring
         step.leave();
       }
@@ -140,6 +172,50 @@ public class DefaultTraceSession implements ITraceSession {
 
   }
 
+  /**
+   * Discards all trace steps collected so far.
+   * <p>
+   *
+   * Afterwards, the session can be reused for the next service call. If the
+   * session uses a {@link PooledTraceStepFactory}, all discarded trace steps
+   * are returned to the pool of the factory. In this case, the caller must
+   * not keep references to any trace steps of the session.
+   * <p>
+   *
+   * The sampling decision for the session is discarded as well.
+   * <p>
+   */
+  public void reset() {
+    if (this.stepFactory instanceof PooledTraceStepFactory) {
+      PooledTraceStepFactory pool = (PooledTraceStepFactory) this.stepFactory;
+
+      for (Iterator iter = this.root.getChildIterator(); iter.hasNext();) {
+        pool.release((ITraceStep) iter.next());
+      }
+    }
+
+    this.root.resetStep(this.root.getId());
+    this.current = this.root;
+
+    if (this.tc instanceof ISamplingTraceConfig) {
+      ((ISamplingTraceConfig) this.tc).resetSessionSampling(this.root.getId());
+    }
+  }
+
+  /**
+   * Discards all trace steps collected so far and assigns a new session id.
+   * <p>
+   *
+   * See <code>reset()</code>.
+   * <p>
+   *
+   * @param sessionId new id of the session
+   */
+  public void reset(String sessionId) {
+    reset();
+    this.root.resetStep(new TraceSessionRootStepId(sessionId));
+  }
+
   /** {@inheritDoc} */
   public ITraceStep getRootStep() {
     return this.root;
@@ -147,17 +223,13 @@ public class DefaultTraceSession implements ITraceSession {
 
   /** {@inheritDoc} */
   public long getDuration() {
-    long duration = 0L;
-    ITraceStep[] rootChildren = this.root.getChildren();
-
-    // The root step itself always has a duration of 0, so the following
-    // call returns the accumulated duration of all childs of root.
-    for (int i = 0; i < rootChildren.length; i++) {
-      duration += rootChildren[i].getDuration();
-    }
-
-    return duration;
+    return getDurationNanos() / 1000000L;
+  }
 
+  /** {@inheritDoc} */
+  public long getDurationNanos() {
+    // The root step returns the accumulated duration of all of its children
+    return this.root.getDurationNanos();
   }
 
   /** {@inheritDoc} */
@@ -175,4 +247,14 @@ public class DefaultTraceSession implements ITraceSession {
   public ITraceStep getCurrentStep() {
     return this.current;
   }
+
+  /**
+   * Returns the factory that creates the trace steps of this session.
+   * <p>
+   *
+   * @return trace step factory
+   */
+  public ITraceStepFactory getStepFactory() {
+    return this.stepFactory;
+  }
 }
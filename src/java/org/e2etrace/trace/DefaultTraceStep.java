@@ -51,8 +51,11 @@ public class DefaultTraceStep extends AbstractTraceStep {
   private static final long serialVersionUID = 1L;
   private static final Log log = LogFactory.getLog(DefaultTraceStep.class);
 
-  private long duration = 0L;
-  private boolean active = false;
+  // The fields are read by other threads (e.g. formatters and exporters of
+  // a session that is still running). active is always written last.
+  private volatile long durationNanos = 0L;
+  private volatile long startNanos = UNKNOWN_START;
+  private volatile boolean active = false;
   private transient ITimer timer;
   private transient ITimerFactory timerFactory;
 
@@ -96,8 +99,13 @@ public class DefaultTraceStep extends AbstractTraceStep {
       log.debug(">>> Entering " + this.getId().asString());
     }
 
-    this.timer = this.timerFactory.newInstance();
+    // The timer is created only once and reused if the step is recycled (see
+    // PooledTraceStepFactory)
+    if (this.timer == null) {
+      this.timer = this.timerFactory.newInstance();
+    }
     this.timer.start();
+    this.startNanos = this.timer.getStartNanos();
     this.active = true;
 
   }
@@ -126,15 +134,31 @@ public class DefaultTraceStep extends AbstractTraceStep {
     leaveAllChildren();
 
     // Measure the duration of this trace step
-    this.duration = this.timer.measure();
+    this.durationNanos = this.timer.measureNanos();
     this.active = false;
 
     if (log.isDebugEnabled()) {
-      log.debug("<<< Leaving " + this.getId().asString() + " (" + this.duration + "ms)");
+      log.debug("<<< Leaving " + this.getId().asString() + " (" + this.durationNanos + "ns)");
     }
 
   }
 
+  /**
+   * Prepares a released trace step for reuse with a new id.
+   * <p>
+   *
+   * This method is only invoked by {@link PooledTraceStepFactory}.
+   * <p>
+   *
+   * @param id new id of the trace step
+   */
+  void recycle(ITraceStepId id) {
+    resetStep(id);
+    this.durationNanos = 0L;
+    this.startNanos = UNKNOWN_START;
+    this.active = false;
+  }
+
   /** {@inheritDoc} */
   public boolean isActive() {
     return this.active;
@@ -142,7 +166,24 @@ public class DefaultTraceStep extends AbstractTraceStep {
 
   /** {@inheritDoc} */
   public long getDuration() {
-    return this.duration;
+    return getDurationNanos() / 1000000L;
+  }
+
+  /** {@inheritDoc} */
+  public long getIsolatedDuration() {
+    long duration = getIsolatedDurationNanos();
+
+    return duration < 0 ? -1 : duration / 1000000L;
+  }
+
+  /** {@inheritDoc} */
+  public long getDurationNanos() {
+    return this.durationNanos;
+  }
+
+  /** {@inheritDoc} */
+  public long getStartNanos() {
+    return this.startNanos;
   }
 
   /**
@@ -161,21 +202,17 @@ public class DefaultTraceStep extends AbstractTraceStep {
    * step of the method that spawned the threads.
    * <p>
    * 
-   * @return duration of this TraceStep in ms (-1: no valid duration exists for
+   * @return duration of this TraceStep in ns (-1: no valid duration exists for
    *         this trace step)
    */
-  public long getIsolatedDuration() {
+  public long getIsolatedDurationNanos() {
     long duration;
 
-    duration = this.getDuration();
+    duration = this.getDurationNanos();
 
     // Subtract durations of all direct children
-    if (this.children != null) {
-      for (Iterator iter = this.children.iterator(); iter.hasNext();) {
-        ITraceStep element = (ITraceStep) iter.next();
-
-        duration -= element.getDuration();
-      }
+    for (Iterator iter = this.getChildIterator(); iter.hasNext();) {
+      duration -= ((ITraceStep) iter.next()).getDurationNanos();
     }
 
     // In certain situation duration may be invalid (e.g. if additional trace
@@ -199,7 +236,8 @@ public class DefaultTraceStep extends AbstractTraceStep {
     buffer.append(" id: ");
     buffer.append(this.getId());
     buffer.append(" duration: ");
-    buffer.append(duration);
+    buffer.append(durationNanos);
+    buffer.append("ns");
     buffer.append(" parent: ");
     buffer.append(this.getParent());
     buffer.append("]");
@@ -134,10 +134,18 @@ public interface ITraceSession {
    * returned duration is the overall execution time of the service call.
    * <p>
    *
-   * @return execution time of the trace session
+   * @return execution time of the trace session in ms
    */
   long getDuration();
 
+  /**
+   * Returns the execution time of the complete trace session in ns.
+   * <p>
+   *
+   * @return execution time of the trace session in ns
+   */
+  long getDurationNanos();
+
   /**
    * Assigns a new trace configuratio to the trace session.
    * <p>
@@ -154,4 +162,4 @@ public interface ITraceSession {
    */
   ITraceConfig getConfig();
 
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -16,13 +16,18 @@ package org.e2etrace.trace;
  * limitations under the License.
  */
 
+import java.util.Iterator;
+
+import org.e2etrace.timer.ITimer;
+
 /**
  * Every monitored step in a service call is represented by a trace step.
  * <p>
  *
  * A trace step at minimum consists of a unique id, that identifies the
- * monitored step within the trace session and the duration (in ms) of the
- * executed step. An example for such an id is the fully qualified class name
+ * monitored step within the trace session and the duration of the executed
+ * step. Durations are measured in ns. For compatibility reasons, they are
+ * also available in ms. An example for such an id is the fully qualified class name
  * plus the name of the executed method.
  * <p>
  *
@@ -34,6 +39,12 @@ package org.e2etrace.trace;
  */
 public interface ITraceStep {
 
+  /**
+   * Start time of trace steps whose start time is unknown (see
+   * <code>getStartNanos</code>).
+   */
+  long UNKNOWN_START = ITimer.UNKNOWN_START;
+
   /**
    * Return the id of the trace step.
    * <p>
@@ -102,6 +113,29 @@ public interface ITraceStep {
    */
   long getDuration();
 
+  /**
+   * Returns the isolated duration of this TraceStep in ns.
+   * <p>
+   *
+   * See <code>getIsolatedDuration</code>.
+   * <p>
+   *
+   * @return duration of this TraceStep in ns (-1: no valid duration exists for
+   *         this trace step)
+   */
+  long getIsolatedDurationNanos();
+
+  /**
+   * Returns the duration of this TraceStep and all children in ns.
+   * <p>
+   *
+   * See <code>getDuration</code>.
+   * <p>
+   *
+   * @return accumulated duration in ns
+   */
+  long getDurationNanos();
+
   /**
    * Adds a new child to this trace step.
    * <p>
@@ -120,6 +154,37 @@ public interface ITraceStep {
    */
   ITraceStep[] getChildren();
 
+  /**
+   * Returns the point in time at which the trace step has been entered in ns.
+   * <p>
+   *
+   * The origin of the value depends on the timer of the trace step (see
+   * {@link org.e2etrace.timer.ITimer#getStartNanos()}). Hence, the value is
+   * only meaningful relative to the start times of other steps of the same
+   * trace tree, e.g. as offset to the start time of the root step. As the
+   * value may be negative, an unknown start time is marked by
+   * <code>UNKNOWN_START</code>.
+   * <p>
+   *
+   * @return start time in ns (<code>UNKNOWN_START</code>: unknown)
+   */
+  long getStartNanos();
+
+  /**
+   * Returns an iterator over the children of this trace step.
+   * <p>
+   *
+   * In contrast to <code>getChildren()</code>, the children are not copied
+   * into a new array. Hence, this method should be preferred for traversing
+   * large trace trees (see {@link TraceStepWalker}). Callers must not invoke
+   * <code>remove()</code> on the iterator. Children that are added concurrently may
+   * or may not be returned.
+   * <p>
+   *
+   * @return iterator over the children (instances of <code>ITraceStep</code>)
+   */
+  Iterator getChildIterator();
+
   /**
    * Returns the parent of a TraceStep, if any exists.
    * <p>
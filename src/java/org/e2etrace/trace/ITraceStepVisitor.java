@@ -0,0 +1,47 @@
+package org.e2etrace.trace;
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/**
+ * Call-back interface for the traversal of a tree of trace steps.
+ * <p>
+ *
+ * See {@link TraceStepWalker#walk(ITraceStep, ITraceStepVisitor)}.
+ * <p>
+ */
+public interface ITraceStepVisitor {
+
+  /**
+   * Invoked for every trace step before its children are visited.
+   * <p>
+   *
+   * @param step trace step
+   * @param level call level of the step (starting with 0)
+   * @return true: visit the children of the step; false: skip the children
+   */
+  boolean visitStep(ITraceStep step, int level);
+
+  /**
+   * Invoked for every visited trace step after all of its children have been
+   * visited (or skipped).
+   * <p>
+   *
+   * @param step trace step
+   * @param level call level of the step (starting with 0)
+   */
+  void leaveStep(ITraceStep step, int level);
+}
@@ -69,6 +69,12 @@ public class NoopTraceSession implements ITraceSession {
     return 0;
   }
 
+  /** {@inheritDoc} */
+  public long getDurationNanos() {
+    // This method is intentionally left blank
+    return 0;
+  }
+
   /** {@inheritDoc} */
   public void setConfig(ITraceConfig tc) {
     // This method is intentionally left blank
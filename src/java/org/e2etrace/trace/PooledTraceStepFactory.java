@@ -0,0 +1,162 @@
+package org.e2etrace.trace;
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.Iterator;
+
+import org.e2etrace.timer.DefaultTimerFactory;
+import org.e2etrace.timer.ITimerFactory;
+
+/**
+ * Factory for trace steps that recycles released steps.
+ * <p>
+ *
+ * The factory maintains a pool of {@link DefaultTraceStep} instances. Steps
+ * are returned to the pool by <code>release</code>, which is automatically
+ * invoked by {@link DefaultTraceSession#reset()}. Recycled steps keep their
+ * timer instance and their (empty) list of children. Hence, a trace session
+ * that is reused for many service calls only allocates new objects until the
+ * pool has reached the size of the largest trace tree.
+ * <p>
+ *
+ * Each trace session should use its own factory instance. The factory is
+ * <em>not</em> thread-safe.
+ * <p>
+ */
+public class PooledTraceStepFactory implements ITraceStepFactory {
+
+  private static final int INITIAL_POOL_SIZE = 16;
+
+  private ITimerFactory timerFactory;
+  private DefaultTraceStep[] pool;
+  private int pooled;
+
+  /**
+   * Default constructor.
+   * <p>
+   *
+   * A factory created with this constructor uses
+   * <code>DefaultTimerFactory</code> as timer factory.
+   *
+   */
+  public PooledTraceStepFactory() {
+    this(new DefaultTimerFactory());
+  }
+
+  /**
+   * Constructor: Use a custom timer factory.
+   * <p>
+   *
+   * @param timerFactory custom timer factory
+   */
+  public PooledTraceStepFactory(ITimerFactory timerFactory) {
+    this.timerFactory = timerFactory;
+    this.pool = new DefaultTraceStep[INITIAL_POOL_SIZE];
+  }
+
+  /** {@inheritDoc} */
+  public ITraceStep newInstance(ITraceStepId id) {
+    DefaultTraceStep step;
+
+    if (this.pooled > 0) {
+      this.pooled--;
+      step = this.pool[this.pooled];
+      this.pool[this.pooled] = null;
+      step.recycle(id);
+    } else {
+      step = new DefaultTraceStep(id, this.timerFactory);
+    }
+
+    return step;
+  }
+
+  /**
+   * Returns a trace step and all of its children to the pool.
+   * <p>
+   *
+   * Only instances of {@link DefaultTraceStep} are recycled. The traversal
+   * stops at all other trace steps. This ensures that root steps of other
+   * trace sessions that have been added manually to the tree (see
+   * {@link TraceSessionRootStep}) are not recycled.
+   * <p>
+   *
+   * The caller must not use the released steps afterwards.
+   * <p>
+   *
+   * @param step trace step to release
+   */
+  public void release(ITraceStep step) {
+    int next;
+    DefaultTraceStep current;
+
+    if (!(step instanceof DefaultTraceStep)) {
+      return;
+    }
+
+    // The pool itself serves as work list for the traversal of the tree:
+    // Every released step is appended to the pool, afterwards its children
+    // are appended as well.
+    next = this.pooled;
+    push((DefaultTraceStep) step);
+
+    while (next < this.pooled) {
+      current = this.pool[next];
+      next++;
+
+      for (Iterator iter = current.getChildIterator(); iter.hasNext();) {
+        Object child = iter.next();
+
+        if (child instanceof DefaultTraceStep) {
+          push((DefaultTraceStep) child);
+        }
+      }
+
+      current.resetStep(null);
+    }
+
+  }
+
+  /**
+   * Returns the number of trace steps that are currently available in the
+   * pool.
+   * <p>
+   *
+   * @return number of pooled trace steps
+   */
+  public int getPoolSize() {
+    return this.pooled;
+  }
+
+  /**
+   * Helper method: Appends a trace step to the pool.
+   * <p>
+   *
+   * @param step trace step
+   */
+  private void push(DefaultTraceStep step) {
+    if (this.pooled == this.pool.length) {
+      DefaultTraceStep[] newPool = new DefaultTraceStep[this.pool.length * 2];
+
+      System.arraycopy(this.pool, 0, newPool, 0, this.pool.length);
+      this.pool = newPool;
+    }
+
+    this.pool[this.pooled] = step;
+    this.pooled++;
+  }
+
+}
@@ -0,0 +1,122 @@
+package org.e2etrace.trace;
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import org.e2etrace.config.DefaultTraceConfig;
+import org.e2etrace.config.ITraceConfig;
+
+/**
+ * Read-only trace session that wraps a restored tree of trace steps.
+ * <p>
+ *
+ * The session is used to pass restored trace trees (see
+ * {@link RecordedTraceStep}) to trace formatters and other components that
+ * expect an {@link ITraceSession}. Entering or leaving steps has no effect.
+ * <p>
+ */
+public class RecordedTraceSession implements ITraceSession {
+
+  private ITraceStep root;
+  private ITraceConfig tc;
+
+  /**
+   * Constructor.
+   * <p>
+   *
+   * @param root root step of the restored trace tree
+   */
+  public RecordedTraceSession(ITraceStep root) {
+    if (root == null) {
+      throw new IllegalArgumentException("Root step must not be null");
+    }
+
+    this.root = root;
+    this.tc = new DefaultTraceConfig();
+  }
+
+  /** {@inheritDoc} */
+  public ITraceStep getRootStep() {
+    return this.root;
+  }
+
+  /**
+   * Returns the root step, because no step of a recorded session is active.
+   * <p>
+   *
+   * @return root step
+   */
+  public ITraceStep getCurrentStep() {
+    return this.root;
+  }
+
+  /** {@inheritDoc} */
+  public long getDuration() {
+    return this.root.getDuration();
+  }
+
+  /** {@inheritDoc} */
+  public long getDurationNanos() {
+    return this.root.getDurationNanos();
+  }
+
+  /** {@inheritDoc} */
+  public void setConfig(ITraceConfig tc) {
+    this.tc = tc;
+  }
+
+  /** {@inheritDoc} */
+  public ITraceConfig getConfig() {
+    return this.tc;
+  }
+
+  /** {@inheritDoc} */
+  public void enterStep(ITraceStepId id) {
+    // This method is intentionally left blank
+
+  }
+
+  /** {@inheritDoc} */
+  public void leaveStep(ITraceStepId id) {
+    // This method is intentionally left blank
+
+  }
+
+  /** {@inheritDoc} */
+  public void enterStep(Class clazz, String method) {
+    // This method is intentionally left blank
+
+  }
+
+  /** {@inheritDoc} */
+  public void leaveStep(Class clazz, String method) {
+    // This method is intentionally left blank
+
+  }
+
+  /** {@inheritDoc} */
+  public void enterStep(String id) {
+    // This method is intentionally left blank
+
+  }
+
+  /** {@inheritDoc} */
+  public void leaveStep(String id) {
+    // This method is intentionally left blank
+
+  }
+
+}
@@ -0,0 +1,128 @@
+package org.e2etrace.trace;
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import java.util.Iterator;
+
+/**
+ * Trace step with a recorded duration.
+ * <p>
+ *
+ * Recorded trace steps are used to restore trace trees that have been written
+ * by a trace formatter, e.g. {@link org.e2etrace.formatter.BinaryTraceReader}.
+ * The duration of a recorded step is fixed. Entering or leaving the step
+ * has no effect. The isolated duration is calculated the same way as for
+ * {@link DefaultTraceStep}.
+ * <p>
+ */
+public class RecordedTraceStep extends AbstractTraceStep {
+
+  private static final long serialVersionUID = 1L;
+
+  private long startNanos;
+  private long durationNanos;
+
+  /**
+   * Constructor: The start time is unknown.
+   * <p>
+   *
+   * @param id id of the trace step
+   * @param durationNanos recorded duration in ns
+   */
+  public RecordedTraceStep(ITraceStepId id, long durationNanos) {
+    this(id, UNKNOWN_START, durationNanos);
+  }
+
+  /**
+   * Constructor.
+   * <p>
+   *
+   * @param id id of the trace step
+   * @param startNanos recorded start time in ns (<code>UNKNOWN_START</code>:
+   *          unknown)
+   * @param durationNanos recorded duration in ns
+   */
+  public RecordedTraceStep(ITraceStepId id, long startNanos,
+      long durationNanos) {
+    super(id);
+    this.startNanos = startNanos;
+    this.durationNanos = durationNanos;
+  }
+
+  /** {@inheritDoc} */
+  public long getStartNanos() {
+    return this.startNanos;
+  }
+
+  /** {@inheritDoc} */
+  public long getDuration() {
+    return getDurationNanos() / 1000000L;
+  }
+
+  /** {@inheritDoc} */
+  public long getIsolatedDuration() {
+    long duration = getIsolatedDurationNanos();
+
+    return duration < 0 ? -1 : duration / 1000000L;
+  }
+
+  /** {@inheritDoc} */
+  public long getDurationNanos() {
+    return this.durationNanos;
+  }
+
+  /** {@inheritDoc} */
+  public long getIsolatedDurationNanos() {
+    long duration = this.durationNanos;
+
+    for (Iterator iter = this.getChildIterator(); iter.hasNext();) {
+      duration -= ((ITraceStep) iter.next()).getDurationNanos();
+    }
+
+    if (duration < 0) {
+      duration = -1;
+    }
+    return duration;
+  }
+
+  /**
+   * Recorded trace steps are never active.
+   * <p>
+   *
+   * @return false
+   */
+  public boolean isActive() {
+    return false;
+  }
+
+  /**
+   * Recorded trace steps cannot be entered. This method is intentionally left
+   * blank.
+   */
+  public void enter() {
+    // This method is intentionally left blank
+  }
+
+  /**
+   * Recorded trace steps cannot be left. This method is intentionally left
+   * blank.
+   */
+  public void leave() {
+    // This method is intentionally left blank
+  }
+
+}
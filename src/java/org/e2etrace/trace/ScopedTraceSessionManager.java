@@ -0,0 +1,326 @@
+package org.e2etrace.trace;
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.concurrent.Callable;
+
+import org.e2etrace.config.ISamplingTraceConfig;
+
+/**
+ * Trace session manager that binds trace sessions to the dynamic scope of a
+ * task.
+ * <p>
+ *
+ * Instead of assigning a session to a thread for an unlimited time, the
+ * session is bound for the execution of a single task only:
+ * <p>
+ *
+ * <pre>
+ * tsm.runInSession(new DefaultTraceSession(&quot;MyService&quot;,
+ *     new DefaultTraceStepFactory()), new Runnable() {
+ *   public void run() {
+ *     // tsm.getCurrentSession() returns the new session
+ *   }
+ * });
+ * </pre>
+ *
+ * When the task ends, the previous binding of the thread is restored. Hence,
+ * scopes may be nested and no references to trace sessions remain in the
+ * executing thread. This makes the manager suitable for very large numbers of
+ * short-lived threads (e.g. virtual threads), which would otherwise leave a
+ * huge number of entries in the cache of {@link ThreadedTraceSessionManager}.
+ * <p>
+ *
+ * Child tasks that are forked by a task (e.g. submitted to an
+ * <code>ExecutorService</code> or forked in a structured task scope) do not
+ * inherit the binding automatically. To propagate the current session, wrap
+ * the child task using <code>wrap</code> before forking it. The wrapper
+ * captures the current session and its current trace step. While the task
+ * runs, its trace steps are recorded as children of the captured step,
+ * regardless of the thread that executes it:
+ * <ul>
+ * <li>A {@link ConcurrentTraceSession} is shared with the task. The executing
+ * thread is bound to the captured step (see
+ * <code>ConcurrentTraceSession.bindCurrentThread</code>).</li>
+ * <li>Other sessions keep a single current step that must not be moved by
+ * parallel threads. Hence, the task records its trace steps in a new child
+ * session, whose root step is added to the captured step before the task
+ * runs. This is the same approach that is used by
+ * {@link org.e2etrace.concurrent.TracedTask}.</li>
+ * </ul>
+ * <p>
+ *
+ * <code>setCurrentSession</code> and <code>releaseCurrentSession</code>
+ * are supported as well. They bind and unbind the session for the current
+ * thread outside of any scope.
+ * <p>
+ *
+ * This class implements the singleton pattern.
+ * <p>
+ */
+public class ScopedTraceSessionManager extends AbstractTraceSessionManager {
+
+  private static final ScopedTraceSessionManager instance = new ScopedTraceSessionManager();
+
+  private ThreadLocal binding;
+
+  /**
+   * Returns the singleton instance of the session manager.
+   * <p>
+   *
+   * @return trace session manager
+   */
+  public static ScopedTraceSessionManager getInstance() {
+    return instance;
+  }
+
+  /**
+   * Default constructor.
+   * <p>
+   *
+   */
+  private ScopedTraceSessionManager() {
+    super();
+
+    this.binding = new ThreadLocal();
+  }
+
+  /**
+   * Executes a task with the given trace session bound as current session.
+   * <p>
+   *
+   * The session is subject to the same checks as in
+   * <code>setCurrentSession</code>. That is, if tracing is disabled for the
+   * session, a {@link NoopTraceSession} is bound instead.
+   * <p>
+   *
+   * @param session trace session to bind
+   * @param task task to execute
+   */
+  public void runInSession(ITraceSession session, Runnable task) {
+    ITraceSession previous = requestCurrentSession();
+
+    setCurrentSession(session);
+    try {
+      task.run();
+    } finally {
+      assignCurrentSession(previous);
+    }
+  }
+
+  /**
+   * Executes a task with the given trace session bound as current session and
+   * returns its result.
+   * <p>
+   *
+   * See <code>runInSession</code>.
+   * <p>
+   *
+   * @param session trace session to bind
+   * @param task task to execute
+   * @return result of the task
+   * @throws Exception Exception thrown by the task
+   */
+  public Object callInSession(ITraceSession session, Callable task) throws Exception {
+    ITraceSession previous = requestCurrentSession();
+
+    setCurrentSession(session);
+    try {
+      return task.call();
+    } finally {
+      assignCurrentSession(previous);
+    }
+  }
+
+  /**
+   * Wraps a task, so that its trace steps are recorded below the current trace
+   * step of the calling thread.
+   * <p>
+   *
+   * @param task task to wrap
+   * @return wrapped task
+   */
+  public Runnable wrap(final Runnable task) {
+    final CapturedScope scope = new CapturedScope();
+
+    return new Runnable() {
+      public void run() {
+        ITraceSession previous = requestCurrentSession();
+        ITraceStep previousStep = scope.bind(previous);
+
+        try {
+          task.run();
+        } finally {
+          scope.restore(previous, previousStep);
+        }
+      }
+    };
+  }
+
+  /**
+   * Wraps a task, so that its trace steps are recorded below the current trace
+   * step of the calling thread.
+   * <p>
+   *
+   * @param task task to wrap
+   * @return wrapped task
+   */
+  public Callable wrap(final Callable task) {
+    final CapturedScope scope = new CapturedScope();
+
+    return new Callable() {
+      public Object call() throws Exception {
+        ITraceSession previous = requestCurrentSession();
+        ITraceStep previousStep = scope.bind(previous);
+
+        try {
+          return task.call();
+        } finally {
+          scope.restore(previous, previousStep);
+        }
+      }
+    };
+  }
+
+  /** {@inheritDoc} */
+  protected ITraceSession requestCurrentSession() {
+    return (ITraceSession) this.binding.get();
+  }
+
+  /** {@inheritDoc} */
+  protected void assignCurrentSession(ITraceSession session) {
+    if (session == null) {
+      this.binding.remove();
+    } else {
+      this.binding.set(session);
+    }
+  }
+
+  /** {@inheritDoc} */
+  public void releaseCurrentSession() {
+    this.binding.remove();
+  }
+
+  /**
+   * Trace session and trace step captured by <code>wrap</code>.
+   * <p>
+   *
+   * The same wrapped task may be executed several times, even in parallel.
+   * Hence, the scope only holds the captured state. The binding of the
+   * executing thread is kept by the caller.
+   * <p>
+   */
+  private class CapturedScope {
+
+    private ITraceSession session;
+    private ITraceStep step;
+    private String sessionId;
+
+    /**
+     * Constructor: Captures the binding of the calling thread.
+     * <p>
+     */
+    CapturedScope() {
+      this.session = requestCurrentSession();
+
+      if (this.session != null) {
+        this.step = this.session.getCurrentStep();
+      }
+
+      if (this.step != null) {
+        // Use the id of the captured session for child sessions
+        this.sessionId = this.session.getRootStep().getId().asString();
+
+        if (this.sessionId.startsWith("$")) {
+          this.sessionId = this.sessionId.substring(1);
+        }
+      }
+    }
+
+    /**
+     * Binds the captured scope to the executing thread.
+     * <p>
+     *
+     * @param previous trace session that is bound to the executing thread
+     * @return current trace step of the previous session, if it has to be
+     *         restored afterwards (null: nothing to restore)
+     */
+    ITraceStep bind(ITraceSession previous) {
+      DefaultTraceSession child;
+      TraceSessionRootStepId rootId;
+      ITraceSession bound;
+      ITraceStep previousStep = null;
+
+      if (this.step == null) {
+        // Nothing is traced, so simply propagate the captured binding
+        assignCurrentSession(this.session);
+      } else if (this.session instanceof ConcurrentTraceSession) {
+        ConcurrentTraceSession shared = (ConcurrentTraceSession) this.session;
+
+        // The task may be executed by a thread that already records steps in
+        // the shared session (e.g. the calling thread itself)
+        if (previous == shared) {
+          previousStep = shared.getCurrentStep();
+        }
+
+        assignCurrentSession(shared);
+        shared.bindCurrentThread(this.step);
+      } else {
+        // The captured session has already been sampled, so the child session
+        // is sampled as well
+        rootId = new TraceSessionRootStepId(this.sessionId);
+        child = new DefaultTraceSession(rootId, new DefaultTraceStepFactory());
+
+        if (getConfig() instanceof ISamplingTraceConfig) {
+          ((ISamplingTraceConfig) getConfig()).setSessionSampled(rootId, true);
+        }
+
+        setCurrentSession(child);
+        bound = requestCurrentSession();
+
+        if (bound.getRootStep() != null) {
+          this.step.addChild(bound.getRootStep());
+        }
+      }
+
+      return previousStep;
+    }
+
+    /**
+     * Restores the previous binding of the executing thread.
+     * <p>
+     *
+     * @param previous previous trace session
+     * @param previousStep previous trace step returned by <code>bind</code>
+     */
+    void restore(ITraceSession previous, ITraceStep previousStep) {
+      if (this.step != null && this.session instanceof ConcurrentTraceSession) {
+        ConcurrentTraceSession shared = (ConcurrentTraceSession) this.session;
+
+        if (previousStep != null) {
+          shared.bindCurrentThread(previousStep);
+        } else {
+          shared.unbindCurrentThread();
+        }
+      }
+
+      assignCurrentSession(previous);
+    }
+
+  }
+
+}
@@ -0,0 +1,103 @@
+package org.e2etrace.trace;
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * Thread-Aware implementation of a trace session manager based on
+ * <code>ThreadLocal</code>.
+ * <p>
+ *
+ * Like {@link ThreadedTraceSessionManager}, this session manager maintains a
+ * {@link org.e2etrace.trace.ITraceSession} for every running thread. In
+ * contrast to {@link ThreadedTraceSessionManager}, the sessions are stored in
+ * a <code>ThreadLocal</code> instead of a synchronized map. Hence, looking up
+ * the current session does not require any locking and scales with the number
+ * of request threads.
+ * <p>
+ *
+ * <em>Note:</em> <code>ThreadLocal</code> values that are not removed may
+ * cause memory leaks if applications are hot-deployed to an application
+ * server that uses thread pools. To prevent such leaks, this manager never
+ * stores {@link NoopTraceSession} instances in the <code>ThreadLocal</code>
+ * and removes the <code>ThreadLocal</code> value in
+ * <code>releaseCurrentSession</code>. So make sure that
+ * <code>releaseCurrentSession</code> is invoked at the end of every service
+ * call, e.g. in a <code>finally</code> block of a servlet filter:
+ * <p>
+ *
+ * <pre>
+ * tsm.setCurrentSession(new DefaultTraceSession(&quot;MyService&quot;,
+ *     new DefaultTraceStepFactory()));
+ * try {
+ *   chain.doFilter(request, response);
+ * } finally {
+ *   tsm.releaseCurrentSession();
+ * }
+ * </pre>
+ *
+ * This class implements the singleton pattern.
+ * <p>
+ */
+public class ThreadLocalTraceSessionManager extends AbstractTraceSessionManager {
+
+  private static final ThreadLocalTraceSessionManager instance = new ThreadLocalTraceSessionManager();
+
+  private ThreadLocal sessions;
+
+  /**
+   * Returns the singleton instance of the session manager.
+   * <p>
+   *
+   * @return trace session manager
+   */
+  public static ThreadLocalTraceSessionManager getInstance() {
+    return instance;
+  }
+
+  /**
+   * Default constructor.
+   * <p>
+   *
+   */
+  private ThreadLocalTraceSessionManager() {
+    super();
+
+    this.sessions = new ThreadLocal();
+  }
+
+  /** {@inheritDoc} */
+  protected ITraceSession requestCurrentSession() {
+    return (ITraceSession) this.sessions.get();
+  }
+
+  /** {@inheritDoc} */
+  protected void assignCurrentSession(ITraceSession session) {
+    // getCurrentSession() returns a NoopTraceSession anyway if no session
+    // exists. So there is no need to keep a reference to it.
+    if (session instanceof NoopTraceSession) {
+      this.sessions.remove();
+    } else {
+      this.sessions.set(session);
+    }
+  }
+
+  /** {@inheritDoc} */
+  public void releaseCurrentSession() {
+    this.sessions.remove();
+  }
+
+}
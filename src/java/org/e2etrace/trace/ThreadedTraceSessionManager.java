@@ -44,6 +44,13 @@ import java.util.WeakHashMap;
  * later, if a re-design is appropriate.
  * <p>
  *
+ * Meanwhile, a <code>ThreadLocal</code> based implementation is available as
+ * {@link ThreadLocalTraceSessionManager}. It avoids the synchronized map and
+ * should be preferred for highly concurrent applications, as long as
+ * <code>releaseCurrentSession</code> is reliably called at the end of each
+ * service call.
+ * <p>
+ *
  * This class implements the singleton pattern.
  * <p>
  *
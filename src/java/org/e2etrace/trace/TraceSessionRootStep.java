@@ -16,6 +16,8 @@ package org.e2etrace.trace;
  * limitations under the License.
  */
 
+import java.util.Iterator;
+
 /**
  * Root trace step for {@link org.e2etrace.trace.ITraceSession}.
  * <p>
@@ -23,7 +25,7 @@ package org.e2etrace.trace;
  * Each trace session contains one implicit trace step that serves as root of
  * the tree of "real" trace steps. The duration of this trace step is by
  * definition the accumulated duration of all children. In additon, the isolated
- * duration of this step is by definion 0ms.
+ * duration of this step is by definion 0ns.
  * <p>
  *
  * In practice, an instance of the root step represents a complete service
@@ -64,30 +66,68 @@ public class TraceSessionRootStep extends AbstractTraceStep {
    * @return duration in ms
    */
   public long getDuration() {
+    return getDurationNanos() / 1000000L;
+  }
+
+  /**
+   * Returns the overall duration of this TraceStep and all children.
+   * <p>
+   *
+   * @return duration in ns
+   */
+  public long getDurationNanos() {
     long duration;
-    ITraceStep[] children;
 
     // Sum up the durations of all direct children of the root
     // step
-    children = this.getChildren();
     duration = 0;
-    for (int i = 0; i < children.length; i++) {
-      duration += children[i].getDuration();
+    for (Iterator iter = this.getChildIterator(); iter.hasNext();) {
+      duration += ((ITraceStep) iter.next()).getDurationNanos();
     }
 
     return duration;
   }
 
+  /**
+   * The root step starts with the earliest of its children.
+   * <p>
+   *
+   * @return start time in ns (<code>UNKNOWN_START</code>: unknown)
+   */
+  public long getStartNanos() {
+    long start = UNKNOWN_START;
+    long childStart;
+
+    for (Iterator iter = this.getChildIterator(); iter.hasNext();) {
+      childStart = ((ITraceStep) iter.next()).getStartNanos();
+
+      if (childStart != UNKNOWN_START
+          && (start == UNKNOWN_START || childStart < start)) {
+        start = childStart;
+      }
+    }
+
+    return start;
+  }
+
   /**
    * The isolated duration of the root step is by definition 0ms.
    *
-   * @return duration of this TraceStep in ms (-1:<code>leave</code> has not
-   *         been called yet)
+   * @return 0
    */
   public long getIsolatedDuration() {
     return 0;
   }
 
+  /**
+   * The isolated duration of the root step is by definition 0ns.
+   *
+   * @return 0
+   */
+  public long getIsolatedDurationNanos() {
+    return 0;
+  }
+
   /** {@inheritDoc} */
   public void enter() throws IllegalStateException {
     // This method is intentionally left blank
@@ -107,11 +147,39 @@ public class TraceSessionRootStep extends AbstractTraceStep {
     return true;
   }
 
-  /** {@inheritDoc} */
+  /**
+   * Leaves all active children of the session root.
+   * <p>
+   *
+   * A session root that has been attached to a step of another session (e.g.
+   * the session of a traced asynchronous task) is ignored. In this case the
+   * call stems from the parent step, but the steps of the attached session
+   * belong to a different thread and are left by this thread (see
+   * <code>leaveSession</code>).
+   * <p>
+   */
   public void leave() throws IllegalStateException {
+    if (getParent() != null) {
+      return;
+    }
+
     // Forward the call to all children
     leaveAllChildren();
 
   }
 
+  /**
+   * Leaves all active children of the session root on behalf of the owning
+   * trace session.
+   * <p>
+   *
+   * The session calls this method if <code>leaveStep</code> does not match
+   * any open trace step. In contrast to <code>leave</code>, the open steps
+   * are closed even if the root has been attached to another session.
+   * <p>
+   */
+  void leaveSession() {
+    leaveAllChildren();
+  }
+
 }
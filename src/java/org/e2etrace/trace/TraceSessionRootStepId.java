@@ -39,8 +39,24 @@ public class TraceSessionRootStepId extends AbstractTraceStepId {
    *          dollar sign ($) as prefix.
    */
   public TraceSessionRootStepId(String id) {
+    this(id, Thread.currentThread().getName());
+  }
+
+  /**
+   * Constructor: Use an explicit thread name.
+   * <p>
+   *
+   * This constructor is used to restore recorded trace sessions (see
+   * {@link org.e2etrace.formatter.BinaryTraceReader}).
+   * <p>
+   *
+   * @param id ID of the trace session. The constructor adds automatically a
+   *          dollar sign ($) as prefix.
+   * @param threadName name of the thread that executed the trace session
+   */
+  public TraceSessionRootStepId(String id, String threadName) {
     super("$" + id);
-    this.threadName = Thread.currentThread().getName();
+    this.threadName = threadName;
   }
 
   /**
@@ -0,0 +1,194 @@
+package org.e2etrace.trace;
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Registry for shared (interned) trace step ids.
+ * <p>
+ *
+ * Creating a new {@link MethodTraceStepId} or {@link SimpleTraceStepId} for
+ * every call to <code>enterStep</code> and <code>leaveStep</code> produces
+ * a lot of short-lived garbage (including the string concatenation of class and
+ * method name). The registry creates every id only once and returns the same
+ * instance for all subsequent lookups. Callers may either store the returned
+ * id in a constant and pass it to
+ * {@link ITraceSession#enterStep(ITraceStepId)}, or simply use the
+ * <code>Class</code>/<code>String</code> based wrappers of
+ * {@link DefaultTraceSession}, which use the registry internally.
+ * <p>
+ *
+ * Method ids are cached by class <em>name</em> instead of the
+ * <code>Class</code> instance itself. Hence, the registry does not prevent
+ * class loaders of hot-deployed applications from being garbage collected.
+ * <p>
+ *
+ * The number of registered ids is limited (see <code>MAX_IDS</code>). If
+ * the limit is reached, e.g. because an application generates ids
+ * dynamically, new ids are no longer cached but created on every lookup.
+ * <p>
+ */
+public final class TraceStepIdRegistry {
+
+  /** Maximum number of ids that will be cached by the registry. */
+  public static final int MAX_IDS = 10000;
+
+  private static final Log log = LogFactory.getLog(TraceStepIdRegistry.class);
+
+  private static final ConcurrentHashMap methodIds = new ConcurrentHashMap();
+  private static final ConcurrentHashMap simpleIds = new ConcurrentHashMap();
+  private static final AtomicInteger size = new AtomicInteger();
+
+  /**
+   * Private constructor (only static methods).
+   * <p>
+   */
+  private TraceStepIdRegistry() {
+
+  }
+
+  /**
+   * Returns the shared {@link MethodTraceStepId} for a method.
+   * <p>
+   *
+   * @param clazz Class instance to which the method belongs
+   * @param method Name of the method
+   * @return trace step id
+   */
+  public static ITraceStepId getMethodId(Class clazz, String method) {
+    return getMethodId(clazz.getName(), method);
+  }
+
+  /**
+   * Returns the shared {@link MethodTraceStepId} for a method.
+   * <p>
+   *
+   * @param className name of the class to which the method belongs
+   * @param method Name of the method
+   * @return trace step id
+   */
+  public static ITraceStepId getMethodId(String className, String method) {
+    ConcurrentHashMap idsOfClass;
+    ITraceStepId id;
+    Object registered;
+
+    idsOfClass = (ConcurrentHashMap) methodIds.get(className);
+
+    if (idsOfClass == null) {
+      // Don't create the map for a new class if no id can be cached anyway
+      if (size.get() >= MAX_IDS) {
+        return new MethodTraceStepId(className, method);
+      }
+      idsOfClass = new ConcurrentHashMap();
+      registered = methodIds.putIfAbsent(className, idsOfClass);
+
+      if (registered != null) {
+        idsOfClass = (ConcurrentHashMap) registered;
+      }
+    }
+
+    id = (ITraceStepId) idsOfClass.get(method);
+
+    if (id == null) {
+      if (!reserve()) {
+        return new MethodTraceStepId(className, method);
+      }
+      id = new MethodTraceStepId(className, method);
+      registered = idsOfClass.putIfAbsent(method, id);
+
+      if (registered != null) {
+        id = (ITraceStepId) registered;
+      }
+    }
+
+    return id;
+  }
+
+  /**
+   * Returns the shared {@link SimpleTraceStepId} for a string.
+   * <p>
+   *
+   * @param id String to use as id
+   * @return trace step id
+   */
+  public static ITraceStepId getSimpleId(String id) {
+    ITraceStepId stepId;
+    Object registered;
+
+    stepId = (ITraceStepId) simpleIds.get(id);
+
+    if (stepId == null) {
+      if (!reserve()) {
+        return new SimpleTraceStepId(id);
+      }
+      stepId = new SimpleTraceStepId(id);
+      registered = simpleIds.putIfAbsent(id, stepId);
+
+      if (registered != null) {
+        stepId = (ITraceStepId) registered;
+      }
+    }
+
+    return stepId;
+  }
+
+  /**
+   * Removes all cached ids from the registry.
+   * <p>
+   *
+   * Ids that have been handed out before remain valid, but subsequent lookups
+   * will return new instances.
+   * <p>
+   */
+  public static void clear() {
+    methodIds.clear();
+    simpleIds.clear();
+    size.set(0);
+  }
+
+  /**
+   * Helper method: Reserves a slot for a new registry entry.
+   * <p>
+   *
+   * Parallel threads may register the same id at the same time. In this case
+   * both threads reserve a slot, but only one id is stored. Hence, the limit
+   * is not exact, which is harmless.
+   * <p>
+   *
+   * @return true: a slot has been reserved; false: the registry is full
+   */
+  private static boolean reserve() {
+    int current = size.get();
+
+    if (current >= MAX_IDS) {
+      return false;
+    }
+
+    if (size.incrementAndGet() == MAX_IDS) {
+      log.warn("TraceStepIdRegistry reached its limit of " + MAX_IDS
+          + " ids. Additional ids will not be cached.");
+    }
+
+    return true;
+  }
+
+}
@@ -0,0 +1,252 @@
+package org.e2etrace.trace;
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import java.util.Iterator;
+
+
+/**
+ * Iterative depth-first traversal of a tree of trace steps.
+ * <p>
+ *
+ * The walker uses an explicit stack of child iterators (see
+ * {@link ITraceStep#getChildIterator()}) instead of recursion. Hence, the
+ * depth of the trace tree is not limited by the stack size of the current
+ * thread, and the children of the visited steps are not copied into arrays.
+ * The stack is kept between traversals, so a walker that is reused for many
+ * trace sessions only grows the stack until it has reached the depth of the
+ * deepest tree.
+ * <p>
+ *
+ * Please note that the traversal is not free of allocations: Every visited
+ * step creates one child iterator. Steps of a {@link ColumnarTraceSession}
+ * additionally create a view object for every child returned by the
+ * iterator.
+ * <p>
+ *
+ * The walker can be used in two ways:
+ * <ul>
+ * <li>As cursor: <code>reset</code> sets the root step, each call of
+ * <code>next</code> advances to the next step in depth-first order (parent
+ * before children). The current step and its call level are returned by
+ * <code>getStep</code> and <code>getLevel</code>. This style is used by the
+ * trace formatters, because the loop may throw checked exceptions.</li>
+ * <li>With a visitor: <code>walk</code> invokes an
+ * {@link ITraceStepVisitor} before and after the children of every step.</li>
+ * </ul>
+ * <p>
+ *
+ * Instances are <em>not</em> thread-safe.
+ * <p>
+ */
+public class TraceStepWalker {
+
+  private static final int INITIAL_DEPTH = 16;
+
+  private ITraceStep[] steps;
+  private Iterator[] iterators;
+  private int depth;
+  private ITraceStep pending;
+  private ITraceStep current;
+  private int level;
+  private boolean descend;
+
+  /**
+   * Default constructor.
+   * <p>
+   *
+   */
+  public TraceStepWalker() {
+    this.steps = new ITraceStep[INITIAL_DEPTH];
+    this.iterators = new Iterator[INITIAL_DEPTH];
+  }
+
+  /**
+   * Starts a new traversal.
+   * <p>
+   *
+   * The first call of <code>next</code> returns the root step.
+   * <p>
+   *
+   * @param root root step of the tree (may be <code>null</code>)
+   */
+  public void reset(ITraceStep root) {
+    clear();
+    this.pending = root;
+  }
+
+  /**
+   * Advances to the next trace step.
+   * <p>
+   *
+   * @return true: the next step is available; false: the traversal is
+   *         complete
+   */
+  public boolean next() {
+    Iterator iter;
+
+    if (this.pending != null) {
+      this.current = this.pending;
+      this.pending = null;
+      this.level = 0;
+      this.descend = true;
+      return true;
+    }
+
+    if (this.current != null && this.descend) {
+      push(this.current);
+    }
+
+    while (this.depth > 0) {
+      iter = this.iterators[this.depth - 1];
+
+      if (iter.hasNext()) {
+        this.current = (ITraceStep) iter.next();
+        this.level = this.depth;
+        this.descend = true;
+        return true;
+      }
+
+      pop();
+    }
+
+    this.current = null;
+    return false;
+  }
+
+  /**
+   * Skips the children of the current step.
+   * <p>
+   *
+   * The next call of <code>next</code> returns the next sibling of the
+   * current step (or the next sibling of one of its parents).
+   * <p>
+   */
+  public void skipChildren() {
+    this.descend = false;
+  }
+
+  /**
+   * Returns the current trace step.
+   * <p>
+   *
+   * @return current step or <code>null</code> if the traversal has not been
+   *         started or is complete
+   */
+  public ITraceStep getStep() {
+    return this.current;
+  }
+
+  /**
+   * Returns the call level of the current trace step.
+   * <p>
+   *
+   * @return call level (starting with 0 for the root step)
+   */
+  public int getLevel() {
+    return this.level;
+  }
+
+  /**
+   * Traverses a tree of trace steps and invokes a visitor for every step.
+   * <p>
+   *
+   * @param root root step of the tree (may be <code>null</code>)
+   * @param visitor visitor
+   */
+  public void walk(ITraceStep root, ITraceStepVisitor visitor) {
+    Iterator iter;
+    ITraceStep step;
+
+    clear();
+
+    if (root == null) {
+      return;
+    }
+
+    if (visitor.visitStep(root, 0)) {
+      push(root);
+    } else {
+      visitor.leaveStep(root, 0);
+    }
+
+    while (this.depth > 0) {
+      iter = this.iterators[this.depth - 1];
+
+      if (iter.hasNext()) {
+        step = (ITraceStep) iter.next();
+
+        if (visitor.visitStep(step, this.depth)) {
+          push(step);
+        } else {
+          visitor.leaveStep(step, this.depth);
+        }
+      } else {
+        step = this.steps[this.depth - 1];
+        pop();
+        visitor.leaveStep(step, this.depth);
+      }
+    }
+  }
+
+  /**
+   * Helper method: Discards the state of the current traversal.
+   * <p>
+   */
+  private void clear() {
+    while (this.depth > 0) {
+      pop();
+    }
+    this.pending = null;
+    this.current = null;
+    this.level = 0;
+  }
+
+  /**
+   * Helper method: Pushes a step and the iterator over its children onto the
+   * stack.
+   * <p>
+   *
+   * @param step trace step
+   */
+  private void push(ITraceStep step) {
+    if (this.depth == this.steps.length) {
+      ITraceStep[] newSteps = new ITraceStep[this.depth * 2];
+      Iterator[] newIterators = new Iterator[this.depth * 2];
+
+      System.arraycopy(this.steps, 0, newSteps, 0, this.depth);
+      System.arraycopy(this.iterators, 0, newIterators, 0, this.depth);
+      this.steps = newSteps;
+      this.iterators = newIterators;
+    }
+
+    this.steps[this.depth] = step;
+    this.iterators[this.depth] = step.getChildIterator();
+    this.depth++;
+  }
+
+  /**
+   * Helper method: Removes the topmost step from the stack.
+   * <p>
+   */
+  private void pop() {
+    this.depth--;
+    this.steps[this.depth] = null;
+    this.iterators[this.depth] = null;
+  }
+
+}
@@ -0,0 +1,219 @@
+package org.e2etrace.concurrent;
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.e2etrace.config.DefaultTraceConfig;
+import org.e2etrace.trace.DefaultTraceSession;
+import org.e2etrace.trace.DefaultTraceStepFactory;
+import org.e2etrace.trace.ITraceSession;
+import org.e2etrace.trace.ITraceStep;
+import org.e2etrace.trace.NoopTraceSession;
+import org.e2etrace.trace.ThreadLocalTraceSessionManager;
+import org.e2etrace.trace.TraceSessionRootStep;
+
+import junit.framework.TestCase;
+
+/**
+ * JUnit testcase for {@link org.e2etrace.concurrent.TracedExecutorService}
+ * and {@link org.e2etrace.concurrent.TracedExecutor}.
+ */
+public class TracedExecutorServiceTest extends TestCase {
+
+  private static final ThreadLocalTraceSessionManager tsm = ThreadLocalTraceSessionManager
+      .getInstance();
+
+  private ExecutorService pool;
+
+  public static void main(String[] args) {
+    junit.textui.TestRunner.run(TracedExecutorServiceTest.class);
+  }
+
+  /**
+   * OK: Tasks submitted in parallel are added as children to the current
+   * trace step.
+   *
+   * @throws Exception Unexpected error
+   */
+  public void testSubmit() throws Exception {
+    ExecutorService traced = new TracedExecutorService(this.pool, tsm);
+    ITraceSession session = new DefaultTraceSession("testSubmit",
+        new DefaultTraceStepFactory());
+    ITraceStep parent;
+    ITraceStep[] children;
+    Future first;
+    Future second;
+
+    tsm.setCurrentSession(session);
+    session.enterStep("parent");
+    parent = session.getCurrentStep();
+
+    first = traced.submit(new InnerStep());
+    second = traced.submit(new InnerStep());
+
+    // Tasks are executed in a separate trace session
+    assertNotSame(session, first.get());
+    assertNotSame(session, second.get());
+
+    session.leaveStep("parent");
+
+    children = parent.getChildren();
+    assertEquals(2, children.length);
+
+    for (int i = 0; i < children.length; i++) {
+      ITraceStep taskStep;
+
+      assertTrue(children[i] instanceof TraceSessionRootStep);
+      assertEquals("$testSubmit", children[i].getId().asString());
+
+      taskStep = children[i].getChildren()[0];
+      assertEquals(InnerStep.class.getName(), taskStep.getId().asString());
+      assertFalse(taskStep.isActive());
+      assertEquals("inner", taskStep.getChildren()[0].getId().asString());
+    }
+
+    // The worker threads do not keep the child sessions
+    assertTrue(this.pool.submit(new CurrentSession()).get() instanceof NoopTraceSession);
+  }
+
+  /**
+   * OK: Asynchronous stages of a CompletableFuture are traced.
+   *
+   * @throws Exception Unexpected error
+   */
+  public void testCompletableFuture() throws Exception {
+    TracedExecutor traced = new TracedExecutor(this.pool, tsm);
+    ITraceSession session = new DefaultTraceSession("testCompletableFuture",
+        new DefaultTraceStepFactory());
+
+    tsm.setCurrentSession(session);
+
+    CompletableFuture.runAsync(new Runnable() {
+      public void run() {
+        tsm.getCurrentSession().enterStep("async");
+        tsm.getCurrentSession().leaveStep("async");
+      }
+    }, traced).get();
+
+    assertEquals(1, session.getRootStep().getChildren().length);
+    assertEquals("async", session.getRootStep().getChildren()[0]
+        .getChildren()[0].getChildren()[0].getId().asString());
+  }
+
+  /**
+   * OK: The session of a running task is attached to the parent step before
+   * the task completes. Leaving the parent step does not end the task step.
+   *
+   * @throws Exception Unexpected error
+   */
+  public void testParentLeftBeforeTask() throws Exception {
+    ExecutorService traced = new TracedExecutorService(this.pool, tsm);
+    ITraceSession session = new DefaultTraceSession("testParentLeft",
+        new DefaultTraceStepFactory());
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    ITraceStep parent;
+    ITraceStep taskStep;
+    Future task;
+
+    tsm.setCurrentSession(session);
+    session.enterStep("parent");
+    parent = session.getCurrentStep();
+
+    task = traced.submit(new Runnable() {
+      public void run() {
+        started.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    });
+
+    started.await();
+    assertEquals(1, parent.getChildren().length);
+    taskStep = parent.getChildren()[0].getChildren()[0];
+
+    session.leaveStep("parent");
+    assertTrue(taskStep.isActive());
+
+    release.countDown();
+    task.get();
+    assertFalse(taskStep.isActive());
+  }
+
+  /**
+   * OK: Tasks submitted without an active trace session are executed
+   * untraced.
+   *
+   * @throws Exception Unexpected error
+   */
+  public void testNoSession() throws Exception {
+    ExecutorService traced = new TracedExecutorService(this.pool, tsm);
+
+    assertTrue(traced.submit(new CurrentSession()).get() instanceof NoopTraceSession);
+  }
+
+  /** {@inheritDoc} */
+  protected void setUp() throws Exception {
+    super.setUp();
+
+    this.pool = Executors.newFixedThreadPool(2);
+  }
+
+  /** {@inheritDoc} */
+  protected void tearDown() throws Exception {
+    super.tearDown();
+
+    // Clean up
+    this.pool.shutdown();
+    tsm.setConfig(new DefaultTraceConfig());
+    tsm.releaseCurrentSession();
+  }
+
+  /**
+   * Task that records a single trace step.
+   */
+  private static class InnerStep implements Callable {
+    public Object call() {
+      ITraceSession session = tsm.getCurrentSession();
+
+      session.enterStep("inner");
+      session.leaveStep("inner");
+
+      return session;
+    }
+  }
+
+  /**
+   * Task that returns the current trace session of the executing thread.
+   */
+  private static class CurrentSession implements Callable {
+    public Object call() {
+      return tsm.getCurrentSession();
+    }
+  }
+
+}
@@ -0,0 +1,109 @@
+package org.e2etrace.concurrent;
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.concurrent.Callable;
+
+import org.e2etrace.config.DefaultTraceConfig;
+import org.e2etrace.trace.DefaultTraceSession;
+import org.e2etrace.trace.DefaultTraceStepFactory;
+import org.e2etrace.trace.ITraceSession;
+import org.e2etrace.trace.SimpleTraceStepId;
+import org.e2etrace.trace.ThreadLocalTraceSessionManager;
+
+import junit.framework.TestCase;
+
+/**
+ * JUnit testcase for {@link org.e2etrace.concurrent.TracedTask}
+ */
+public class TracedTaskTest extends TestCase {
+
+  private static final ThreadLocalTraceSessionManager tsm = ThreadLocalTraceSessionManager
+      .getInstance();
+
+  public static void main(String[] args) {
+    junit.textui.TestRunner.run(TracedTaskTest.class);
+  }
+
+  /**
+   * OK: A task executed by the submitting thread itself restores the parent
+   * session afterwards.
+   *
+   * @throws Exception Unexpected error
+   */
+  public void testSameThread() throws Exception {
+    final ITraceSession session = new DefaultTraceSession("testSameThread",
+        new DefaultTraceStepFactory());
+    TracedTask task;
+    Object inner;
+
+    tsm.setCurrentSession(session);
+
+    task = new TracedTask(tsm, new Callable() {
+      public Object call() {
+        return tsm.getCurrentSession();
+      }
+    }, new SimpleTraceStepId("task"));
+
+    inner = task.call();
+
+    assertNotSame(session, inner);
+    assertSame(session, tsm.getCurrentSession());
+    assertEquals("task", session.getRootStep().getChildren()[0]
+        .getChildren()[0].getId().asString());
+  }
+
+  /**
+   * OK: Exceptions of the task are propagated, the trace step is left
+   * nevertheless.
+   */
+  public void testException() {
+    ITraceSession session = new DefaultTraceSession("testException",
+        new DefaultTraceStepFactory());
+    TracedTask task;
+
+    tsm.setCurrentSession(session);
+
+    task = new TracedTask(tsm, new Runnable() {
+      public void run() {
+        throw new UnsupportedOperationException();
+      }
+    });
+
+    try {
+      task.run();
+      fail("Exception expected");
+    } catch (UnsupportedOperationException e) {
+      // expected
+    }
+
+    assertSame(session, tsm.getCurrentSession());
+    assertFalse(session.getRootStep().getChildren()[0].getChildren()[0]
+        .isActive());
+  }
+
+  /** {@inheritDoc} */
+  protected void tearDown() throws Exception {
+    super.tearDown();
+
+    // Clean up
+    tsm.setConfig(new DefaultTraceConfig());
+    tsm.releaseCurrentSession();
+  }
+
+}
@@ -16,6 +16,8 @@ package org.e2etrace.config;
  * limitations under the License.
  */
 
+import java.io.File;
+import java.io.FileWriter;
 import java.io.IOException;
 
 import org.e2etrace.config.PropertiesTraceConfig;
@@ -83,4 +85,96 @@ public class PropertiesTraceConfigTest extends TestCase {
         .isTraceEnabledForId(new SimpleTraceStepId("xxx")));
   }
 
+  /**
+   * Test case for the automatic reload of the configuration file
+   *
+   * @throws Exception Unexpected error while loading the test data
+   */
+  public void testReload() throws Exception {
+    PropertiesTraceConfig tc = new PropertiesTraceConfig();
+    File file = File.createTempFile("e2etrace", ".properties");
+    long timeout;
+
+    try {
+      writeConfig(file, "global.reloadinterval=1\nid.id1=false\n");
+      tc.loadConfigFile(file.getAbsolutePath());
+
+      assertFalse(tc.isTraceEnabledForId(new SimpleTraceStepId("id1")));
+
+      writeConfig(file, "global.reloadinterval=1\nglobal.enabletrace=false\n");
+
+      // Wait for the background reload
+      timeout = System.currentTimeMillis() + 10000;
+      while (tc.isTraceEnabled() && System.currentTimeMillis() < timeout) {
+        Thread.sleep(50);
+      }
+
+      assertFalse("enabletrace should be false", tc.isTraceEnabled());
+      assertTrue(tc.isTraceEnabledForId(new SimpleTraceStepId("id1")));
+    } finally {
+      tc.stopReloading();
+      file.delete();
+    }
+  }
+
+  /**
+   * Test case for the reload of watched configuration files
+   *
+   * @throws Exception Unexpected error while loading the test data
+   */
+  public void testWatchFile() throws Exception {
+    PropertiesTraceConfig tc = new PropertiesTraceConfig();
+    File file = File.createTempFile("e2etrace", ".properties");
+    long timeout;
+
+    try {
+      writeConfig(file, "global.watchfile=true\nid.id1=false\n");
+      tc.loadConfigFile(file.getAbsolutePath());
+
+      assertFalse(tc.isTraceEnabledForId(new SimpleTraceStepId("id1")));
+
+      writeConfig(file, "global.watchfile=true\nid.id1=true\n");
+
+      // Wait for the notification of the watch service
+      timeout = System.currentTimeMillis() + 10000;
+      while (!tc.isTraceEnabledForId(new SimpleTraceStepId("id1"))
+          && System.currentTimeMillis() < timeout) {
+        Thread.sleep(20);
+      }
+
+      assertTrue("Trace step id1 should be true", tc
+          .isTraceEnabledForId(new SimpleTraceStepId("id1")));
+    } finally {
+      tc.stopReloading();
+      file.delete();
+    }
+  }
+
+  /**
+   * Test case: Without a configuration file tracing is enabled
+   */
+  public void testDefaults() {
+    PropertiesTraceConfig tc = new PropertiesTraceConfig();
+
+    assertTrue(tc.isTraceEnabled());
+    assertTrue(tc.isTraceEnabledForId(new SimpleTraceStepId("id1")));
+  }
+
+  /**
+   * Helper method: Writes a configuration file.
+   *
+   * @param file configuration file
+   * @param content content of the file
+   * @throws IOException Error writing the file
+   */
+  private void writeConfig(File file, String content) throws IOException {
+    FileWriter writer = new FileWriter(file);
+
+    try {
+      writer.write(content);
+    } finally {
+      writer.close();
+    }
+  }
+
 }
@@ -0,0 +1,127 @@
+package org.e2etrace.config;
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.e2etrace.config.TraceIdMatcher;
+import org.e2etrace.trace.MethodTraceStepId;
+import org.e2etrace.trace.SimpleTraceStepId;
+
+import junit.framework.TestCase;
+
+/**
+ * JUnit testcase for {@link org.e2etrace.config.TraceIdMatcher}
+ */
+public class TraceIdMatcherTest extends TestCase {
+
+  public static void main(String[] args) {
+    junit.textui.TestRunner.run(TraceIdMatcherTest.class);
+  }
+
+  /**
+   * OK: The most specific rule wins
+   */
+  public void testMostSpecificRule() {
+    Map rules = new HashMap();
+    TraceIdMatcher matcher;
+
+    rules.put("com.acme.dao.*", Boolean.FALSE);
+    rules.put("com.acme.dao.CustomerDao#*", Boolean.TRUE);
+    rules.put("com.acme.dao.CustomerDao#findAll", Boolean.FALSE);
+    rules.put("$Batch*", Boolean.FALSE);
+
+    matcher = new TraceIdMatcher(rules);
+
+    assertFalse(matcher.isEnabled("com.acme.dao.OrderDao#load"));
+    assertTrue(matcher.isEnabled("com.acme.dao.CustomerDao#load"));
+    assertFalse(matcher.isEnabled("com.acme.dao.CustomerDao#findAll"));
+    assertTrue(matcher.isEnabled("com.acme.dao.CustomerDao#findAllById"));
+    assertTrue(matcher.isEnabled("com.acme.service.OrderService#load"));
+    assertTrue(matcher.isEnabled("com.acme.dao"));
+    assertFalse(matcher.isEnabled("$BatchImport"));
+    assertFalse(matcher.isEnabled("$Batch"));
+    assertTrue(matcher.isEnabled(""));
+  }
+
+  /**
+   * OK: A single asterisk matches all ids
+   */
+  public void testMatchAll() {
+    Map rules = new HashMap();
+    TraceIdMatcher matcher;
+
+    rules.put("*", Boolean.FALSE);
+    rules.put("id1", Boolean.TRUE);
+
+    matcher = new TraceIdMatcher(rules);
+
+    assertFalse(matcher.isEnabled("id2"));
+    assertFalse(matcher.isEnabled(""));
+    assertTrue(matcher.isEnabled("id1"));
+  }
+
+  /**
+   * OK: Decisions are cached per id and matcher
+   */
+  public void testCachedDecision() {
+    Map rules = new HashMap();
+    MethodTraceStepId id = new MethodTraceStepId("com.acme.dao.OrderDao", "load");
+    TraceIdMatcher matcher;
+
+    rules.put("com.acme.dao.*", Boolean.FALSE);
+    matcher = new TraceIdMatcher(rules);
+
+    assertFalse(matcher.isEnabled(id));
+    assertEquals(1, matcher.getCachedIdCount());
+    assertFalse(matcher.isEnabled(id));
+    assertEquals(1, matcher.getCachedIdCount());
+
+    rules.put("com.acme.dao.OrderDao#*", Boolean.TRUE);
+    matcher = new TraceIdMatcher(rules);
+
+    assertTrue(matcher.isEnabled(id));
+    assertTrue(matcher.isEnabled(new SimpleTraceStepId("other")));
+  }
+
+  /**
+   * OK: Two matchers used in parallel do not overwrite each other's cached
+   * decisions
+   */
+  public void testTwoMatchers() {
+    Map rules = new HashMap();
+    MethodTraceStepId id = new MethodTraceStepId("com.acme.dao.OrderDao", "load");
+    TraceIdMatcher disabling;
+    TraceIdMatcher enabling;
+
+    rules.put("com.acme.dao.*", Boolean.FALSE);
+    disabling = new TraceIdMatcher(rules);
+    rules.put("com.acme.dao.*", Boolean.TRUE);
+    enabling = new TraceIdMatcher(rules);
+
+    for (int i = 0; i < 3; i++) {
+      assertFalse(disabling.isEnabled(id));
+      assertTrue(enabling.isEnabled(id));
+    }
+
+    assertEquals(1, disabling.getCachedIdCount());
+    assertEquals(1, enabling.getCachedIdCount());
+  }
+
+}
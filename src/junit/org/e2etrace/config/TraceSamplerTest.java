@@ -0,0 +1,147 @@
+package org.e2etrace.config;
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.e2etrace.config.TraceSampler;
+import org.e2etrace.trace.ITraceStepId;
+import org.e2etrace.trace.TraceSessionRootStepId;
+
+import junit.framework.TestCase;
+
+/**
+ * JUnit testcase for {@link org.e2etrace.config.TraceSampler}
+ */
+public class TraceSamplerTest extends TestCase {
+
+  private static final int SESSIONS = 10000;
+
+  public static void main(String[] args) {
+    junit.textui.TestRunner.run(TraceSamplerTest.class);
+  }
+
+  /**
+   * OK: Fixed sampling rates
+   */
+  public void testRate() {
+    TraceSampler all = new TraceSampler(1.0, new HashMap(), 0);
+    TraceSampler none = new TraceSampler(0.0, new HashMap(), 0);
+    TraceSampler some = new TraceSampler(0.1, new HashMap(), 0);
+    TraceSessionRootStepId id = new TraceSessionRootStepId("testRate");
+    int sampled = 0;
+
+    for (int i = 0; i < SESSIONS; i++) {
+      assertTrue(all.sample(id));
+      assertFalse(none.sample(id));
+
+      if (some.sample(id)) {
+        sampled++;
+      }
+    }
+
+    // Very generous bounds, the expected value is 1000
+    assertTrue("sampled: " + sampled, sampled > 500 && sampled < 1500);
+  }
+
+  /**
+   * OK: Sampling rates per trace session replace the default rate
+   */
+  public void testRootRate() {
+    Map rootRates = new HashMap();
+    TraceSampler sampler;
+
+    rootRates.put("$Important", Double.valueOf(1.0));
+    sampler = new TraceSampler(0.0, rootRates, 0);
+
+    assertTrue(sampler.sample(new TraceSessionRootStepId("Important")));
+    assertFalse(sampler.sample(new TraceSessionRootStepId("Other")));
+  }
+
+  /**
+   * OK: Maximum number of sessions per second
+   */
+  public void testMaxPerSecond() {
+    final long[] now = new long[] { 100 };
+    TraceSampler sampler;
+    TraceSessionRootStepId id = new TraceSessionRootStepId("testMaxPerSecond");
+
+    sampler = new TraceSampler(1.0, new HashMap(), 2) {
+      protected long currentTimeSeconds() {
+        return now[0];
+      }
+    };
+
+    assertTrue(sampler.sample(id));
+    assertTrue(sampler.sample(id));
+    assertFalse(sampler.sample(id));
+
+    // Next second
+    now[0]++;
+    assertTrue(sampler.sample(id));
+  }
+
+  /**
+   * OK: Decisions are memorized per root step id instance
+   */
+  public void testDecisions() {
+    final boolean[] next = new boolean[] { false };
+    TraceSampler sampler;
+    TraceSampler reloaded;
+    TraceSessionRootStepId id1 = new TraceSessionRootStepId("testDecisions");
+    TraceSessionRootStepId id2 = new TraceSessionRootStepId("testDecisions");
+
+    sampler = new TraceSampler(1.0, new HashMap(), 0) {
+      public boolean sample(ITraceStepId rootId) {
+        return next[0];
+      }
+    };
+
+    assertFalse(sampler.isSampled(id1));
+
+    // Equal ids of different sessions get their own decision
+    next[0] = true;
+    assertFalse(sampler.isSampled(id1));
+    assertTrue(sampler.isSampled(id2));
+
+    // A reset session is sampled again
+    sampler.resetSampling(id1);
+    assertTrue(sampler.isSampled(id1));
+
+    sampler.setSampled(id2, false);
+    assertFalse(sampler.isSampled(id2));
+
+    // A reloaded sampler keeps the decisions of running sessions
+    reloaded = new TraceSampler(1.0, new HashMap(), 0, sampler);
+    assertFalse(reloaded.isSampled(id2));
+  }
+
+  /**
+   * ERROR: Invalid maximum number of sessions per second
+   */
+  public void testInvalidMaxPerSecond() {
+    try {
+      new TraceSampler(1.0, new HashMap(), -1);
+      fail("IllegalArgumentException expected");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+
+}
@@ -0,0 +1,235 @@
+package org.e2etrace.export;
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.e2etrace.export.AsyncTraceExporter;
+import org.e2etrace.formatter.CSVTraceFormatter;
+import org.e2etrace.trace.DefaultTraceSession;
+import org.e2etrace.trace.DefaultTraceStepFactory;
+import org.e2etrace.trace.ITraceSession;
+
+import junit.framework.TestCase;
+
+/**
+ * JUnit testcase for {@link org.e2etrace.export.AsyncTraceExporter}
+ */
+public class AsyncTraceExporterTest extends TestCase {
+
+  public static void main(String[] args) {
+    junit.textui.TestRunner.run(AsyncTraceExporterTest.class);
+  }
+
+  /**
+   * OK: All exported sessions are written when the exporter is closed
+   *
+   * @throws Exception Unexpected error
+   */
+  public void testExport() throws Exception {
+    StringWriter output = new StringWriter();
+    AsyncTraceExporter exporter = new AsyncTraceExporter(
+        new CSVTraceFormatter(), output, 16,
+        AsyncTraceExporter.OVERFLOW_BLOCK, 2);
+
+    for (int i = 0; i < 100; i++) {
+      exporter.export(newSession("s" + i));
+    }
+
+    exporter.close();
+
+    for (int i = 0; i < 100; i++) {
+      assertTrue(output.toString().indexOf("$s" + i + ",") >= 0);
+    }
+    assertEquals(100, exporter.getExportedCount());
+    assertEquals(0, exporter.getDroppedCount());
+    assertEquals(0, exporter.getQueuedCount());
+
+    try {
+      exporter.export(newSession("closed"));
+      fail("IOException expected");
+    } catch (IOException e) {
+      // expected
+    }
+  }
+
+  /**
+   * OK: Overflow policy OVERFLOW_DROP_NEWEST
+   *
+   * @throws Exception Unexpected error
+   */
+  public void testDropNewest() throws Exception {
+    BlockingWriter output = new BlockingWriter();
+    AsyncTraceExporter exporter = fillExporter(output,
+        AsyncTraceExporter.OVERFLOW_DROP_NEWEST);
+
+    output.release();
+    exporter.close();
+
+    assertEquals(1, exporter.getDroppedCount());
+    assertTrue(output.toString().indexOf("$s2,") >= 0);
+    assertTrue(output.toString().indexOf("$s4,") < 0);
+  }
+
+  /**
+   * OK: Overflow policy OVERFLOW_DROP_OLDEST
+   *
+   * @throws Exception Unexpected error
+   */
+  public void testDropOldest() throws Exception {
+    BlockingWriter output = new BlockingWriter();
+    AsyncTraceExporter exporter = fillExporter(output,
+        AsyncTraceExporter.OVERFLOW_DROP_OLDEST);
+
+    output.release();
+    exporter.close();
+
+    assertEquals(1, exporter.getDroppedCount());
+    assertTrue(output.toString().indexOf("$s2,") < 0);
+    assertTrue(output.toString().indexOf("$s4,") >= 0);
+  }
+
+  /**
+   * OK: Every session passed to export while the exporter is closed is either
+   * written, dropped or rejected
+   *
+   * @throws Exception Unexpected error
+   */
+  public void testCloseWithActiveProducers() throws Exception {
+    for (int run = 0; run < 20; run++) {
+      final AsyncTraceExporter exporter = new AsyncTraceExporter(
+          new CSVTraceFormatter(), new StringWriter(), 64,
+          AsyncTraceExporter.OVERFLOW_DROP_NEWEST, 2);
+      final AtomicLong attempted = new AtomicLong();
+      final AtomicLong rejected = new AtomicLong();
+      final ITraceSession session = newSession("s");
+      Thread[] producers = new Thread[4];
+
+      for (int i = 0; i < producers.length; i++) {
+        producers[i] = new Thread() {
+          public void run() {
+            while (true) {
+              attempted.incrementAndGet();
+              try {
+                exporter.export(session);
+              } catch (IOException e) {
+                rejected.incrementAndGet();
+                return;
+              }
+            }
+          }
+        };
+        producers[i].start();
+      }
+
+      Thread.sleep(2);
+      exporter.close();
+
+      for (int i = 0; i < producers.length; i++) {
+        producers[i].join();
+      }
+
+      assertEquals(attempted.get(), exporter.getExportedCount()
+          + exporter.getDroppedCount() + rejected.get());
+      assertEquals(0, exporter.getQueuedCount());
+    }
+  }
+
+  /**
+   * Helper method: Creates an exporter with a capacity of 2 whose worker is
+   * blocked by the writer and exports 4 sessions.
+   *
+   * @param output blocking writer
+   * @param policy overflow policy
+   * @return exporter
+   * @throws Exception Unexpected error
+   */
+  private AsyncTraceExporter fillExporter(BlockingWriter output, int policy)
+      throws Exception {
+    AsyncTraceExporter exporter = new AsyncTraceExporter(
+        new CSVTraceFormatter(), output, 2, policy, 1);
+
+    // The worker takes the first session and blocks while writing it
+    exporter.export(newSession("s1"));
+    output.awaitWrite();
+
+    exporter.export(newSession("s2"));
+    exporter.export(newSession("s3"));
+    assertEquals(2, exporter.getQueuedCount());
+
+    exporter.export(newSession("s4"));
+    assertEquals(2, exporter.getQueuedCount());
+
+    return exporter;
+  }
+
+  /**
+   * Helper method: Creates a completed trace session.
+   *
+   * @param id session id
+   * @return trace session
+   */
+  private ITraceSession newSession(String id) {
+    DefaultTraceSession session = new DefaultTraceSession(id,
+        new DefaultTraceStepFactory());
+
+    session.enterStep("step");
+    session.leaveStep("step");
+
+    return session;
+  }
+
+  /**
+   * Writer that blocks until it is released.
+   */
+  private static class BlockingWriter extends StringWriter {
+    private CountDownLatch writing = new CountDownLatch(1);
+    private CountDownLatch released = new CountDownLatch(1);
+
+    public void write(String str) {
+      block();
+      super.write(str);
+    }
+
+    public void write(char[] cbuf, int off, int len) {
+      block();
+      super.write(cbuf, off, len);
+    }
+
+    private void block() {
+      this.writing.countDown();
+      try {
+        this.released.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    void awaitWrite() throws InterruptedException {
+      this.writing.await();
+    }
+
+    void release() {
+      this.released.countDown();
+    }
+  }
+
+}
@@ -0,0 +1,130 @@
+package org.e2etrace.export;
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.e2etrace.export.DurationRetentionPolicy;
+import org.e2etrace.trace.DefaultTraceSession;
+import org.e2etrace.trace.DefaultTraceStepFactory;
+import org.e2etrace.trace.MockTimerFactory;
+import org.e2etrace.trace.SimpleTraceStepId;
+
+import junit.framework.TestCase;
+
+/**
+ * JUnit testcase for {@link org.e2etrace.export.DurationRetentionPolicy}
+ *
+ * The test uses {@link org.e2etrace.trace.MockTimer} instead of real timers.
+ */
+public class DurationRetentionPolicyTest extends TestCase {
+
+  public static void main(String[] args) {
+    junit.textui.TestRunner.run(DurationRetentionPolicyTest.class);
+  }
+
+  /**
+   * OK: No condition defined, no session is kept
+   */
+  public void testDefaults() {
+    DurationRetentionPolicy policy = new DurationRetentionPolicy();
+
+    assertFalse(policy.isRetained(newSession(1000, 10)));
+  }
+
+  /**
+   * OK: Sessions slower than the session threshold are kept
+   */
+  public void testSessionThreshold() {
+    DurationRetentionPolicy policy = new DurationRetentionPolicy();
+
+    policy.setSessionThreshold(100);
+
+    assertFalse(policy.isRetained(newSession(100, 10)));
+    assertTrue(policy.isRetained(newSession(101, 10)));
+  }
+
+  /**
+   * OK: Sessions containing a slow trace step are kept
+   */
+  public void testStepThreshold() {
+    DurationRetentionPolicy policy = new DurationRetentionPolicy();
+
+    policy.setStepThreshold(new SimpleTraceStepId("inner"), 20);
+
+    assertFalse(policy.isRetained(newSession(1000, 20)));
+    assertTrue(policy.isRetained(newSession(1000, 21)));
+  }
+
+  /**
+   * OK: The slowest sessions of the window are kept
+   */
+  public void testPercentile() {
+    DurationRetentionPolicy policy = new DurationRetentionPolicy();
+    int retained = 0;
+
+    policy.setPercentile(0.9, DurationRetentionPolicy.MIN_SAMPLES);
+
+    // Nothing is kept until the window has been filled
+    for (int i = 1; i <= DurationRetentionPolicy.MIN_SAMPLES; i++) {
+      if (policy.isRetained(newSession(i, 0))) {
+        retained++;
+      }
+    }
+    assertEquals(1, retained);
+
+    // Threshold is now 90 ms
+    assertFalse(policy.isRetained(newSession(89, 0)));
+    assertTrue(policy.isRetained(newSession(95, 0)));
+  }
+
+  /**
+   * ERROR: Invalid percentile settings
+   */
+  public void testInvalidPercentile() {
+    DurationRetentionPolicy policy = new DurationRetentionPolicy();
+
+    try {
+      policy.setPercentile(1.0, DurationRetentionPolicy.DEFAULT_WINDOW_SIZE);
+      fail("IllegalArgumentException expected");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+
+  /**
+   * Helper method: Creates a completed trace session.
+   *
+   * @param outer duration of the outer step in ms
+   * @param inner duration of the inner step in ms (0: no inner step)
+   * @return trace session
+   */
+  private DefaultTraceSession newSession(long outer, long inner) {
+    DefaultTraceSession session = new DefaultTraceSession("test",
+        new DefaultTraceStepFactory(new MockTimerFactory(new long[] { outer,
+            inner })));
+
+    session.enterStep("outer");
+    if (inner > 0) {
+      session.enterStep("inner");
+      session.leaveStep("inner");
+    }
+    session.leaveStep("outer");
+
+    return session;
+  }
+
+}
@@ -0,0 +1,252 @@
+package org.e2etrace.export;
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+
+import org.e2etrace.formatter.BinaryTraceFormatter;
+import org.e2etrace.formatter.BinaryTraceReader;
+import org.e2etrace.formatter.CSVTraceFormatter;
+import org.e2etrace.trace.DefaultTraceSession;
+import org.e2etrace.trace.DefaultTraceStepFactory;
+import org.e2etrace.trace.ITraceSession;
+import org.e2etrace.trace.MockTimerFactory;
+
+import junit.framework.TestCase;
+
+/**
+ * JUnit testcase for {@link org.e2etrace.export.MappedTraceLogSink}.
+ * <p>
+ */
+public class MappedTraceLogSinkTest extends TestCase {
+
+  private File directory;
+  private long now;
+
+  public static void main(String[] args) {
+    junit.textui.TestRunner.run(MappedTraceLogSinkTest.class);
+  }
+
+  /** {@inheritDoc} */
+  protected void setUp() throws Exception {
+    this.directory = File.createTempFile("e2etrace", ".dir");
+    this.directory.delete();
+  }
+
+  /** {@inheritDoc} */
+  protected void tearDown() throws Exception {
+    File[] files = this.directory.listFiles();
+
+    for (int i = 0; files != null && i < files.length; i++) {
+      files[i].delete();
+    }
+    this.directory.delete();
+  }
+
+  /**
+   * Test case: Full segments are rolled and only the newest segments are
+   * retained.
+   *
+   * @throws IOException Error while exporting the sessions
+   */
+  public void testRolling() throws IOException {
+    MappedTraceLogSink sink = new MappedTraceLogSink(new CSVTraceFormatter(),
+        this.directory, "trace");
+    String csv = toCSV(newSession("Test"));
+    File[] segments;
+
+    sink.setSegmentSize(csv.length() * 2 + 10);
+    sink.setMaxSegments(3);
+
+    for (int i = 0; i < 20; i++) {
+      sink.export(newSession("Test"));
+    }
+    sink.close();
+
+    segments = sink.getSegmentFiles();
+    assertEquals(3, segments.length);
+    assertEquals(3, this.directory.list().length);
+    assertEquals("trace-00000010.log", segments[2].getName());
+
+    for (int i = 0; i < segments.length; i++) {
+      assertEquals(csv + csv, read(segments[i]));
+    }
+
+    try {
+      sink.export(newSession("Test"));
+      fail("Export after close accepted");
+    } catch (IOException e) {
+      // expected
+    }
+
+    // A new sink continues the numbering of the existing segments
+    sink = new MappedTraceLogSink(new CSVTraceFormatter(), this.directory,
+        "trace");
+    sink.setMaxSegments(3);
+    sink.export(newSession("Test"));
+    sink.close();
+
+    segments = sink.getSegmentFiles();
+    assertEquals(3, segments.length);
+    assertEquals("trace-00000011.log", segments[2].getName());
+    assertEquals(csv, read(segments[2]));
+  }
+
+  /**
+   * Test case: Segments are rolled after their maximum age.
+   *
+   * @throws IOException Error while exporting the sessions
+   */
+  public void testMaxSegmentAge() throws IOException {
+    MappedTraceLogSink sink = new MappedTraceLogSink(new CSVTraceFormatter(),
+        this.directory, "trace") {
+      protected long currentTimeMillis() {
+        return MappedTraceLogSinkTest.this.now;
+      }
+    };
+
+    sink.setSegmentSize(64 * 1024);
+    sink.setMaxSegmentAge(1000);
+
+    sink.export(newSession("Test"));
+    this.now += 999;
+    sink.export(newSession("Test"));
+    assertEquals(1, sink.getSegmentFiles().length);
+
+    this.now += 1;
+    sink.export(newSession("Test"));
+    assertEquals(2, sink.getSegmentFiles().length);
+
+    sink.close();
+  }
+
+  /**
+   * Test case: Binary records are stored unchanged.
+   *
+   * @throws IOException Error while exporting the sessions
+   */
+  public void testBinaryRecords() throws IOException {
+    MappedTraceLogSink sink = new MappedTraceLogSink(
+        new BinaryTraceFormatter(), this.directory, "binary");
+    BinaryTraceReader reader;
+    InputStream in;
+    ITraceSession session;
+    int count = 0;
+
+    sink.setEncoding("ISO-8859-1");
+    for (int i = 0; i < 5; i++) {
+      sink.export(newSession("Session" + i));
+    }
+    sink.close();
+
+    in = new FileInputStream(sink.getSegmentFiles()[0]);
+    try {
+      reader = new BinaryTraceReader(in);
+      while ((session = reader.readSession()) != null) {
+        assertEquals("$Session" + count, session.getRootStep().getId()
+            .asString());
+        count++;
+      }
+    } finally {
+      in.close();
+    }
+
+    assertEquals(5, count);
+  }
+
+  /**
+   * Test case: Sessions that do not fit into a segment are rejected.
+   *
+   * @throws IOException Error while closing the sink
+   */
+  public void testSessionTooLarge() throws IOException {
+    MappedTraceLogSink sink = new MappedTraceLogSink(new CSVTraceFormatter(),
+        this.directory, "trace");
+
+    sink.setSegmentSize(16);
+
+    try {
+      sink.export(newSession("Test"));
+      fail("Session larger than a segment accepted");
+    } catch (IOException e) {
+      // expected
+    }
+
+    sink.close();
+    assertEquals(0, sink.getSegmentFiles()[0].length());
+  }
+
+  /**
+   * Helper method: Creates a completed trace session.
+   *
+   * @param id session id
+   * @return trace session
+   */
+  private ITraceSession newSession(String id) {
+    DefaultTraceSession session = new DefaultTraceSession(id,
+        new DefaultTraceStepFactory(new MockTimerFactory(new long[] { 5 })));
+
+    session.enterStep("step");
+    session.leaveStep("step");
+
+    return session;
+  }
+
+  /**
+   * Helper method: Formats a session as CSV.
+   *
+   * @param session trace session
+   * @return CSV output
+   * @throws IOException Error while formatting the session
+   */
+  private String toCSV(ITraceSession session) throws IOException {
+    StringWriter output = new StringWriter();
+
+    new CSVTraceFormatter().format(session, output);
+
+    return output.toString();
+  }
+
+  /**
+   * Helper method: Reads a segment file.
+   *
+   * @param file segment file
+   * @return content
+   * @throws IOException Error while reading the file
+   */
+  private String read(File file) throws IOException {
+    InputStream in = new FileInputStream(file);
+    byte[] content = new byte[(int) file.length()];
+
+    try {
+      int read = 0;
+
+      while (read < content.length) {
+        read += in.read(content, read, content.length - read);
+      }
+    } finally {
+      in.close();
+    }
+
+    return new String(content, "UTF-8");
+  }
+
+}
@@ -0,0 +1,113 @@
+package org.e2etrace.export;
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.StringWriter;
+
+import org.e2etrace.export.TailSampler;
+import org.e2etrace.export.WriterTraceSessionSink;
+import org.e2etrace.formatter.CSVTraceFormatter;
+import org.e2etrace.trace.DefaultTraceSession;
+import org.e2etrace.trace.ITraceSession;
+import org.e2etrace.trace.PooledTraceStepFactory;
+
+import junit.framework.TestCase;
+
+/**
+ * JUnit testcase for {@link org.e2etrace.export.TailSampler}
+ */
+public class TailSamplerTest extends TestCase {
+
+  public static void main(String[] args) {
+    junit.textui.TestRunner.run(TailSamplerTest.class);
+  }
+
+  /**
+   * OK: Retained sessions are exported, discarded sessions are reused
+   */
+  public void testComplete() {
+    StringWriter output = new StringWriter();
+    TailSampler sampler;
+    DefaultTraceSession session;
+
+    sampler = new TailSampler(new ITraceRetentionPolicy() {
+      public boolean isRetained(ITraceSession s) {
+        return s.getRootStep().getId().asString().equals("$keep");
+      }
+    }, new WriterTraceSessionSink(new CSVTraceFormatter(), output));
+
+    session = sampler.newSession("drop");
+    session.enterStep("step");
+    session.leaveStep("step");
+
+    assertFalse(sampler.complete(session));
+    assertEquals(0, output.toString().length());
+
+    // The discarded session is reused with the new id
+    assertSame(session, sampler.newSession("keep"));
+    assertEquals(0, session.getRootStep().getChildren().length);
+    assertEquals("$keep", session.getRootStep().getId().asString());
+
+    session.enterStep("step");
+    session.leaveStep("step");
+
+    assertTrue(sampler.complete(session));
+    assertTrue(output.toString().indexOf("$keep") >= 0);
+
+    // Retained sessions are not reused
+    assertNotSame(session, sampler.newSession("next"));
+
+    assertEquals(1, sampler.getRetainedCount());
+    assertEquals(1, sampler.getDiscardedCount());
+  }
+
+  /**
+   * OK: Discarded sessions that have not been created by the sampler are not
+   * reset or reused
+   */
+  public void testForeignSessions() {
+    TailSampler sampler;
+    TailSampler other;
+    DefaultTraceSession foreign;
+    DefaultTraceSession otherSession;
+
+    sampler = new TailSampler(new ITraceRetentionPolicy() {
+      public boolean isRetained(ITraceSession s) {
+        return false;
+      }
+    }, new WriterTraceSessionSink(new CSVTraceFormatter(), new StringWriter()));
+    other = new TailSampler(new DurationRetentionPolicy(),
+        new WriterTraceSessionSink(new CSVTraceFormatter(), new StringWriter()));
+
+    foreign = new DefaultTraceSession("foreign", new PooledTraceStepFactory());
+    foreign.enterStep("step");
+    foreign.leaveStep("step");
+    otherSession = other.newSession("other");
+
+    assertFalse(sampler.complete(foreign));
+    assertFalse(sampler.complete(otherSession));
+
+    // The foreign session keeps its steps
+    assertEquals(1, foreign.getRootStep().getChildren().length);
+
+    assertNotSame(foreign, sampler.newSession("next"));
+    assertNotSame(otherSession, sampler.newSession("next"));
+    assertEquals(2, sampler.getDiscardedCount());
+  }
+
+}
@@ -0,0 +1,119 @@
+package org.e2etrace.export;
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import junit.framework.TestCase;
+
+/**
+ * JUnit testcase for {@link org.e2etrace.export.TraceSessionRingBuffer}
+ */
+public class TraceSessionRingBufferTest extends TestCase {
+
+  private static final int THREADS = 4;
+  private static final int ELEMENTS = 20000;
+
+  public static void main(String[] args) {
+    junit.textui.TestRunner.run(TraceSessionRingBufferTest.class);
+  }
+
+  /**
+   * OK: FIFO order and capacity
+   */
+  public void testOfferAndPoll() {
+    TraceSessionRingBuffer buffer = new TraceSessionRingBuffer(3);
+
+    assertEquals(4, buffer.capacity());
+    assertNull(buffer.poll());
+
+    for (int i = 0; i < 4; i++) {
+      assertTrue(buffer.offer(new Integer(i)));
+    }
+    assertFalse(buffer.offer(new Integer(4)));
+    assertEquals(4, buffer.size());
+
+    assertEquals(new Integer(0), buffer.poll());
+    assertTrue(buffer.offer(new Integer(4)));
+
+    for (int i = 1; i <= 4; i++) {
+      assertEquals(new Integer(i), buffer.poll());
+    }
+    assertNull(buffer.poll());
+    assertEquals(0, buffer.size());
+  }
+
+  /**
+   * OK: Multiple producers and consumers neither lose nor duplicate elements
+   *
+   * @throws Exception Unexpected error
+   */
+  public void testConcurrentAccess() throws Exception {
+    final TraceSessionRingBuffer buffer = new TraceSessionRingBuffer(64);
+    final AtomicLong consumed = new AtomicLong();
+    final AtomicLong sum = new AtomicLong();
+    ExecutorService pool = Executors.newFixedThreadPool(THREADS * 2);
+    Future[] results = new Future[THREADS * 2];
+
+    try {
+      for (int i = 0; i < THREADS; i++) {
+        results[i] = pool.submit(new Callable() {
+          public Object call() {
+            for (int j = 1; j <= ELEMENTS; j++) {
+              while (!buffer.offer(new Long(j))) {
+                Thread.yield();
+              }
+            }
+            return null;
+          }
+        });
+        results[THREADS + i] = pool.submit(new Callable() {
+          public Object call() {
+            Object element;
+
+            while (consumed.get() < THREADS * ELEMENTS) {
+              element = buffer.poll();
+
+              if (element != null) {
+                sum.addAndGet(((Long) element).longValue());
+                consumed.incrementAndGet();
+              } else {
+                Thread.yield();
+              }
+            }
+            return null;
+          }
+        });
+      }
+
+      for (int i = 0; i < results.length; i++) {
+        results[i].get();
+      }
+    } finally {
+      pool.shutdown();
+    }
+
+    assertEquals(THREADS * ELEMENTS, consumed.get());
+    assertEquals(THREADS * ((long) ELEMENTS * (ELEMENTS + 1) / 2), sum.get());
+  }
+
+}
@@ -0,0 +1,126 @@
+package org.e2etrace.formatter;
+
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+
+import org.e2etrace.trace.ITraceSession;
+import org.e2etrace.trace.ITraceStep;
+import org.e2etrace.trace.RecordedTraceSession;
+import org.e2etrace.trace.RecordedTraceStep;
+import org.e2etrace.trace.SimpleTraceStepId;
+
+import junit.framework.TestCase;
+
+/**
+ * JUnit testcase for {@link org.e2etrace.formatter.AbstractTraceFormatter}.
+ * <p>
+ */
+public class AbstractTraceFormatterTest extends TestCase {
+
+  public static void main(String[] args) {
+    junit.textui.TestRunner.run(AbstractTraceFormatterTest.class);
+  }
+
+  /**
+   * OK: A formatter that only implements formatSingleStep
+   *
+   * @throws IOException Error while generating test output
+   */
+  public void testFormatSingleStepOnly() throws IOException {
+    StringWriter output = new StringWriter();
+
+    new LegacyFormatter().format(new RecordedTraceSession(createTree()),
+        output);
+
+    assertEquals("[root(0)A(1)B(1)]", output.toString());
+  }
+
+  /**
+   * OK: The deprecated Writer based writeSteps writes all steps to the writer
+   *
+   * @throws IOException Error while generating test output
+   */
+  public void testWriteStepsToWriter() throws IOException {
+    StringWriter output = new StringWriter();
+
+    new LegacyFormatter().writeSteps(createTree(), output, 2);
+
+    assertEquals("root(2)A(3)B(3)", output.toString());
+  }
+
+  /**
+   * NOK: A formatter that implements neither formatSingleStep nor
+   * writeSingleStep
+   */
+  public void testNoSingleStepCallBack() {
+    try {
+      new AbstractTraceFormatter() {
+        protected void writeHeader(ITraceSession session, Writer toWriter) {
+          // This method intentionally does nothing
+        }
+
+        protected void writeFooter(ITraceSession session, Writer toWriter) {
+          // This method intentionally does nothing
+        }
+      };
+      fail("IllegalStateException expected");
+    } catch (IllegalStateException e) {
+      // expected
+    }
+  }
+
+  /**
+   * Helper method: Creates a tree with a root and two children.
+   *
+   * @return root step
+   */
+  private ITraceStep createTree() {
+    RecordedTraceStep root = new RecordedTraceStep(new SimpleTraceStepId(
+        "root"), 3);
+
+    root.addChild(new RecordedTraceStep(new SimpleTraceStepId("A"), 1));
+    root.addChild(new RecordedTraceStep(new SimpleTraceStepId("B"), 1));
+
+    return root;
+  }
+
+  /**
+   * Formatter that only implements the String based call-back.
+   */
+  private static class LegacyFormatter extends AbstractTraceFormatter {
+
+    protected String formatSingleStep(ITraceStep step, int level) {
+      return step.getId().asString() + "(" + level + ")";
+    }
+
+    protected void writeHeader(ITraceSession session, Writer toWriter)
+        throws IOException {
+      toWriter.write("[");
+    }
+
+    protected void writeFooter(ITraceSession session, Writer toWriter)
+        throws IOException {
+      toWriter.write("]");
+    }
+  }
+
+}
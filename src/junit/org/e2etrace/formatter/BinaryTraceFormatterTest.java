@@ -0,0 +1,221 @@
+package org.e2etrace.formatter;
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+
+import org.e2etrace.trace.DefaultTraceSession;
+import org.e2etrace.trace.DefaultTraceStepFactory;
+import org.e2etrace.trace.ITraceSession;
+import org.e2etrace.trace.ITraceStep;
+import org.e2etrace.trace.RecordedTraceSession;
+import org.e2etrace.trace.RecordedTraceStep;
+import org.e2etrace.trace.SimpleTraceStepId;
+import org.e2etrace.trace.TraceSessionRootStepId;
+
+import junit.framework.TestCase;
+
+/**
+ * JUnit testcase for {@link org.e2etrace.formatter.BinaryTraceFormatter} and
+ * {@link org.e2etrace.formatter.BinaryTraceReader}.
+ * <p>
+ */
+public class BinaryTraceFormatterTest extends TestCase {
+
+  public static void main(String[] args) {
+    junit.textui.TestRunner.run(BinaryTraceFormatterTest.class);
+  }
+
+  /**
+   * Test case: A restored session produces the same CSV output as the
+   * original session.
+   *
+   * @throws IOException Error while generating test output
+   */
+  public void testRoundTrip() throws IOException {
+    ITraceSession session = GenerateTestSession.generate();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BinaryTraceFormatter formatter = new BinaryTraceFormatter();
+    BinaryTraceReader reader;
+    ITraceSession restored;
+
+    formatter.write(session, out);
+    formatter.write(session, out);
+
+    reader = new BinaryTraceReader(new ByteArrayInputStream(out.toByteArray()));
+
+    restored = reader.readSession();
+    assertEquals(toCSV(session), toCSV(restored));
+    assertEquals(session.getDurationNanos(), restored.getDurationNanos());
+    assertNotNull(reader.readSession());
+    assertNull(reader.readSession());
+
+    assertTrue("Binary output not compact: " + out.size(),
+        out.size() < toCSV(session).length());
+  }
+
+  /**
+   * Test case: Records written via <code>ITraceFormatter</code> can be read
+   * if the writer uses ISO-8859-1.
+   *
+   * @throws IOException Error while generating test output
+   */
+  public void testFormatToWriter() throws IOException {
+    DefaultTraceSession session = new DefaultTraceSession("S\u00e9ssion",
+        new DefaultTraceStepFactory());
+    DefaultTraceSession nested = new DefaultTraceSession("Nested",
+        new DefaultTraceStepFactory());
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    Writer writer = new OutputStreamWriter(out, "ISO-8859-1");
+    ITraceSession restored;
+    ITraceStep nestedRoot;
+
+    session.enterStep("\u65e5\u672c");
+    nested.enterStep("inner");
+    nested.leaveStep("inner");
+    session.getCurrentStep().addChild(nested.getRootStep());
+    session.leaveStep("\u65e5\u672c");
+
+    new BinaryTraceFormatter().format(session, writer);
+    writer.flush();
+
+    restored = new BinaryTraceReader(new ByteArrayInputStream(out
+        .toByteArray())).readSession();
+
+    assertEquals(toCSV(session), toCSV(restored));
+    nestedRoot = restored.getRootStep().getChildren()[0].getChildren()[0];
+    assertEquals("$Nested", nestedRoot.getId().asString());
+    assertEquals(Thread.currentThread().getName(),
+        ((TraceSessionRootStepId) nestedRoot.getId()).getThreadName());
+  }
+
+  /**
+   * Test case: Start times are restored.
+   *
+   * @throws IOException Error while generating test output
+   */
+  public void testStartTimes() throws IOException {
+    DefaultTraceSession session = new DefaultTraceSession("Test",
+        new DefaultTraceStepFactory());
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ITraceStep[] original;
+    ITraceStep[] restored;
+
+    session.enterStep("first");
+    session.enterStep("nested");
+    session.leaveStep("nested");
+    session.leaveStep("first");
+    session.enterStep("second");
+    session.leaveStep("second");
+
+    new BinaryTraceFormatter().write(session, out);
+
+    original = session.getRootStep().getChildren();
+    restored = new BinaryTraceReader(new ByteArrayInputStream(out
+        .toByteArray())).readSession().getRootStep().getChildren();
+
+    assertEquals(original[0].getStartNanos(), restored[0].getStartNanos());
+    assertEquals(original[0].getChildren()[0].getStartNanos(), restored[0]
+        .getChildren()[0].getStartNanos());
+    assertEquals(original[1].getStartNanos(), restored[1].getStartNanos());
+  }
+
+  /**
+   * Test case: Negative and unknown start times are restored.
+   *
+   * @throws IOException Error while generating test output
+   */
+  public void testUnknownStartTimes() throws IOException {
+    RecordedTraceStep root = new RecordedTraceStep(new SimpleTraceStepId(
+        "root"), -3000, 30);
+    RecordedTraceStep unknown = new RecordedTraceStep(new SimpleTraceStepId(
+        "unknown"), 10);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ITraceStep restored;
+
+    root.addChild(unknown);
+    unknown.addChild(new RecordedTraceStep(new SimpleTraceStepId("nested"),
+        -1, 5));
+
+    new BinaryTraceFormatter().write(new RecordedTraceSession(root), out);
+    restored = new BinaryTraceReader(new ByteArrayInputStream(out
+        .toByteArray())).readSession().getRootStep();
+
+    assertEquals(-3000, restored.getStartNanos());
+    assertEquals(ITraceStep.UNKNOWN_START, restored.getChildren()[0]
+        .getStartNanos());
+    assertEquals(-1, restored.getChildren()[0].getChildren()[0]
+        .getStartNanos());
+  }
+
+  /**
+   * Test case: Zero padding after the last record is treated as end of the
+   * data.
+   *
+   * @throws IOException Error while generating test output
+   */
+  public void testZeroPadding() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    Writer writer = new OutputStreamWriter(out, "ISO-8859-1");
+    BinaryTraceReader reader;
+
+    new BinaryTraceFormatter().format(GenerateTestSession.generate(), writer);
+    writer.flush();
+    out.write(new byte[64]);
+
+    reader = new BinaryTraceReader(new ByteArrayInputStream(out.toByteArray()));
+    assertNotNull(reader.readSession());
+    assertNull(reader.readSession());
+  }
+
+  /**
+   * Test case: Invalid input is rejected.
+   *
+   */
+  public void testInvalidRecord() {
+    BinaryTraceReader reader = new BinaryTraceReader(new ByteArrayInputStream(
+        "id,path".getBytes()));
+
+    try {
+      reader.readSession();
+      fail("Invalid record accepted");
+    } catch (IOException e) {
+      // expected
+    }
+  }
+
+  /**
+   * Helper method: Formats a session as CSV.
+   *
+   * @param session trace session
+   * @return CSV output
+   * @throws IOException Error while generating test output
+   */
+  private String toCSV(ITraceSession session) throws IOException {
+    StringWriter output = new StringWriter();
+
+    new CSVTraceFormatter().format(session, output);
+
+    return output.toString();
+  }
+
+}
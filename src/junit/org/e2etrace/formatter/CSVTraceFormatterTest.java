@@ -37,21 +37,21 @@ public class CSVTraceFormatterTest extends TestCase {
 
   private static String EXPECTED = "id,path,threadname,duration,isolated_duration"
       + System.getProperty("line.separator") 
-      + "$TestSession,$TestSession,main,195,0"
+      + "$TestSession,$TestSession,main,195.000,0.000"
       + System.getProperty("line.separator") 
-      + "Root_1,$TestSession|Root_1,main,110,40"
+      + "Root_1,$TestSession|Root_1,main,110.000,40.000"
       + System.getProperty("line.separator")
-      + "Child_1_1,$TestSession|Root_1|Child_1_1,main,70,70"
+      + "Child_1_1,$TestSession|Root_1|Child_1_1,main,70.000,70.000"
       + System.getProperty("line.separator") 
-      + "Root_2,$TestSession|Root_2,main,80,0"
+      + "Root_2,$TestSession|Root_2,main,80.000,0.000"
       + System.getProperty("line.separator")
-      + "Child_2_1,$TestSession|Root_2|Child_2_1,main,80,50"
+      + "Child_2_1,$TestSession|Root_2|Child_2_1,main,80.000,50.000"
       + System.getProperty("line.separator")
-      + "Child_2_2,$TestSession|Root_2|Child_2_1|Child_2_2,main,20,20"
+      + "Child_2_2,$TestSession|Root_2|Child_2_1|Child_2_2,main,20.000,20.000"
       + System.getProperty("line.separator")
-      + "Child_2_3,$TestSession|Root_2|Child_2_1|Child_2_3,main,10,10"
+      + "Child_2_3,$TestSession|Root_2|Child_2_1|Child_2_3,main,10.000,10.000"
       + System.getProperty("line.separator") 
-      + "Root_3,$TestSession|Root_3,main,5,5"
+      + "Root_3,$TestSession|Root_3,main,5.000,5.000"
       + System.getProperty("line.separator");
 
   public static void main(String[] args) {
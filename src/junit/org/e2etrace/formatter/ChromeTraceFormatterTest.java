@@ -0,0 +1,106 @@
+package org.e2etrace.formatter;
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.e2etrace.trace.DefaultTraceSession;
+import org.e2etrace.trace.DefaultTraceStepFactory;
+import org.e2etrace.trace.ITraceStep;
+import org.e2etrace.trace.RecordedTraceSession;
+import org.e2etrace.trace.RecordedTraceStep;
+import org.e2etrace.trace.SimpleTraceStepId;
+import org.e2etrace.trace.TraceSessionRootStep;
+import org.e2etrace.trace.TraceSessionRootStepId;
+
+import junit.framework.TestCase;
+
+/**
+ * JUnit testcase for {@link org.e2etrace.formatter.ChromeTraceFormatter}.
+ * <p>
+ */
+public class ChromeTraceFormatterTest extends TestCase {
+
+  private static final String NL = System.getProperty("line.separator");
+
+  public static void main(String[] args) {
+    junit.textui.TestRunner.run(ChromeTraceFormatterTest.class);
+  }
+
+  /**
+   * Test case for <code>format</code>.
+   *
+   * @throws IOException Error while generating test output
+   */
+  public void testFormat() throws IOException {
+    ITraceStep root = new TraceSessionRootStep(new TraceSessionRootStepId("S",
+        "main"));
+    ITraceStep a = new RecordedTraceStep(new SimpleTraceStepId("A"), 1000, 5000);
+    StringWriter output = new StringWriter();
+    String tid = String.valueOf("main".hashCode() & 0x7FFFFFFF);
+
+    root.addChild(a);
+    a.addChild(new RecordedTraceStep(new SimpleTraceStepId("A1"), 2500, 1000));
+    root.addChild(new RecordedTraceStep(new SimpleTraceStepId("B\"x"), 7000,
+        2000));
+
+    new ChromeTraceFormatter().format(new RecordedTraceSession(root), output);
+
+    assertEquals("{\"traceEvents\":[" + NL
+        + "{\"name\":\"process_name\",\"ph\":\"M\",\"pid\":1,\"tid\":0,\"args\":{\"name\":\"$S\"}}," + NL
+        + "{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":" + tid + ",\"args\":{\"name\":\"main\"}}," + NL
+        + "{\"name\":\"$S\",\"cat\":\"e2etrace\",\"ph\":\"X\",\"ts\":0.000,\"dur\":7.000,\"pid\":1,\"tid\":" + tid
+        + ",\"args\":{\"path\":\"$S\",\"isolated\":0.000}}," + NL
+        + "{\"name\":\"A\",\"cat\":\"e2etrace\",\"ph\":\"X\",\"ts\":0.000,\"dur\":5.000,\"pid\":1,\"tid\":" + tid
+        + ",\"args\":{\"path\":\"$S/A\",\"isolated\":4.000}}," + NL
+        + "{\"name\":\"A1\",\"cat\":\"e2etrace\",\"ph\":\"X\",\"ts\":1.500,\"dur\":1.000,\"pid\":1,\"tid\":" + tid
+        + ",\"args\":{\"path\":\"$S/A/A1\",\"isolated\":1.000}}," + NL
+        + "{\"name\":\"B\\\"x\",\"cat\":\"e2etrace\",\"ph\":\"X\",\"ts\":6.000,\"dur\":2.000,\"pid\":1,\"tid\":" + tid
+        + ",\"args\":{\"path\":\"$S/B\\\"x\",\"isolated\":2.000}}" + NL
+        + "],\"displayTimeUnit\":\"ms\"}" + NL, output.toString());
+  }
+
+  /**
+   * Test case: Start offsets of a real trace session.
+   *
+   * @throws IOException Error while generating test output
+   */
+  public void testStartOffsets() throws IOException {
+    DefaultTraceSession session = new DefaultTraceSession("Test",
+        new DefaultTraceStepFactory());
+    ITraceStep[] steps;
+    StringWriter output = new StringWriter();
+
+    session.enterStep("first");
+    session.leaveStep("first");
+    session.enterStep("second");
+    session.leaveStep("second");
+
+    steps = session.getRootStep().getChildren();
+    assertTrue(steps[0].getStartNanos() != ITraceStep.UNKNOWN_START);
+    assertTrue(steps[1].getStartNanos() >= steps[0].getStartNanos()
+        + steps[0].getDurationNanos());
+    assertEquals(steps[0].getStartNanos(), session.getRootStep()
+        .getStartNanos());
+
+    new ChromeTraceFormatter().format(session, output);
+    assertTrue(output.toString().indexOf(
+        "{\"name\":\"first\",\"cat\":\"e2etrace\",\"ph\":\"X\",\"ts\":0.000,") > 0);
+  }
+
+}
@@ -0,0 +1,113 @@
+package org.e2etrace.formatter;
+
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.e2etrace.stats.CallTreeAggregator;
+import org.e2etrace.trace.ITraceStep;
+import org.e2etrace.trace.RecordedTraceSession;
+import org.e2etrace.trace.RecordedTraceStep;
+import org.e2etrace.trace.SimpleTraceStepId;
+
+import junit.framework.TestCase;
+
+/**
+ * JUnit testcase for
+ * {@link org.e2etrace.formatter.CollapsedStackTraceFormatter}.
+ * <p>
+ */
+public class CollapsedStackTraceFormatterTest extends TestCase {
+
+  private static final String NL = System.getProperty("line.separator");
+
+  public static void main(String[] args) {
+    junit.textui.TestRunner.run(CollapsedStackTraceFormatterTest.class);
+  }
+
+  /**
+   * Test case for <code>format</code>.
+   *
+   * @throws IOException Error while generating test output
+   */
+  public void testFormat() throws IOException {
+    StringWriter output = new StringWriter();
+
+    new CollapsedStackTraceFormatter().format(new RecordedTraceSession(
+        createTree(3000)), output);
+
+    assertEquals("root 2000" + NL + "root;A 1000" + NL + "root;A;A1 2000" + NL
+        + "root;B 3000" + NL, output.toString());
+  }
+
+  /**
+   * Test case for <code>formatSingleStep</code> outside of a traversal.
+   */
+  public void testFormatSingleStep() {
+    ITraceStep root = createTree(3000);
+    ITraceStep a1 = root.getChildren()[0].getChildren()[0];
+
+    assertEquals("root;A;A1 2000" + NL, new CollapsedStackTraceFormatter()
+        .formatSingleStep(a1, 2));
+
+    // Steps without isolated duration are omitted
+    assertEquals("", new CollapsedStackTraceFormatter().formatSingleStep(
+        new RecordedTraceStep(new SimpleTraceStepId("X"), 0), 0));
+  }
+
+  /**
+   * Test case for <code>format</code> with a merged call tree.
+   *
+   * @throws IOException Error while generating test output
+   */
+  public void testFormatMergedTree() throws IOException {
+    CallTreeAggregator aggregator = new CallTreeAggregator();
+    StringWriter output = new StringWriter();
+    ITraceStep other = new RecordedTraceStep(new SimpleTraceStepId("other"),
+        500);
+
+    aggregator.record(new RecordedTraceSession(createTree(3000)));
+    aggregator.record(new RecordedTraceSession(createTree(1000)));
+    aggregator.record(new RecordedTraceSession(other));
+
+    new CollapsedStackTraceFormatter().format(aggregator.snapshot(), output);
+
+    assertEquals("root 4000" + NL + "root;A 2000" + NL + "root;A;A1 4000" + NL
+        + "root;B 4000" + NL + "other 500" + NL, output.toString());
+  }
+
+  /**
+   * Helper method: Creates a trace tree.
+   *
+   * @param durationB duration of step <code>B</code>
+   * @return root step
+   */
+  private ITraceStep createTree(long durationB) {
+    ITraceStep root = new RecordedTraceStep(new SimpleTraceStepId("root"),
+        5000 + durationB);
+    ITraceStep a = new RecordedTraceStep(new SimpleTraceStepId("A"), 3000);
+
+    root.addChild(a);
+    a.addChild(new RecordedTraceStep(new SimpleTraceStepId("A1"), 2000));
+    root.addChild(new RecordedTraceStep(new SimpleTraceStepId("B"), durationB));
+
+    return root;
+  }
+}
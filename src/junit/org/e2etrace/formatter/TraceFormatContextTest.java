@@ -0,0 +1,145 @@
+package org.e2etrace.formatter;
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.e2etrace.trace.ITraceSession;
+
+import junit.framework.TestCase;
+
+/**
+ * JUnit testcase for {@link org.e2etrace.formatter.TraceFormatContext}.
+ * <p>
+ */
+public class TraceFormatContextTest extends TestCase {
+
+  public static void main(String[] args) {
+    junit.textui.TestRunner.run(TraceFormatContextTest.class);
+  }
+
+  /**
+   * Test case for <code>writeLong</code>.
+   *
+   */
+  public void testWriteLong() {
+    TraceFormatContext context = new TraceFormatContext(null, 4);
+
+    context.writeLong(0);
+    context.write(' ');
+    context.writeLong(1234567890123L);
+    context.write(' ');
+    context.writeLong(-42);
+    context.write(' ');
+    context.writeLong(Long.MAX_VALUE);
+    context.write(' ');
+    context.writeLong(Long.MIN_VALUE);
+
+    assertEquals("0 1234567890123 -42 " + Long.MAX_VALUE + " "
+        + Long.MIN_VALUE, context.toString());
+  }
+
+  /**
+   * Test case for <code>writeDuration</code>.
+   *
+   */
+  public void testWriteDuration() {
+    TraceFormatContext context = new TraceFormatContext();
+
+    context.writeDuration(1234567L);
+    context.write(',');
+    context.writeDuration(5000L);
+    context.write(',');
+    context.writeDuration(195000000L);
+    context.write(',');
+    context.writeDuration(-1L);
+
+    assertEquals("1.234,0.005,195.000,-1", context.toString());
+  }
+
+  /**
+   * Test case for <code>setLength</code>, <code>reset</code> and
+   * <code>asCharBuffer</code>.
+   *
+   */
+  public void testBuffer() {
+    TraceFormatContext context = new TraceFormatContext();
+
+    context.write("Step_1");
+    context.writeNewLine();
+    context.setLength(4);
+
+    assertEquals(4, context.length());
+    assertEquals("Step", context.asCharBuffer().toString());
+
+    try {
+      context.setLength(5);
+      fail("Length beyond the buffered characters accepted");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+
+    context.reset();
+    assertEquals("", context.toString());
+  }
+
+  /**
+   * Test case: A context bound to a writer passes its content to the writer
+   * as soon as its capacity is reached.
+   *
+   * @throws IOException Error while generating test output
+   */
+  public void testFormatWithSmallCapacity() throws IOException {
+    ITraceSession session;
+    StringWriter expected;
+    StringWriter output;
+    TraceFormatContext context;
+    AbstractTraceFormatter formatter;
+
+    session = GenerateTestSession.generate();
+    formatter = new PlainTextTraceFormatter();
+
+    expected = new StringWriter();
+    formatter.format(session, expected);
+
+    output = new StringWriter();
+    context = new TraceFormatContext(output, 16);
+    formatter.format(session, context);
+
+    assertTrue("Buffer not passed to the target", output.getBuffer().length() > 0);
+
+    context.flush();
+    assertEquals(expected.toString(), output.toString());
+    assertEquals(0, context.length());
+  }
+
+  /**
+   * Test case: <code>formatSingleStep</code> still returns the output of a
+   * single trace step.
+   *
+   */
+  public void testFormatSingleStep() {
+    ITraceSession session = GenerateTestSession.generate();
+    AbstractTraceFormatter formatter = new CSVTraceFormatter();
+
+    assertEquals("$TestSession,$TestSession,main,195.000,0.000"
+        + System.getProperty("line.separator"), formatter.formatSingleStep(
+        session.getRootStep(), 0));
+  }
+
+}
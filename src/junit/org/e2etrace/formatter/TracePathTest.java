@@ -0,0 +1,124 @@
+package org.e2etrace.formatter;
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.e2etrace.trace.DefaultTraceSession;
+import org.e2etrace.trace.DefaultTraceStepFactory;
+import org.e2etrace.trace.ITraceSession;
+import org.e2etrace.trace.ITraceStep;
+
+import junit.framework.TestCase;
+
+/**
+ * JUnit testcase for {@link org.e2etrace.formatter.TracePath}.
+ * <p>
+ */
+public class TracePathTest extends TestCase {
+
+  public static void main(String[] args) {
+    junit.textui.TestRunner.run(TracePathTest.class);
+  }
+
+  /**
+   * Test case for <code>enter</code>.
+   *
+   */
+  public void testEnter() {
+    ITraceSession session = GenerateTestSession.generate();
+    ITraceStep root = session.getRootStep();
+    ITraceStep root2 = root.getChildren()[1];
+    ITraceStep child21 = root2.getChildren()[0];
+    TracePath path = new TracePath('|');
+
+    path.enter(root, 0);
+    assertEquals("$TestSession", path.toString());
+    assertEquals("main", path.getThreadName());
+
+    path.enter(root2, 1);
+    path.enter(child21, 2);
+    path.enter(child21.getChildren()[0], 3);
+    assertEquals("$TestSession|Root_2|Child_2_1|Child_2_2", path.toString());
+
+    path.enter(child21.getChildren()[1], 3);
+    assertEquals("$TestSession|Root_2|Child_2_1|Child_2_3", path.toString());
+
+    path.enter(root.getChildren()[2], 1);
+    assertEquals("$TestSession|Root_3", path.toString());
+    assertEquals("main", path.getThreadName());
+    assertEquals(path.toString().length(), path.length());
+  }
+
+  /**
+   * Test case: The path of a session that is part of another session
+   * contains the ids of the outer session.
+   *
+   * @throws IOException Error while generating test output
+   */
+  public void testNestedSession() throws IOException {
+    DefaultTraceSession outer = new DefaultTraceSession("Outer",
+        new DefaultTraceStepFactory());
+    DefaultTraceSession inner = new DefaultTraceSession("Inner",
+        new DefaultTraceStepFactory());
+    StringWriter output = new StringWriter();
+    String nl = System.getProperty("line.separator");
+    String[] lines;
+
+    outer.enterStep("step");
+    inner.enterStep("innerStep");
+    inner.leaveStep("innerStep");
+    outer.getCurrentStep().addChild(inner.getRootStep());
+    outer.leaveStep("step");
+
+    new CSVTraceFormatter().format(inner, output);
+
+    lines = output.toString().split(nl);
+    assertEquals(3, lines.length);
+    assertTrue(lines[1], lines[1].startsWith("$Inner,$Outer|step|$Inner,"));
+    assertTrue(lines[2], lines[2]
+        .startsWith("innerStep,$Outer|step|$Inner|innerStep,"));
+  }
+
+  /**
+   * Test case: Deep trees do not require a path buffer per step.
+   *
+   */
+  public void testDeepPath() {
+    DefaultTraceSession session = new DefaultTraceSession("Deep",
+        new DefaultTraceStepFactory());
+    TracePath path = new TracePath(';');
+    ITraceStep step;
+    int level = 0;
+
+    for (int i = 0; i < 100; i++) {
+      session.enterStep("s" + i);
+    }
+
+    step = session.getRootStep();
+    while (step != null) {
+      path.enter(step, level);
+      level++;
+      step = step.getChildren().length > 0 ? step.getChildren()[0] : null;
+    }
+
+    assertTrue(path.toString().startsWith("$Deep;s0;s1;s2;"));
+    assertTrue(path.toString().endsWith(";s98;s99"));
+  }
+
+}
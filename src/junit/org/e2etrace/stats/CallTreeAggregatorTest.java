@@ -0,0 +1,154 @@
+package org.e2etrace.stats;
+
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.StringWriter;
+
+import org.e2etrace.formatter.CSVTraceFormatter;
+import org.e2etrace.trace.ITraceStep;
+import org.e2etrace.trace.RecordedTraceSession;
+import org.e2etrace.trace.RecordedTraceStep;
+import org.e2etrace.trace.SimpleTraceStepId;
+
+import junit.framework.TestCase;
+
+/**
+ * JUnit testcase for {@link org.e2etrace.stats.CallTreeAggregator}
+ */
+public class CallTreeAggregatorTest extends TestCase {
+
+  public static void main(String[] args) {
+    junit.textui.TestRunner.run(CallTreeAggregatorTest.class);
+  }
+
+  /**
+   * OK: Steps with the same call path are merged
+   */
+  public void testRecord() {
+    CallTreeAggregator aggregator = new CallTreeAggregator();
+    CallTreeStep[] roots;
+    CallTreeStep root;
+    CallTreeStep a;
+    CallTreeStep b;
+    ITraceStep[] children;
+
+    aggregator.record(createSession("A", 1000000));
+    aggregator.export(createSession("B", 3000000));
+
+    roots = aggregator.snapshot();
+    assertEquals(1, roots.length);
+
+    root = roots[0];
+    assertEquals("root", root.getId().asString());
+    assertEquals(2, root.getCount());
+    assertEquals(20000000, root.getDurationNanos());
+
+    children = root.getChildren();
+    assertEquals(2, children.length);
+    a = (CallTreeStep) children[0];
+    b = (CallTreeStep) children[1];
+    assertEquals("A", a.getId().asString());
+    assertEquals("B", b.getId().asString());
+
+    // The dao is called by A and B and appears in both paths
+    assertEquals(2, ((CallTreeStep) a.getChildren()[0]).getCount());
+    assertEquals(2, ((CallTreeStep) b.getChildren()[0]).getCount());
+    assertEquals("dao", a.getChildren()[0].getId().asString());
+    assertEquals(500000, ((CallTreeStep) b.getChildren()[0]).getHistogram()
+        .getMax());
+
+    assertEquals(1000000, a.getDurationNanos());
+    assertEquals(0, a.getIsolatedDurationNanos());
+    assertEquals(2000000, b.getIsolatedDurationNanos());
+    assertEquals(a, a.getChildren()[0].getParent());
+
+    assertEquals(5, aggregator.getNodeCount());
+  }
+
+  /**
+   * OK: Cold paths are evicted if the node limit is reached
+   */
+  public void testEviction() {
+    CallTreeAggregator aggregator = new CallTreeAggregator(3);
+    ITraceStep[] children;
+
+    aggregator.record(createSession("A", 1000000));
+    aggregator.record(createSession("B", 3000000));
+
+    // The path root|A|dao has been replaced by root|B|dao
+    assertEquals(3, aggregator.getNodeCount());
+    assertEquals(2, aggregator.getEvictedCount());
+    assertEquals(0, aggregator.getDroppedCount());
+
+    children = aggregator.snapshot()[0].getChildren();
+    assertEquals(1, children.length);
+    assertEquals("B", children[0].getId().asString());
+    assertEquals(1, children[0].getChildren().length);
+
+    // A single node cannot hold the path of a session
+    aggregator = new CallTreeAggregator(1);
+    aggregator.record(createSession("A", 1000000));
+    assertEquals(1, aggregator.getNodeCount());
+    assertEquals(1, aggregator.getDroppedCount());
+  }
+
+  /**
+   * OK: The merged tree can be written by trace formatters
+   */
+  public void testFormat() throws Exception {
+    CallTreeAggregator aggregator = new CallTreeAggregator();
+    StringWriter output = new StringWriter();
+
+    aggregator.record(createSession("A", 1000000));
+    aggregator.record(createSession("A", 3000000));
+
+    new CSVTraceFormatter().format(new RecordedTraceSession(aggregator
+        .snapshot()[0]), output);
+
+    assertTrue(output.toString().indexOf("dao,root|A|dao,null,2.000,2.000") > 0);
+
+    aggregator.reset();
+    assertEquals(0, aggregator.snapshot().length);
+    assertEquals(0, aggregator.getNodeCount());
+  }
+
+  /**
+   * Helper method: Creates a trace session.
+   * <p>
+   *
+   * The step <code>root</code> (10ms) calls <code>caller</code>, which
+   * calls <code>dao</code> twice (500us each).
+   *
+   * @param caller id of the step calling the dao
+   * @param callerNanos duration of the calling step
+   * @return trace session
+   */
+  private RecordedTraceSession createSession(String caller, long callerNanos) {
+    ITraceStep root = new RecordedTraceStep(new SimpleTraceStepId("root"),
+        10000000);
+    ITraceStep step = new RecordedTraceStep(new SimpleTraceStepId(caller),
+        callerNanos);
+
+    root.addChild(step);
+    step.addChild(new RecordedTraceStep(new SimpleTraceStepId("dao"), 500000));
+    step.addChild(new RecordedTraceStep(new SimpleTraceStepId("dao"), 500000));
+
+    return new RecordedTraceSession(root);
+  }
+}
@@ -0,0 +1,165 @@
+package org.e2etrace.stats;
+
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import junit.framework.TestCase;
+
+/**
+ * JUnit testcase for {@link org.e2etrace.stats.LatencyHistogram}
+ */
+public class LatencyHistogramTest extends TestCase {
+
+  public static void main(String[] args) {
+    junit.textui.TestRunner.run(LatencyHistogramTest.class);
+  }
+
+  /**
+   * OK: The buckets are contiguous and cover all trackable values
+   */
+  public void testBucketLayout() {
+    long expectedLower = 0;
+
+    for (int i = 0; i < LatencyHistogram.BUCKET_COUNT; i++) {
+      long lower = LatencyHistogram.getBucketLowerBound(i);
+      long upper = LatencyHistogram.getBucketUpperBound(i);
+
+      assertEquals(expectedLower, lower);
+      assertTrue(upper >= lower);
+      assertEquals(i, LatencyHistogram.getBucketIndex(lower));
+      assertEquals(i, LatencyHistogram.getBucketIndex(upper));
+
+      // Relative error of the bucket width
+      assertTrue(upper - lower <= lower / LatencyHistogram.SUB_BUCKETS);
+
+      expectedLower = upper + 1;
+    }
+
+    assertEquals(LatencyHistogram.HIGHEST_TRACKABLE_VALUE, expectedLower - 1);
+    assertEquals(LatencyHistogram.BUCKET_COUNT - 1, LatencyHistogram
+        .getBucketIndex(Long.MAX_VALUE));
+  }
+
+  /**
+   * OK: Count, sum, minimum, maximum and mean are exact
+   */
+  public void testSummary() {
+    LatencyHistogram histogram = new LatencyHistogram();
+
+    assertEquals(0, histogram.getCount());
+    assertEquals(-1, histogram.getMin());
+    assertEquals(-1, histogram.getMax());
+    assertEquals(-1, histogram.getMean());
+    assertEquals(-1, histogram.getValueAtPercentile(50.0));
+
+    histogram.record(1000);
+    histogram.record(3000);
+    histogram.record(123456789);
+
+    assertEquals(3, histogram.getCount());
+    assertEquals(123460789, histogram.getSum());
+    assertEquals(1000, histogram.getMin());
+    assertEquals(123456789, histogram.getMax());
+    assertEquals(41153596, histogram.getMean());
+
+    histogram.reset();
+    assertEquals(0, histogram.getCount());
+    assertEquals(0, histogram.getSum());
+    assertEquals(-1, histogram.getMax());
+  }
+
+  /**
+   * OK: Percentiles are approximated within the precision of the buckets
+   */
+  public void testPercentiles() {
+    LatencyHistogram histogram = new LatencyHistogram();
+
+    for (int i = 1; i <= 10000; i++) {
+      histogram.record(i * 1000L);
+    }
+
+    assertPercentile(5000000, histogram.getValueAtPercentile(50.0));
+    assertPercentile(9000000, histogram.getValueAtPercentile(90.0));
+    assertPercentile(9900000, histogram.getValueAtPercentile(99.0));
+    assertPercentile(1000, histogram.getValueAtPercentile(0.0));
+    assertEquals(10000000, histogram.getValueAtPercentile(100.0));
+
+    try {
+      histogram.getValueAtPercentile(100.1);
+      fail("IllegalArgumentException expected");
+    } catch (IllegalArgumentException e) {
+      // OK
+    }
+  }
+
+  /**
+   * OK: Values beyond the trackable range are counted in the last bucket
+   */
+  public void testHugeValues() {
+    LatencyHistogram histogram = new LatencyHistogram();
+
+    histogram.record(Long.MAX_VALUE / 2);
+
+    assertEquals(1, histogram.getCountAtBucket(LatencyHistogram.BUCKET_COUNT - 1));
+    assertEquals(Long.MAX_VALUE / 2, histogram.getValueAtPercentile(99.0));
+  }
+
+  /**
+   * OK: Adding two histograms
+   */
+  public void testAdd() {
+    LatencyHistogram h1 = new LatencyHistogram();
+    LatencyHistogram h2 = new LatencyHistogram();
+
+    h1.record(10);
+    h2.record(5);
+    h2.record(20);
+
+    h1.add(h2);
+    h1.add(new LatencyHistogram());
+
+    assertEquals(3, h1.getCount());
+    assertEquals(35, h1.getSum());
+    assertEquals(5, h1.getMin());
+    assertEquals(20, h1.getMax());
+    assertEquals(1, h1.getCountAtBucket(10));
+  }
+
+  /**
+   * NOK: Negative durations
+   */
+  public void testNegativeValue() {
+    try {
+      new LatencyHistogram().record(-1);
+      fail("IllegalArgumentException expected");
+    } catch (IllegalArgumentException e) {
+      // OK
+    }
+  }
+
+  /**
+   * Helper method: Checks an approximated percentile.
+   *
+   * @param expected exact value
+   * @param actual approximated value
+   */
+  private void assertPercentile(long expected, long actual) {
+    assertTrue(actual >= expected);
+    assertTrue(actual - expected <= expected / LatencyHistogram.SUB_BUCKETS);
+  }
+}
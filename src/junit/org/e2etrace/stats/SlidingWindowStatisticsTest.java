@@ -0,0 +1,204 @@
+package org.e2etrace.stats;
+
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.e2etrace.trace.ITraceStep;
+import org.e2etrace.trace.RecordedTraceSession;
+import org.e2etrace.trace.RecordedTraceStep;
+import org.e2etrace.trace.SimpleTraceStepId;
+
+import junit.framework.TestCase;
+
+/**
+ * JUnit testcase for {@link org.e2etrace.stats.SlidingWindowStatistics}
+ */
+public class SlidingWindowStatisticsTest extends TestCase {
+
+  private static final SimpleTraceStepId DAO = new SimpleTraceStepId("dao");
+
+  private long now;
+
+  public static void main(String[] args) {
+    junit.textui.TestRunner.run(SlidingWindowStatisticsTest.class);
+  }
+
+  /**
+   * OK: Steps are counted in all windows that cover their completion
+   */
+  public void testWindows() {
+    SlidingWindowStatistics stats = new TestStatistics(
+        SlidingWindowStatistics.FIFTEEN_MINUTES);
+    WindowStatistics[] snapshot;
+    WindowStatistics dao;
+
+    this.now = 1000000L;
+    stats.record(createSession());
+
+    snapshot = stats.snapshot(SlidingWindowStatistics.ONE_MINUTE);
+    assertEquals(2, snapshot.length);
+    assertEquals("dao", snapshot[0].getId().asString());
+    assertEquals("root", snapshot[1].getId().asString());
+
+    dao = snapshot[0];
+    assertEquals(2, dao.getCount());
+    assertEquals(3000000, dao.getSum());
+    assertEquals(2000000, dao.getMax());
+    assertEquals(1500000, dao.getMean());
+    assertEquals(60, dao.getSeconds());
+
+    // Next second
+    this.now += 1000;
+    stats.record(createSession());
+    assertEquals(4, stats.getStatistics(DAO, 60).getCount());
+
+    // The hot buckets are moved to the history
+    this.now += 4000;
+    stats.record(createSession());
+    assertEquals(6, stats.getStatistics(DAO, 60).getCount());
+    assertEquals(2, stats.getStatistics(DAO, 1).getCount());
+    assertEquals(0.1, stats.getStatistics(DAO, 60).getRate(), 0.0001);
+
+    // Older steps drop out of the short windows
+    this.now += 60000;
+    assertEquals(0, stats.snapshot(SlidingWindowStatistics.ONE_MINUTE).length);
+    assertEquals(-1, stats.getStatistics(DAO, 60).getMax());
+    assertEquals(6, stats.getStatistics(DAO,
+        SlidingWindowStatistics.FIVE_MINUTES).getCount());
+
+    assertNull(stats.getStatistics(new SimpleTraceStepId("unknown"), 60));
+  }
+
+  /**
+   * OK: Buckets are reused after the ring has wrapped
+   */
+  public void testRingWrap() {
+    SlidingWindowStatistics stats = new TestStatistics(10);
+
+    this.now = 1000000L;
+    stats.record(createSession());
+
+    this.now += 15000;
+    stats.record(createSession());
+    this.now += 2000;
+    stats.record(createSession());
+
+    assertEquals(4, stats.getStatistics(DAO, 10).getCount());
+
+    try {
+      stats.snapshot(11);
+      fail("IllegalArgumentException expected");
+    } catch (IllegalArgumentException e) {
+      // OK
+    }
+  }
+
+  /**
+   * OK: Values that arrive late are added to the history
+   */
+  public void testLateValues() {
+    SlidingWindow window = new SlidingWindow(DAO, 60, 1000);
+
+    window.record(100, 1000);
+    window.record(200, 1003);
+
+    // Too late for the hot buckets
+    window.record(400, 1001);
+    window.record(800, 1000);
+
+    assertEquals(4, window.getStatistics(1003, 60).getCount());
+    assertEquals(1500, window.getStatistics(1003, 60).getSum());
+    assertEquals(1, window.getStatistics(1003, 2).getCount());
+    assertEquals(2, window.getStatistics(1003, 3).getCount());
+  }
+
+  /**
+   * OK: Concurrent recording
+   */
+  public void testConcurrentRecording() throws Exception {
+    final SlidingWindow window = new SlidingWindow(DAO, 60, 1000);
+    Thread[] threads = new Thread[8];
+    WindowStatistics result;
+
+    for (int i = 0; i < threads.length; i++) {
+      threads[i] = new Thread() {
+        public void run() {
+          for (int j = 0; j < 10000; j++) {
+            window.record(j, 1000 + j / 1000);
+          }
+        }
+      };
+      threads[i].start();
+    }
+
+    for (int i = 0; i < threads.length; i++) {
+      threads[i].join();
+    }
+
+    result = window.getStatistics(1009, 60);
+    assertEquals(80000, result.getCount());
+    assertEquals(9999, result.getMax());
+  }
+
+  /**
+   * OK: The number of trace step ids is limited
+   */
+  public void testMaxIds() {
+    SlidingWindowStatistics stats = new SlidingWindowStatistics(60, 1);
+
+    stats.record(createSession());
+
+    assertEquals(1, stats.snapshot(60).length);
+    assertEquals(2, stats.getDroppedCount());
+
+    stats.reset();
+    assertEquals(0, stats.snapshot(60).length);
+  }
+
+  /**
+   * Helper method: Creates a trace session.
+   * <p>
+   *
+   * The step <code>root</code> calls <code>dao</code> twice (1ms and 2ms).
+   *
+   * @return trace session
+   */
+  private RecordedTraceSession createSession() {
+    ITraceStep root = new RecordedTraceStep(new SimpleTraceStepId("root"),
+        5000000);
+
+    root.addChild(new RecordedTraceStep(DAO, 1000000));
+    root.addChild(new RecordedTraceStep(DAO, 2000000));
+
+    return new RecordedTraceSession(root);
+  }
+
+  /**
+   * Statistics using the time of the test case.
+   */
+  private class TestStatistics extends SlidingWindowStatistics {
+
+    TestStatistics(int length) {
+      super(length, DEFAULT_MAX_IDS);
+    }
+
+    protected long currentTimeMillis() {
+      return SlidingWindowStatisticsTest.this.now;
+    }
+  }
+}
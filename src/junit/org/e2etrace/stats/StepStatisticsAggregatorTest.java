@@ -0,0 +1,166 @@
+package org.e2etrace.stats;
+
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.StringWriter;
+
+import org.e2etrace.trace.ITraceStep;
+import org.e2etrace.trace.RecordedTraceSession;
+import org.e2etrace.trace.RecordedTraceStep;
+import org.e2etrace.trace.SimpleTraceStepId;
+import org.e2etrace.trace.TraceSessionRootStep;
+import org.e2etrace.trace.TraceSessionRootStepId;
+
+import junit.framework.TestCase;
+
+/**
+ * JUnit testcase for {@link org.e2etrace.stats.StepStatisticsAggregator}
+ * and {@link org.e2etrace.stats.StepStatisticsFormatter}
+ */
+public class StepStatisticsAggregatorTest extends TestCase {
+
+  public static void main(String[] args) {
+    junit.textui.TestRunner.run(StepStatisticsAggregatorTest.class);
+  }
+
+  /**
+   * OK: Durations of several sessions are aggregated per trace step id
+   */
+  public void testRecord() {
+    StepStatisticsAggregator aggregator = new StepStatisticsAggregator();
+    StepStatistics[] stats;
+
+    aggregator.record(createSession(10000000, 4000000));
+    aggregator.export(createSession(20000000, 6000000));
+
+    stats = aggregator.snapshot();
+
+    assertEquals(3, stats.length);
+    assertEquals("dao", stats[0].getId().asString());
+    assertEquals("root", stats[1].getId().asString());
+    assertEquals("service", stats[2].getId().asString());
+
+    // dao is called twice per session
+    assertEquals(4, stats[0].getCount());
+    assertEquals(2000000, stats[0].getDuration().getMin());
+    assertEquals(3000000, stats[0].getDuration().getMax());
+
+    assertEquals(2, stats[2].getCount());
+    assertEquals(10000000, stats[2].getDuration().getMin());
+    assertEquals(20000000, stats[2].getDuration().getMax());
+    assertEquals(6000000, stats[2].getIsolatedDuration().getMin());
+    assertEquals(14000000, stats[2].getIsolatedDuration().getMax());
+
+    assertEquals(2, aggregator.getStatistics(new SimpleTraceStepId("root"))
+        .getCount());
+    assertNull(aggregator.getStatistics(new SimpleTraceStepId("unknown")));
+  }
+
+  /**
+   * OK: Snapshot and reset
+   */
+  public void testSnapshotAndReset() {
+    StepStatisticsAggregator aggregator = new StepStatisticsAggregator();
+
+    aggregator.record(createSession(10000000, 4000000));
+
+    assertEquals(3, aggregator.snapshotAndReset().length);
+    assertEquals(0, aggregator.snapshot().length);
+
+    aggregator.record(createSession(10000000, 4000000));
+    assertEquals(2, aggregator.snapshot()[0].getCount());
+
+    aggregator.reset();
+    assertEquals(0, aggregator.snapshot().length);
+  }
+
+  /**
+   * OK: The number of trace step ids is limited
+   */
+  public void testMaxIds() {
+    StepStatisticsAggregator aggregator = new StepStatisticsAggregator(2);
+
+    aggregator.record(createSession(10000000, 4000000));
+
+    assertEquals(2, aggregator.snapshot().length);
+    assertEquals(2, aggregator.getDroppedCount());
+  }
+
+  /**
+   * OK: Root steps of nested trace sessions are not aggregated
+   */
+  public void testNestedSession() {
+    StepStatisticsAggregator aggregator = new StepStatisticsAggregator();
+    TraceSessionRootStep root = new TraceSessionRootStep(
+        new TraceSessionRootStepId("session"));
+
+    root.addChild(createSession(10000000, 4000000).getRootStep());
+    aggregator.record(root);
+
+    assertEquals(3, aggregator.snapshot().length);
+  }
+
+  /**
+   * OK: CSV output of the aggregated durations
+   */
+  public void testFormat() throws Exception {
+    StepStatisticsAggregator aggregator = new StepStatisticsAggregator();
+    StringWriter output = new StringWriter();
+    String nl = System.getProperty("line.separator");
+
+    aggregator.record(createSession(10000000, 4000000));
+    new StepStatisticsFormatter().format(aggregator.snapshot(), output);
+
+    assertEquals("id,count,mean,p50,p90,p99,p999,max,isolated_mean,"
+        + "isolated_p50,isolated_p90,isolated_p99,isolated_p999,isolated_max"
+        + nl
+        + "dao,2,2.000,2.000,2.000,2.000,2.000,2.000,2.000,2.000,2.000,2.000,2.000,2.000"
+        + nl
+        + "root,1,15.000,15.000,15.000,15.000,15.000,15.000,5.000,5.000,5.000,5.000,5.000,5.000"
+        + nl
+        + "service,1,10.000,10.000,10.000,10.000,10.000,10.000,6.000,6.000,6.000,6.000,6.000,6.000"
+        + nl, output.toString());
+  }
+
+  /**
+   * Helper method: Creates a trace session.
+   * <p>
+   *
+   * The session <code>root</code> contains the step <code>service</code>,
+   * which calls the step <code>dao</code> twice.
+   *
+   * @param serviceNanos duration of the step <code>service</code>
+   * @param daoNanos total duration of both calls of <code>dao</code>
+   * @return trace session
+   */
+  private RecordedTraceSession createSession(long serviceNanos, long daoNanos) {
+    ITraceStep root = new RecordedTraceStep(new SimpleTraceStepId("root"),
+        serviceNanos + 5000000);
+    ITraceStep service = new RecordedTraceStep(new SimpleTraceStepId(
+        "service"), serviceNanos);
+
+    root.addChild(service);
+    service.addChild(new RecordedTraceStep(new SimpleTraceStepId("dao"),
+        daoNanos / 2));
+    service.addChild(new RecordedTraceStep(new SimpleTraceStepId("dao"),
+        daoNanos / 2));
+
+    return new RecordedTraceSession(root);
+  }
+}
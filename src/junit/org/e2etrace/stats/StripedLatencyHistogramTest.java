@@ -0,0 +1,94 @@
+package org.e2etrace.stats;
+
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import junit.framework.TestCase;
+
+/**
+ * JUnit testcase for {@link org.e2etrace.stats.StripedLatencyHistogram}
+ */
+public class StripedLatencyHistogramTest extends TestCase {
+
+  public static void main(String[] args) {
+    junit.textui.TestRunner.run(StripedLatencyHistogramTest.class);
+  }
+
+  /**
+   * OK: Values recorded by several threads are merged
+   */
+  public void testConcurrentRecording() throws Exception {
+    final StripedLatencyHistogram histogram = new StripedLatencyHistogram();
+    Thread[] threads = new Thread[8];
+    LatencyHistogram snapshot;
+
+    for (int i = 0; i < threads.length; i++) {
+      final long value = (i + 1) * 1000L;
+
+      threads[i] = new Thread() {
+        public void run() {
+          for (int j = 0; j < 10000; j++) {
+            histogram.record(value);
+          }
+        }
+      };
+      threads[i].start();
+    }
+
+    for (int i = 0; i < threads.length; i++) {
+      threads[i].join();
+    }
+
+    snapshot = histogram.snapshot();
+
+    assertEquals(80000, snapshot.getCount());
+    assertEquals(360000000, snapshot.getSum());
+    assertEquals(1000, snapshot.getMin());
+    assertEquals(8000, snapshot.getMax());
+
+    // Snapshots do not modify the histogram
+    assertEquals(80000, histogram.snapshot().getCount());
+  }
+
+  /**
+   * OK: Snapshot and reset
+   */
+  public void testSnapshotAndReset() {
+    StripedLatencyHistogram histogram = new StripedLatencyHistogram();
+    LatencyHistogram target = new LatencyHistogram();
+    LatencyHistogram snapshot;
+
+    histogram.record(100);
+    histogram.record(300);
+
+    snapshot = histogram.snapshotAndReset();
+    assertEquals(2, snapshot.getCount());
+    assertEquals(100, snapshot.getMin());
+    assertEquals(300, snapshot.getMax());
+
+    assertEquals(0, histogram.snapshot().getCount());
+
+    histogram.record(50);
+    histogram.addTo(target);
+    assertEquals(1, target.getCount());
+    assertEquals(50, target.getMax());
+
+    histogram.reset();
+    assertEquals(-1, histogram.snapshot().getMin());
+  }
+}
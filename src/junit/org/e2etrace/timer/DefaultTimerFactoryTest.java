@@ -19,6 +19,7 @@ package org.e2etrace.timer;
 import org.e2etrace.timer.DefaultTimer;
 import org.e2etrace.timer.DefaultTimerFactory;
 import org.e2etrace.timer.ExactTimer;
+import org.e2etrace.timer.ITimer;
 
 import junit.framework.TestCase;
 
@@ -48,9 +49,11 @@ public class DefaultTimerFactoryTest extends TestCase {
         .floatValue();
 
     if (specVersion < 1.5) {
+      assertFalse(DefaultTimerFactory.isExactMeasuringSupported());
       assertEquals(DefaultTimer.class, tf.getTimerType());
       assertEquals(DefaultTimer.class, tf.newInstance().getClass());
     } else {
+      assertTrue(DefaultTimerFactory.isExactMeasuringSupported());
       assertEquals(ExactTimer.class, tf.getTimerType());
       assertEquals(ExactTimer.class, tf.newInstance().getClass());
     }
@@ -71,6 +74,41 @@ public class DefaultTimerFactoryTest extends TestCase {
     tf.setTimerType(DefaultTimer.class);
     assertEquals(DefaultTimer.class, tf.getTimerType());
     assertEquals(DefaultTimer.class, tf.newInstance().getClass());
+
+    // OK: Custom timer types are still supported
+    tf = new DefaultTimerFactory(CustomTimer.class);
+    assertEquals(CustomTimer.class, tf.newInstance().getClass());
+
+    // OK: Fall back to DefaultTimer if the custom type cannot be instantiated
+    tf.setTimerType(String.class);
+    assertEquals(DefaultTimer.class, tf.newInstance().getClass());
+  }
+
+  /**
+   * Custom timer type used to test the reflective creation of timers.
+   * <p>
+   */
+  public static class CustomTimer implements ITimer {
+
+    /** {@inheritDoc} */
+    public void start() {
+
+    }
+
+    /** {@inheritDoc} */
+    public long measure() {
+      return 0;
+    }
+
+    /** {@inheritDoc} */
+    public long measureNanos() {
+      return 0;
+    }
+
+    /** {@inheritDoc} */
+    public long getStartNanos() {
+      return 0;
+    }
   }
 
 }
@@ -57,10 +57,16 @@ public class ExactTimerTest extends TestCase {
     assertTrue("Expected duration: between 90ms and 110ms, measured duration: "
         + duration + "ms", duration >= 90 && duration <= 110);
 
+    // OK: The duration in ns must match the duration in ms
+    duration = timer.measureNanos();
+    assertTrue("Expected at least 90000000ns, measured duration: " + duration + "ns",
+        duration >= 90000000L);
+
     // NOK: Invalid calls to start/measure
     // ----------------------------------
     timer = tf.newInstance();
     assertEquals(-1, timer.measure());
+    assertEquals(-1, timer.measureNanos());
 
   }
 
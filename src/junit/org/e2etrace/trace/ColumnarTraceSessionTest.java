@@ -0,0 +1,218 @@
+package org.e2etrace.trace;
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.e2etrace.formatter.CSVTraceFormatter;
+import org.e2etrace.formatter.GenerateTestSession;
+import org.e2etrace.formatter.ITraceFormatter;
+import org.e2etrace.trace.ColumnarTraceSession;
+import org.e2etrace.trace.ITraceStep;
+
+import junit.framework.TestCase;
+
+/**
+ * JUnit testcase for {@link org.e2etrace.trace.ColumnarTraceSession}.
+ * <p>
+ *
+ * The test replaces the time source of the session by a list of predefined
+ * time stamps (in ms).
+ * <p>
+ */
+public class ColumnarTraceSessionTest extends TestCase {
+
+  public static void main(String[] args) {
+    junit.textui.TestRunner.run(ColumnarTraceSessionTest.class);
+  }
+
+  /**
+   * OK: Measure duration between enterStep and leaveStep
+   */
+  public void testMeasureDuration() {
+    ColumnarTraceSession ts;
+    ITraceStep step;
+
+    ts = new MockClockSession("testMeasureDuration", new long[] { 0, 10, 30, 40 });
+
+    ts.enterStep("1");
+    ts.enterStep("2");
+    ts.leaveStep("2");
+    ts.leaveStep("1");
+
+    assertEquals(40, ts.getDuration());
+    assertEquals(3, ts.getStepCount());
+
+    step = ts.getRootStep();
+    assertEquals(ts.getDuration(), step.getDuration());
+    assertEquals(0, step.getIsolatedDuration());
+
+    step = step.getChildren()[0];
+    assertEquals("1", step.getId().asString());
+    assertEquals(20, step.getIsolatedDuration());
+    assertEquals(ts.getRootStep(), step.getParent());
+    assertFalse(step.isActive());
+
+    step = step.getChildren()[0];
+    assertEquals("2", step.getId().asString());
+    assertEquals(20, step.getDuration());
+    assertEquals(2, ts.getLevel(2));
+  }
+
+  /**
+   * OK: Omit leaveStep on all children
+   */
+  public void testOmitLeaveStep() {
+    ColumnarTraceSession ts;
+    ITraceStep step;
+
+    ts = new MockClockSession("testOmitLeaveStep", new long[] { 0, 40, 60, 110 });
+
+    ts.enterStep("1");
+    ts.enterStep("2");
+    ts.enterStep("3");
+
+    // Leave only Step 1 (it is expected, that all children of 1 are left
+    // automatically)
+    ts.leaveStep("1");
+
+    assertEquals(110, ts.getDuration());
+    assertSame(ts.getRootStep().getId(), ts.getCurrentStep().getId());
+
+    step = ts.getRootStep().getChildren()[0];
+    assertEquals(40, step.getIsolatedDuration());
+
+    step = step.getChildren()[0];
+    assertEquals(20, step.getIsolatedDuration());
+
+    step = step.getChildren()[0];
+    assertEquals(50, step.getIsolatedDuration());
+  }
+
+  /**
+   * OK: Reuse the session after reset
+   */
+  public void testReset() {
+    ColumnarTraceSession ts;
+
+    ts = new MockClockSession("testReset", new long[] { 0, 40, 100, 105 });
+
+    ts.enterStep("1");
+    ts.leaveStep("1");
+    assertEquals(40, ts.getDuration());
+
+    ts.reset();
+    assertEquals(1, ts.getStepCount());
+    assertEquals(0, ts.getRootStep().getChildren().length);
+
+    ts.enterStep("2");
+    ts.leaveStep("2");
+    assertEquals(5, ts.getDuration());
+    assertEquals("2", ts.getRootStep().getChildren()[0].getId().asString());
+  }
+
+  /**
+   * OK: Trees with more than one chunk of steps
+   */
+  public void testManySteps() {
+    ColumnarTraceSession ts;
+    int count = ColumnarTraceSession.CHUNK_SIZE * 3;
+
+    ts = new ColumnarTraceSession("testManySteps");
+
+    for (int i = 0; i < count; i++) {
+      ts.enterStep("step");
+    }
+    ts.leaveStep("step");
+
+    assertEquals(count + 1, ts.getStepCount());
+    assertEquals(count, ts.getLevel(count));
+    assertFalse(ts.getStep(count).isActive());
+    assertTrue(ts.getStep(count - 1).isActive());
+  }
+
+  /**
+   * OK: The formatters generate the same output as for a
+   * {@link DefaultTraceSession}.
+   *
+   * @throws IOException Error while generating test output
+   */
+  public void testFormat() throws IOException {
+    ColumnarTraceSession ts;
+    ITraceFormatter formatter = new CSVTraceFormatter();
+    StringWriter expected = new StringWriter();
+    StringWriter output = new StringWriter();
+
+    // Same durations as in GenerateTestSession
+    ts = new MockClockSession("TestSession", new long[] { 0, 10, 80, 110, 200, 200,
+        210, 230, 240, 250, 280, 280, 300, 305 });
+
+    ts.enterStep("Root_1");
+    ts.enterStep("Child_1_1");
+    ts.leaveStep("Child_1_1");
+    ts.leaveStep("Root_1");
+
+    ts.enterStep("Root_2");
+    ts.enterStep("Child_2_1");
+    ts.enterStep("Child_2_2");
+    ts.leaveStep("Child_2_2");
+    ts.enterStep("Child_2_3");
+    ts.leaveStep("Child_2_3");
+    ts.leaveStep("Child_2_1");
+    ts.leaveStep("Root_2");
+
+    ts.enterStep("Root_3");
+    ts.leaveStep("Root_3");
+
+    formatter.format(GenerateTestSession.generate(), expected);
+    formatter.format(ts, output);
+
+    assertEquals(expected.toString(), output.toString());
+  }
+
+  /**
+   * Columnar session using predefined time stamps.
+   * <p>
+   */
+  private static class MockClockSession extends ColumnarTraceSession {
+
+    private long[] timestamps;
+    private int index;
+
+    /**
+     * Constructor.
+     *
+     * @param sessionId id of the session
+     * @param timestamps time stamps in ms returned by <code>currentNanos</code>
+     */
+    MockClockSession(String sessionId, long[] timestamps) {
+      super(sessionId);
+      this.timestamps = timestamps;
+    }
+
+    /** {@inheritDoc} */
+    protected long currentNanos() {
+      long nanos = this.timestamps[this.index] * 1000000L;
+
+      this.index++;
+
+      return nanos;
+    }
+  }
+
+}
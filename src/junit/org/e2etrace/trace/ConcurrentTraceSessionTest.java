@@ -0,0 +1,181 @@
+package org.e2etrace.trace;
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.e2etrace.concurrent.TracedExecutorService;
+import org.e2etrace.config.DefaultTraceConfig;
+import org.e2etrace.trace.ConcurrentTraceSession;
+import org.e2etrace.trace.DefaultTraceStepFactory;
+import org.e2etrace.trace.ITraceStep;
+import org.e2etrace.trace.ThreadLocalTraceSessionManager;
+
+import junit.framework.TestCase;
+
+/**
+ * JUnit testcase for {@link org.e2etrace.trace.ConcurrentTraceSession}
+ */
+public class ConcurrentTraceSessionTest extends TestCase {
+
+  private static final int THREADS = 4;
+  private static final int STEPS = 500;
+
+  public static void main(String[] args) {
+    junit.textui.TestRunner.run(ConcurrentTraceSessionTest.class);
+  }
+
+  /**
+   * OK: Every thread maintains its own current trace step.
+   *
+   * @throws Exception Unexpected error
+   */
+  public void testCursorPerThread() throws Exception {
+    final ConcurrentTraceSession ts = new ConcurrentTraceSession(
+        "testCursorPerThread", new DefaultTraceStepFactory());
+    final ITraceStep[] stepOfOtherThread = new ITraceStep[1];
+    ITraceStep fork;
+    Thread other;
+
+    ts.enterStep("fork");
+    fork = ts.getCurrentStep();
+
+    other = new Thread() {
+      public void run() {
+        ts.bindCurrentThread(ts.getRootStep().getChildren()[0]);
+        ts.enterStep("worker");
+        stepOfOtherThread[0] = ts.getCurrentStep();
+        ts.leaveStep("worker");
+        ts.unbindCurrentThread();
+      }
+    };
+
+    ts.enterStep("local");
+    other.start();
+    other.join();
+    ts.leaveStep("local");
+
+    // The other thread did not modify the cursor of this thread
+    assertSame(fork, ts.getCurrentStep());
+    ts.leaveStep("fork");
+    assertSame(ts.getRootStep(), ts.getCurrentStep());
+
+    assertEquals(2, fork.getChildren().length);
+    assertSame(fork, stepOfOtherThread[0].getParent());
+    assertFalse(stepOfOtherThread[0].isActive());
+  }
+
+  /**
+   * OK: Many threads add trace steps to the same parent in parallel.
+   *
+   * @throws Exception Unexpected error
+   */
+  public void testParallelAppend() throws Exception {
+    final ConcurrentTraceSession ts = new ConcurrentTraceSession(
+        "testParallelAppend", new DefaultTraceStepFactory());
+    final CountDownLatch start = new CountDownLatch(1);
+    final ITraceStep fork;
+    ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+    Future[] results = new Future[THREADS];
+
+    ts.enterStep("fork");
+    fork = ts.getCurrentStep();
+
+    try {
+      for (int i = 0; i < THREADS; i++) {
+        results[i] = pool.submit(new Callable() {
+          public Object call() throws Exception {
+            start.await();
+            ts.bindCurrentThread(fork);
+            for (int j = 0; j < STEPS; j++) {
+              ts.enterStep("worker");
+              ts.leaveStep("worker");
+            }
+            ts.unbindCurrentThread();
+
+            return null;
+          }
+        });
+      }
+
+      start.countDown();
+      for (int i = 0; i < THREADS; i++) {
+        results[i].get();
+      }
+    } finally {
+      pool.shutdown();
+    }
+
+    ts.leaveStep("fork");
+
+    assertEquals(THREADS * STEPS, fork.getChildren().length);
+  }
+
+  /**
+   * OK: Traced tasks record their trace steps in the shared session.
+   *
+   * @throws Exception Unexpected error
+   */
+  public void testTracedTask() throws Exception {
+    ThreadLocalTraceSessionManager tsm = ThreadLocalTraceSessionManager
+        .getInstance();
+    ConcurrentTraceSession ts = new ConcurrentTraceSession("testTracedTask",
+        new DefaultTraceStepFactory());
+    ExecutorService pool = new TracedExecutorService(Executors
+        .newFixedThreadPool(2), tsm);
+    ITraceStep fork;
+
+    try {
+      tsm.setCurrentSession(ts);
+      ts.enterStep("fork");
+      fork = ts.getCurrentStep();
+
+      pool.submit(new Runnable() {
+        public void run() {
+        }
+      }).get();
+
+      ts.leaveStep("fork");
+
+      assertEquals(1, fork.getChildren().length);
+      assertFalse(fork.getChildren()[0].isActive());
+    } finally {
+      pool.shutdown();
+      tsm.setConfig(new DefaultTraceConfig());
+      tsm.releaseCurrentSession();
+    }
+  }
+
+  /**
+   * ERROR: Pooled trace step factories are not thread-safe.
+   */
+  public void testPooledFactory() {
+    try {
+      new ConcurrentTraceSession("testPooledFactory",
+          new PooledTraceStepFactory());
+      fail("IllegalArgumentException expected");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+
+}
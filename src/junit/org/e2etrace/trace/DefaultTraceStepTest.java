@@ -192,4 +192,36 @@ public class DefaultTraceStepTest extends TestCase {
     assertFalse(ts1.equals(ts2));
 
   }
+
+  /**
+   * Tests the ns defaults of AbstractTraceStep for subclasses that only
+   * implement the ms based methods.
+   */
+  public void testLegacySubclass() {
+    ITraceStep step = new AbstractTraceStep(new SimpleTraceStepId("legacy")) {
+      private static final long serialVersionUID = 1L;
+
+      public void enter() {
+      }
+
+      public void leave() {
+      }
+
+      public boolean isActive() {
+        return false;
+      }
+
+      public long getDuration() {
+        return 5;
+      }
+
+      public long getIsolatedDuration() {
+        return -1;
+      }
+    };
+
+    assertEquals(5000000L, step.getDurationNanos());
+    assertEquals(-1, step.getIsolatedDurationNanos());
+    assertEquals(ITraceStep.UNKNOWN_START, step.getStartNanos());
+  }
 }
@@ -48,4 +48,18 @@ public class MockTimer implements ITimer {
     return this.duration;
   }
 
+  /** {@inheritDoc} */
+  public long measureNanos() {
+    return this.duration * 1000000L;
+  }
+
+  /**
+   * Mock timers are always started at 0.
+   *
+   * @return 0
+   */
+  public long getStartNanos() {
+    return 0;
+  }
+
 }
@@ -0,0 +1,189 @@
+package org.e2etrace.trace;
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.List;
+
+import org.e2etrace.trace.DefaultTraceSession;
+import org.e2etrace.trace.ITraceStep;
+import org.e2etrace.trace.ITraceStepId;
+import org.e2etrace.trace.PooledTraceStepFactory;
+import org.e2etrace.trace.TraceStepIdRegistry;
+
+import junit.framework.TestCase;
+
+/**
+ * JUnit testcase for {@link org.e2etrace.trace.PooledTraceStepFactory}.
+ * <p>
+ */
+public class PooledTraceStepFactoryTest extends TestCase {
+
+  public static void main(String[] args) {
+    junit.textui.TestRunner.run(PooledTraceStepFactoryTest.class);
+  }
+
+  /**
+   * OK: Trace steps are recycled after the session has been reset.
+   */
+  public void testResetAndReuse() {
+    PooledTraceStepFactory factory;
+    DefaultTraceSession ts;
+    ITraceStep step1;
+    ITraceStep step2;
+
+    factory = new PooledTraceStepFactory(new MockTimerFactory(new long[] { 40, 20 }));
+    ts = new DefaultTraceSession("testResetAndReuse", factory);
+
+    ts.enterStep("1");
+    ts.enterStep("2");
+    ts.leaveStep("2");
+    ts.leaveStep("1");
+
+    step1 = ts.getRootStep().getChildren()[0];
+    step2 = step1.getChildren()[0];
+    assertEquals(40, ts.getDuration());
+    assertEquals(0, factory.getPoolSize());
+
+    // Reset the session: Both steps are returned to the pool
+    ts.reset();
+
+    assertEquals(2, factory.getPoolSize());
+    assertEquals(0, ts.getRootStep().getChildren().length);
+    assertSame(ts.getRootStep(), ts.getCurrentStep());
+    assertEquals(0, ts.getDuration());
+
+    // Reuse the session: The steps are taken from the pool
+    ts.enterStep("3");
+    ts.enterStep("4");
+    ts.leaveStep("4");
+    ts.leaveStep("3");
+
+    assertEquals(0, factory.getPoolSize());
+    assertEquals(1, ts.getRootStep().getChildren().length);
+    assertEquals("3", ts.getRootStep().getChildren()[0].getId().asString());
+    assertEquals("4", ts.getRootStep().getChildren()[0].getChildren()[0].getId()
+        .asString());
+
+    // The recycled steps keep their (mock) timers. Step 2 has been returned to
+    // the pool last, so it is reused first.
+    assertSame(step2, ts.getRootStep().getChildren()[0]);
+    assertSame(step1, ts.getRootStep().getChildren()[0].getChildren()[0]);
+    assertSame(ts.getRootStep(), step2.getParent());
+    assertFalse(step1.isActive());
+  }
+
+  /**
+   * OK: Repeated resets of a warm session reuse the same step instances and
+   * child lists.
+   */
+  public void testRepeatedReset() {
+    PooledTraceStepFactory factory;
+    DefaultTraceSession ts;
+    AbstractTraceStep step1 = null;
+    AbstractTraceStep step2 = null;
+    List rootChildren = null;
+    List step1Children = null;
+
+    factory = new PooledTraceStepFactory(new MockTimerFactory(new long[] { 40, 20 }));
+    ts = new DefaultTraceSession("testRepeatedReset", factory);
+
+    for (int i = 0; i < 5; i++) {
+      ts.enterStep("1");
+      ts.enterStep("2");
+      ts.leaveStep("2");
+      ts.leaveStep("1");
+
+      assertEquals(0, factory.getPoolSize());
+
+      if (i == 0) {
+        step1 = (AbstractTraceStep) ts.getRootStep().getChildren()[0];
+        step2 = (AbstractTraceStep) step1.getChildren()[0];
+        rootChildren = ((AbstractTraceStep) ts.getRootStep()).children;
+        step1Children = step1.children;
+      } else {
+        // Both steps are taken from the pool. The order of the instances
+        // alternates, because the pool returns the last released step first.
+        ITraceStep outer = ts.getRootStep().getChildren()[0];
+        ITraceStep inner = outer.getChildren()[0];
+
+        assertTrue(outer == step1 || outer == step2);
+        assertTrue(inner == step1 || inner == step2);
+        assertNotSame(outer, inner);
+        assertSame(rootChildren, ((AbstractTraceStep) ts.getRootStep()).children);
+        assertTrue(step1.children == step1Children
+            || step2.children == step1Children);
+      }
+
+      assertEquals("1", ts.getRootStep().getChildren()[0].getId().asString());
+      assertEquals("2", ts.getRootStep().getChildren()[0].getChildren()[0].getId()
+          .asString());
+
+      ts.reset();
+
+      assertEquals(2, factory.getPoolSize());
+      assertEquals(0, ts.getRootStep().getChildren().length);
+      assertSame(ts.getRootStep(), ts.getCurrentStep());
+    }
+  }
+
+  /**
+   * OK: Root steps of other sessions are not recycled.
+   */
+  public void testReleaseSkipsForeignRootSteps() {
+    PooledTraceStepFactory factory;
+    DefaultTraceSession ts1;
+    DefaultTraceSession ts2;
+
+    factory = new PooledTraceStepFactory(new MockTimerFactory(new long[] { 40 }));
+    ts1 = new DefaultTraceSession("ts1", factory);
+    ts2 = new DefaultTraceSession("ts2", new PooledTraceStepFactory(
+        new MockTimerFactory(new long[] { 10 })));
+
+    ts2.enterStep("remote");
+    ts2.leaveStep("remote");
+
+    ts1.enterStep("1");
+    ts1.getCurrentStep().addChild(ts2.getRootStep());
+    ts1.leaveStep("1");
+
+    ts1.reset();
+
+    assertEquals(1, factory.getPoolSize());
+    assertEquals(1, ts2.getRootStep().getChildren().length);
+  }
+
+  /**
+   * OK: The registry returns the same id instance for equal ids.
+   */
+  public void testRegistry() {
+    ITraceStepId id1;
+    ITraceStepId id2;
+
+    id1 = TraceStepIdRegistry.getMethodId(this.getClass(), "testRegistry");
+    id2 = TraceStepIdRegistry.getMethodId(this.getClass().getName(), "testRegistry");
+
+    assertSame(id1, id2);
+    assertEquals(new MethodTraceStepId(this.getClass(), "testRegistry"), id1);
+
+    id1 = TraceStepIdRegistry.getSimpleId("simple");
+    id2 = TraceStepIdRegistry.getSimpleId("simple");
+
+    assertSame(id1, id2);
+    assertEquals(new SimpleTraceStepId("simple"), id1);
+  }
+
+}
@@ -0,0 +1,223 @@
+package org.e2etrace.trace;
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.e2etrace.config.DefaultTraceConfig;
+import org.e2etrace.trace.DefaultTraceSession;
+import org.e2etrace.trace.DefaultTraceStepFactory;
+import org.e2etrace.trace.ITraceSession;
+import org.e2etrace.trace.ScopedTraceSessionManager;
+
+import junit.framework.TestCase;
+
+/**
+ * JUnit testcase for {@link org.e2etrace.trace.ScopedTraceSessionManager}
+ */
+public class ScopedTraceSessionManagerTest extends TestCase {
+
+  private static final ScopedTraceSessionManager tsm = ScopedTraceSessionManager
+      .getInstance();
+
+  public static void main(String[] args) {
+    junit.textui.TestRunner.run(ScopedTraceSessionManagerTest.class);
+  }
+
+  /**
+   * OK: The session is only bound during the execution of the task. Nested
+   * scopes restore the outer binding.
+   */
+  public void testRunInSession() {
+    final ITraceSession outer = new DefaultTraceSession("outer",
+        new DefaultTraceStepFactory());
+    final ITraceSession inner = new DefaultTraceSession("inner",
+        new DefaultTraceStepFactory());
+    final ITraceSession[] seen = new ITraceSession[3];
+
+    tsm.runInSession(outer, new Runnable() {
+      public void run() {
+        seen[0] = tsm.getCurrentSession();
+
+        tsm.runInSession(inner, new Runnable() {
+          public void run() {
+            seen[1] = tsm.getCurrentSession();
+          }
+        });
+
+        seen[2] = tsm.getCurrentSession();
+      }
+    });
+
+    assertSame(outer, seen[0]);
+    assertSame(inner, seen[1]);
+    assertSame(outer, seen[2]);
+    assertTrue(tsm.getCurrentSession() instanceof NoopTraceSession);
+  }
+
+  /**
+   * OK: Wrapped tasks are executed in a child session of the session of the
+   * forking thread.
+   *
+   * @throws Exception Unexpected error
+   */
+  public void testWrap() throws Exception {
+    final ITraceSession session = new DefaultTraceSession("testWrap",
+        new DefaultTraceStepFactory());
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    Object result;
+
+    try {
+      result = tsm.callInSession(session, new Callable() {
+        public Object call() throws Exception {
+          Future child = executor.submit(tsm.wrap(new Callable() {
+            public Object call() {
+              return tsm.getCurrentSession();
+            }
+          }));
+
+          return child.get();
+        }
+      });
+
+      assertNotSame(session, result);
+      assertSame(((ITraceSession) result).getRootStep(), session.getRootStep()
+          .getChildren()[0]);
+
+      // The worker thread does not keep a reference to the session
+      result = executor.submit(new Callable() {
+        public Object call() {
+          return tsm.getCurrentSession();
+        }
+      }).get();
+
+      assertTrue(result instanceof NoopTraceSession);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * OK: The trace steps of a wrapped task are added below the trace step that
+   * has been current when the task was wrapped. The current step of the
+   * forking thread is not changed.
+   *
+   * @throws Exception Unexpected error
+   */
+  public void testWrapStepPlacement() throws Exception {
+    final DefaultTraceSession session = new DefaultTraceSession(
+        "testWrapStepPlacement", new DefaultTraceStepFactory());
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    final ITraceStep[] current = new ITraceStep[1];
+    ITraceStep parent;
+    ITraceStep childRoot;
+
+    try {
+      tsm.callInSession(session, new Callable() {
+        public Object call() throws Exception {
+          tsm.getCurrentSession().enterStep("parent");
+
+          Future child = executor.submit(tsm.wrap(new Runnable() {
+            public void run() {
+              tsm.getCurrentSession().enterStep("child");
+              tsm.getCurrentSession().leaveStep("child");
+            }
+          }));
+
+          child.get();
+          current[0] = tsm.getCurrentSession().getCurrentStep();
+          tsm.getCurrentSession().leaveStep("parent");
+
+          return null;
+        }
+      });
+    } finally {
+      executor.shutdown();
+    }
+
+    parent = session.getRootStep().getChildren()[0];
+    assertEquals("parent", parent.getId().asString());
+    assertSame(parent, current[0]);
+
+    // The task has been recorded in a child session below the parent step
+    assertEquals(1, parent.getChildren().length);
+    childRoot = parent.getChildren()[0];
+    assertTrue(childRoot instanceof TraceSessionRootStep);
+    assertEquals("child", childRoot.getChildren()[0].getId().asString());
+  }
+
+  /**
+   * OK: Wrapped tasks record their trace steps directly below the captured
+   * trace step of a shared ConcurrentTraceSession.
+   *
+   * @throws Exception Unexpected error
+   */
+  public void testWrapConcurrentSession() throws Exception {
+    final ConcurrentTraceSession session = new ConcurrentTraceSession(
+        "testWrapConcurrentSession", new DefaultTraceStepFactory());
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    ITraceStep parent;
+
+    try {
+      tsm.callInSession(session, new Callable() {
+        public Object call() throws Exception {
+          tsm.getCurrentSession().enterStep("parent");
+
+          Future child = executor.submit(tsm.wrap(new Runnable() {
+            public void run() {
+              tsm.getCurrentSession().enterStep("child");
+              tsm.getCurrentSession().leaveStep("child");
+            }
+          }));
+
+          child.get();
+          tsm.getCurrentSession().leaveStep("parent");
+
+          return null;
+        }
+      });
+
+      // The worker thread is no longer bound to the shared session
+      assertSame(session.getRootStep(), executor.submit(new Callable() {
+        public Object call() {
+          return session.getCurrentStep();
+        }
+      }).get());
+    } finally {
+      executor.shutdown();
+    }
+
+    parent = session.getRootStep().getChildren()[0];
+    assertEquals("parent", parent.getId().asString());
+    assertEquals(1, parent.getChildren().length);
+    assertEquals("child", parent.getChildren()[0].getId().asString());
+  }
+
+  /** {@inheritDoc} */
+  protected void tearDown() throws Exception {
+    super.tearDown();
+
+    // Clean up
+    tsm.setConfig(new DefaultTraceConfig());
+    tsm.releaseCurrentSession();
+
+  }
+
+}
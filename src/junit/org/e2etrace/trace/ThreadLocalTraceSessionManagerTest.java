@@ -0,0 +1,234 @@
+package org.e2etrace.trace;
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.e2etrace.config.DefaultTraceConfig;
+import org.e2etrace.config.ISamplingTraceConfig;
+import org.e2etrace.trace.DefaultTraceSession;
+import org.e2etrace.trace.DefaultTraceStepFactory;
+import org.e2etrace.trace.ITraceSession;
+import org.e2etrace.trace.SimpleTraceStepId;
+import org.e2etrace.trace.ThreadLocalTraceSessionManager;
+
+import junit.framework.TestCase;
+
+/**
+ * JUnit testcase for {@link org.e2etrace.trace.ThreadLocalTraceSessionManager}
+ *
+ * <em>Caution:</em> The test erases any trace sessions of the session
+ * manager!
+ */
+public class ThreadLocalTraceSessionManagerTest extends TestCase {
+
+  private static final ThreadLocalTraceSessionManager tsm = ThreadLocalTraceSessionManager
+      .getInstance();
+
+  public static void main(String[] args) {
+    junit.textui.TestRunner.run(ThreadLocalTraceSessionManagerTest.class);
+  }
+
+  /**
+   * Test getCurrentSession and releaseCurrentSession
+   */
+  public void testGetAndReleaseCurrentSession() {
+    ITraceSession ts = new DefaultTraceSession("testGetCurrentSession",
+        new DefaultTraceStepFactory());
+
+    tsm.setCurrentSession(ts);
+
+    // The following test intentionally compares the trace session references
+    assertTrue(tsm.getCurrentSession() == ts);
+
+    tsm.releaseCurrentSession();
+
+    assertTrue(tsm.getCurrentSession() instanceof NoopTraceSession);
+  }
+
+  /**
+   * Test that every thread uses its own trace session
+   *
+   * @throws InterruptedException Unexpected interruption of the test
+   */
+  public void testSessionPerThread() throws InterruptedException {
+    final ITraceSession[] sessionOfOtherThread = new ITraceSession[1];
+    ITraceSession ts = new DefaultTraceSession("testSessionPerThread",
+        new DefaultTraceStepFactory());
+    Thread other;
+
+    tsm.setCurrentSession(ts);
+
+    other = new Thread() {
+      public void run() {
+        sessionOfOtherThread[0] = tsm.getCurrentSession();
+      }
+    };
+    other.start();
+    other.join();
+
+    assertTrue(sessionOfOtherThread[0] instanceof NoopTraceSession);
+    assertTrue(tsm.getCurrentSession() == ts);
+  }
+
+  /**
+   * Test disabling of trace sessions
+   */
+  public void testDisableSession() {
+    MockTraceConfig tc;
+
+    tc = new MockTraceConfig();
+    tc.setTraceEnabledForId(new SimpleTraceStepId("$testDisableSession"), false);
+
+    tsm.setConfig(tc);
+    tsm.setCurrentSession(new DefaultTraceSession("testDisableSession",
+        new DefaultTraceStepFactory()));
+
+    assertTrue(tsm.getCurrentSession() instanceof NoopTraceSession);
+  }
+
+  /**
+   * Test that sessions that are not sampled are replaced by the noop session
+   * and that the sampling decision is made only once per session
+   */
+  public void testSampling() {
+    final int[] decisions = new int[1];
+    SamplingConfig config = new SamplingConfig(false, decisions);
+    ITraceSession ts = new DefaultTraceSession("testSampling",
+        new DefaultTraceStepFactory());
+
+    tsm.setConfig(config);
+    tsm.setCurrentSession(ts);
+
+    assertTrue(tsm.getCurrentSession() instanceof NoopTraceSession);
+
+    // The decision is not revised
+    config.sampled = true;
+    tsm.setCurrentSession(ts);
+
+    assertTrue(tsm.getCurrentSession() instanceof NoopTraceSession);
+    assertEquals(1, decisions[0]);
+
+    ts = new DefaultTraceSession("testSampling", new DefaultTraceStepFactory());
+    tsm.setCurrentSession(ts);
+
+    assertSame(ts, tsm.getCurrentSession());
+    assertEquals(2, decisions[0]);
+  }
+
+  /**
+   * Test that startSession makes the sampling decision before a session is
+   * created
+   */
+  public void testStartSession() {
+    final int[] decisions = new int[1];
+    ITraceSession ts;
+
+    tsm.setConfig(new SamplingConfig(false, decisions));
+    ts = tsm.startSession("testStartSession", new DefaultTraceStepFactory());
+
+    assertTrue(ts instanceof NoopTraceSession);
+    assertSame(ts, tsm.getCurrentSession());
+    assertEquals(1, decisions[0]);
+
+    tsm.setConfig(new SamplingConfig(true, decisions));
+    ts = tsm.startSession("testStartSession", new DefaultTraceStepFactory());
+
+    assertTrue(ts instanceof DefaultTraceSession);
+    assertSame(ts, tsm.getCurrentSession());
+    assertEquals("$testStartSession", ts.getRootStep().getId().asString());
+    assertEquals(2, decisions[0]);
+
+    // The decision is memorized in the session
+    tsm.setCurrentSession(ts);
+    assertSame(ts, tsm.getCurrentSession());
+    assertEquals(2, decisions[0]);
+  }
+
+  /**
+   * Test that a reset session is sampled again
+   */
+  public void testSamplingAfterReset() {
+    final int[] decisions = new int[1];
+    SamplingConfig config = new SamplingConfig(false, decisions);
+    DefaultTraceSession ts = new DefaultTraceSession("testSamplingAfterReset",
+        new DefaultTraceStepFactory());
+    ITraceStepId rootId = ts.getRootStep().getId();
+
+    tsm.setConfig(config);
+    tsm.setCurrentSession(ts);
+
+    assertTrue(tsm.getCurrentSession() instanceof NoopTraceSession);
+    assertTrue(config.memorized.containsKey(rootId));
+
+    ts.reset();
+    assertFalse(config.memorized.containsKey(rootId));
+
+    config.sampled = true;
+    tsm.setCurrentSession(ts);
+
+    assertSame(ts, tsm.getCurrentSession());
+    assertEquals(2, decisions[0]);
+  }
+
+  /** {@inheritDoc} */
+  protected void tearDown() throws Exception {
+    super.tearDown();
+
+    // Clean up
+    tsm.setConfig(new DefaultTraceConfig());
+    tsm.releaseCurrentSession();
+
+  }
+
+  /**
+   * Sampling configuration with a fixed decision for new sessions.
+   */
+  private static class SamplingConfig extends DefaultTraceConfig implements
+      ISamplingTraceConfig {
+    private boolean sampled;
+    private int[] decisions;
+    private Map memorized = new IdentityHashMap();
+
+    SamplingConfig(boolean sampled, int[] decisions) {
+      this.sampled = sampled;
+      this.decisions = decisions;
+    }
+
+    public boolean isSessionSampled(ITraceStepId rootId) {
+      Boolean decision = (Boolean) this.memorized.get(rootId);
+
+      if (decision == null) {
+        this.decisions[0]++;
+        decision = Boolean.valueOf(this.sampled);
+        this.memorized.put(rootId, decision);
+      }
+
+      return decision.booleanValue();
+    }
+
+    public void setSessionSampled(ITraceStepId rootId, boolean sampled) {
+      this.memorized.put(rootId, Boolean.valueOf(sampled));
+    }
+
+    public void resetSessionSampling(ITraceStepId rootId) {
+      this.memorized.remove(rootId);
+    }
+  }
+
+}
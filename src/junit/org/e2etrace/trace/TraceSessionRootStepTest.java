@@ -16,9 +16,11 @@ package org.e2etrace.trace;
  * limitations under the License.
  */
 
+import org.e2etrace.trace.DefaultTraceSession;
 import org.e2etrace.trace.DefaultTraceStepFactory;
 import org.e2etrace.trace.ITraceStep;
 import org.e2etrace.trace.ITraceStepFactory;
+import org.e2etrace.trace.RecordedTraceStep;
 import org.e2etrace.trace.SimpleTraceStepId;
 import org.e2etrace.trace.TraceSessionRootStep;
 import org.e2etrace.trace.TraceSessionRootStepId;
@@ -69,4 +71,50 @@ public class TraceSessionRootStepTest extends TestCase {
     assertEquals(0, root.getIsolatedDuration());
   }
 
+  /**
+   * Tests <code>getStartNanos</code> with negative and unknown start times.
+   *
+   */
+  public void testStartNanos() {
+    TraceSessionRootStep root;
+
+    root = new TraceSessionRootStep(new TraceSessionRootStepId("root"));
+    assertEquals(ITraceStep.UNKNOWN_START, root.getStartNanos());
+
+    root.addChild(new RecordedTraceStep(new SimpleTraceStepId("1"), -1000, 10));
+    root.addChild(new RecordedTraceStep(new SimpleTraceStepId("2"), 10));
+    root.addChild(new RecordedTraceStep(new SimpleTraceStepId("3"), -5000, 10));
+
+    // System.nanoTime() may return negative values
+    assertEquals(-5000, root.getStartNanos());
+  }
+
+  /**
+   * Tests an unmatched <code>leaveStep</code> in a session whose root has
+   * been attached to another session.
+   *
+   */
+  public void testLeaveAttachedSession() {
+    DefaultTraceSession parent;
+    DefaultTraceSession child;
+    ITraceStep step;
+
+    parent = new DefaultTraceSession("parent", new DefaultTraceStepFactory());
+    child = new DefaultTraceSession("child", new DefaultTraceStepFactory());
+
+    parent.enterStep("1");
+    parent.getCurrentStep().addChild(child.getRootStep());
+    child.enterStep("2");
+    step = child.getCurrentStep();
+
+    // Leaving the parent step does not touch the steps of the child session
+    parent.leaveStep("1");
+    assertTrue(step.isActive());
+
+    // The child session closes its own open steps, although its root has a
+    // parent
+    child.leaveStep("unknown");
+    assertFalse(step.isActive());
+  }
+
 }
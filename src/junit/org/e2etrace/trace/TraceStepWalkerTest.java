@@ -0,0 +1,188 @@
+package org.e2etrace.trace;
+
+
+/*
+ * Copyright 2026 the e2etrace contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+
+import org.e2etrace.formatter.AbstractTraceFormatter;
+import org.e2etrace.formatter.TraceFormatContext;
+
+import junit.framework.TestCase;
+
+/**
+ * JUnit testcase for {@link org.e2etrace.trace.TraceStepWalker}.
+ * <p>
+ */
+public class TraceStepWalkerTest extends TestCase {
+
+  public static void main(String[] args) {
+    junit.textui.TestRunner.run(TraceStepWalkerTest.class);
+  }
+
+  /**
+   * Test case for the cursor style traversal.
+   *
+   */
+  public void testNext() {
+    TraceStepWalker walker = new TraceStepWalker();
+    StringBuffer visited = new StringBuffer();
+
+    walker.reset(createSession().getRootStep());
+
+    while (walker.next()) {
+      visited.append(walker.getStep().getId().asString());
+      visited.append(walker.getLevel());
+      visited.append(' ');
+
+      if (walker.getStep().getId().asString().equals("B")) {
+        walker.skipChildren();
+      }
+    }
+
+    assertEquals("$Test0 A1 A12 A23 B1 C1 ", visited.toString());
+    assertNull(walker.getStep());
+    assertFalse(walker.next());
+  }
+
+  /**
+   * Test case for the traversal of a columnar session.
+   *
+   */
+  public void testNextColumnar() {
+    ColumnarTraceSession session = new ColumnarTraceSession("Test");
+    TraceStepWalker walker = new TraceStepWalker();
+    StringBuffer visited = new StringBuffer();
+
+    session.enterStep("A");
+    session.enterStep("A1");
+    session.leaveStep("A1");
+    session.leaveStep("A");
+    session.enterStep("B");
+    session.leaveStep("B");
+
+    walker.reset(session.getRootStep());
+    while (walker.next()) {
+      visited.append(walker.getStep().getId().asString());
+      visited.append(walker.getLevel());
+      visited.append(' ');
+    }
+
+    assertEquals("$Test0 A1 A12 B1 ", visited.toString());
+  }
+
+  /**
+   * Test case for <code>walk</code>.
+   *
+   */
+  public void testWalk() {
+    final StringBuffer visited = new StringBuffer();
+
+    new TraceStepWalker().walk(createSession().getRootStep(),
+        new ITraceStepVisitor() {
+          public boolean visitStep(ITraceStep step, int level) {
+            visited.append('+').append(step.getId().asString());
+            return !step.getId().asString().equals("A1");
+          }
+
+          public void leaveStep(ITraceStep step, int level) {
+            visited.append('-').append(step.getId().asString());
+          }
+        });
+
+    assertEquals("+$Test+A+A1-A1-A+B+B1-B1-B+C-C-$Test", visited.toString());
+  }
+
+  /**
+   * Test case: Formatting a very deep tree does not overflow the stack.
+   *
+   * @throws IOException Error while generating test output
+   */
+  public void testDeepTree() throws IOException {
+    ITraceStepFactory factory = new DefaultTraceStepFactory();
+    ITraceStepId id = new SimpleTraceStepId("s");
+    ITraceStep root = factory.newInstance(id);
+    ITraceStep step = root;
+    ITraceStep child;
+    StringWriter output = new StringWriter();
+    final int depth = 100000;
+
+    for (int i = 1; i < depth; i++) {
+      child = factory.newInstance(id);
+      step.addChild(child);
+      step = child;
+    }
+
+    new LevelFormatter().writeTree(root, output);
+
+    assertTrue(output.toString().endsWith(" " + (depth - 1)));
+  }
+
+  /**
+   * Helper method: Creates a trace session with a few steps.
+   *
+   * @return trace session
+   */
+  private ITraceSession createSession() {
+    DefaultTraceSession session = new DefaultTraceSession("Test",
+        new DefaultTraceStepFactory());
+
+    session.enterStep("A");
+    session.enterStep("A1");
+    session.enterStep("A2");
+    session.leaveStep("A2");
+    session.leaveStep("A1");
+    session.leaveStep("A");
+    session.enterStep("B");
+    session.enterStep("B1");
+    session.leaveStep("B1");
+    session.leaveStep("B");
+    session.enterStep("C");
+    session.leaveStep("C");
+
+    return session;
+  }
+
+  /**
+   * Formatter that only writes the call level of each step.
+   */
+  private static class LevelFormatter extends AbstractTraceFormatter {
+
+    void writeTree(ITraceStep root, Writer toWriter) throws IOException {
+      TraceFormatContext context = new TraceFormatContext(toWriter);
+
+      writeSteps(root, context, 0);
+      context.flushBuffer();
+    }
+
+    protected void writeSingleStep(ITraceStep step, int level,
+        TraceFormatContext context) {
+      context.write(' ');
+      context.writeLong(level);
+    }
+
+    protected void writeHeader(ITraceSession session, Writer toWriter) {
+      // not required
+    }
+
+    protected void writeFooter(ITraceSession session, Writer toWriter) {
+      // not required
+    }
+  }
+
+}